@@ -0,0 +1,168 @@
+package com.diaries.benchmarks;
+
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.DiaryEntryDtoSerializer;
+import com.diaries.entity.DiaryEntry;
+import com.diaries.entity.User;
+import com.diaries.repository.RevokedTokenRepository;
+import com.diaries.security.JwtTokenProvider;
+import com.diaries.security.TokenRevocationList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Shared test data and component setup for the benchmarks.
+ * Components are built the same way Spring builds them, without starting an application context.
+ */
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "benchmark-secret-key-for-jmh-runs-minimum-256-bits-required-for-hmac";
+    static final long JWT_EXPIRATION_MS = 900_000L;
+
+    private static final String CONTENT =
+            "Today I went for a long walk along the river and thought about the week ahead. "
+            + "The weather was mild, the light was soft and there were more people out than usual. ";
+
+    private static final String[] WORDS = (
+            "the a and i to of was it in my we that for on with at but so had then day today morning "
+            + "evening night walk river rain sun light work home friend friends coffee tea book read wrote "
+            + "thought felt tired happy quiet long short new old little more again still back out up down "
+            + "after before while when because just really very some time week weekend lunch dinner train "
+            + "office meeting call email garden kitchen window street park dog cat mother father sister "
+            + "brother talked laughed slept woke early late finally maybe tomorrow yesterday remember "
+            + "music film walked cooked cleaned finished started plan plans idea ideas cold warm wind")
+            .split(" ");
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Create a JwtTokenProvider with its {@code @Value} fields populated.
+     */
+    static JwtTokenProvider jwtTokenProvider() {
+        JwtTokenProvider provider = new JwtTokenProvider();
+        setField(provider, "jwtSecret", JWT_SECRET);
+        setField(provider, "jwtExpirationMs", JWT_EXPIRATION_MS);
+        return provider;
+    }
+
+    /**
+     * Create a loaded TokenRevocationList whose repository holds the given revoked token IDs.
+     * The repository answers the filter's loading query and no other, so a check that reaches
+     * the database fails the benchmark.
+     */
+    static TokenRevocationList tokenRevocationList(List<String> revokedTokenIds) {
+        RevokedTokenRepository repository = (RevokedTokenRepository) Proxy.newProxyInstance(
+                RevokedTokenRepository.class.getClassLoader(), new Class<?>[] {RevokedTokenRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findUnexpiredTokenIds")) {
+                        return revokedTokenIds;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        TokenRevocationList revocationList = new TokenRevocationList(repository, new SimpleMeterRegistry(),
+                JWT_EXPIRATION_MS, Math.max(100_000, revokedTokenIds.size()), 0.01);
+        revocationList.start();
+        return revocationList;
+    }
+
+    /**
+     * Create an ObjectMapper configured like the one used for API responses,
+     * including the hand-written {@link DiaryEntryDtoSerializer}.
+     */
+    static ObjectMapper objectMapper() {
+        return beanObjectMapper()
+                .registerModule(new SimpleModule().addSerializer(DiaryEntryDto.class, new DiaryEntryDtoSerializer()));
+    }
+
+    /**
+     * Create an ObjectMapper that serializes DTOs with Jackson's reflective bean serializer.
+     */
+    static ObjectMapper beanObjectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    /**
+     * Create a persisted-looking user.
+     */
+    static User user() {
+        User user = new User("bench@example.com", "$2a$12$abcdefghijklmnopqrstuu", "Bench User");
+        user.setId(42L);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0));
+        return user;
+    }
+
+    /**
+     * Create a persisted-looking diary entry with roughly {@code contentRepeats * 170} characters of content.
+     */
+    static DiaryEntry entry(long id, User user, int contentRepeats) {
+        DiaryEntry entry = new DiaryEntry("Entry " + id, CONTENT.repeat(contentRepeats),
+                LocalDate.of(2024, 1, 1).plusDays(id % 365), user);
+        entry.setId(id);
+        entry.setCreatedAt(LocalDateTime.of(2024, 1, 1, 9, 0).plusMinutes(id));
+        entry.setUpdatedAt(LocalDateTime.of(2024, 1, 2, 18, 30, 15).plusMinutes(id));
+        return entry;
+    }
+
+    /**
+     * Generate diary-like prose of the given length from a fixed vocabulary, so it compresses about
+     * as well as real entries rather than as well as repeated text.
+     */
+    static String prose(int length, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        StringBuilder text = new StringBuilder(length + 16);
+        int sentence = 0;
+        while (text.length() < length) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (sentence == 0) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            text.append(word);
+            if (++sentence > 6 + random.nextInt(12)) {
+                text.append(". ");
+                sentence = 0;
+            } else {
+                text.append(' ');
+            }
+        }
+        return text.substring(0, length);
+    }
+
+    /**
+     * Create a page worth of DTOs.
+     */
+    static List<DiaryEntryDto> dtos(int count, int contentRepeats) {
+        User user = user();
+        List<DiaryEntryDto> dtos = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DiaryEntry entry = entry(i + 1, user, contentRepeats);
+            dtos.add(new DiaryEntryDto(entry.getId(), entry.getTitle(), entry.getContent(), entry.getEntryDate(),
+                    user.getId(), entry.getCreatedAt(), entry.getUpdatedAt()));
+        }
+        return dtos;
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set field " + name, e);
+        }
+    }
+}
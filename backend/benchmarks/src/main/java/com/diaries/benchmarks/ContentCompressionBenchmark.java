@@ -0,0 +1,60 @@
+package com.diaries.benchmarks;
+
+import com.diaries.entity.CompressedTextConverter;
+import com.diaries.entity.ContentCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link CompressedTextConverter} against the UTF-8 encoding the driver does for a TEXT
+ * column: the CPU a write spends compressing content, and a read spends decompressing it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ContentCompressionBenchmark {
+
+    @Param({"1024", "8192", "65536"})
+    public int length;
+
+    @Param({"LZ4", "DEFLATE"})
+    public ContentCodec codec;
+
+    private String text;
+    private byte[] utf8;
+    private byte[] compressed;
+    private CompressedTextConverter converter;
+
+    @Setup
+    public void setUp() {
+        text = BenchmarkFixtures.prose(length, 7);
+        utf8 = text.getBytes(StandardCharsets.UTF_8);
+        converter = new CompressedTextConverter(codec);
+        compressed = converter.convertToDatabaseColumn(text);
+    }
+
+    @Benchmark
+    public byte[] encodeText() {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String decodeText() {
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] compress() {
+        return converter.convertToDatabaseColumn(text);
+    }
+
+    @Benchmark
+    public String decompress() {
+        return converter.convertToEntityAttribute(compressed);
+    }
+}
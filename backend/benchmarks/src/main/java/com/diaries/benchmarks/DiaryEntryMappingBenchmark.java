@@ -0,0 +1,53 @@
+package com.diaries.benchmarks;
+
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.entity.DiaryEntry;
+import com.diaries.entity.User;
+import com.diaries.service.DiaryEntryMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the entity to {@link DiaryEntryDto} mapping for single entries and full pages.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DiaryEntryMappingBenchmark {
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    private DiaryEntry entry;
+    private List<DiaryEntry> page;
+
+    @Setup
+    public void setUp() {
+        User user = BenchmarkFixtures.user();
+        entry = BenchmarkFixtures.entry(1, user, 5);
+        page = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            page.add(BenchmarkFixtures.entry(i + 1, user, 5));
+        }
+    }
+
+    @Benchmark
+    public DiaryEntryDto mapSingle() {
+        return DiaryEntryMapper.toDto(entry);
+    }
+
+    @Benchmark
+    public List<DiaryEntryDto> mapPage() {
+        List<DiaryEntryDto> dtos = new ArrayList<>(page.size());
+        for (DiaryEntry e : page) {
+            dtos.add(DiaryEntryMapper.toDto(e));
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,65 @@
+package com.diaries.benchmarks;
+
+import com.diaries.security.JwtAuthenticationFilter;
+import com.diaries.security.JwtTokenProvider;
+import com.diaries.security.UserDetailsServiceImpl;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link JwtAuthenticationFilter} end to end for an authenticated request.
+ * The user lookup is stubbed so the numbers isolate the filter's own CPU and allocation cost
+ * from database latency; the token is checked against an empty revocation filter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider jwtTokenProvider = BenchmarkFixtures.jwtTokenProvider();
+        UserDetails userDetails = User.withUsername("bench@example.com")
+                .password("$2a$12$abcdefghijklmnopqrstuu")
+                .authorities(Collections.emptyList())
+                .build();
+        UserDetailsServiceImpl userDetailsService = new UserDetailsServiceImpl(null) {
+            @Override
+            public UserDetails loadUserById(Long userId) {
+                return userDetails;
+            }
+        };
+
+        filter = new JwtAuthenticationFilter(jwtTokenProvider, userDetailsService,
+                BenchmarkFixtures.tokenRevocationList(List.of()));
+        request = new MockHttpServletRequest("GET", "/api/diary-entries");
+        request.addHeader("Authorization", "Bearer " + jwtTokenProvider.generateToken(42L));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public Object authenticatedRequest() throws Exception {
+        filter.doFilter(request, response, chain);
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,56 @@
+package com.diaries.benchmarks;
+
+import com.diaries.security.JwtTokenProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks token generation, validation and user ID extraction in {@link JwtTokenProvider}.
+ * Every authenticated request parses its token once, with {@link JwtTokenProvider#parseToken}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider jwtTokenProvider;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenProvider = BenchmarkFixtures.jwtTokenProvider();
+        token = jwtTokenProvider.generateToken(42L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(42L);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtTokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return jwtTokenProvider.getUserIdFromToken(token);
+    }
+
+    @Benchmark
+    public Object parseToken() {
+        return jwtTokenProvider.parseToken(token);
+    }
+
+    /**
+     * The combination JwtAuthenticationFilter performed for each request before it parsed once.
+     */
+    @Benchmark
+    public Long validateAndParse() {
+        return jwtTokenProvider.validateToken(token) ? jwtTokenProvider.getUserIdFromToken(token) : null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.diaries.benchmarks;
+
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.PagedResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks Jackson serialization of a page of entries as returned by the list and search endpoints.
+ * {@code serializePage} is the original path, a {@code PageImpl} through the reflective bean
+ * serializer; {@code serializePagedResponse} is the current {@code PagedResponse} with the
+ * hand-written {@code DiaryEntryDtoSerializer}. Run with {@code -prof gc} to compare bytes/op.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PageSerializationBenchmark {
+
+    @Param({"10", "50"})
+    public int pageSize;
+
+    @Param({"1", "20"})
+    public int contentRepeats;
+
+    private ObjectMapper beanObjectMapper;
+    private ObjectMapper objectMapper;
+    private Page<DiaryEntryDto> page;
+    private PagedResponse<DiaryEntryDto> pagedResponse;
+
+    @Setup
+    public void setUp() {
+        beanObjectMapper = BenchmarkFixtures.beanObjectMapper();
+        objectMapper = BenchmarkFixtures.objectMapper();
+        page = new PageImpl<>(BenchmarkFixtures.dtos(pageSize, contentRepeats),
+                PageRequest.of(0, pageSize), 1_000);
+        pagedResponse = PagedResponse.of(page);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return beanObjectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] serializePagedResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(pagedResponse);
+    }
+}
@@ -0,0 +1,59 @@
+package com.diaries.benchmarks;
+
+import com.diaries.security.TokenRevocationList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the revocation check made by {@link com.diaries.security.JwtAuthenticationFilter}
+ * for a token that was not revoked, with a given number of revoked tokens in the filter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRevocationListBenchmark {
+
+    @Param({"0", "100000"})
+    private int revokedTokens;
+
+    private TokenRevocationList revocationList;
+    private String tokenId;
+
+    @Setup
+    public void setUp() {
+        List<String> revoked = new ArrayList<>(revokedTokens);
+        for (int i = 0; i < revokedTokens; i++) {
+            revoked.add(UUID.randomUUID().toString());
+        }
+        revocationList = BenchmarkFixtures.tokenRevocationList(revoked);
+        tokenId = absentTokenId();
+    }
+
+    /**
+     * Pick a token ID the filter answers for itself, skipping the false positives that would be
+     * looked up in the database.
+     */
+    private String absentTokenId() {
+        while (true) {
+            String candidate = UUID.randomUUID().toString();
+            try {
+                revocationList.isRevoked(candidate);
+                return candidate;
+            } catch (UnsupportedOperationException e) {
+                // A false positive
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean isRevoked() {
+        return revocationList.isRevoked(tokenId);
+    }
+}
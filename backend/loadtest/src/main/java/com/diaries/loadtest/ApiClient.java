@@ -0,0 +1,124 @@
+package com.diaries.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+
+/**
+ * Thin HTTP client for the backend endpoints exercised by the load test.
+ */
+final class ApiClient {
+
+    /**
+     * Status code and parsed JSON body of a response.
+     */
+    record Response(int status, JsonNode body) {
+        boolean isSuccess() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+    }
+
+    Response register(String email, String password, String fullName) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("email", email)
+                .put("password", password)
+                .put("fullName", fullName);
+        return send(post("/api/auth/register", null, body));
+    }
+
+    Response login(String email, String password) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("email", email)
+                .put("password", password);
+        return send(post("/api/auth/login", null, body));
+    }
+
+    Response list(String token, int page, int size) {
+        return send(get("/api/diary-entries?page=" + page + "&size=" + size, token));
+    }
+
+    Response get(String token, long id) {
+        return send(get("/api/diary-entries/" + id, token));
+    }
+
+    Response search(String token, String keyword, int size) {
+        return send(get("/api/diary-entries/search?keyword="
+                + URLEncoder.encode(keyword, StandardCharsets.UTF_8) + "&size=" + size, token));
+    }
+
+    Response create(String token, String title, String content, LocalDate entryDate) {
+        ObjectNode body = objectMapper.createObjectNode()
+                .put("title", title)
+                .put("content", content)
+                .put("entryDate", entryDate.toString());
+        return send(post("/api/diary-entries", token, body));
+    }
+
+    Response update(String token, long id, String content) {
+        ObjectNode body = objectMapper.createObjectNode().put("content", content);
+        HttpRequest request = authorized(HttpRequest.newBuilder(uri("/api/diary-entries/" + id)), token)
+                .header("Content-Type", "application/json")
+                .PUT(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return send(request);
+    }
+
+    private HttpRequest get(String path, String token) {
+        return authorized(HttpRequest.newBuilder(uri(path)), token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, JsonNode body) {
+        return authorized(HttpRequest.newBuilder(uri(path)), token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder, String token) {
+        builder.timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private Response send(HttpRequest request) {
+        try {
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            byte[] bytes = response.body();
+            JsonNode body = bytes.length == 0 ? null : objectMapper.readTree(bytes);
+            return new Response(response.statusCode(), body);
+        } catch (IOException e) {
+            return new Response(-1, null);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Response(-1, null);
+        }
+    }
+}
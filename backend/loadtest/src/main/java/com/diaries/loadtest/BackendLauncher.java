@@ -0,0 +1,70 @@
+package com.diaries.loadtest;
+
+import com.diaries.SimpleDiariesApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Boots the real backend in-process on a random port, against PostgreSQL when a JDBC URL is
+ * configured and against an embedded H2 database in PostgreSQL mode otherwise. On H2 the features
+ * that need PostgreSQL are turned off, as in the backend's tests.
+ */
+final class BackendLauncher implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+    private final String baseUrl;
+
+    private BackendLauncher(ConfigurableApplicationContext context, String baseUrl) {
+        this.context = context;
+        this.baseUrl = baseUrl;
+    }
+
+    static BackendLauncher start(LoadTestConfig config) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("logging.level.com.diaries", "INFO");
+        properties.put("logging.level.org.springframework.security", "WARN");
+
+        if (config.jdbcUrl() != null) {
+            properties.put("spring.datasource.url", config.jdbcUrl());
+            properties.put("spring.datasource.username", config.dbUsername());
+            properties.put("spring.datasource.password", config.dbPassword());
+        } else {
+            properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+            properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+            properties.put("spring.flyway.enabled", false);
+            // PostgreSQL-only: the change bus listens with LISTEN/NOTIFY, the jobs run native SQL
+            properties.put("invalidation.enabled", false);
+            properties.put("partitioning.maintenance.enabled", false);
+            properties.put("archive.enabled", false);
+            properties.put("revisions.compaction.enabled", false);
+            properties.put("sync.compaction.enabled", false);
+        }
+
+        // Passed as command-line arguments so they take precedence over application.properties
+        String[] args = properties.entrySet().stream()
+                .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(SimpleDiariesApplication.class)
+                .run(args);
+        int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+        return new BackendLauncher(context, "http://localhost:" + port);
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
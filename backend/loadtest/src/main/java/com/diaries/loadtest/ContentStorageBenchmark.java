@@ -0,0 +1,222 @@
+package com.diaries.loadtest;
+
+import com.diaries.entity.CompressedTextConverter;
+import com.diaries.entity.ContentCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Compares storing entry content as a TEXT column, which PostgreSQL compresses with its own TOAST
+ * compression, with storing it compressed by {@link CompressedTextConverter} in a bytea column.
+ *
+ * <p>Each format is loaded into its own table of a scratch PostgreSQL database with the same
+ * generated prose, then measured for table size, the time to write the rows (with the client CPU
+ * spent compressing them) and the latency of reading single entries by ID.
+ */
+public final class ContentStorageBenchmark {
+
+    private static final String[] WORDS = (
+            "the a and i to of was it in my we that for on with at but so had then day today morning "
+            + "evening night walk river rain sun light work home friend friends coffee tea book read wrote "
+            + "thought felt tired happy quiet long short new old little more again still back out up down "
+            + "after before while when because just really very some time week weekend lunch dinner train "
+            + "office meeting call email garden kitchen window street park dog cat mother father sister "
+            + "brother talked laughed slept woke early late finally maybe tomorrow yesterday remember "
+            + "music film walked cooked cleaned finished started plan plans idea ideas cold warm wind")
+            .split(" ");
+
+    private static final int INSERT_BATCH = 500;
+
+    private final Settings settings;
+
+    /**
+     * Benchmark settings, read from {@code -Dcontentbench.*} system properties.
+     *
+     * @param jdbcUrl    scratch database; the benchmark creates the {@code bench_content} schema in it
+     * @param username   database username
+     * @param password   database password
+     * @param rows       entries loaded into each table
+     * @param minLength  shortest generated content, in characters
+     * @param maxLength  longest generated content, in characters
+     * @param iterations measured reads per format
+     * @param formats    formats to compare: {@code text} and codec names
+     * @param output     where to write the machine-readable result
+     */
+    record Settings(String jdbcUrl, String username, String password, int rows, int minLength, int maxLength,
+                    int iterations, List<String> formats, Path output) {
+
+        static Settings fromSystemProperties() {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            return new Settings(
+                    System.getProperty("contentbench.jdbc-url", "jdbc:postgresql://localhost:5432/diaries_bench"),
+                    System.getProperty("contentbench.db-username", "diaries_user"),
+                    System.getProperty("contentbench.db-password", "changeme"),
+                    Integer.getInteger("contentbench.rows", 50_000),
+                    Integer.getInteger("contentbench.min-length", 1024),
+                    Integer.getInteger("contentbench.max-length", 32_768),
+                    Integer.getInteger("contentbench.iterations", 5000),
+                    List.of(System.getProperty("contentbench.formats", "text,LZ4,DEFLATE").split(",")),
+                    Path.of(System.getProperty("contentbench.output",
+                            "target/loadtest-results/content-storage-" + timestamp + ".json")));
+        }
+    }
+
+    private ContentStorageBenchmark(Settings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new ContentStorageBenchmark(Settings.fromSystemProperties()).run();
+    }
+
+    private void run() throws Exception {
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (Connection connection = DriverManager.getConnection(
+                settings.jdbcUrl(), settings.username(), settings.password())) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create schema if not exists bench_content");
+            }
+            System.out.printf("%-8s %10s %12s %12s %10s %10s%n",
+                    "format", "size MB", "write s", "encode s", "p50 ms", "p99 ms");
+            for (String format : settings.formats()) {
+                results.put(format, measure(connection, format.trim()));
+            }
+        }
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("rows", settings.rows());
+        document.put("minLength", settings.minLength());
+        document.put("maxLength", settings.maxLength());
+        document.put("formats", results);
+        Files.createDirectories(settings.output().toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(settings.output().toFile(), document);
+        System.out.println("Result written to " + settings.output());
+    }
+
+    private Map<String, Object> measure(Connection connection, String format) throws SQLException {
+        CompressedTextConverter converter = format.equals("text")
+                ? null : new CompressedTextConverter(ContentCodec.valueOf(format));
+        String table = "bench_content.entries_" + format.toLowerCase();
+        String column = converter == null ? "content text" : "content_data bytea";
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + table);
+            statement.execute("create table " + table + " (id bigint primary key, " + column + " not null)");
+            if (converter != null) {
+                // As V9 sets it: the values are already compressed
+                statement.execute("alter table " + table + " alter column content_data set storage external");
+            }
+        }
+
+        // Every format gets the same content for the same ID
+        long encodeNanos = 0;
+        long start = System.nanoTime();
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into " + table + " values (?, ?)")) {
+            for (int id = 1; id <= settings.rows(); id++) {
+                String text = prose(id);
+                insert.setLong(1, id);
+                if (converter == null) {
+                    insert.setString(2, text);
+                } else {
+                    long encodeStart = System.nanoTime();
+                    insert.setBytes(2, converter.convertToDatabaseColumn(text));
+                    encodeNanos += System.nanoTime() - encodeStart;
+                }
+                insert.addBatch();
+                if (id % INSERT_BATCH == 0 || id == settings.rows()) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        double writeSeconds = (System.nanoTime() - start) / 1e9;
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("vacuum analyze " + table);
+        }
+        long bytes;
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select pg_total_relation_size('" + table + "')")) {
+            result.next();
+            bytes = result.getLong(1);
+        }
+
+        Histogram histogram = new Histogram(3);
+        SplittableRandom random = new SplittableRandom(11);
+        try (PreparedStatement select = connection.prepareStatement(
+                "select " + (converter == null ? "content" : "content_data") + " from " + table + " where id = ?")) {
+            int warmup = settings.iterations() / 10;
+            for (int i = -warmup; i < settings.iterations(); i++) {
+                select.setLong(1, 1 + random.nextInt(settings.rows()));
+                long readStart = System.nanoTime();
+                try (ResultSet result = select.executeQuery()) {
+                    result.next();
+                    String text = converter == null
+                            ? result.getString(1) : converter.convertToEntityAttribute(result.getBytes(1));
+                    if (text.isEmpty()) {
+                        throw new IllegalStateException("Empty content read from " + table);
+                    }
+                }
+                if (i >= 0) {
+                    histogram.recordValue((System.nanoTime() - readStart) / 1000);
+                }
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("totalBytes", bytes);
+        result.put("writeSeconds", writeSeconds);
+        result.put("encodeSeconds", encodeNanos / 1e9);
+        result.put("readP50Millis", histogram.getValueAtPercentile(50.0) / 1000.0);
+        result.put("readP99Millis", histogram.getValueAtPercentile(99.0) / 1000.0);
+        System.out.printf("%-8s %10.1f %12.1f %12.2f %10.3f %10.3f%n", format, bytes / 1048576.0, writeSeconds,
+                encodeNanos / 1e9, histogram.getValueAtPercentile(50.0) / 1000.0,
+                histogram.getValueAtPercentile(99.0) / 1000.0);
+        return result;
+    }
+
+    /**
+     * Generate diary-like prose from a fixed vocabulary, with lengths spread evenly on a log scale
+     * between the configured bounds.
+     */
+    private String prose(long id) {
+        SplittableRandom random = new SplittableRandom(id);
+        double logMin = Math.log(settings.minLength());
+        double logMax = Math.log(settings.maxLength());
+        int length = (int) Math.exp(logMin + random.nextDouble() * (logMax - logMin));
+        StringBuilder text = new StringBuilder(length + 16);
+        int sentence = 0;
+        while (text.length() < length) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            if (sentence == 0) {
+                word = Character.toUpperCase(word.charAt(0)) + word.substring(1);
+            }
+            text.append(word);
+            if (++sentence > 6 + random.nextInt(12)) {
+                text.append(". ");
+                sentence = 0;
+            } else {
+                text.append(' ');
+            }
+        }
+        return text.substring(0, length);
+    }
+}
@@ -0,0 +1,100 @@
+package com.diaries.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test settings, read from {@code -Dloadtest.*} system properties.
+ *
+ * @param baseUrl        URL of an already running backend, or null to boot one in-process
+ * @param jdbcUrl        database for the in-process backend, or null for an embedded H2 stand-in
+ * @param dbUsername     database username for {@code jdbcUrl}
+ * @param dbPassword     database password for {@code jdbcUrl}
+ * @param users          number of users to seed
+ * @param entriesPerUser number of entries to seed per user
+ * @param concurrency    number of concurrent virtual users
+ * @param warmup         warmup duration, excluded from the results
+ * @param duration       measured duration
+ * @param mix            relative weight of each operation
+ * @param label          free-form label stored in the result, e.g. a release version
+ * @param output         where to write the machine-readable result
+ */
+record LoadTestConfig(
+        String baseUrl,
+        String jdbcUrl,
+        String dbUsername,
+        String dbPassword,
+        int users,
+        int entriesPerUser,
+        int concurrency,
+        Duration warmup,
+        Duration duration,
+        Map<Operation, Integer> mix,
+        String label,
+        Path output) {
+
+    private static final String DEFAULT_MIX = "login=5,list=35,get=25,search=15,create=10,update=10";
+
+    /**
+     * Read the configuration from system properties, falling back to defaults.
+     */
+    static LoadTestConfig fromSystemProperties() {
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        return new LoadTestConfig(
+                System.getProperty("loadtest.base-url"),
+                System.getProperty("loadtest.jdbc-url"),
+                System.getProperty("loadtest.db-username", "diaries_user"),
+                System.getProperty("loadtest.db-password", "changeme"),
+                Integer.getInteger("loadtest.users", 20),
+                Integer.getInteger("loadtest.entries-per-user", 50),
+                Integer.getInteger("loadtest.concurrency", 16),
+                parseDuration(System.getProperty("loadtest.warmup", "10s")),
+                parseDuration(System.getProperty("loadtest.duration", "60s")),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                System.getProperty("loadtest.label", "unlabeled"),
+                Path.of(System.getProperty("loadtest.output", "target/loadtest-results/result-" + timestamp + ".json"))
+        );
+    }
+
+    /**
+     * Parse durations such as {@code 500ms}, {@code 30s} or {@code 5m}.
+     */
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    /**
+     * Parse an operation mix such as {@code list=50,get=50}.
+     */
+    static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + part);
+            }
+            int weight = Integer.parseInt(kv[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.valueOf(kv[0].trim().toUpperCase()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Operation mix must contain at least one positive weight");
+        }
+        return mix;
+    }
+}
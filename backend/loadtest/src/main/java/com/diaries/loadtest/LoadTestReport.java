@@ -0,0 +1,117 @@
+package com.diaries.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregated results of a load test run, printable as a table and writable as JSON.
+ */
+final class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50.0, 95.0, 99.0, 99.9};
+
+    private final LoadTestConfig config;
+    private final Instant startedAt;
+    private final Duration duration;
+    private final Map<Operation, Histogram> histograms;
+    private final Map<Operation, Long> errors;
+
+    LoadTestReport(LoadTestConfig config, Instant startedAt, Duration duration,
+                   Map<Operation, Histogram> histograms, Map<Operation, Long> errors) {
+        this.config = config;
+        this.startedAt = startedAt;
+        this.duration = duration;
+        this.histograms = histograms;
+        this.errors = errors;
+    }
+
+    void print(PrintStream out) {
+        double seconds = duration.toMillis() / 1000.0;
+        out.printf("%n%-32s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "p999 ms", "max ms");
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Operation operation : config.mix().keySet()) {
+            Histogram h = histograms.get(operation);
+            long count = h.getTotalCount();
+            long errorCount = errors.getOrDefault(operation, 0L);
+            totalRequests += count;
+            totalErrors += errorCount;
+            out.printf("%-32s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.endpoint(), count, errorCount, count / seconds,
+                    millis(h, 50.0), millis(h, 95.0), millis(h, 99.0), millis(h, 99.9), h.getMaxValue() / 1000.0);
+        }
+        out.printf("%-32s %9d %7d %9.1f%n", "total", totalRequests, totalErrors, totalRequests / seconds);
+    }
+
+    void write(Path path) throws IOException {
+        double seconds = duration.toMillis() / 1000.0;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("label", config.label());
+        result.put("startedAt", startedAt.toString());
+        result.put("durationSeconds", seconds);
+
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("target", config.baseUrl() != null ? config.baseUrl()
+                : config.jdbcUrl() != null ? "in-process/postgresql" : "in-process/h2");
+        settings.put("users", config.users());
+        settings.put("entriesPerUser", config.entriesPerUser());
+        settings.put("concurrency", config.concurrency());
+        settings.put("warmupSeconds", config.warmup().toSeconds());
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        config.mix().forEach((op, weight) -> mix.put(op.name().toLowerCase(), weight));
+        settings.put("mix", mix);
+        result.put("config", settings);
+
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long totalRequests = 0;
+        long totalErrors = 0;
+        for (Operation operation : config.mix().keySet()) {
+            Histogram h = histograms.get(operation);
+            long count = h.getTotalCount();
+            long errorCount = errors.getOrDefault(operation, 0L);
+            totalRequests += count;
+            totalErrors += errorCount;
+
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", h.getMean() / 1000.0);
+            for (double p : PERCENTILES) {
+                latency.put("p" + String.valueOf(p).replace(".0", "").replace(".", ""), millis(h, p));
+            }
+            latency.put("max", h.getMaxValue() / 1000.0);
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("endpoint", operation.endpoint());
+            stats.put("requests", count);
+            stats.put("errors", errorCount);
+            stats.put("throughputPerSecond", count / seconds);
+            stats.put("latencyMs", latency);
+            endpoints.put(operation.name().toLowerCase(), stats);
+        }
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("requests", totalRequests);
+        totals.put("errors", totalErrors);
+        totals.put("throughputPerSecond", totalRequests / seconds);
+        result.put("totals", totals);
+        result.put("endpoints", endpoints);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), result);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
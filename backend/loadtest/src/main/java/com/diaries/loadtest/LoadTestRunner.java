@@ -0,0 +1,227 @@
+package com.diaries.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.HdrHistogram.Histogram;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end load generator. Seeds users and entries through the public API, then drives a
+ * weighted mix of login, list, get, search, create and update requests from concurrent virtual
+ * users and reports throughput and latency percentiles per endpoint.
+ *
+ * <p>This is a closed-loop generator: each virtual user waits for a response before sending the
+ * next request, so latency under saturation shows up as lower throughput rather than queueing.
+ */
+public final class LoadTestRunner {
+
+    private static final String PASSWORD = "LoadTest123!";
+    private static final String[] WORDS = {
+            "morning", "coffee", "river", "meeting", "garden", "project", "family", "weekend",
+            "rain", "music", "travel", "dinner", "book", "running", "friends", "quiet"
+    };
+
+    private final LoadTestConfig config;
+    private final ApiClient client;
+    private final Operation[] weightedOperations;
+
+    private LoadTestRunner(LoadTestConfig config, ApiClient client) {
+        this.config = config;
+        this.client = client;
+        this.weightedOperations = expandMix(config.mix());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+
+        BackendLauncher launcher = config.baseUrl() == null ? BackendLauncher.start(config) : null;
+        try {
+            String baseUrl = launcher != null ? launcher.baseUrl() : config.baseUrl();
+            System.out.printf("Load testing %s with %d virtual users%n", baseUrl, config.concurrency());
+
+            LoadTestRunner runner = new LoadTestRunner(config, new ApiClient(baseUrl));
+            List<UserSession> sessions = runner.seed();
+            LoadTestReport report = runner.run(sessions);
+
+            report.print(System.out);
+            report.write(config.output());
+            System.out.println("Results written to " + config.output().toAbsolutePath());
+        } finally {
+            if (launcher != null) {
+                launcher.close();
+            }
+        }
+    }
+
+    /**
+     * Register users and create their initial entries. Not included in the measurements.
+     */
+    private List<UserSession> seed() throws Exception {
+        long runId = System.currentTimeMillis();
+        List<UserSession> sessions = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<UserSession>> futures = new ArrayList<>();
+            for (int i = 0; i < config.users(); i++) {
+                String email = "loadtest-" + runId + "-" + i + "@example.com";
+                futures.add(executor.submit(() -> seedUser(email)));
+            }
+            for (Future<UserSession> future : futures) {
+                sessions.add(future.get());
+            }
+        }
+        System.out.printf("Seeded %d users with %d entries each%n", config.users(), config.entriesPerUser());
+        return sessions;
+    }
+
+    private UserSession seedUser(String email) {
+        ApiClient.Response registered = client.register(email, PASSWORD, "Load Test User");
+        if (!registered.isSuccess()) {
+            throw new IllegalStateException("Seeding failed to register " + email + ": HTTP " + registered.status());
+        }
+        UserSession session = new UserSession(email, PASSWORD, registered.body().get("token").asText());
+        for (int i = 0; i < config.entriesPerUser(); i++) {
+            ApiClient.Response created = client.create(session.token(), randomTitle(), randomContent(),
+                    LocalDate.now().minusDays(i));
+            if (created.isSuccess()) {
+                session.addEntry(created.body().get("id").asLong());
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Run the warmup and measured phases and collect the results.
+     */
+    private LoadTestReport run(List<UserSession> sessions) throws Exception {
+        long warmupNanos = config.warmup().toNanos();
+        long start = System.nanoTime();
+        long measureStart = start + warmupNanos;
+        long end = measureStart + config.duration().toNanos();
+        Instant startedAt = Instant.now().plusNanos(warmupNanos);
+
+        List<Future<WorkerResult>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < config.concurrency(); i++) {
+                futures.add(executor.submit(() -> runWorker(sessions, measureStart, end)));
+            }
+        }
+
+        Map<Operation, Histogram> histograms = newHistograms();
+        Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        for (Future<WorkerResult> future : futures) {
+            WorkerResult result = future.get();
+            result.histograms().forEach((op, h) -> histograms.get(op).add(h));
+            result.errors().forEach((op, n) -> errors.merge(op, n, Long::sum));
+        }
+        return new LoadTestReport(config, startedAt, config.duration(), histograms, errors);
+    }
+
+    private record WorkerResult(Map<Operation, Histogram> histograms, Map<Operation, Long> errors) {
+    }
+
+    private WorkerResult runWorker(List<UserSession> sessions, long measureStart, long end) {
+        Map<Operation, Histogram> histograms = newHistograms();
+        Map<Operation, Long> errors = new EnumMap<>(Operation.class);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (true) {
+            long begin = System.nanoTime();
+            if (begin >= end) {
+                break;
+            }
+            Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+            UserSession session = sessions.get(random.nextInt(sessions.size()));
+
+            boolean ok = execute(operation, session);
+            long elapsedMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+
+            if (begin >= measureStart) {
+                histograms.get(operation).recordValue(Math.max(1, elapsedMicros));
+                if (!ok) {
+                    errors.merge(operation, 1L, Long::sum);
+                }
+            }
+        }
+        return new WorkerResult(histograms, errors);
+    }
+
+    private boolean execute(Operation operation, UserSession session) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ApiClient.Response response = switch (operation) {
+            case LOGIN -> {
+                ApiClient.Response r = client.login(session.email(), session.password());
+                if (r.isSuccess()) {
+                    session.setToken(r.body().get("token").asText());
+                }
+                yield r;
+            }
+            case LIST -> client.list(session.token(), random.nextInt(3), 10);
+            case GET -> client.get(session.token(), session.randomEntry());
+            case SEARCH -> client.search(session.token(), WORDS[random.nextInt(WORDS.length)], 10);
+            case CREATE -> {
+                ApiClient.Response r = client.create(session.token(), randomTitle(), randomContent(),
+                        LocalDate.now().minusDays(random.nextInt(365)));
+                JsonNode id = r.isSuccess() ? r.body().get("id") : null;
+                if (id != null) {
+                    session.addEntry(id.asLong());
+                }
+                yield r;
+            }
+            case UPDATE -> client.update(session.token(), session.randomEntry(), randomContent());
+        };
+        if (response.status() == 401) {
+            // Access token expired during a long run; log in again and count the request as failed
+            ApiClient.Response r = client.login(session.email(), session.password());
+            if (r.isSuccess()) {
+                session.setToken(r.body().get("token").asText());
+            }
+        }
+        return response.isSuccess();
+    }
+
+    private static Map<Operation, Histogram> newHistograms() {
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new Histogram(3));
+        }
+        return histograms;
+    }
+
+    private static Operation[] expandMix(Map<Operation, Integer> mix) {
+        List<Operation> expanded = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                expanded.add(operation);
+            }
+        });
+        return expanded.toArray(new Operation[0]);
+    }
+
+    private static String randomTitle() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return "A day of " + WORDS[random.nextInt(WORDS.length)] + " and " + WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String randomContent() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int words = 80 + random.nextInt(400);
+        StringBuilder content = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                content.append(i % 12 == 0 ? ". " : " ");
+            }
+            content.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return content.append('.').toString();
+    }
+}
@@ -0,0 +1,23 @@
+package com.diaries.loadtest;
+
+/**
+ * Operations in the traffic mix, each mapped to one backend endpoint.
+ */
+enum Operation {
+    LOGIN("POST /api/auth/login"),
+    LIST("GET /api/diary-entries"),
+    GET("GET /api/diary-entries/{id}"),
+    SEARCH("GET /api/diary-entries/search"),
+    CREATE("POST /api/diary-entries"),
+    UPDATE("PUT /api/diary-entries/{id}");
+
+    private final String endpoint;
+
+    Operation(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+}
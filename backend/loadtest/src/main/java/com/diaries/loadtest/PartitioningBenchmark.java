@@ -0,0 +1,307 @@
+package com.diaries.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the unpartitioned {@code diary_entries} table with the range and hash layouts built by
+ * {@code V6__partition_diary_entries}, at a realistic table size.
+ *
+ * <p>Each layout is loaded into its own schema of a scratch PostgreSQL database with the same
+ * generated rows, then measured with the query shapes {@code DiaryEntryRepository} and Hibernate
+ * issue, and with the vacuum work left by a burst of updates to recent entries.
+ * Loading is skipped for a schema that already holds the requested number of rows, so a run can
+ * be repeated without reloading.
+ */
+public final class PartitioningBenchmark {
+
+    private static final LocalDate FIRST_DATE = LocalDate.of(2016, 1, 1);
+    private static final int YEARS = 10;
+    private static final int LOAD_CHUNK = 1_000_000;
+    private static final double[] PERCENTILES = {50.0, 99.0};
+
+    private final Settings settings;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    /**
+     * Benchmark settings, read from {@code -Dpartbench.*} system properties.
+     *
+     * @param jdbcUrl        scratch database; the benchmark creates one schema per layout in it
+     * @param username       database username
+     * @param password       database password
+     * @param rows           rows loaded into each layout
+     * @param entriesPerUser average entries per user, which sets the number of users
+     * @param hashPartitions partitions of the hash layout
+     * @param iterations     measured executions of each query
+     * @param layouts        layouts to compare
+     * @param output         where to write the machine-readable result
+     */
+    record Settings(String jdbcUrl, String username, String password, long rows, int entriesPerUser,
+                    int hashPartitions, int iterations, List<String> layouts, Path output) {
+
+        static Settings fromSystemProperties() {
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            return new Settings(
+                    System.getProperty("partbench.jdbc-url", "jdbc:postgresql://localhost:5432/diaries_bench"),
+                    System.getProperty("partbench.db-username", "diaries_user"),
+                    System.getProperty("partbench.db-password", "changeme"),
+                    Long.getLong("partbench.rows", 50_000_000L),
+                    Integer.getInteger("partbench.entries-per-user", 1000),
+                    Integer.getInteger("partbench.hash-partitions", 16),
+                    Integer.getInteger("partbench.iterations", 2000),
+                    List.of(System.getProperty("partbench.layouts", "plain,range,hash").split(",")),
+                    Path.of(System.getProperty("partbench.output",
+                            "target/loadtest-results/partitioning-" + timestamp + ".json")));
+        }
+
+        long users() {
+            return Math.max(1, rows / entriesPerUser);
+        }
+    }
+
+    private PartitioningBenchmark(Settings settings) {
+        this.settings = settings;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromSystemProperties();
+        new PartitioningBenchmark(settings).run();
+    }
+
+    private void run() throws Exception {
+        Map<String, Object> results = new LinkedHashMap<>();
+        try (Connection connection = DriverManager.getConnection(
+                settings.jdbcUrl(), settings.username(), settings.password())) {
+            for (String layout : settings.layouts()) {
+                String schema = "bench_" + layout.trim().toLowerCase(Locale.ROOT);
+                load(connection, schema, layout.trim());
+                results.put(layout, measure(connection, schema));
+            }
+        }
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("rows", settings.rows());
+        document.put("users", settings.users());
+        document.put("iterations", settings.iterations());
+        document.put("layouts", results);
+        Files.createDirectories(settings.output().toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(settings.output().toFile(), document);
+        System.out.println("Result written to " + settings.output());
+    }
+
+    private void load(Connection connection, String schema, String layout) throws SQLException {
+        if (rowCount(connection, schema) == settings.rows()) {
+            System.out.printf("%s: reusing %,d rows%n", schema, settings.rows());
+            try (Statement statement = connection.createStatement()) {
+                // Clear the dead rows left by the previous run's updates
+                statement.execute("vacuum " + schema + ".diary_entries");
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop schema if exists " + schema + " cascade");
+            statement.execute("create schema " + schema);
+            String table = schema + ".diary_entries";
+            String columns = "entry_date date not null, created_at timestamp(6) not null, id bigint not null,"
+                    + " updated_at timestamp(6) not null, user_id bigint not null,"
+                    + " title varchar(500) not null, content text not null";
+            switch (layout) {
+                case "plain" -> statement.execute("create table " + table + " (" + columns + ")");
+                case "range" -> {
+                    statement.execute("create table " + table + " (" + columns + ") partition by range (entry_date)");
+                    for (int year = FIRST_DATE.getYear(); year <= FIRST_DATE.getYear() + YEARS; year++) {
+                        statement.execute(String.format("create table %s_y%d partition of %s"
+                                + " for values from ('%d-01-01') to ('%d-01-01')", table, year, table, year, year + 1));
+                    }
+                    statement.execute("create table " + table + "_default partition of " + table + " default");
+                }
+                case "hash" -> {
+                    statement.execute("create table " + table + " (" + columns + ") partition by hash (user_id)");
+                    for (int remainder = 0; remainder < settings.hashPartitions(); remainder++) {
+                        statement.execute(String.format("create table %s_p%02d partition of %s"
+                                + " for values with (modulus %d, remainder %d)",
+                                table, remainder, table, settings.hashPartitions(), remainder));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown layout: " + layout);
+            }
+
+            // Entries spread evenly over the years; content is about 130 bytes
+            for (long from = 1; from <= settings.rows(); from += LOAD_CHUNK) {
+                long to = Math.min(settings.rows(), from + LOAD_CHUNK - 1);
+                statement.execute("insert into " + table
+                        + " (entry_date, created_at, id, updated_at, user_id, title, content)"
+                        + " select date '" + FIRST_DATE + "' + (hashint4(g::int) & 2147483647) % " + (YEARS * 365)
+                        + ", now(), g, now(), 1 + g % " + settings.users()
+                        + ", 'Entry ' || g, repeat(md5(g::text), 4)"
+                        + " from generate_series(" + from + ", " + to + ") g");
+                System.out.printf("%s: loaded %,d rows%n", schema, to);
+            }
+
+            String key = switch (layout) {
+                case "range" -> "id, entry_date";
+                case "hash" -> "id, user_id";
+                default -> "id";
+            };
+            statement.execute("alter table " + table + " add primary key (" + key + ")");
+            statement.execute("create index on " + table + " (user_id, entry_date)");
+            statement.execute("create index on " + table + " (entry_date)");
+            statement.execute("vacuum analyze " + table);
+        }
+        System.out.printf("%s: loaded in %d s%n", schema, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private Map<String, Object> measure(Connection connection, String schema) throws SQLException {
+        String table = schema + ".diary_entries";
+        Map<String, Object> result = new LinkedHashMap<>();
+
+        // Pairs of (id, user_id, entry_date) to look up and update, sampled from the loaded rows
+        List<long[]> rows = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet sample = statement.executeQuery("select id, user_id, entry_date from " + table
+                     + " tablesample system (0.1) limit " + settings.iterations())) {
+            while (sample.next()) {
+                rows.add(new long[] {sample.getLong(1), sample.getLong(2), sample.getDate(3).toLocalDate().toEpochDay()});
+            }
+        }
+
+        System.out.printf("%n%s%n%-16s %12s %12s%n", schema, "query", "p50 ms", "p99 ms");
+        result.put("list", time(connection, "list", "select * from " + table
+                + " where user_id = ? order by entry_date desc limit 10", (ps, i) -> ps.setLong(1, randomUser())));
+        result.put("count", time(connection, "count", "select count(*) from " + table
+                + " where user_id = ?", (ps, i) -> ps.setLong(1, randomUser())));
+        result.put("dateRange", time(connection, "dateRange", "select * from " + table
+                + " where user_id = ? and entry_date between ? and ? order by entry_date desc limit 10", (ps, i) -> {
+                    LocalDate start = FIRST_DATE.plusDays(random.nextInt(YEARS * 365 - 90));
+                    ps.setLong(1, randomUser());
+                    ps.setDate(2, Date.valueOf(start));
+                    ps.setDate(3, Date.valueOf(start.plusDays(90)));
+                }));
+        result.put("get", time(connection, "get", "select * from " + table
+                + " where id = ? and user_id = ?", (ps, i) -> {
+                    long[] row = rows.get(i % rows.size());
+                    ps.setLong(1, row[0]);
+                    ps.setLong(2, row[1]);
+                }));
+        // Before the timed updates, whose dead rows are spread over every partition
+        result.put("vacuum", vacuum(connection, schema, table));
+        result.put("update", time(connection, "update", "update " + table
+                + " set updated_at = now() where id = ? and entry_date = ? and user_id = ?", (ps, i) -> {
+                    long[] row = rows.get(i % rows.size());
+                    ps.setLong(1, row[0]);
+                    ps.setDate(2, Date.valueOf(LocalDate.ofEpochDay(row[2])));
+                    ps.setLong(3, row[1]);
+                }));
+        result.put("totalBytes", longValue(connection, "select sum(pg_total_relation_size(c.oid))"
+                + " from pg_class c join pg_namespace n on n.oid = c.relnamespace"
+                + " where n.nspname = '" + schema + "' and c.relkind = 'r'"));
+        return result;
+    }
+
+    /**
+     * Update 1% of the last 90 days of entries, as editing recent entries does, then vacuum every
+     * table autovacuum would pick up because it holds dead rows.
+     */
+    private Map<String, Object> vacuum(Connection connection, String schema, String table) throws SQLException {
+        LocalDate recent = FIRST_DATE.plusDays(YEARS * 365 - 90);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("update " + table + " set updated_at = now()"
+                    + " where entry_date >= date '" + recent + "' and id % 100 = 0");
+            statement.execute("select pg_stat_force_next_flush()");
+        }
+        List<String> tables = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet dirty = statement.executeQuery("select relname from pg_stat_user_tables"
+                     + " where schemaname = '" + schema + "' and n_dead_tup > 0")) {
+            while (dirty.next()) {
+                tables.add(dirty.getString(1));
+            }
+        }
+        long start = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            for (String dirtyTable : tables) {
+                statement.execute("vacuum " + schema + "." + dirtyTable);
+            }
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0;
+        System.out.printf("%-16s %12.1f ms over %d table(s)%n", "vacuum", millis, tables.size());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("millis", millis);
+        result.put("tables", tables.size());
+        return result;
+    }
+
+    private interface Binder {
+        void bind(PreparedStatement statement, int iteration) throws SQLException;
+    }
+
+    private Map<String, Object> time(Connection connection, String name, String sql, Binder binder)
+            throws SQLException {
+        Histogram histogram = new Histogram(3);
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            int warmup = Math.max(10, settings.iterations() / 10);
+            for (int i = -warmup; i < settings.iterations(); i++) {
+                binder.bind(statement, Math.max(i, 0));
+                long start = System.nanoTime();
+                if (statement.execute()) {
+                    try (ResultSet result = statement.getResultSet()) {
+                        while (result.next()) {
+                            // Drain the rows so their transfer is measured
+                        }
+                    }
+                }
+                if (i >= 0) {
+                    histogram.recordValue((System.nanoTime() - start) / 1000);
+                }
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            result.put("p" + (int) percentile + "Millis", histogram.getValueAtPercentile(percentile) / 1000.0);
+        }
+        System.out.printf("%-16s %12.3f %12.3f%n", name,
+                histogram.getValueAtPercentile(50.0) / 1000.0, histogram.getValueAtPercentile(99.0) / 1000.0);
+        return result;
+    }
+
+    private long randomUser() {
+        return 1 + random.nextLong(settings.users());
+    }
+
+    private static long rowCount(Connection connection, String schema) throws SQLException {
+        if (longValue(connection, "select count(*) from pg_namespace where nspname = '" + schema + "'") == 0) {
+            return -1;
+        }
+        return longValue(connection, "select count(*) from " + schema + ".diary_entries");
+    }
+
+    private static long longValue(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(sql)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+}
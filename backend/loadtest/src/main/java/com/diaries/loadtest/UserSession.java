@@ -0,0 +1,53 @@
+package com.diaries.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Credentials, current access token and known entry IDs of one seeded user.
+ * Several workers may drive the same user concurrently.
+ */
+final class UserSession {
+
+    private final String email;
+    private final String password;
+    private final List<Long> entryIds = new ArrayList<>();
+    private volatile String token;
+
+    UserSession(String email, String password, String token) {
+        this.email = email;
+        this.password = password;
+        this.token = token;
+    }
+
+    String email() {
+        return email;
+    }
+
+    String password() {
+        return password;
+    }
+
+    String token() {
+        return token;
+    }
+
+    void setToken(String token) {
+        this.token = token;
+    }
+
+    synchronized void addEntry(long id) {
+        entryIds.add(id);
+    }
+
+    /**
+     * Pick a random known entry ID, or -1 if the user has none yet.
+     */
+    synchronized long randomEntry() {
+        if (entryIds.isEmpty()) {
+            return -1;
+        }
+        return entryIds.get(ThreadLocalRandom.current().nextInt(entryIds.size()));
+    }
+}
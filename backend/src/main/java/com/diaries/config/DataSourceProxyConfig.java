@@ -0,0 +1,47 @@
+package com.diaries.config;
+
+import com.diaries.jdbc.QueryCancellationListener;
+import com.diaries.timing.ServerTimingQueryListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the JDBC listeners on the datasource.
+ * Statements are always tracked so that a {@link com.diaries.jdbc.QueryCancellation} can cancel
+ * them; JDBC time and statement count are recorded only when {@code server-timing.enabled} is true.
+ */
+@Configuration
+public class DataSourceProxyConfig {
+
+    /**
+     * Wrap the datasource in a proxy that calls the JDBC listeners around each statement.
+     *
+     * @param environment the environment, to tell whether server timing is enabled
+     * @return the datasource post-processor
+     */
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(Environment environment) {
+        boolean serverTiming = environment.getProperty("server-timing.enabled", Boolean.class, false);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryCancellationListener());
+                    if (serverTiming) {
+                        builder.listener(new ServerTimingQueryListener());
+                    }
+                    return builder.build();
+                }
+                return bean;
+            }
+        };
+    }
+}
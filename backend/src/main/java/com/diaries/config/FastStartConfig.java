@@ -0,0 +1,49 @@
+package com.diaries.config;
+
+import com.diaries.service.ContentCompressionService;
+import com.diaries.service.EntryArchiveService;
+import com.diaries.service.EntryChangeCompactionService;
+import com.diaries.service.EntryRevisionCompactionService;
+import com.diaries.service.PartitionMaintenanceService;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.web.SecurityFilterChain;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration for the {@code fast-start} profile.
+ * The profile initializes beans lazily; this keeps the beans every request depends on eager,
+ * so the work moves out of startup only for beans a request may never need, rather than
+ * onto the first request.
+ */
+@Configuration
+@Profile("fast-start")
+public class FastStartConfig {
+
+    /**
+     * Exclude the persistence and security infrastructure from lazy initialization.
+     *
+     * @return the exclude filter
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                DataSource.class, EntityManagerFactory.class, SecurityFilterChain.class);
+    }
+
+    /**
+     * Exclude scheduled maintenance that no request triggers; a lazy bean is never scheduled.
+     *
+     * @return the exclude filter
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter maintenanceLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(
+                PartitionMaintenanceService.class, EntryArchiveService.class, ContentCompressionService.class,
+                EntryRevisionCompactionService.class, EntryChangeCompactionService.class);
+    }
+}
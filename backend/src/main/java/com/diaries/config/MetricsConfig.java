@@ -0,0 +1,27 @@
+package com.diaries.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics configuration for the application.
+ * HTTP endpoints, repository query methods and the connection pool are instrumented by
+ * Spring Boot; this enables {@code @Timed} on services and security components.
+ * Histogram and SLO settings live in application.properties under {@code management.metrics}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Record timers for beans and methods annotated with {@code @Timed}.
+     *
+     * @param meterRegistry the meter registry
+     * @return the timed aspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,61 @@
+package com.diaries.config;
+
+import com.diaries.timing.AsyncTimingInterceptor;
+import com.diaries.timing.ServerTimingFilter;
+import com.diaries.timing.TimedJacksonHttpMessageConverter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration for {@code Server-Timing} response headers.
+ * Only active when {@code server-timing.enabled} is true; otherwise requests carry no timing
+ * overhead. JDBC time is recorded by the listener {@link DataSourceProxyConfig} adds.
+ */
+@Configuration
+@ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true")
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    /**
+     * Register the timing filter ahead of the security filter chain so authentication is included.
+     *
+     * @param sampleRate the fraction of requests to time, between 0 and 1
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+            @Value("${server-timing.sample-rate:0.01}") double sampleRate) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(sampleRate));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * Replace the default Jackson converter with one that records serialization time.
+     *
+     * @param objectMapper the application's object mapper
+     * @return the timed converter
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJacksonHttpMessageConverter(objectMapper);
+    }
+
+    /**
+     * Time the statements of asynchronous handlers, which run off the request thread.
+     *
+     * @param configurer the async support configurer
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new AsyncTimingInterceptor());
+    }
+}
@@ -2,9 +2,12 @@ package com.diaries.controller;
 
 import com.diaries.dto.AuthResponse;
 import com.diaries.dto.LoginRequest;
+import com.diaries.dto.RefreshTokenRequest;
 import com.diaries.dto.RegisterRequest;
+import com.diaries.security.JwtAuthenticationFilter;
 import com.diaries.service.AuthService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -57,6 +60,33 @@ public class AuthController {
         }
     }
 
+    /**
+     * Exchange a refresh token for new access and refresh tokens.
+     *
+     * @param request the refresh request
+     * @return authentication response with the rotated tokens
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request));
+    }
+
+    /**
+     * Revoke a refresh token and every token rotated from it, and the access token sent in the
+     * Authorization header, if any.
+     *
+     * @param request       the logout request
+     * @param authorization the Authorization header, if sent
+     * @return no content on success
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request,
+                                       @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false)
+                                       String authorization) {
+        authService.logout(request, JwtAuthenticationFilter.getBearerToken(authorization));
+        return ResponseEntity.noContent().build();
+    }
+
     /**
      * Simple error response DTO.
      */
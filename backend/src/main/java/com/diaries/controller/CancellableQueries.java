@@ -0,0 +1,170 @@
+package com.diaries.controller;
+
+import com.diaries.exception.QueryCancelledException;
+import com.diaries.jdbc.QueryCancellation;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import org.apache.catalina.connector.RequestFacade;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
+
+/**
+ * Runs the queries of a request off the request thread, and cancels the statement they are
+ * executing when the client disconnects, so abandoned queries do not keep running on the database.
+ *
+ * <p>Tomcat does not watch the connection of an asynchronous request, so while the queries run it
+ * is checked every {@code queries.disconnect-check-ms}: once the request has been read, the client
+ * sends nothing more until it has the response, so anything to read means it has closed the
+ * connection. Checking needs a read listener, with which Tomcat tries a non-blocking read.
+ * Requests that Tomcat does not serve are not checked. The checks run on their own
+ * {@code queries.disconnect-check-threads} threads, so scheduled jobs do not delay them.
+ */
+@Component
+public class CancellableQueries implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(CancellableQueries.class);
+
+    /** Listener that leaves the request body unread; the request is only checked for data. */
+    private static final ReadListener IGNORED_READS = new ReadListener() {
+        @Override
+        public void onDataAvailable() {
+        }
+
+        @Override
+        public void onAllDataRead() {
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+    };
+
+    private final TaskScheduler taskScheduler;
+    private final Duration checkInterval;
+
+    @Autowired
+    public CancellableQueries(
+            @Value("${queries.disconnect-check-ms:1000}") long checkIntervalMillis,
+            @Value("${queries.disconnect-check-threads:1}") int checkThreads) {
+        this(checkScheduler(checkThreads), checkIntervalMillis);
+    }
+
+    CancellableQueries(TaskScheduler taskScheduler, long checkIntervalMillis) {
+        this.taskScheduler = taskScheduler;
+        this.checkInterval = Duration.ofMillis(checkIntervalMillis);
+    }
+
+    private static ThreadPoolTaskScheduler checkScheduler(int threads) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(threads);
+        scheduler.setThreadNamePrefix("disconnect-check-");
+        scheduler.setDaemon(true);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    @Override
+    public void destroy() {
+        if (taskScheduler instanceof ThreadPoolTaskScheduler scheduler) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Run work asynchronously, cancelling its statements if the client disconnects first.
+     *
+     * @param description what the work is, for the cancellation message
+     * @param request     the request the work is for
+     * @param work        the work
+     * @return the task to return from the handler method
+     */
+    public <T> WebAsyncTask<T> run(String description, HttpServletRequest request, Supplier<T> work) {
+        QueryCancellation cancellation = new QueryCancellation();
+        ConnectionCheck check = new ConnectionCheck(request, cancellation);
+        ScheduledFuture<?> checking = WebUtils.getNativeRequest(request, RequestFacade.class) != null
+                ? taskScheduler.scheduleAtFixedRate(check::run, Instant.now().plus(checkInterval), checkInterval)
+                : null;
+
+        WebAsyncTask<T> task = new WebAsyncTask<>(() -> {
+            try {
+                return cancellation.run(work);
+            } finally {
+                // The result is written once the task returns, so checks must be done by then
+                check.stop();
+            }
+        });
+        task.onError(() -> {
+            check.stop();
+            cancellation.cancel();
+            throw new QueryCancelledException(description + " cancelled as the client disconnected");
+        });
+        task.onTimeout(() -> {
+            check.stop();
+            cancellation.cancel();
+            throw new QueryTimeoutException(description + " did not finish before the request timed out");
+        });
+        task.onCompletion(() -> {
+            check.stop();
+            if (checking != null) {
+                checking.cancel(false);
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Check of the client connection, stopped before anything else writes the response.
+     */
+    private static class ConnectionCheck {
+
+        private final HttpServletRequest request;
+        private final QueryCancellation cancellation;
+        private boolean listening;
+        private boolean stopped;
+
+        ConnectionCheck(HttpServletRequest request, QueryCancellation cancellation) {
+            this.request = request;
+            this.cancellation = cancellation;
+        }
+
+        synchronized void run() {
+            if (stopped) {
+                return;
+            }
+            try {
+                ServletInputStream input = request.getInputStream();
+                if (!listening) {
+                    input.setReadListener(IGNORED_READS);
+                    listening = true;
+                }
+                if (input.available() > 0) {
+                    stopped = true;
+                    cancellation.cancel();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Not readable yet, or no longer; the request ends without another check
+                logger.debug("Could not check client connection: {}", e.getMessage());
+            }
+        }
+
+        synchronized void stop() {
+            stopped = true;
+        }
+    }
+}
@@ -1,17 +1,33 @@
 package com.diaries.controller;
 
+import com.diaries.dto.CalendarDto;
 import com.diaries.dto.CreateDiaryEntryRequest;
 import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.EntryChangesDto;
+import com.diaries.dto.EntryRevisionDto;
+import com.diaries.dto.EntryRevisionSummaryDto;
+import com.diaries.dto.PagedResponse;
 import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.service.CalendarService;
 import com.diaries.service.DiaryEntryService;
+import com.diaries.service.DraftService;
+import com.diaries.service.EntryChangeService;
+import com.diaries.service.EntryChangeStreamService;
+import com.diaries.service.EntryRevisionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
 
 /**
  * REST controller for diary entry operations.
@@ -23,10 +39,26 @@ public class DiaryEntryController {
 
     private final DiaryEntryService diaryEntryService;
     private final com.diaries.service.SearchService searchService;
+    private final CalendarService calendarService;
+    private final EntryRevisionService entryRevisionService;
+    private final DraftService draftService;
+    private final EntryChangeService entryChangeService;
+    private final EntryChangeStreamService entryChangeStreamService;
+    private final CancellableQueries cancellableQueries;
 
-    public DiaryEntryController(DiaryEntryService diaryEntryService, com.diaries.service.SearchService searchService) {
+    public DiaryEntryController(DiaryEntryService diaryEntryService, com.diaries.service.SearchService searchService,
+                                CalendarService calendarService, EntryRevisionService entryRevisionService,
+                                DraftService draftService, EntryChangeService entryChangeService,
+                                EntryChangeStreamService entryChangeStreamService,
+                                CancellableQueries cancellableQueries) {
         this.diaryEntryService = diaryEntryService;
         this.searchService = searchService;
+        this.calendarService = calendarService;
+        this.entryRevisionService = entryRevisionService;
+        this.draftService = draftService;
+        this.entryChangeService = entryChangeService;
+        this.entryChangeStreamService = entryChangeStreamService;
+        this.cancellableQueries = cancellableQueries;
     }
 
     /**
@@ -54,14 +86,50 @@ public class DiaryEntryController {
      * @return page of diary entries
      */
     @GetMapping
-    public ResponseEntity<Page<DiaryEntryDto>> getEntries(
+    public ResponseEntity<PagedResponse<DiaryEntryDto>> getEntries(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             Authentication authentication) {
         String email = authentication.getName();
         Pageable pageable = PageRequest.of(page, size);
         Page<DiaryEntryDto> entries = diaryEntryService.getEntriesByUserEmail(email, pageable);
-        return ResponseEntity.ok(entries);
+        return ResponseEntity.ok(PagedResponse.of(entries));
+    }
+
+    /**
+     * Get the entries created, updated and deleted since a sync cursor, for clients that keep a
+     * copy of the user's entries. Without a cursor, the current entries are returned.
+     *
+     * @param since          the cursor returned by the previous request (optional)
+     * @param limit          maximum number of changes (default 100)
+     * @param authentication the authenticated user
+     * @return the changes, with the cursor for the next request; 410 Gone if the cursor has expired
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<EntryChangesDto> getChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "100") int limit,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return ResponseEntity.ok(entryChangeService.getChangesByEmail(email, since, limit));
+    }
+
+    /**
+     * Stream server-sent events as the user's entries change, so clients need not poll.
+     * Each {@code changed} or {@code deleted} event carries the entry ID, and its event ID is a
+     * cursor for {@link #getChanges}. A client reconnecting with {@code Last-Event-ID} is sent the
+     * events it missed, or a {@code reset} event if it must sync again without a cursor.
+     *
+     * @param lastEventId    the ID of the last event received (optional)
+     * @param authentication the authenticated user
+     * @return the event stream
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return entryChangeStreamService.subscribeByEmail(email, lastEventId);
     }
 
     /**
@@ -98,6 +166,57 @@ public class DiaryEntryController {
         return ResponseEntity.ok(entry);
     }
 
+    /**
+     * Autosave a draft of a diary entry. The draft is buffered and written shortly after the
+     * saves stop; until then {@code GET /{id}} returns it to its owner.
+     *
+     * @param id             the diary entry ID
+     * @param request        the saved fields
+     * @param authentication the authenticated user
+     * @return accepted, with no content
+     */
+    @PutMapping("/{id}/draft")
+    public ResponseEntity<Void> saveDraft(
+            @PathVariable Long id,
+            @Valid @RequestBody UpdateDiaryEntryRequest request,
+            Authentication authentication) {
+        String email = authentication.getName();
+        draftService.saveDraftByEmail(id, request, email);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * List the earlier versions of a diary entry, newest first, without their content.
+     *
+     * @param id             the diary entry ID
+     * @param authentication the authenticated user
+     * @return the revisions of the entry
+     */
+    @GetMapping("/{id}/revisions")
+    public ResponseEntity<List<EntryRevisionSummaryDto>> getRevisions(
+            @PathVariable Long id,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return ResponseEntity.ok(entryRevisionService.getRevisionsByEmail(id, email));
+    }
+
+    /**
+     * Get an earlier version of a diary entry.
+     *
+     * @param id             the diary entry ID
+     * @param revision       the revision number
+     * @param authentication the authenticated user
+     * @return the revision, with its content
+     */
+    @GetMapping("/{id}/revisions/{revision}")
+    public ResponseEntity<EntryRevisionDto> getRevision(
+            @PathVariable Long id,
+            @PathVariable int revision,
+            Authentication authentication) {
+        String email = authentication.getName();
+        return ResponseEntity.ok(entryRevisionService.getRevisionByEmail(id, revision, email));
+    }
+
     /**
      * Delete a diary entry.
      *
@@ -116,6 +235,7 @@ public class DiaryEntryController {
 
     /**
      * Search diary entries with optional filters.
+     * The search is cancelled if the client disconnects before it finishes.
      *
      * @param keyword        optional keyword to search in title and content
      * @param startDate      optional start date for date range filter (format: YYYY-MM-DD)
@@ -124,20 +244,40 @@ public class DiaryEntryController {
      * @param page           page number (default 0)
      * @param size           page size (default 10)
      * @param authentication the authenticated user
+     * @param request        the request, checked for the client disconnecting
      * @return page of matching diary entries
      */
     @GetMapping("/search")
-    public ResponseEntity<Page<DiaryEntryDto>> searchEntries(
+    public WebAsyncTask<ResponseEntity<PagedResponse<DiaryEntryDto>>> searchEntries(
             @RequestParam(required = false) String keyword,
             @RequestParam(required = false) java.time.LocalDate startDate,
             @RequestParam(required = false) java.time.LocalDate endDate,
             @RequestParam(required = false) java.time.LocalDate date,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            Authentication authentication) {
+            Authentication authentication,
+            HttpServletRequest request) {
         String email = authentication.getName();
         Pageable pageable = PageRequest.of(page, size);
-        Page<DiaryEntryDto> entries = searchService.search(email, keyword, startDate, endDate, date, pageable);
-        return ResponseEntity.ok(entries);
+        return cancellableQueries.run("Search", request, () -> {
+            Page<DiaryEntryDto> entries = searchService.search(email, keyword, startDate, endDate, date, pageable);
+            return ResponseEntity.ok(PagedResponse.of(entries));
+        });
+    }
+
+    /**
+     * Get the calendar heatmap of a year: the days with entries, with entry and word counts.
+     *
+     * @param year           the calendar year (default the current year)
+     * @param authentication the authenticated user
+     * @return the calendar of the year
+     */
+    @GetMapping("/calendar")
+    public ResponseEntity<CalendarDto> getCalendar(
+            @RequestParam(required = false) Integer year,
+            Authentication authentication) {
+        String email = authentication.getName();
+        int calendarYear = year != null ? year : java.time.LocalDate.now().getYear();
+        return ResponseEntity.ok(calendarService.getYearByEmail(email, calendarYear));
     }
 }
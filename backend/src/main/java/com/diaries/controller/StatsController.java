@@ -0,0 +1,47 @@
+package com.diaries.controller;
+
+import com.diaries.dto.UserStatsDto;
+import com.diaries.service.UserStatsService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller for the authenticated user's writing statistics.
+ * All endpoints require authentication.
+ */
+@RestController
+@RequestMapping("/api/stats")
+public class StatsController {
+
+    private final UserStatsService userStatsService;
+
+    public StatsController(UserStatsService userStatsService) {
+        this.userStatsService = userStatsService;
+    }
+
+    /**
+     * Get the writing statistics of the authenticated user.
+     *
+     * @param authentication the authenticated user
+     * @return the statistics
+     */
+    @GetMapping
+    public ResponseEntity<UserStatsDto> getStats(Authentication authentication) {
+        return ResponseEntity.ok(userStatsService.getStatsByEmail(authentication.getName()));
+    }
+
+    /**
+     * Recompute the writing statistics of the authenticated user from their entries.
+     *
+     * @param authentication the authenticated user
+     * @return the recomputed statistics
+     */
+    @PostMapping("/recompute")
+    public ResponseEntity<UserStatsDto> recomputeStats(Authentication authentication) {
+        return ResponseEntity.ok(userStatsService.recomputeByEmail(authentication.getName()));
+    }
+}
@@ -2,13 +2,16 @@ package com.diaries.dto;
 
 /**
  * DTO for authentication responses.
- * Contains JWT token and user information.
+ * Contains the short-lived JWT access token, the refresh token used to renew it,
+ * and user information.
  */
 public class AuthResponse {
 
     private String token;
     private String tokenType = "Bearer";
     private Long expiresIn;
+    private String refreshToken;
+    private Long refreshExpiresIn;
     private UserDto user;
 
     public AuthResponse() {
@@ -20,6 +23,14 @@ public class AuthResponse {
         this.user = user;
     }
 
+    public AuthResponse(String token, Long expiresIn, String refreshToken, Long refreshExpiresIn, UserDto user) {
+        this.token = token;
+        this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
+        this.refreshExpiresIn = refreshExpiresIn;
+        this.user = user;
+    }
+
     public String getToken() {
         return token;
     }
@@ -44,6 +55,22 @@ public class AuthResponse {
         this.expiresIn = expiresIn;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+
+    public Long getRefreshExpiresIn() {
+        return refreshExpiresIn;
+    }
+
+    public void setRefreshExpiresIn(Long refreshExpiresIn) {
+        this.refreshExpiresIn = refreshExpiresIn;
+    }
+
     public UserDto getUser() {
         return user;
     }
@@ -0,0 +1,47 @@
+package com.diaries.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for one day of the calendar heatmap.
+ * Contains the number of entries dated on the day and the words written in them.
+ */
+public class CalendarDayDto {
+
+    private LocalDate date;
+    private int entryCount;
+    private int wordCount;
+
+    public CalendarDayDto() {
+    }
+
+    public CalendarDayDto(LocalDate date, int entryCount, int wordCount) {
+        this.date = date;
+        this.entryCount = entryCount;
+        this.wordCount = wordCount;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(int wordCount) {
+        this.wordCount = wordCount;
+    }
+}
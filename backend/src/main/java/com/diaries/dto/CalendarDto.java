@@ -0,0 +1,37 @@
+package com.diaries.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the calendar heatmap of a year.
+ * Lists only the days with at least one entry, in date order.
+ */
+public class CalendarDto {
+
+    private int year;
+    private List<CalendarDayDto> days;
+
+    public CalendarDto() {
+    }
+
+    public CalendarDto(int year, List<CalendarDayDto> days) {
+        this.year = year;
+        this.days = days;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public void setYear(int year) {
+        this.year = year;
+    }
+
+    public List<CalendarDayDto> getDays() {
+        return days;
+    }
+
+    public void setDays(List<CalendarDayDto> days) {
+        this.days = days;
+    }
+}
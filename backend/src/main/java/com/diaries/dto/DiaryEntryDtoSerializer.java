@@ -0,0 +1,146 @@
+package com.diaries.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Hand-written serializer for {@link DiaryEntryDto}, the element of every list and search page.
+ * Produces the same JSON as Jackson's bean serializer with the JavaTimeModule, but writes
+ * pre-encoded field names, caches formatted entry dates, and formats timestamps into a
+ * reusable buffer instead of going through reflection and {@link DateTimeFormatter}.
+ */
+@JsonComponent
+public class DiaryEntryDtoSerializer extends StdSerializer<DiaryEntryDto> {
+
+    private static final SerializedString ID = new SerializedString("id");
+    private static final SerializedString TITLE = new SerializedString("title");
+    private static final SerializedString CONTENT = new SerializedString("content");
+    private static final SerializedString ENTRY_DATE = new SerializedString("entryDate");
+    private static final SerializedString USER_ID = new SerializedString("userId");
+    private static final SerializedString CREATED_AT = new SerializedString("createdAt");
+    private static final SerializedString UPDATED_AT = new SerializedString("updatedAt");
+
+    private static final int DATE_CACHE_SIZE = 1024;
+    private static final int TIMESTAMP_LENGTH = 29;
+
+    private static final ThreadLocal<char[]> TIMESTAMP_BUFFER = ThreadLocal.withInitial(() -> new char[TIMESTAMP_LENGTH]);
+
+    /**
+     * Direct-mapped cache of formatted dates; pages are usually clustered around recent days.
+     * Slots are replaced as a whole, so racing writers can only cause a cache miss.
+     */
+    private final CachedDate[] dateCache = new CachedDate[DATE_CACHE_SIZE];
+
+    private record CachedDate(long epochDay, String formatted) {
+    }
+
+    public DiaryEntryDtoSerializer() {
+        super(DiaryEntryDto.class);
+    }
+
+    @Override
+    public void serialize(DiaryEntryDto dto, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(dto);
+        gen.writeFieldName(ID);
+        writeLong(gen, dto.getId());
+        gen.writeFieldName(TITLE);
+        gen.writeString(dto.getTitle());
+        gen.writeFieldName(CONTENT);
+        gen.writeString(dto.getContent());
+        gen.writeFieldName(ENTRY_DATE);
+        writeDate(gen, dto.getEntryDate());
+        gen.writeFieldName(USER_ID);
+        writeLong(gen, dto.getUserId());
+        gen.writeFieldName(CREATED_AT);
+        writeTimestamp(gen, dto.getCreatedAt());
+        gen.writeFieldName(UPDATED_AT);
+        writeTimestamp(gen, dto.getUpdatedAt());
+        gen.writeEndObject();
+    }
+
+    private static void writeLong(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    private void writeDate(JsonGenerator gen, LocalDate date) throws IOException {
+        if (date == null) {
+            gen.writeNull();
+            return;
+        }
+        long epochDay = date.toEpochDay();
+        int slot = (int) Math.floorMod(epochDay, DATE_CACHE_SIZE);
+        CachedDate cached = dateCache[slot];
+        if (cached == null || cached.epochDay() != epochDay) {
+            cached = new CachedDate(epochDay, DateTimeFormatter.ISO_LOCAL_DATE.format(date));
+            dateCache[slot] = cached;
+        }
+        gen.writeString(cached.formatted());
+    }
+
+    private static void writeTimestamp(JsonGenerator gen, LocalDateTime timestamp) throws IOException {
+        if (timestamp == null) {
+            gen.writeNull();
+            return;
+        }
+        if (timestamp.getYear() < 0 || timestamp.getYear() > 9999) {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp));
+            return;
+        }
+        char[] buffer = TIMESTAMP_BUFFER.get();
+        gen.writeString(buffer, 0, formatTimestamp(timestamp, buffer));
+    }
+
+    /**
+     * Format a timestamp exactly like {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} for years 0-9999:
+     * seconds always present, fraction only when non-zero with trailing zeros removed.
+     *
+     * @param timestamp the timestamp
+     * @param buffer    a buffer of at least 29 characters
+     * @return the number of characters written
+     */
+    static int formatTimestamp(LocalDateTime timestamp, char[] buffer) {
+        int pos = digits(buffer, 0, timestamp.getYear(), 4);
+        buffer[pos++] = '-';
+        pos = digits(buffer, pos, timestamp.getMonthValue(), 2);
+        buffer[pos++] = '-';
+        pos = digits(buffer, pos, timestamp.getDayOfMonth(), 2);
+        buffer[pos++] = 'T';
+        pos = digits(buffer, pos, timestamp.getHour(), 2);
+        buffer[pos++] = ':';
+        pos = digits(buffer, pos, timestamp.getMinute(), 2);
+        buffer[pos++] = ':';
+        pos = digits(buffer, pos, timestamp.getSecond(), 2);
+
+        int nanos = timestamp.getNano();
+        if (nanos > 0) {
+            buffer[pos++] = '.';
+            int width = 9;
+            while (nanos % 10 == 0) {
+                nanos /= 10;
+                width--;
+            }
+            pos = digits(buffer, pos, nanos, width);
+        }
+        return pos;
+    }
+
+    private static int digits(char[] buffer, int pos, int value, int width) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+}
@@ -0,0 +1,58 @@
+package com.diaries.dto;
+
+import java.util.List;
+
+/**
+ * DTO for the changes to a user's diary entries after a sync cursor.
+ * Holds the entries created or updated, the IDs of the entries deleted, and the cursor to send
+ * with the next request; {@code hasMore} is set when further changes are left to fetch.
+ */
+public class EntryChangesDto {
+
+    private List<DiaryEntryDto> changed;
+    private List<Long> deleted;
+    private String cursor;
+    private boolean hasMore;
+
+    public EntryChangesDto() {
+    }
+
+    public EntryChangesDto(List<DiaryEntryDto> changed, List<Long> deleted, String cursor, boolean hasMore) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+    }
+
+    public List<DiaryEntryDto> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<DiaryEntryDto> changed) {
+        this.changed = changed;
+    }
+
+    public List<Long> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<Long> deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
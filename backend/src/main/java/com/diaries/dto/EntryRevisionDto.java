@@ -0,0 +1,79 @@
+package com.diaries.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for an earlier version of a diary entry.
+ * Contains the title, content and entry date the entry had, and when that version was saved.
+ */
+public class EntryRevisionDto {
+
+    private Long entryId;
+    private int revision;
+    private String title;
+    private String content;
+    private LocalDate entryDate;
+    private LocalDateTime savedAt;
+
+    public EntryRevisionDto() {
+    }
+
+    public EntryRevisionDto(Long entryId, int revision, String title, String content, LocalDate entryDate,
+                            LocalDateTime savedAt) {
+        this.entryId = entryId;
+        this.revision = revision;
+        this.title = title;
+        this.content = content;
+        this.entryDate = entryDate;
+        this.savedAt = savedAt;
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public void setEntryId(Long entryId) {
+        this.entryId = entryId;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public void setRevision(int revision) {
+        this.revision = revision;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public void setEntryDate(LocalDate entryDate) {
+        this.entryDate = entryDate;
+    }
+
+    public LocalDateTime getSavedAt() {
+        return savedAt;
+    }
+
+    public void setSavedAt(LocalDateTime savedAt) {
+        this.savedAt = savedAt;
+    }
+}
@@ -0,0 +1,57 @@
+package com.diaries.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * DTO for one revision in the history of a diary entry, without its content.
+ */
+public class EntryRevisionSummaryDto {
+
+    private int revision;
+    private String title;
+    private LocalDate entryDate;
+    private LocalDateTime savedAt;
+
+    public EntryRevisionSummaryDto() {
+    }
+
+    public EntryRevisionSummaryDto(int revision, String title, LocalDate entryDate, LocalDateTime savedAt) {
+        this.revision = revision;
+        this.title = title;
+        this.entryDate = entryDate;
+        this.savedAt = savedAt;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public void setRevision(int revision) {
+        this.revision = revision;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public void setEntryDate(LocalDate entryDate) {
+        this.entryDate = entryDate;
+    }
+
+    public LocalDateTime getSavedAt() {
+        return savedAt;
+    }
+
+    public void setSavedAt(LocalDateTime savedAt) {
+        this.savedAt = savedAt;
+    }
+}
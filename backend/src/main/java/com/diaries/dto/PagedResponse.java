@@ -0,0 +1,107 @@
+package com.diaries.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * DTO for paginated responses.
+ * A stable replacement for serializing Spring's {@code Page} directly, which exposes
+ * internal {@code pageable} and {@code sort} structures that change between versions.
+ *
+ * @param <T> the element type
+ */
+@JsonPropertyOrder({"content", "number", "size", "totalElements", "totalPages", "first", "last"})
+public class PagedResponse<T> {
+
+    private List<T> content;
+    private int number;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private boolean first;
+    private boolean last;
+
+    public PagedResponse() {
+    }
+
+    public PagedResponse(List<T> content, int number, int size, long totalElements, int totalPages,
+                         boolean first, boolean last) {
+        this.content = content;
+        this.number = number;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.totalPages = totalPages;
+        this.first = first;
+        this.last = last;
+    }
+
+    /**
+     * Create a paged response from a Spring Data page.
+     *
+     * @param page the page
+     * @param <T>  the element type
+     * @return the paged response
+     */
+    public static <T> PagedResponse<T> of(Page<T> page) {
+        return new PagedResponse<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), page.isFirst(), page.isLast());
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public void setNumber(int number) {
+        this.number = number;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    public void setTotalPages(int totalPages) {
+        this.totalPages = totalPages;
+    }
+
+    public boolean isFirst() {
+        return first;
+    }
+
+    public void setFirst(boolean first) {
+        this.first = first;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+
+    public void setLast(boolean last) {
+        this.last = last;
+    }
+}
@@ -0,0 +1,79 @@
+package com.diaries.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO for a user's writing statistics.
+ * Streaks count consecutive days with at least one entry; the current streak is 0 once a day
+ * without an entry has passed since the last one.
+ */
+public class UserStatsDto {
+
+    private long totalEntries;
+    private long totalWords;
+    private double averageWordsPerEntry;
+    private int currentStreak;
+    private int longestStreak;
+    private LocalDate lastEntryDate;
+
+    public UserStatsDto() {
+    }
+
+    public UserStatsDto(long totalEntries, long totalWords, double averageWordsPerEntry,
+                        int currentStreak, int longestStreak, LocalDate lastEntryDate) {
+        this.totalEntries = totalEntries;
+        this.totalWords = totalWords;
+        this.averageWordsPerEntry = averageWordsPerEntry;
+        this.currentStreak = currentStreak;
+        this.longestStreak = longestStreak;
+        this.lastEntryDate = lastEntryDate;
+    }
+
+    public long getTotalEntries() {
+        return totalEntries;
+    }
+
+    public void setTotalEntries(long totalEntries) {
+        this.totalEntries = totalEntries;
+    }
+
+    public long getTotalWords() {
+        return totalWords;
+    }
+
+    public void setTotalWords(long totalWords) {
+        this.totalWords = totalWords;
+    }
+
+    public double getAverageWordsPerEntry() {
+        return averageWordsPerEntry;
+    }
+
+    public void setAverageWordsPerEntry(double averageWordsPerEntry) {
+        this.averageWordsPerEntry = averageWordsPerEntry;
+    }
+
+    public int getCurrentStreak() {
+        return currentStreak;
+    }
+
+    public void setCurrentStreak(int currentStreak) {
+        this.currentStreak = currentStreak;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public LocalDate getLastEntryDate() {
+        return lastEntryDate;
+    }
+
+    public void setLastEntryDate(LocalDate lastEntryDate) {
+        this.lastEntryDate = lastEntryDate;
+    }
+}
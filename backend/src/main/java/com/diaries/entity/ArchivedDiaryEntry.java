@@ -0,0 +1,172 @@
+package com.diaries.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.Length;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * ArchivedDiaryEntry entity representing a diary entry moved to the cold tier.
+ * Entries are moved here by {@code EntryArchiveService} once they are old enough and keep the
+ * ID they had in {@code diary_entries}. Archived entries are still read, updated and deleted
+ * in place; they are not moved back.
+ */
+@Entity
+@Table(name = "diary_entries_archive", indexes = {
+    @Index(name = "idx_archive_user_date", columnList = "user_id,entry_date")
+})
+public class ArchivedDiaryEntry {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false, length = 500)
+    private String title;
+
+    @Column(columnDefinition = "TEXT")
+    private String content;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "content_data", length = Length.LONG32)
+    private String compressedContent;
+
+    @Column(name = "content_terms", columnDefinition = "TEXT")
+    private String contentTerms;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Column(name = "archived_at", nullable = false, updatable = false)
+    private LocalDateTime archivedAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public ArchivedDiaryEntry() {
+    }
+
+    // Getters and Setters
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getContent() {
+        return content != null ? content : compressedContent;
+    }
+
+    public void setContent(String content) {
+        this.content = content;
+        this.compressedContent = null;
+        this.contentTerms = null;
+    }
+
+    /**
+     * Set the content, stored compressed or as text. Compressed content is stored with its
+     * {@link ContentTerms}, so keyword search still finds it.
+     *
+     * @param content    the entry content
+     * @param compressed whether to store the content compressed
+     */
+    public void setContent(String content, boolean compressed) {
+        if (compressed) {
+            this.content = null;
+            this.compressedContent = content;
+            this.contentTerms = ContentTerms.of(content);
+        } else {
+            setContent(content);
+        }
+    }
+
+    public boolean isContentCompressed() {
+        return compressedContent != null;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public void setEntryDate(LocalDate entryDate) {
+        this.entryDate = entryDate;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ArchivedDiaryEntry that = (ArchivedDiaryEntry) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedDiaryEntry{" +
+                "id=" + id +
+                ", title='" + title + '\'' +
+                ", entryDate=" + entryDate +
+                ", archivedAt=" + archivedAt +
+                '}';
+    }
+}
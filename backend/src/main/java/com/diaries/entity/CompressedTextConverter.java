@@ -0,0 +1,54 @@
+package com.diaries.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Stores text as compressed bytes in a binary column.
+ * Each value starts with a five-byte header: the {@link ContentCodec} identifier and the length of
+ * the UTF-8 text. Values are written with the configured codec and read with the codec named in
+ * their header.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<String, byte[]> {
+
+    private static final int HEADER_LENGTH = 5;
+
+    private final ContentCodec codec;
+
+    public CompressedTextConverter(@Value("${storage.content-compression.codec:DEFLATE}") ContentCodec codec) {
+        this.codec = codec;
+    }
+
+    @Override
+    public byte[] convertToDatabaseColumn(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        byte[] compressed = codec.compress(utf8);
+        return ByteBuffer.allocate(HEADER_LENGTH + compressed.length)
+                .put((byte) codec.id())
+                .putInt(utf8.length)
+                .put(compressed)
+                .array();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length < HEADER_LENGTH) {
+            throw new IllegalArgumentException("Compressed content is shorter than its header");
+        }
+        ByteBuffer header = ByteBuffer.wrap(data, 0, HEADER_LENGTH);
+        ContentCodec storedCodec = ContentCodec.fromId(header.get() & 0xff);
+        int length = header.getInt();
+        return new String(storedCodec.decompress(data, HEADER_LENGTH, length), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,112 @@
+package com.diaries.entity;
+
+import net.jpountz.lz4.LZ4Factory;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Codecs for compressed entry content.
+ * Each codec is identified by the first byte of the stored value, so values written with a
+ * codec stay readable after the configured codec changes.
+ */
+public enum ContentCodec {
+
+    /**
+     * DEFLATE (zlib): smaller output, several times slower to compress than LZ4.
+     */
+    DEFLATE(1) {
+        @Override
+        byte[] compress(byte[] data) {
+            Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+                byte[] buffer = new byte[8192];
+                while (!deflater.finished()) {
+                    out.write(buffer, 0, deflater.deflate(buffer));
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int originalLength) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(data, offset, data.length - offset);
+                byte[] result = new byte[originalLength];
+                int length = inflater.inflate(result);
+                if (length != originalLength || !inflater.finished()) {
+                    throw new IllegalArgumentException("Truncated DEFLATE content");
+                }
+                return result;
+            } catch (DataFormatException e) {
+                throw new IllegalArgumentException("Corrupt DEFLATE content", e);
+            } finally {
+                inflater.end();
+            }
+        }
+    },
+
+    /**
+     * LZ4 block format: fast to compress and decompress, at a lower ratio than DEFLATE.
+     */
+    LZ4(2) {
+        @Override
+        byte[] compress(byte[] data) {
+            return LZ4Factory.fastestInstance().fastCompressor().compress(data);
+        }
+
+        @Override
+        byte[] decompress(byte[] data, int offset, int originalLength) {
+            byte[] result = new byte[originalLength];
+            int length = LZ4Factory.fastestInstance().safeDecompressor()
+                    .decompress(data, offset, data.length - offset, result, 0);
+            if (length != originalLength) {
+                throw new IllegalArgumentException("Truncated LZ4 content");
+            }
+            return result;
+        }
+    };
+
+    private final int id;
+
+    ContentCodec(int id) {
+        this.id = id;
+    }
+
+    /**
+     * The identifier written as the first byte of values compressed with this codec.
+     *
+     * @return the codec identifier
+     */
+    public int id() {
+        return id;
+    }
+
+    /**
+     * Find the codec a stored value was written with.
+     *
+     * @param id the codec identifier
+     * @return the codec
+     * @throws IllegalArgumentException if no codec has the identifier
+     */
+    public static ContentCodec fromId(int id) {
+        for (ContentCodec codec : values()) {
+            if (codec.id == id) {
+                return codec;
+            }
+        }
+        throw new IllegalArgumentException("Unknown content codec: " + id);
+    }
+
+    abstract byte[] compress(byte[] data);
+
+    abstract byte[] decompress(byte[] data, int offset, int originalLength);
+}
@@ -0,0 +1,36 @@
+package com.diaries.entity;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the search terms stored alongside compressed content, which keyword search cannot read:
+ * each distinct word of the content, compared without case, in order of first occurrence and
+ * separated by single spaces. Words are split on whitespace only, so a keyword found inside a word
+ * of the content, punctuation included, is found in its terms.
+ */
+public final class ContentTerms {
+
+    private ContentTerms() {
+    }
+
+    /**
+     * Build the search terms of some content.
+     *
+     * @param content the entry content, or null
+     * @return the terms, or null if the content is null
+     */
+    public static String of(String content) {
+        if (content == null) {
+            return null;
+        }
+        Map<String, String> terms = new LinkedHashMap<>();
+        for (String word : content.split("\\s+")) {
+            if (!word.isEmpty()) {
+                terms.putIfAbsent(word.toLowerCase(Locale.ROOT), word);
+            }
+        }
+        return String.join(" ", terms.values());
+    }
+}
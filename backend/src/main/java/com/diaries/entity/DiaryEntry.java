@@ -1,7 +1,9 @@
 package com.diaries.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.Length;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
@@ -11,12 +13,16 @@ import java.util.Objects;
 /**
  * DiaryEntry entity representing a diary entry created by a user.
  * Each entry belongs to exactly one user.
+ * The table may be partitioned by entry date or by user (see {@code V6__partition_diary_entries});
+ * both columns are partition keys, so updates and deletes name the single partition holding the row.
+ * Content is held either as text or, for large entries when compression is enabled, compressed in
+ * {@code content_data}; exactly one of the two columns is set. Compressed content is searched through
+ * its {@code content_terms}.
  */
 @Entity
 @Table(name = "diary_entries", indexes = {
     @Index(name = "idx_user_date", columnList = "user_id,entry_date"),
-    @Index(name = "idx_entry_date", columnList = "entry_date"),
-    @Index(name = "idx_user_id", columnList = "user_id")
+    @Index(name = "idx_entry_date", columnList = "entry_date")
 })
 public class DiaryEntry {
 
@@ -27,9 +33,17 @@ public class DiaryEntry {
     @Column(nullable = false, length = 500)
     private String title;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
+    @Column(columnDefinition = "TEXT")
     private String content;
 
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "content_data", length = Length.LONG32)
+    private String compressedContent;
+
+    @Column(name = "content_terms", columnDefinition = "TEXT")
+    private String contentTerms;
+
+    @PartitionKey
     @Column(name = "entry_date", nullable = false)
     private LocalDate entryDate;
 
@@ -37,6 +51,10 @@ public class DiaryEntry {
     @JoinColumn(name = "user_id", nullable = false, foreignKey = @ForeignKey(name = "fk_diary_entry_user"))
     private User user;
 
+    @PartitionKey
+    @Column(name = "user_id", nullable = false, insertable = false, updatable = false)
+    private Long userId;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -63,7 +81,18 @@ public class DiaryEntry {
         this.title = title;
         this.content = content;
         this.entryDate = entryDate;
-        this.user = user;
+        setUser(user);
+    }
+
+    /**
+     * Capture the owner id for entries persisted through the owning user's collection,
+     * where the user had no id yet when the entry was attached.
+     */
+    @PrePersist
+    void syncUserId() {
+        if (user != null) {
+            userId = user.getId();
+        }
     }
 
     // Getters and Setters
@@ -85,11 +114,34 @@ public class DiaryEntry {
     }
 
     public String getContent() {
-        return content;
+        return content != null ? content : compressedContent;
     }
 
     public void setContent(String content) {
         this.content = content;
+        this.compressedContent = null;
+        this.contentTerms = null;
+    }
+
+    /**
+     * Set the content, stored compressed or as text. Compressed content is stored with its
+     * {@link ContentTerms}, so keyword search still finds it.
+     *
+     * @param content    the entry content
+     * @param compressed whether to store the content compressed
+     */
+    public void setContent(String content, boolean compressed) {
+        if (compressed) {
+            this.content = null;
+            this.compressedContent = content;
+            this.contentTerms = ContentTerms.of(content);
+        } else {
+            setContent(content);
+        }
+    }
+
+    public boolean isContentCompressed() {
+        return compressedContent != null;
     }
 
     public LocalDate getEntryDate() {
@@ -106,6 +158,11 @@ public class DiaryEntry {
 
     public void setUser(User user) {
         this.user = user;
+        this.userId = user != null ? user.getId() : null;
+    }
+
+    public Long getUserId() {
+        return userId;
     }
 
     public LocalDateTime getCreatedAt() {
@@ -0,0 +1,115 @@
+package com.diaries.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * EntryChange entity holding the latest change to one of a user's diary entries, for clients
+ * that sync incrementally. Each write of an entry moves its row to the next value of the user's
+ * change cursor ({@code user_stats.change_seq}), so the log keeps one row per entry rather than
+ * one per write. A deleted entry leaves a tombstone, which is purged once older than the
+ * tombstone retention.
+ */
+@Entity
+@Table(name = "entry_changes")
+@IdClass(EntryChange.Key.class)
+public class EntryChange {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "entry_id", nullable = false)
+    private Long entryId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public EntryChange() {
+    }
+
+    /**
+     * Constructor for recording the change to an entry.
+     *
+     * @param userId    the ID of the user
+     * @param entryId   the ID of the diary entry
+     * @param seq       the position of the change in the user's change log
+     * @param deleted   whether the entry was deleted
+     * @param changedAt when the entry was changed
+     */
+    public EntryChange(Long userId, Long entryId, long seq, boolean deleted, LocalDateTime changedAt) {
+        this.userId = userId;
+        this.entryId = entryId;
+        this.seq = seq;
+        this.deleted = deleted;
+        this.changedAt = changedAt;
+    }
+
+    // Getters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EntryChange that = (EntryChange) o;
+        return Objects.equals(userId, that.userId) && Objects.equals(entryId, that.entryId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, entryId);
+    }
+
+    @Override
+    public String toString() {
+        return "EntryChange{" +
+                "userId=" + userId +
+                ", entryId=" + entryId +
+                ", seq=" + seq +
+                ", deleted=" + deleted +
+                ", changedAt=" + changedAt +
+                '}';
+    }
+
+    /**
+     * Primary key of a change: the user and the entry.
+     *
+     * @param userId  the ID of the user
+     * @param entryId the ID of the diary entry
+     */
+    public record Key(Long userId, Long entryId) implements Serializable {
+    }
+}
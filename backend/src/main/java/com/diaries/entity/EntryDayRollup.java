@@ -0,0 +1,112 @@
+package com.diaries.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * EntryDayRollup entity holding the number of entries and words a user has dated on one day.
+ * Rows are maintained by {@code DiaryEntryService} as entries are created, edited and deleted, in
+ * the same transaction, and cover both storage tiers. A day whose entries were all deleted keeps
+ * its row with a count of zero.
+ */
+@Entity
+@Table(name = "entry_day_rollups")
+@IdClass(EntryDayRollup.Key.class)
+public class EntryDayRollup {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Id
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Column(name = "entry_count", nullable = false)
+    private int entryCount;
+
+    @Column(name = "word_count", nullable = false)
+    private int wordCount;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public EntryDayRollup() {
+    }
+
+    /**
+     * Constructor for creating the rollup of a day.
+     *
+     * @param userId     the ID of the user
+     * @param entryDate  the day
+     * @param entryCount the number of entries dated on the day
+     * @param wordCount  the number of words in those entries
+     */
+    public EntryDayRollup(Long userId, LocalDate entryDate, int entryCount, int wordCount) {
+        this.userId = userId;
+        this.entryDate = entryDate;
+        this.entryCount = entryCount;
+        this.wordCount = wordCount;
+    }
+
+    // Getters and Setters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(int wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EntryDayRollup that = (EntryDayRollup) o;
+        return Objects.equals(userId, that.userId) && Objects.equals(entryDate, that.entryDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, entryDate);
+    }
+
+    @Override
+    public String toString() {
+        return "EntryDayRollup{" +
+                "userId=" + userId +
+                ", entryDate=" + entryDate +
+                ", entryCount=" + entryCount +
+                ", wordCount=" + wordCount +
+                '}';
+    }
+
+    /**
+     * Primary key of a rollup: the user and the day.
+     *
+     * @param userId    the ID of the user
+     * @param entryDate the day
+     */
+    public record Key(Long userId, LocalDate entryDate) implements Serializable {
+    }
+}
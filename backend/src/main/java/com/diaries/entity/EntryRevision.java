@@ -0,0 +1,190 @@
+package com.diaries.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.Length;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * EntryRevision entity holding an earlier version of a diary entry, numbered from 1 per entry.
+ * Revisions are chained backwards from the entry itself: the content of a revision is stored
+ * either as a {@code delta} against the next newer version (the next revision, or the entry for
+ * the newest one) or, for every few revisions, as a compressed full {@code snapshot} that ends
+ * the chain. Exactly one of the two columns is set. Dropping the oldest revisions therefore never
+ * affects the newer ones.
+ */
+@Entity
+@Table(name = "entry_revisions")
+@IdClass(EntryRevision.Key.class)
+public class EntryRevision implements Persistable<EntryRevision.Key> {
+
+    @Id
+    @Column(name = "entry_id", nullable = false)
+    private Long entryId;
+
+    @Id
+    @Column(nullable = false)
+    private int revision;
+
+    @Column(nullable = false, length = 500)
+    private String title;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    @Column(name = "saved_at", nullable = false)
+    private LocalDateTime savedAt;
+
+    @Column(length = Length.LONG32)
+    private byte[] delta;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(length = Length.LONG32)
+    private String snapshot;
+
+    @Column(nullable = false)
+    private boolean compacted;
+
+    @Transient
+    private boolean persisted;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public EntryRevision() {
+    }
+
+    /**
+     * Constructor for recording a version of an entry.
+     *
+     * @param entryId   the ID of the diary entry
+     * @param revision  the revision number
+     * @param title     the title of the version
+     * @param entryDate the entry date of the version
+     * @param savedAt   when the version was saved
+     */
+    public EntryRevision(Long entryId, int revision, String title, LocalDate entryDate, LocalDateTime savedAt) {
+        this.entryId = entryId;
+        this.revision = revision;
+        this.title = title;
+        this.entryDate = entryDate;
+        this.savedAt = savedAt;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
+    @Override
+    public Key getId() {
+        return new Key(entryId, revision);
+    }
+
+    /**
+     * A revision is only ever inserted once, so saving a new one skips the lookup of a merge.
+     */
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    // Getters and Setters
+
+    public Long getEntryId() {
+        return entryId;
+    }
+
+    public int getRevision() {
+        return revision;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public LocalDateTime getSavedAt() {
+        return savedAt;
+    }
+
+    public byte[] getDelta() {
+        return delta;
+    }
+
+    public String getSnapshot() {
+        return snapshot;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot != null;
+    }
+
+    /**
+     * Store the content as a delta against the next newer version.
+     *
+     * @param delta the encoded {@code ContentDelta}
+     */
+    public void setDelta(byte[] delta) {
+        this.delta = delta;
+        this.snapshot = null;
+    }
+
+    /**
+     * Store the full content.
+     *
+     * @param content the content of the version
+     */
+    public void setSnapshot(String content) {
+        this.snapshot = content;
+        this.delta = null;
+    }
+
+    public boolean isCompacted() {
+        return compacted;
+    }
+
+    public void setCompacted(boolean compacted) {
+        this.compacted = compacted;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EntryRevision that = (EntryRevision) o;
+        return revision == that.revision && Objects.equals(entryId, that.entryId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(entryId, revision);
+    }
+
+    @Override
+    public String toString() {
+        return "EntryRevision{" +
+                "entryId=" + entryId +
+                ", revision=" + revision +
+                ", savedAt=" + savedAt +
+                ", snapshot=" + isSnapshot() +
+                '}';
+    }
+
+    /**
+     * Primary key of a revision: the entry and the revision number.
+     *
+     * @param entryId  the ID of the diary entry
+     * @param revision the revision number
+     */
+    public record Key(Long entryId, int revision) implements Serializable {
+    }
+}
@@ -0,0 +1,94 @@
+package com.diaries.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * RevokedToken entity recording an access token that must no longer be accepted, by its JWT ID.
+ * A row is only needed until the token expires, after which the signature check rejects it.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+    @Index(name = "idx_revoked_token_revoked_at", columnList = "revoked_at")
+})
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", nullable = false, length = 36)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public RevokedToken() {
+    }
+
+    /**
+     * Constructor for revoking a token.
+     *
+     * @param tokenId   the JWT ID of the token
+     * @param expiresAt when the token expires
+     * @param revokedAt when the token was revoked
+     */
+    public RevokedToken(String tokenId, LocalDateTime expiresAt, LocalDateTime revokedAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+        this.revokedAt = revokedAt;
+    }
+
+    // Getters and Setters
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RevokedToken that = (RevokedToken) o;
+        return Objects.equals(tokenId, that.tokenId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tokenId);
+    }
+
+    @Override
+    public String toString() {
+        return "RevokedToken{" +
+                "tokenId='" + tokenId + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", revokedAt=" + revokedAt +
+                '}';
+    }
+}
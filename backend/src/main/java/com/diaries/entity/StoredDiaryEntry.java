@@ -0,0 +1,84 @@
+package com.diaries.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Subselect;
+import org.hibernate.annotations.Synchronize;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a diary entry in either storage tier: the hot {@code diary_entries} table
+ * or the {@code diary_entries_archive} table.
+ * Queries against it are run against both tables, and PostgreSQL applies their conditions to each
+ * table's own indexes. Pending changes to either table are flushed before it is queried.
+ */
+@Entity
+@Immutable
+@Subselect("SELECT id, title, content, content_data, entry_date, user_id, created_at, updated_at FROM diary_entries"
+        + " UNION ALL"
+        + " SELECT id, title, content, content_data, entry_date, user_id, created_at, updated_at FROM diary_entries_archive")
+@Synchronize({"diary_entries", "diary_entries_archive"})
+public class StoredDiaryEntry {
+
+    @Id
+    private Long id;
+
+    private String title;
+
+    private String content;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(name = "content_data")
+    private String compressedContent;
+
+    @Column(name = "entry_date")
+    private LocalDate entryDate;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    protected StoredDiaryEntry() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getContent() {
+        return content != null ? content : compressedContent;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
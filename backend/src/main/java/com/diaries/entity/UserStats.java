@@ -0,0 +1,157 @@
+package com.diaries.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * UserStats entity holding a user's writing statistics.
+ * Maintained by {@code DiaryEntryService} in the same transaction as each entry write, which locks
+ * the row first, so the writes of one user are applied one at a time. The latest streak is kept as
+ * its first and last day; whether it is still current depends on the day it is read.
+ * The row also holds the cursor of the user's change log: {@code changeSeq} is the cursor of the
+ * latest change, and {@code purgedSeq} the cursor of the latest tombstone purged from the log.
+ */
+@Entity
+@Table(name = "user_stats")
+public class UserStats {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "entry_count", nullable = false)
+    private long entryCount;
+
+    @Column(name = "word_count", nullable = false)
+    private long wordCount;
+
+    @Column(name = "longest_streak", nullable = false)
+    private int longestStreak;
+
+    @Column(name = "streak_start")
+    private LocalDate streakStart;
+
+    @Column(name = "streak_end")
+    private LocalDate streakEnd;
+
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    @Column(name = "purged_seq", nullable = false)
+    private long purgedSeq;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Default constructor required by JPA.
+     */
+    public UserStats() {
+    }
+
+    /**
+     * Constructor for creating the empty statistics of a user.
+     *
+     * @param userId the ID of the user
+     */
+    public UserStats(Long userId) {
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(long entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public long getWordCount() {
+        return wordCount;
+    }
+
+    public void setWordCount(long wordCount) {
+        this.wordCount = wordCount;
+    }
+
+    public int getLongestStreak() {
+        return longestStreak;
+    }
+
+    public void setLongestStreak(int longestStreak) {
+        this.longestStreak = longestStreak;
+    }
+
+    public LocalDate getStreakStart() {
+        return streakStart;
+    }
+
+    public void setStreakStart(LocalDate streakStart) {
+        this.streakStart = streakStart;
+    }
+
+    public LocalDate getStreakEnd() {
+        return streakEnd;
+    }
+
+    public void setStreakEnd(LocalDate streakEnd) {
+        this.streakEnd = streakEnd;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public long getPurgedSeq() {
+        return purgedSeq;
+    }
+
+    public void setPurgedSeq(long purgedSeq) {
+        this.purgedSeq = purgedSeq;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        UserStats that = (UserStats) o;
+        return Objects.equals(userId, that.userId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId);
+    }
+
+    @Override
+    public String toString() {
+        return "UserStats{" +
+                "userId=" + userId +
+                ", entryCount=" + entryCount +
+                ", wordCount=" + wordCount +
+                ", longestStreak=" + longestStreak +
+                ", streakStart=" + streakStart +
+                ", streakEnd=" + streakEnd +
+                ", changeSeq=" + changeSeq +
+                '}';
+    }
+}
@@ -0,0 +1,12 @@
+package com.diaries.exception;
+
+/**
+ * Exception thrown when a class of work already runs as many calls as it may at once.
+ * Results in HTTP 503 Service Unavailable response.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -4,15 +4,20 @@ import com.diaries.dto.ErrorResponse;
 import jakarta.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -79,6 +84,72 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(errorResponse);
     }
 
+    /**
+     * Handle GoneException (410).
+     */
+    @ExceptionHandler(GoneException.class)
+    public ResponseEntity<ErrorResponse> handleGoneException(
+            GoneException ex,
+            HttpServletRequest request) {
+        logger.warn("Resource gone: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                "GONE",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.GONE).body(errorResponse);
+    }
+
+    /**
+     * Handle BulkheadFullException (503), asking the client to retry after a second.
+     */
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponse> handleBulkheadFullException(
+            BulkheadFullException ex,
+            HttpServletRequest request) {
+        logger.warn("Bulkhead full: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                "SERVICE_UNAVAILABLE",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    /**
+     * Handle a query that ran past its timeout (503). The client may retry with narrower filters.
+     */
+    @ExceptionHandler({QueryTimeoutException.class, TransactionTimedOutException.class})
+    public ResponseEntity<ErrorResponse> handleQueryTimeoutException(
+            Exception ex,
+            HttpServletRequest request) {
+        logger.warn("Query timed out: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                "QUERY_TIMEOUT",
+                "The request took too long to run. Please narrow it down and try again.",
+                request.getRequestURI()
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    /**
+     * Handle QueryCancelledException. The client has disconnected, so no response is written.
+     */
+    @ExceptionHandler(QueryCancelledException.class)
+    public void handleQueryCancelledException(
+            QueryCancelledException ex,
+            HttpServletRequest request) {
+        logger.info("{} for {}", ex.getMessage(), request.getRequestURI());
+    }
+
     /**
      * Handle Spring Security AccessDeniedException (403).
      */
@@ -157,6 +228,15 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    /**
+     * Handle a client that went away while its response was written, such as a closed event
+     * stream. Nothing more can be sent, so the response is left as it is.
+     */
+    @ExceptionHandler({AsyncRequestNotUsableException.class, IOException.class})
+    public void handleClientDisconnect(Exception ex) {
+        logger.debug("Client disconnected: {}", ex.getMessage());
+    }
+
     /**
      * Handle all other exceptions (500).
      */
@@ -0,0 +1,16 @@
+package com.diaries.exception;
+
+/**
+ * Exception thrown when a requested resource is no longer available.
+ * Results in HTTP 410 Gone response.
+ */
+public class GoneException extends RuntimeException {
+
+    public GoneException(String message) {
+        super(message);
+    }
+
+    public GoneException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,16 @@
+package com.diaries.exception;
+
+/**
+ * Exception thrown when a running query is cancelled because the client that requested it
+ * went away. No response is sent, as there is no one left to read it.
+ */
+public class QueryCancelledException extends RuntimeException {
+
+    public QueryCancelledException(String message) {
+        super(message);
+    }
+
+    public QueryCancelledException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,88 @@
+package com.diaries.jdbc;
+
+import com.diaries.exception.QueryCancelledException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+
+/**
+ * Handle for cancelling the JDBC statements of a piece of work from another thread, such as when
+ * the client that asked for the work disconnects. While the work runs, {@link
+ * QueryCancellationListener} records the statement it is executing; {@link #cancel()} cancels
+ * that statement, and any later statement of the work fails before it is sent.
+ */
+public class QueryCancellation {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCancellation.class);
+
+    private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+    private Statement statement;
+    private boolean cancelled;
+
+    /**
+     * @return the cancellation handle of the work running on this thread, or null if there is none
+     */
+    static QueryCancellation current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Run work on this thread so that its statements can be cancelled.
+     *
+     * @param work the work
+     * @return the work's result
+     * @throws QueryCancelledException if the work was cancelled
+     */
+    public <T> T run(Supplier<T> work) {
+        QueryCancellation previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } catch (RuntimeException e) {
+            // A cancelled statement fails like a timed out one, so report why it was cancelled
+            if (isCancelled() && !(e instanceof QueryCancelledException)) {
+                throw new QueryCancelledException("Query cancelled", e);
+            }
+            throw e;
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Cancel the statement the work is executing, and fail the statements it executes later.
+     */
+    public void cancel() {
+        Statement running;
+        synchronized (this) {
+            cancelled = true;
+            running = statement;
+        }
+        if (running != null) {
+            try {
+                running.cancel();
+            } catch (SQLException e) {
+                logger.warn("Failed to cancel statement: {}", e.getMessage());
+            }
+        }
+    }
+
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    synchronized void statementStarted(Statement started) {
+        if (cancelled) {
+            throw new QueryCancelledException("Query cancelled before it was sent");
+        }
+        statement = started;
+    }
+
+    synchronized void statementFinished() {
+        statement = null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.diaries.jdbc;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * JDBC listener that tells the current thread's {@link QueryCancellation}, if any, which
+ * statement is executing.
+ */
+public class QueryCancellationListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryCancellation cancellation = QueryCancellation.current();
+        if (cancellation != null) {
+            cancellation.statementStarted(execInfo.getStatement());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        QueryCancellation cancellation = QueryCancellation.current();
+        if (cancellation != null) {
+            cancellation.statementFinished();
+        }
+    }
+}
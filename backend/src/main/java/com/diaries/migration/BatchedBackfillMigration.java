@@ -0,0 +1,159 @@
+package com.diaries.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Base class for Java migrations that backfill a large table.
+ * The table is walked in ranges of primary keys, and each range is updated and committed on its
+ * own, so no statement holds row locks for long or produces a single huge transaction. A range
+ * that cannot get its locks within the {@code lock_timeout} is retried after a backoff.
+ *
+ * <p>Subclasses live in the {@code db.migration} package so Flyway finds them, and supply an
+ * idempotent batch statement (for example {@code ... WHERE new_column IS NULL}); a backfill that
+ * fails part way is repaired and run again from the start, skipping rows already done.
+ * Rows inserted after the backfill starts must already be written correctly by the application.
+ */
+public abstract class BatchedBackfillMigration extends BaseJavaMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchedBackfillMigration.class);
+
+    /** SQLSTATE raised by PostgreSQL when {@code lock_timeout} expires. */
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+
+    private static final int DEFAULT_BATCH_SIZE = 10_000;
+    private static final Duration DEFAULT_PAUSE = Duration.ofMillis(100);
+    private static final int DEFAULT_MAX_RETRIES = 5;
+
+    private final int batchSize;
+    private final Duration pause;
+    private final int maxRetries;
+
+    protected BatchedBackfillMigration() {
+        this(DEFAULT_BATCH_SIZE, DEFAULT_PAUSE, DEFAULT_MAX_RETRIES);
+    }
+
+    /**
+     * @param batchSize  the number of primary keys covered by each batch
+     * @param pause      the pause between batches, letting replicas and vacuum keep up
+     * @param maxRetries the number of retries of a batch that hit the lock timeout
+     */
+    protected BatchedBackfillMigration(int batchSize, Duration pause, int maxRetries) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxRetries = maxRetries;
+    }
+
+    /**
+     * Get the table to backfill. Its primary key must be a numeric {@code id} column.
+     *
+     * @return the table name
+     */
+    protected abstract String table();
+
+    /**
+     * Get the statement that backfills one batch. It takes two parameters: the first id of the
+     * batch (inclusive) and the id after the last one (exclusive).
+     *
+     * @return the batch statement
+     */
+    protected abstract String batchSql();
+
+    /**
+     * Backfills commit batch by batch, so they cannot run inside the migration transaction.
+     *
+     * @return false
+     */
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try {
+            backfill(connection);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Run the batches over the id range present when the backfill starts.
+     *
+     * @param connection an auto-commit connection
+     * @return the number of rows updated
+     */
+    long backfill(Connection connection) throws SQLException, InterruptedException {
+        long minId;
+        long maxId;
+        try (Statement statement = connection.createStatement();
+             ResultSet range = statement.executeQuery("SELECT MIN(id), MAX(id) FROM " + table())) {
+            range.next();
+            minId = range.getLong(1);
+            if (range.wasNull()) {
+                logger.info("Backfill of {} skipped, table is empty", table());
+                return 0;
+            }
+            maxId = range.getLong(2);
+        }
+
+        long updated = 0;
+        for (long from = minId; from <= maxId; from += batchSize) {
+            updated += runBatch(connection, from, from + batchSize);
+            if (from + batchSize <= maxId && !pause.isZero()) {
+                Thread.sleep(pause.toMillis());
+            }
+        }
+        logger.info("Backfill of {} updated {} row(s) in ids {}..{}", table(), updated, minId, maxId);
+        return updated;
+    }
+
+    /**
+     * Backfill one batch by running {@link #batchSql()}. Subclasses that need more than one
+     * statement per batch override this and run them in one transaction, committing it and
+     * restoring auto-commit before returning.
+     *
+     * @param connection an auto-commit connection
+     * @param from       the first id of the batch (inclusive)
+     * @param to         the id after the last one (exclusive)
+     * @return the number of rows updated
+     */
+    protected int backfillBatch(Connection connection, long from, long to) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(batchSql())) {
+            statement.setLong(1, from);
+            statement.setLong(2, to);
+            return statement.executeUpdate();
+        }
+    }
+
+    private int runBatch(Connection connection, long from, long to)
+            throws SQLException, InterruptedException {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                return backfillBatch(connection, from, to);
+            } catch (SQLException e) {
+                if (!LOCK_NOT_AVAILABLE.equals(e.getSQLState()) || attempt >= maxRetries) {
+                    throw e;
+                }
+                logger.warn("Backfill of {} ids {}..{} hit the lock timeout, retrying", table(), from, to);
+                Thread.sleep(pause.toMillis() * (1L << (attempt + 1)));
+            }
+        }
+    }
+}
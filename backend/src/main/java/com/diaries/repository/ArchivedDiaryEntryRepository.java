@@ -0,0 +1,68 @@
+package com.diaries.repository;
+
+import com.diaries.entity.ArchivedDiaryEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for ArchivedDiaryEntry entity.
+ * Provides access to archived entries and the statements that move entries out of the hot table.
+ */
+@Repository
+public interface ArchivedDiaryEntryRepository extends JpaRepository<ArchivedDiaryEntry, Long> {
+
+    /**
+     * Find an archived diary entry by ID if it belongs to the given user.
+     *
+     * @param id     the diary entry ID
+     * @param userId the ID of the user
+     * @return the archived entry, if it exists and belongs to the user
+     */
+    Optional<ArchivedDiaryEntry> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Lock up to {@code limit} hot entries dated before the cutoff for archiving.
+     * Entries locked by a concurrent update are skipped and archived by a later run.
+     *
+     * @param cutoff entries dated before this day are archived
+     * @param limit  the maximum number of entries to lock
+     * @return the IDs of the locked entries
+     */
+    @Query(value = "SELECT id FROM diary_entries WHERE entry_date < :cutoff " +
+                   "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockEntriesToArchive(@Param("cutoff") LocalDate cutoff, @Param("limit") int limit);
+
+    /**
+     * Copy hot entries into the archive, keeping their IDs and timestamps.
+     *
+     * @param ids    the IDs of the entries to copy
+     * @param cutoff the cutoff the entries were selected with, so range partitions are pruned
+     * @return the number of entries copied
+     */
+    @Modifying
+    @Query(value = "INSERT INTO diary_entries_archive " +
+                   "(id, entry_date, user_id, title, content, content_data, content_terms, " +
+                   "created_at, updated_at, archived_at) " +
+                   "SELECT id, entry_date, user_id, title, content, content_data, content_terms, " +
+                   "created_at, updated_at, CURRENT_TIMESTAMP " +
+                   "FROM diary_entries WHERE id IN (:ids) AND entry_date < :cutoff", nativeQuery = true)
+    int copyFromHotTier(@Param("ids") List<Long> ids, @Param("cutoff") LocalDate cutoff);
+
+    /**
+     * Delete hot entries that were copied into the archive.
+     *
+     * @param ids    the IDs of the copied entries
+     * @param cutoff the cutoff the entries were selected with, so range partitions are pruned
+     * @return the number of entries deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM diary_entries WHERE id IN (:ids) AND entry_date < :cutoff", nativeQuery = true)
+    int deleteFromHotTier(@Param("ids") List<Long> ids, @Param("cutoff") LocalDate cutoff);
+}
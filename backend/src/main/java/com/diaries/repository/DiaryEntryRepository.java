@@ -1,14 +1,19 @@
 package com.diaries.repository;
 
 import com.diaries.entity.DiaryEntry;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for DiaryEntry entity.
@@ -18,6 +23,30 @@ import java.time.LocalDate;
 @Repository
 public interface DiaryEntryRepository extends JpaRepository<DiaryEntry, Long> {
 
+    /**
+     * Find a diary entry by ID if it belongs to the given user.
+     * Naming the owner lets PostgreSQL prune to one partition when entries are partitioned by user.
+     *
+     * @param id     the diary entry ID
+     * @param userId the ID of the user
+     * @return the diary entry, if it exists and belongs to the user
+     */
+    Optional<DiaryEntry> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Find and lock a diary entry of the given user until the end of the transaction, for an
+     * update or delete. {@code EntryArchiveService} skips locked entries, so the entry stays in the
+     * hot table until the write commits; an entry the archiver has already locked is waited for,
+     * and then found in the archive instead.
+     *
+     * @param id     the diary entry ID
+     * @param userId the ID of the user
+     * @return the diary entry, if it is in the hot table and belongs to the user
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM DiaryEntry d WHERE d.id = :id AND d.userId = :userId")
+    Optional<DiaryEntry> findByIdAndUserIdForUpdate(@Param("id") Long id, @Param("userId") Long userId);
+
     /**
      * Find all diary entries for a specific user with pagination support.
      *
@@ -49,7 +78,8 @@ public interface DiaryEntryRepository extends JpaRepository<DiaryEntry, Long> {
      */
     @Query("SELECT d FROM DiaryEntry d WHERE d.user.id = :userId " +
            "AND (LOWER(d.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(d.content) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+           "OR LOWER(d.content) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(d.contentTerms) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
            "AND d.entryDate BETWEEN :startDate AND :endDate")
     Page<DiaryEntry> searchEntries(
         @Param("userId") Long userId,
@@ -70,7 +100,8 @@ public interface DiaryEntryRepository extends JpaRepository<DiaryEntry, Long> {
      */
     @Query("SELECT d FROM DiaryEntry d WHERE d.user.id = :userId " +
            "AND (LOWER(d.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
-           "OR LOWER(d.content) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+           "OR LOWER(d.content) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(d.contentTerms) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     Page<DiaryEntry> searchEntriesByKeyword(
         @Param("userId") Long userId,
         @Param("keyword") String keyword,
@@ -108,4 +139,44 @@ public interface DiaryEntryRepository extends JpaRepository<DiaryEntry, Long> {
         LocalDate entryDate,
         Pageable pageable
     );
+
+    /**
+     * Lock the next entries, in ID order, whose content is stored as text but is long enough to be
+     * compressed.
+     *
+     * @param afterId   only entries with a greater ID are returned
+     * @param minLength the shortest content to return
+     * @param pageable  the batch size
+     * @return the locked entries
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM DiaryEntry d WHERE d.id > :afterId " +
+           "AND d.content IS NOT NULL AND LENGTH(d.content) >= :minLength ORDER BY d.id")
+    List<DiaryEntry> lockEntriesToCompress(
+        @Param("afterId") Long afterId,
+        @Param("minLength") int minLength,
+        Pageable pageable
+    );
+
+    /**
+     * Move an entry's content to the compressed column without touching {@code updatedAt}:
+     * the entry has not changed for its owner.
+     *
+     * @param id        the diary entry ID
+     * @param entryDate the entry date, so the update is pruned to one partition
+     * @param userId    the ID of the owner, so the update is pruned to one partition
+     * @param content   the content to store compressed
+     * @param terms     the {@link com.diaries.entity.ContentTerms} of the content
+     * @return the number of entries updated
+     */
+    @Modifying
+    @Query("UPDATE DiaryEntry d SET d.compressedContent = :content, d.contentTerms = :terms, d.content = NULL " +
+           "WHERE d.id = :id AND d.entryDate = :entryDate AND d.userId = :userId")
+    int compressContent(
+        @Param("id") Long id,
+        @Param("entryDate") LocalDate entryDate,
+        @Param("userId") Long userId,
+        @Param("content") String content,
+        @Param("terms") String terms
+    );
 }
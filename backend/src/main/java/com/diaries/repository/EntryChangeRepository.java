@@ -0,0 +1,118 @@
+package com.diaries.repository;
+
+import com.diaries.entity.EntryChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for EntryChange entity.
+ * Reads a user's change log from a cursor, records the changes made by entry writes, and purges
+ * old tombstones.
+ */
+@Repository
+public interface EntryChangeRepository extends JpaRepository<EntryChange, EntryChange.Key> {
+
+    /**
+     * Find the changes of a user after a cursor, in cursor order. Reads a range of the
+     * {@code (user_id, seq)} index. The changes are returned unmanaged, so they reflect the bulk
+     * updates of the current transaction.
+     *
+     * @param userId     the ID of the user
+     * @param since           the cursor; only later changes are returned
+     * @param tombstonesAfter the cursor after which the changes of deleted entries are returned
+     * @param pageable        the maximum number of changes
+     * @return the changes
+     */
+    @Query("SELECT new com.diaries.entity.EntryChange(c.userId, c.entryId, c.seq, c.deleted, c.changedAt) " +
+           "FROM EntryChange c WHERE c.userId = :userId AND c.seq > :since " +
+           "AND (c.deleted = false OR c.seq > :tombstonesAfter) ORDER BY c.seq")
+    List<EntryChange> findChangesAfter(
+        @Param("userId") Long userId,
+        @Param("since") long since,
+        @Param("tombstonesAfter") long tombstonesAfter,
+        Pageable pageable
+    );
+
+    /**
+     * Find the cursor of a user's latest change still in the log.
+     *
+     * @param userId the ID of the user
+     * @return the cursor, or null if the user has no changes
+     */
+    @Query("SELECT MAX(c.seq) FROM EntryChange c WHERE c.userId = :userId")
+    Long findLastSeq(@Param("userId") Long userId);
+
+    /**
+     * Move the change of an existing entry to a new cursor.
+     *
+     * @param userId    the ID of the user
+     * @param entryId   the ID of the diary entry
+     * @param seq       the new cursor
+     * @param deleted   whether the entry was deleted
+     * @param changedAt when the entry was changed
+     * @return the number of rows updated: 0 if the entry has no change yet
+     */
+    @Modifying
+    @Query("UPDATE EntryChange c SET c.seq = :seq, c.deleted = :deleted, c.changedAt = :changedAt " +
+           "WHERE c.userId = :userId AND c.entryId = :entryId")
+    int moveChange(
+        @Param("userId") Long userId,
+        @Param("entryId") Long entryId,
+        @Param("seq") long seq,
+        @Param("deleted") boolean deleted,
+        @Param("changedAt") LocalDateTime changedAt
+    );
+
+    /**
+     * Record the first change of an entry without reading it first.
+     * Writers hold the lock on the user's statistics, so no concurrent transaction records the same entry.
+     *
+     * @param userId    the ID of the user
+     * @param entryId   the ID of the diary entry
+     * @param seq       the cursor of the change
+     * @param deleted   whether the entry was deleted
+     * @param changedAt when the entry was changed
+     * @return the number of rows inserted
+     */
+    @Modifying
+    @Query("INSERT INTO EntryChange (userId, entryId, seq, deleted, changedAt) " +
+           "VALUES (:userId, :entryId, :seq, :deleted, :changedAt)")
+    int insertChange(
+        @Param("userId") Long userId,
+        @Param("entryId") Long entryId,
+        @Param("seq") long seq,
+        @Param("deleted") boolean deleted,
+        @Param("changedAt") LocalDateTime changedAt
+    );
+
+    /**
+     * Find users with tombstones older than a given time.
+     *
+     * @param before   the time before which tombstones are purged
+     * @param pageable the maximum number of users
+     * @return the IDs of the users
+     */
+    @Query("SELECT DISTINCT c.userId FROM EntryChange c WHERE c.deleted = true AND c.changedAt < :before")
+    List<Long> findUserIdsWithTombstonesBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    /**
+     * Delete the tombstones of some users older than a given time.
+     *
+     * @param userIds the IDs of the users
+     * @param before  the time before which tombstones are purged
+     * @return the number of tombstones deleted
+     */
+    @Modifying
+    @Query("DELETE FROM EntryChange c WHERE c.userId IN :userIds AND c.deleted = true AND c.changedAt < :before")
+    int deleteTombstonesBefore(
+        @Param("userIds") List<Long> userIds,
+        @Param("before") LocalDateTime before
+    );
+}
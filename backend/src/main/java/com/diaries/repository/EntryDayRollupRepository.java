@@ -0,0 +1,98 @@
+package com.diaries.repository;
+
+import com.diaries.entity.EntryDayRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Repository interface for EntryDayRollup entity.
+ * Reads a user's calendar from the rollup and applies the changes made by entry writes.
+ */
+@Repository
+public interface EntryDayRollupRepository extends JpaRepository<EntryDayRollup, EntryDayRollup.Key> {
+
+    /**
+     * Find the days with entries for a specific user within a date range, in date order.
+     * Reads only the primary key range of the user, at most one row per day.
+     *
+     * @param userId    the ID of the user
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate   the end date of the range (inclusive)
+     * @return the rollups of the days with at least one entry
+     */
+    @Query("SELECT r FROM EntryDayRollup r WHERE r.userId = :userId " +
+           "AND r.entryDate BETWEEN :startDate AND :endDate AND r.entryCount > 0 ORDER BY r.entryDate")
+    List<EntryDayRollup> findDaysWithEntries(
+        @Param("userId") Long userId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Find every day with entries of a specific user, in date order.
+     * The rollups are returned unmanaged, so they reflect the bulk updates of the current
+     * transaction.
+     *
+     * @param userId the ID of the user
+     * @return the rollups of the days with at least one entry
+     */
+    @Query("SELECT new com.diaries.entity.EntryDayRollup(r.userId, r.entryDate, r.entryCount, r.wordCount) " +
+           "FROM EntryDayRollup r WHERE r.userId = :userId AND r.entryCount > 0 ORDER BY r.entryDate")
+    List<EntryDayRollup> findAllDaysWithEntries(@Param("userId") Long userId);
+
+    /**
+     * Delete every rollup of a user, before rebuilding them from the entries.
+     *
+     * @param userId the ID of the user
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM EntryDayRollup r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    /**
+     * Add to the counts of an existing day.
+     *
+     * @param userId    the ID of the user
+     * @param entryDate the day
+     * @param entries   the change in the number of entries
+     * @param words     the change in the number of words
+     * @return the number of rows updated: 0 if the day has no rollup yet
+     */
+    @Modifying
+    @Query("UPDATE EntryDayRollup r SET r.entryCount = r.entryCount + :entries, " +
+           "r.wordCount = r.wordCount + :words WHERE r.userId = :userId AND r.entryDate = :entryDate")
+    int addToDay(
+        @Param("userId") Long userId,
+        @Param("entryDate") LocalDate entryDate,
+        @Param("entries") int entries,
+        @Param("words") int words
+    );
+
+    /**
+     * Create the rollup of a day without reading it first.
+     * Writers hold the lock on the user's statistics, so no concurrent transaction creates the same
+     * day; see {@code UserStatsService.lockStats} for the statistics' own creation.
+     *
+     * @param userId    the ID of the user
+     * @param entryDate the day
+     * @param entries   the number of entries
+     * @param words     the number of words
+     * @return the number of rows inserted
+     */
+    @Modifying
+    @Query("INSERT INTO EntryDayRollup (userId, entryDate, entryCount, wordCount) " +
+           "VALUES (:userId, :entryDate, :entries, :words)")
+    int insertDay(
+        @Param("userId") Long userId,
+        @Param("entryDate") LocalDate entryDate,
+        @Param("entries") int entries,
+        @Param("words") int words
+    );
+}
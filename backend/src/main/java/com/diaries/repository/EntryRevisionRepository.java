@@ -0,0 +1,132 @@
+package com.diaries.repository;
+
+import com.diaries.dto.EntryRevisionSummaryDto;
+import com.diaries.entity.EntryRevision;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for EntryRevision entity.
+ * Records the earlier versions of entries, reads the chain needed to rebuild one of them, and
+ * removes revisions for retention and compaction.
+ */
+@Repository
+public interface EntryRevisionRepository extends JpaRepository<EntryRevision, EntryRevision.Key> {
+
+    /**
+     * Find the number of the newest revision of an entry.
+     *
+     * @param entryId the ID of the diary entry
+     * @return the newest revision number, or null if the entry has no revisions
+     */
+    @Query("SELECT MAX(r.revision) FROM EntryRevision r WHERE r.entryId = :entryId")
+    Integer findLatestRevision(@Param("entryId") Long entryId);
+
+    /**
+     * List the revisions of an entry, newest first, without their content.
+     *
+     * @param entryId the ID of the diary entry
+     * @return the revision summaries
+     */
+    @Query("SELECT new com.diaries.dto.EntryRevisionSummaryDto(r.revision, r.title, r.entryDate, r.savedAt) " +
+           "FROM EntryRevision r WHERE r.entryId = :entryId ORDER BY r.revision DESC")
+    List<EntryRevisionSummaryDto> findSummaries(@Param("entryId") Long entryId);
+
+    /**
+     * Find the revisions needed to rebuild one revision, in revision order: the revision itself
+     * and every newer one up to and including the nearest snapshot, or all of them if there is no
+     * newer snapshot.
+     *
+     * @param entryId  the ID of the diary entry
+     * @param revision the revision to rebuild
+     * @return the chain of revisions, starting with the requested one if it exists
+     */
+    @Query("SELECT r FROM EntryRevision r WHERE r.entryId = :entryId AND r.revision >= :revision " +
+           "AND r.revision <= COALESCE((SELECT MIN(s.revision) FROM EntryRevision s " +
+           "WHERE s.entryId = :entryId AND s.revision >= :revision AND s.snapshot IS NOT NULL), 2147483647) " +
+           "ORDER BY r.revision")
+    List<EntryRevision> findChain(
+        @Param("entryId") Long entryId,
+        @Param("revision") int revision
+    );
+
+    /**
+     * Find every revision of an entry, newest first.
+     *
+     * @param entryId the ID of the diary entry
+     * @return the revisions
+     */
+    List<EntryRevision> findByEntryIdOrderByRevisionDesc(Long entryId);
+
+    /**
+     * Find entries with revisions saved before a time that have not been compacted yet.
+     *
+     * @param before   the compaction cutoff
+     * @param pageable the batch size
+     * @return the IDs of the entries
+     */
+    @Query("SELECT DISTINCT r.entryId FROM EntryRevision r WHERE r.compacted = false AND r.savedAt < :before")
+    List<Long> findEntryIdsToCompact(
+        @Param("before") LocalDateTime before,
+        Pageable pageable
+    );
+
+    /**
+     * Find entries with revisions saved before a time.
+     *
+     * @param before   the retention cutoff
+     * @param pageable the batch size
+     * @return the IDs of the entries
+     */
+    @Query("SELECT DISTINCT r.entryId FROM EntryRevision r WHERE r.savedAt < :before")
+    List<Long> findEntryIdsSavedBefore(
+        @Param("before") LocalDateTime before,
+        Pageable pageable
+    );
+
+    /**
+     * Delete the revisions of the given entries saved before a time. These are always the
+     * oldest revisions of each entry, which no newer revision depends on.
+     *
+     * @param entryIds the IDs of the diary entries
+     * @param before   the retention cutoff
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM EntryRevision r WHERE r.entryId IN :entryIds AND r.savedAt < :before")
+    int deleteSavedBefore(
+        @Param("entryIds") List<Long> entryIds,
+        @Param("before") LocalDateTime before
+    );
+
+    /**
+     * Delete the revisions of an entry up to a revision number, the oldest ones.
+     *
+     * @param entryId  the ID of the diary entry
+     * @param revision the newest revision to delete
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM EntryRevision r WHERE r.entryId = :entryId AND r.revision <= :revision")
+    int deleteUpTo(
+        @Param("entryId") Long entryId,
+        @Param("revision") int revision
+    );
+
+    /**
+     * Delete every revision of an entry, when the entry is deleted.
+     *
+     * @param entryId the ID of the diary entry
+     * @return the number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM EntryRevision r WHERE r.entryId = :entryId")
+    int deleteByEntryId(@Param("entryId") Long entryId);
+}
@@ -0,0 +1,54 @@
+package com.diaries.repository;
+
+import com.diaries.entity.RefreshToken;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository interface for RefreshToken entity.
+ * Provides lookup by token hash and bulk revocation of rotation families.
+ */
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Find a refresh token by its hash, locking the row so that concurrent
+     * rotations of the same token are serialized.
+     *
+     * @param tokenHash the SHA-256 hash of the raw token
+     * @return an Optional containing the token if found, empty otherwise
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT t FROM RefreshToken t WHERE t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHashForUpdate(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Revoke every still-active token in a rotation family.
+     *
+     * @param familyId  the rotation family
+     * @param revokedAt the revocation timestamp
+     * @return the number of tokens revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken t SET t.revokedAt = :revokedAt " +
+           "WHERE t.familyId = :familyId AND t.revokedAt IS NULL")
+    int revokeFamily(@Param("familyId") String familyId, @Param("revokedAt") LocalDateTime revokedAt);
+
+    /**
+     * Delete tokens that expired before the given time.
+     *
+     * @param cutoff the expiry cutoff
+     * @return the number of tokens deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,47 @@
+package com.diaries.repository;
+
+import com.diaries.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for RevokedToken entity.
+ * Provides the reads that keep the in-memory revocation filter current.
+ */
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    /**
+     * Find the IDs of the tokens revoked since the given time.
+     *
+     * @param since the earliest revocation time
+     * @return the token IDs
+     */
+    @Query("SELECT t.tokenId FROM RevokedToken t WHERE t.revokedAt >= :since")
+    List<String> findTokenIdsRevokedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Find the IDs of the revoked tokens that have not expired yet.
+     *
+     * @param now the current time
+     * @return the token IDs
+     */
+    @Query("SELECT t.tokenId FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<String> findUnexpiredTokenIds(@Param("now") LocalDateTime now);
+
+    /**
+     * Delete revocations of tokens that expired before the given time.
+     *
+     * @param cutoff the expiry cutoff
+     * @return the number of revocations deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt < :cutoff")
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,168 @@
+package com.diaries.repository;
+
+import com.diaries.entity.StoredDiaryEntry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Read-only repository for diary entries in either storage tier.
+ * Provides the lookup, listing and search queries the services answer from both the hot table
+ * and the archive.
+ */
+@Repository
+public interface StoredDiaryEntryRepository extends org.springframework.data.repository.Repository<StoredDiaryEntry, Long> {
+
+    /**
+     * Search condition matching entries whose content is stored compressed by their
+     * {@code contentTerms}, which are read from each tier's table so that entries loaded through
+     * this view do not carry them.
+     */
+    String COMPRESSED_CONTENT_MATCHES =
+            "OR d.id IN (SELECT e.id FROM DiaryEntry e WHERE e.userId = :userId " +
+            "AND LOWER(e.contentTerms) LIKE LOWER(CONCAT('%', :keyword, '%'))) " +
+            "OR d.id IN (SELECT a.id FROM ArchivedDiaryEntry a WHERE a.userId = :userId " +
+            "AND LOWER(a.contentTerms) LIKE LOWER(CONCAT('%', :keyword, '%')))";
+
+    /**
+     * Find a diary entry by ID if it belongs to the given user.
+     *
+     * @param id     the diary entry ID
+     * @param userId the ID of the user
+     * @return the diary entry, if it exists in either tier and belongs to the user
+     */
+    Optional<StoredDiaryEntry> findByIdAndUserId(Long id, Long userId);
+
+    /**
+     * Check whether a diary entry exists in either tier, whoever owns it.
+     *
+     * @param id the diary entry ID
+     * @return true if the entry exists
+     */
+    boolean existsById(Long id);
+
+    /**
+     * Find the owner of a diary entry in either tier.
+     *
+     * @param id the diary entry ID
+     * @return the ID of the user owning the entry, if it exists
+     */
+    @Query("SELECT d.userId FROM StoredDiaryEntry d WHERE d.id = :id")
+    Optional<Long> findUserIdById(@Param("id") Long id);
+
+    /**
+     * Find some diary entries of a user by ID, in either tier.
+     *
+     * @param userId the ID of the user
+     * @param ids    the diary entry IDs
+     * @return the entries that exist and belong to the user, in no particular order
+     */
+    List<StoredDiaryEntry> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    /**
+     * Find all diary entries for a specific user ordered by entry date descending.
+     *
+     * @param userId   the ID of the user
+     * @param pageable pagination information
+     * @return a page of diary entries belonging to the user, ordered by entry date (newest first)
+     */
+    Page<StoredDiaryEntry> findByUserIdOrderByEntryDateDesc(Long userId, Pageable pageable);
+
+    /**
+     * Search diary entries by keyword in title or content with date range filtering.
+     * The search is case-insensitive and filters by user ID for data isolation.
+     *
+     * @param userId    the ID of the user
+     * @param keyword   the keyword to search for in title and content
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate   the end date of the range (inclusive)
+     * @param pageable  pagination information
+     * @return a page of matching diary entries
+     */
+    @Query("SELECT d FROM StoredDiaryEntry d WHERE d.userId = :userId " +
+           "AND (LOWER(d.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(d.content) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           COMPRESSED_CONTENT_MATCHES + ") " +
+           "AND d.entryDate BETWEEN :startDate AND :endDate")
+    Page<StoredDiaryEntry> searchEntries(
+        @Param("userId") Long userId,
+        @Param("keyword") String keyword,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        Pageable pageable
+    );
+
+    /**
+     * Search diary entries by keyword in title or content without date filtering.
+     * The search is case-insensitive and filters by user ID for data isolation.
+     *
+     * @param userId   the ID of the user
+     * @param keyword  the keyword to search for in title and content
+     * @param pageable pagination information
+     * @return a page of matching diary entries
+     */
+    @Query("SELECT d FROM StoredDiaryEntry d WHERE d.userId = :userId " +
+           "AND (LOWER(d.title) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           "OR LOWER(d.content) LIKE LOWER(CONCAT('%', :keyword, '%')) " +
+           COMPRESSED_CONTENT_MATCHES + ")")
+    Page<StoredDiaryEntry> searchEntriesByKeyword(
+        @Param("userId") Long userId,
+        @Param("keyword") String keyword,
+        Pageable pageable
+    );
+
+    /**
+     * Find diary entries within a date range for a specific user.
+     *
+     * @param userId    the ID of the user
+     * @param startDate the start date of the range (inclusive)
+     * @param endDate   the end date of the range (inclusive)
+     * @param pageable  pagination information
+     * @return a page of diary entries within the date range
+     */
+    @Query("SELECT d FROM StoredDiaryEntry d WHERE d.userId = :userId " +
+           "AND d.entryDate BETWEEN :startDate AND :endDate")
+    Page<StoredDiaryEntry> findByUserIdAndEntryDateBetween(
+        @Param("userId") Long userId,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        Pageable pageable
+    );
+
+    /**
+     * Find diary entries for a specific date and user.
+     *
+     * @param userId    the ID of the user
+     * @param entryDate the specific date to search for
+     * @param pageable  pagination information
+     * @return a page of diary entries for the specified date
+     */
+    Page<StoredDiaryEntry> findByUserIdAndEntryDate(
+        Long userId,
+        LocalDate entryDate,
+        Pageable pageable
+    );
+
+    /**
+     * Find the next entries of a user in ID order, with only their date and content.
+     *
+     * @param userId   the ID of the user
+     * @param afterId  only entries with a greater ID are returned
+     * @param pageable the batch size
+     * @return the entries' dates and content
+     */
+    @Query("SELECT new com.diaries.repository.StoredEntryContent(d.id, d.entryDate, d.content, d.compressedContent) " +
+           "FROM StoredDiaryEntry d WHERE d.userId = :userId AND d.id > :afterId ORDER BY d.id")
+    List<StoredEntryContent> findContentAfter(
+        @Param("userId") Long userId,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+}
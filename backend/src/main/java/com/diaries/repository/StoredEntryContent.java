@@ -0,0 +1,24 @@
+package com.diaries.repository;
+
+import java.time.LocalDate;
+
+/**
+ * The date and content of a stored entry, without the rest of the entity.
+ * Instances are not managed, so reading many of them does not grow the persistence context.
+ *
+ * @param id                the diary entry ID
+ * @param entryDate         the entry date
+ * @param content           the content stored as text, or null
+ * @param compressedContent the content stored compressed, or null
+ */
+public record StoredEntryContent(Long id, LocalDate entryDate, String content, String compressedContent) {
+
+    /**
+     * Get the content, from whichever column holds it.
+     *
+     * @return the content
+     */
+    public String text() {
+        return content != null ? content : compressedContent;
+    }
+}
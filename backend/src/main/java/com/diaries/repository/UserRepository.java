@@ -1,9 +1,17 @@
 package com.diaries.repository;
 
 import com.diaries.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -28,4 +36,41 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * @return true if a user with the email exists, false otherwise
      */
     boolean existsByEmail(String email);
+
+    /**
+     * Replace a user's password hash without loading the user.
+     *
+     * @param id        the ID of the user
+     * @param password  the new password hash
+     * @param updatedAt the time of the change
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password, u.updatedAt = :updatedAt WHERE u.id = :id")
+    int updatePassword(
+        @Param("id") Long id,
+        @Param("password") String password,
+        @Param("updatedAt") LocalDateTime updatedAt
+    );
+
+    /**
+     * Find and lock a user until the end of the transaction.
+     * Serializes the creation of rows that belong to the user, such as their statistics.
+     *
+     * @param id the ID of the user
+     * @return the user, if found
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM User u WHERE u.id = :id")
+    Optional<User> findByIdForUpdate(@Param("id") Long id);
+
+    /**
+     * Find the next user IDs in order, for jobs that visit every user.
+     *
+     * @param afterId  only IDs greater than this are returned
+     * @param pageable the batch size
+     * @return the user IDs
+     */
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
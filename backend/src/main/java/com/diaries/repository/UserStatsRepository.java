@@ -0,0 +1,48 @@
+package com.diaries.repository;
+
+import com.diaries.entity.UserStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for UserStats entity.
+ */
+@Repository
+public interface UserStatsRepository extends JpaRepository<UserStats, Long> {
+
+    /**
+     * Find and lock a user's statistics until the end of the transaction.
+     *
+     * @param userId the ID of the user
+     * @return the statistics, if the user has a row yet
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStats s WHERE s.userId = :userId")
+    Optional<UserStats> findByIdForUpdate(@Param("userId") Long userId);
+
+    /**
+     * Raise the purged cursor of some users past their tombstones older than a given time, before
+     * those are deleted. Locks the users' statistics, so no entry write of theirs runs concurrently.
+     *
+     * @param userIds the IDs of the users
+     * @param before  the time before which tombstones are purged
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("UPDATE UserStats s SET s.purgedSeq = COALESCE((SELECT MAX(c.seq) FROM EntryChange c " +
+           "WHERE c.userId = s.userId AND c.deleted = true AND c.changedAt < :before), s.purgedSeq) " +
+           "WHERE s.userId IN :userIds")
+    int advancePurgedSeq(
+        @Param("userIds") List<Long> userIds,
+        @Param("before") LocalDateTime before
+    );
+}
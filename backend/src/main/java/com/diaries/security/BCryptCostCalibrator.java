@@ -0,0 +1,94 @@
+package com.diaries.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Picks the BCrypt work factor that best matches a target hashing latency on the current hardware.
+ * Each cost step doubles the work, so the time for a single cheap probe cost is measured and
+ * extrapolated to find the largest cost that stays within the target.
+ */
+public class BCryptCostCalibrator {
+
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+    /** Lowest and highest cost accepted by BCrypt itself. */
+    static final int BCRYPT_MIN_COST = 4;
+    static final int BCRYPT_MAX_COST = 31;
+
+    private static final int PROBE_COST = 8;
+    private static final int PROBE_ROUNDS = 5;
+
+    private final long targetMillis;
+    private final int minCost;
+    private final int maxCost;
+
+    /**
+     * Create a calibrator.
+     *
+     * @param targetMillis the desired time for a single hash, in milliseconds
+     * @param minCost      the lowest cost that may be chosen regardless of hardware speed
+     * @param maxCost      the highest cost that may be chosen regardless of hardware speed
+     */
+    public BCryptCostCalibrator(long targetMillis, int minCost, int maxCost) {
+        if (targetMillis <= 0) {
+            throw new IllegalArgumentException("Target hash time must be positive");
+        }
+        if (minCost < BCRYPT_MIN_COST || maxCost > BCRYPT_MAX_COST || minCost > maxCost) {
+            throw new IllegalArgumentException(
+                    "BCrypt cost bounds must satisfy " + BCRYPT_MIN_COST + " <= min <= max <= " + BCRYPT_MAX_COST);
+        }
+        this.targetMillis = targetMillis;
+        this.minCost = minCost;
+        this.maxCost = maxCost;
+    }
+
+    /**
+     * Measure the hardware and return the calibrated cost.
+     *
+     * @return the chosen BCrypt cost, clamped to the configured bounds
+     */
+    public int calibrate() {
+        double probeNanos = measureProbeNanos();
+        int cost = costForProbe(probeNanos);
+        logger.info("Calibrated BCrypt cost {} (probe cost {} took {} us, target {} ms)",
+                cost, PROBE_COST, Math.round(probeNanos / 1_000), targetMillis);
+        return cost;
+    }
+
+    /**
+     * Compute the cost for a measured probe time. Separated from the measurement so it can be tested.
+     *
+     * @param probeNanos time taken by one hash at the probe cost, in nanoseconds
+     * @return the largest cost whose extrapolated time stays within the target, clamped to the bounds
+     */
+    int costForProbe(double probeNanos) {
+        double targetNanos = targetMillis * 1_000_000.0;
+        int cost = PROBE_COST;
+        double estimate = Math.max(probeNanos, 1.0);
+        while (cost < maxCost && estimate * 2 <= targetNanos) {
+            estimate *= 2;
+            cost++;
+        }
+        while (cost > minCost && estimate > targetNanos) {
+            estimate /= 2;
+            cost--;
+        }
+        return Math.max(minCost, Math.min(maxCost, cost));
+    }
+
+    private double measureProbeNanos() {
+        String salt = BCrypt.gensalt(PROBE_COST);
+        // Warm up the JIT so the first measurement is not dominated by interpretation
+        BCrypt.hashpw("calibration-warmup", salt);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < PROBE_ROUNDS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration-probe", salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,102 @@
+package com.diaries.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size Bloom filter of strings, safe for concurrent adds and lookups.
+ * {@link #mightContain} never returns false for a value that was added, and returns true for
+ * other values with about the false positive rate the filter was sized for, as long as no more
+ * than the expected number of values are added.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Create a filter sized for the given number of values and false positive rate.
+     *
+     * @param expectedValues    the number of values expected to be added
+     * @param falsePositiveRate the false positive rate at that number of values, between 0 and 1
+     */
+    BloomFilter(int expectedValues, double falsePositiveRate) {
+        int values = Math.max(1, expectedValues);
+        long bits = (long) Math.ceil(-values * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray((int) Math.max(1, (bits + 63) / 64));
+        this.bitCount = words.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / values * Math.log(2)));
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param value the value
+     * @return false if the value may have been added before
+     */
+    boolean add(String value) {
+        long hash = hash(value);
+        long step = mix(hash) | 1;
+        boolean added = false;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0) {
+                if (words.compareAndSet(word, current, current | mask)) {
+                    added = true;
+                    break;
+                }
+                current = words.get(word);
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Check whether a value may have been added.
+     *
+     * @param value the value
+     * @return false if the value was certainly not added
+     */
+    boolean mightContain(String value) {
+        long hash = hash(value);
+        long step = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash + i * step, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the size of the filter.
+     *
+     * @return the number of bits
+     */
+    long bitCount() {
+        return bitCount;
+    }
+
+    private static long hash(String value) {
+        // 64-bit FNV-1a over the UTF-8 bytes, then mixed so every bit depends on every byte
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The SplitMix64 finalizer.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,5 +1,7 @@
 package com.diaries.security;
 
+import com.diaries.timing.RequestTimings;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +20,7 @@ import java.io.IOException;
 
 /**
  * JWT authentication filter that intercepts requests and validates JWT tokens.
+ * Tokens revoked in the {@link TokenRevocationList} are not accepted.
  * Extends OncePerRequestFilter to ensure it's executed once per request.
  */
 @Component
@@ -27,21 +30,27 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationList tokenRevocationList;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsServiceImpl userDetailsService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserDetailsServiceImpl userDetailsService,
+                                   TokenRevocationList tokenRevocationList) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationList = tokenRevocationList;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.current();
+        long start = timings != null ? System.nanoTime() : 0;
         try {
             String jwt = getJwtFromRequest(request);
+            Claims claims = StringUtils.hasText(jwt) ? jwtTokenProvider.parseToken(jwt) : null;
 
-            if (StringUtils.hasText(jwt) && jwtTokenProvider.validateToken(jwt)) {
-                Long userId = jwtTokenProvider.getUserIdFromToken(jwt);
+            if (claims != null && !tokenRevocationList.isRevoked(claims.getId())) {
+                Long userId = Long.parseLong(claims.getSubject());
 
                 UserDetails userDetails = userDetailsService.loadUserById(userId);
                 UsernamePasswordAuthenticationToken authentication =
@@ -54,6 +63,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
         }
+        if (timings != null) {
+            timings.addAuth(System.nanoTime() - start);
+        }
 
         filterChain.doFilter(request, response);
     }
@@ -65,9 +77,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * @return the JWT token, or null if not found
      */
     private String getJwtFromRequest(HttpServletRequest request) {
-        String bearerToken = request.getHeader("Authorization");
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
-            return bearerToken.substring(7);
+        return getBearerToken(request.getHeader("Authorization"));
+    }
+
+    /**
+     * Extract the token from the value of an Authorization header.
+     *
+     * @param authorization the header value, or null
+     * @return the bearer token, or null if there is none
+     */
+    public static String getBearerToken(String authorization) {
+        if (StringUtils.hasText(authorization) && authorization.startsWith("Bearer ")) {
+            return authorization.substring(7);
         }
         return null;
     }
@@ -2,6 +2,7 @@ package com.diaries.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -10,10 +11,12 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * Utility class for JWT token operations.
  * Handles token generation, validation, and extraction of user information.
+ * Each token carries a random ID ({@code jti}) by which it can be revoked before it expires.
  */
 @Component
 public class JwtTokenProvider {
@@ -46,6 +49,7 @@ public class JwtTokenProvider {
         Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(String.valueOf(userId))
                 .issuedAt(now)
                 .expiration(expiryDate)
@@ -59,6 +63,7 @@ public class JwtTokenProvider {
      * @param token the JWT token
      * @return the user ID extracted from the token
      */
+    @Timed("diaries.jwt.verification")
     public Long getUserIdFromToken(String token) {
         Claims claims = Jwts.parser()
                 .verifyWith(getSigningKey())
@@ -75,13 +80,25 @@ public class JwtTokenProvider {
      * @param token the JWT token to validate
      * @return true if the token is valid, false otherwise
      */
+    @Timed("diaries.jwt.verification")
     public boolean validateToken(String token) {
+        return parseToken(token) != null;
+    }
+
+    /**
+     * Validate a JWT token and get its claims, verifying the token once.
+     *
+     * @param token the JWT token to parse
+     * @return the token's claims, or null if the token is not valid
+     */
+    @Timed("diaries.jwt.verification")
+    public Claims parseToken(String token) {
         try {
-            Jwts.parser()
+            return Jwts.parser()
                     .verifyWith(getSigningKey())
                     .build()
-                    .parseSignedClaims(token);
-            return true;
+                    .parseSignedClaims(token)
+                    .getPayload();
         } catch (SecurityException ex) {
             logger.error("Invalid JWT signature: {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
@@ -93,7 +110,7 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty: {}", ex.getMessage());
         }
-        return false;
+        return null;
     }
 
     /**
@@ -0,0 +1,56 @@
+package com.diaries.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password encoder decorator that records how long hashing and verification take.
+ * Publishes the {@code diaries.password.hash} timer tagged by operation, outcome and cost,
+ * so a cost change or a spike in failed logins shows up next to request latency.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    static final String METRIC_NAME = "diaries.password.hash";
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, int cost, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(meterRegistry, cost, "encode", "success");
+        this.matchTimer = timer(meterRegistry, cost, "matches", "match");
+        this.mismatchTimer = timer(meterRegistry, cost, "matches", "mismatch");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, int cost, String operation, String outcome) {
+        return Timer.builder(METRIC_NAME)
+                .description("Time spent hashing or verifying passwords")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("cost", String.valueOf(cost))
+                .register(meterRegistry);
+    }
+}
@@ -1,7 +1,13 @@
 package com.diaries.security;
 
+import jakarta.servlet.DispatcherType;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -34,13 +40,18 @@ public class SecurityConfig {
 
     /**
      * Configure the security filter chain.
+     * Health checks are public. Metrics are served only when actuator has its own management
+     * port, which is not published, and are public there; on the application port they are denied
+     * to every caller, since any user can register for a token.
      *
-     * @param http the HttpSecurity to configure
+     * @param http        the HttpSecurity to configure
+     * @param environment the environment, for the management port
      * @return the configured SecurityFilterChain
      * @throws Exception if an error occurs
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, Environment environment) throws Exception {
+        boolean separateManagementPort = ManagementPortType.get(environment) == ManagementPortType.DIFFERENT;
         http
                 .csrf(AbstractHttpConfigurer::disable)
                 .sessionManagement(session -> session
@@ -49,11 +60,20 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception
                         .authenticationEntryPoint(jwtAuthenticationEntryPoint)
                 )
-                .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/auth/**").permitAll()
-                        .requestMatchers("/error").permitAll()
-                        .anyRequest().authenticated()
-                )
+                .authorizeHttpRequests(auth -> {
+                    // Completing an event stream dispatches its already authorized request again
+                    auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                            .requestMatchers("/api/auth/**").permitAll()
+                            .requestMatchers("/error").permitAll()
+                            .requestMatchers("/actuator/health/**").permitAll();
+                    // On a separate management port this matches requests to that port only
+                    if (separateManagementPort) {
+                        auth.requestMatchers(EndpointRequest.to("prometheus")).permitAll();
+                    } else {
+                        auth.requestMatchers(EndpointRequest.to("prometheus")).denyAll();
+                    }
+                    auth.anyRequest().authenticated();
+                })
                 .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -61,13 +81,28 @@ public class SecurityConfig {
 
     /**
      * Configure the password encoder.
-     * Uses BCrypt with strength 12 for secure password hashing.
+     * Uses BCrypt with a fixed strength when {@code security.password.bcrypt-cost} is set,
+     * otherwise calibrates the strength at startup to hit the configured target latency.
+     * The encoder is wrapped to publish hashing and verification timings.
      *
+     * @param fixedCost     the configured cost, or 0 to calibrate
+     * @param targetMillis  the target time for a single hash when calibrating
+     * @param minCost       the lowest cost calibration may choose
+     * @param maxCost       the highest cost calibration may choose
+     * @param meterRegistry the registry to publish timings to
      * @return the password encoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(
+            @Value("${security.password.bcrypt-cost:0}") int fixedCost,
+            @Value("${security.password.target-hash-ms:250}") long targetMillis,
+            @Value("${security.password.min-cost:10}") int minCost,
+            @Value("${security.password.max-cost:14}") int maxCost,
+            MeterRegistry meterRegistry) {
+        int cost = fixedCost > 0
+                ? fixedCost
+                : new BCryptCostCalibrator(targetMillis, minCost, maxCost).calibrate();
+        return new MeteredPasswordEncoder(new BCryptPasswordEncoder(cost), cost, meterRegistry);
     }
 
     /**
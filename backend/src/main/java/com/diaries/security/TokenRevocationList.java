@@ -0,0 +1,210 @@
+package com.diaries.security;
+
+import com.diaries.entity.RevokedToken;
+import com.diaries.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Revocation list of access tokens, by JWT ID. Revocations are stored in {@code revoked_tokens}
+ * and mirrored into an in-memory {@link BloomFilter}, so checking a token that was not revoked,
+ * as on nearly every request, takes a few memory reads. Only the tokens the filter may contain
+ * are looked up in the database.
+ *
+ * <p>Tokens revoked through this instance are added to the filter at once. Every
+ * {@code jwt.revocation.refresh-ms} the filter adds the tokens revoked since its last refresh, so
+ * revocations made through other instances are enforced within that delay. Refreshes read back a
+ * minute further, to cover transactions that committed late and clocks that differ between
+ * instances. A Bloom filter cannot remove values, so once per access token lifetime
+ * ({@code jwt.expiration}) the filter is rebuilt from the revocations of tokens that have not
+ * expired. It is rebuilt sooner, and larger, once it holds more than
+ * {@code jwt.revocation.expected-tokens}. Revocations of expired tokens are deleted.
+ *
+ * <p>The filter is loaded before the web server starts. If that fails, every check reads the
+ * database until a refresh succeeds.
+ *
+ * <p>Publishes the {@code diaries.jwt.revocation.checks} counter, tagged with the {@code result}
+ * ({@code absent}, {@code revoked} or {@code false_positive}), and the
+ * {@code diaries.jwt.revocation.filter.tokens} gauge.
+ */
+@Component
+public class TokenRevocationList implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    /** How much further back than the last refresh a refresh reads. */
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final Duration rebuildInterval;
+    private final int expectedTokens;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile boolean loaded;
+    private final AtomicInteger filterTokens = new AtomicInteger();
+    private int filterCapacity;
+    private LocalDateTime refreshedAt;
+    private LocalDateTime rebuiltAt;
+    private volatile boolean running;
+
+    private final Counter absent;
+    private final Counter revoked;
+    private final Counter falsePositives;
+
+    public TokenRevocationList(
+            RevokedTokenRepository revokedTokenRepository,
+            MeterRegistry meterRegistry,
+            @Value("${jwt.expiration}") long jwtExpirationMs,
+            @Value("${jwt.revocation.expected-tokens:100000}") int expectedTokens,
+            @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.rebuildInterval = Duration.ofMillis(jwtExpirationMs);
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filterCapacity = expectedTokens;
+        this.filter = new BloomFilter(expectedTokens, falsePositiveRate);
+        this.absent = checkCounter(meterRegistry, "absent");
+        this.revoked = checkCounter(meterRegistry, "revoked");
+        this.falsePositives = checkCounter(meterRegistry, "false_positive");
+        Gauge.builder("diaries.jwt.revocation.filter.tokens", filterTokens, AtomicInteger::get)
+                .description("Revoked tokens in the in-memory revocation filter")
+                .register(meterRegistry);
+    }
+
+    private static Counter checkCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("diaries.jwt.revocation.checks")
+                .description("Access tokens checked against the revocation list")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Revoke an access token until it expires. Revoking a token twice is harmless.
+     *
+     * @param tokenId   the token's JWT ID
+     * @param expiresAt when the token expires
+     */
+    @Transactional
+    public void revoke(String tokenId, LocalDateTime expiresAt) {
+        revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt, LocalDateTime.now()));
+        add(List.of(tokenId));
+    }
+
+    /**
+     * Check whether an access token was revoked. Tokens without an ID cannot be revoked.
+     *
+     * @param tokenId the token's JWT ID, or null
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        boolean filtered = loaded;
+        if (filtered && !filter.mightContain(tokenId)) {
+            absent.increment();
+            return false;
+        }
+        boolean found = revokedTokenRepository.existsById(tokenId);
+        (found ? revoked : filtered ? falsePositives : absent).increment();
+        return found;
+    }
+
+    /**
+     * Add the tokens revoked since the last refresh to the filter, or rebuild it when due.
+     * A failure is logged and retried on the next run.
+     */
+    @Scheduled(initialDelayString = "${jwt.revocation.refresh-ms:5000}",
+            fixedDelayString = "${jwt.revocation.refresh-ms:5000}")
+    public synchronized void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (!loaded || !now.isBefore(rebuiltAt.plus(rebuildInterval)) || filterTokens.get() > filterCapacity) {
+                rebuild(now);
+            } else {
+                add(revokedTokenRepository.findTokenIdsRevokedSince(refreshedAt.minus(REFRESH_OVERLAP)));
+                refreshedAt = now;
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Refreshing the token revocation filter failed, retrying on the next run", e);
+        }
+    }
+
+    /**
+     * Delete revocations of tokens that have expired, which the signature check rejects anyway.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = revokedTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.debug("Purged {} expired token revocation(s)", deleted);
+        }
+    }
+
+    /**
+     * Replace the filter with one holding only the revocations of unexpired tokens, sized for at
+     * least twice their number. Holds the lock of {@link #add} so no revocation is added to the
+     * filter being replaced.
+     */
+    private void rebuild(LocalDateTime now) {
+        List<String> tokenIds = revokedTokenRepository.findUnexpiredTokenIds(now);
+        int capacity = Math.max(expectedTokens, tokenIds.size() * 2);
+        BloomFilter rebuilt = new BloomFilter(capacity, falsePositiveRate);
+        tokenIds.forEach(rebuilt::add);
+        filter = rebuilt;
+        filterCapacity = capacity;
+        filterTokens.set(tokenIds.size());
+        refreshedAt = now;
+        rebuiltAt = now;
+        loaded = true;
+    }
+
+    private synchronized void add(List<String> tokenIds) {
+        for (String tokenId : tokenIds) {
+            if (filter.add(tokenId)) {
+                filterTokens.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Load the filter before the web server starts accepting requests.
+     */
+    @Override
+    public void start() {
+        refresh();
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // The web server starts at DEFAULT_PHASE - 2048
+        return DEFAULT_PHASE - 4096;
+    }
+}
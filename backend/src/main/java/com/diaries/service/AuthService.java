@@ -2,95 +2,114 @@ package com.diaries.service;
 
 import com.diaries.dto.AuthResponse;
 import com.diaries.dto.LoginRequest;
+import com.diaries.dto.RefreshTokenRequest;
 import com.diaries.dto.RegisterRequest;
 import com.diaries.dto.UserDto;
 import com.diaries.entity.User;
+import com.diaries.exception.UnauthorizedException;
 import com.diaries.repository.UserRepository;
 import com.diaries.security.JwtTokenProvider;
+import com.diaries.security.TokenRevocationList;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 /**
  * Service for handling authentication operations.
  */
 @Service
+@Timed("diaries.service")
 public class AuthService {
 
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
+    private final TransactionTemplate transactionTemplate;
 
     public AuthService(
             UserRepository userRepository,
             PasswordEncoder passwordEncoder,
             JwtTokenProvider jwtTokenProvider,
-            AuthenticationManager authenticationManager) {
+            AuthenticationManager authenticationManager,
+            RefreshTokenService refreshTokenService,
+            TokenRevocationList tokenRevocationList,
+            PlatformTransactionManager transactionManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
         this.authenticationManager = authenticationManager;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Register a new user.
+     * The password is hashed before the transaction starts so no database connection is held
+     * during hashing, and the insert relies on the unique constraint on {@code users.email}
+     * instead of a separate existence check, which is both one round trip cheaper and race-free.
      *
      * @param request the registration request
-     * @return authentication response with JWT token
+     * @return authentication response with JWT and refresh tokens
      * @throws IllegalArgumentException if email already exists
      */
-    @Transactional
     public AuthResponse register(RegisterRequest request) {
-        // Check if email already exists
-        if (userRepository.existsByEmail(request.getEmail())) {
-            throw new IllegalArgumentException("Email already registered");
-        }
+        // Hash password outside the transaction
+        String encodedPassword = passwordEncoder.encode(request.getPassword());
 
-        // Create new user
-        User user = new User();
-        user.setEmail(request.getEmail());
-        user.setPassword(passwordEncoder.encode(request.getPassword()));
-        user.setFullName(request.getFullName());
-
-        // Save user
-        user = userRepository.save(user);
-
-        // Generate JWT token
-        String token = jwtTokenProvider.generateToken(user.getId());
+        try {
+            return transactionTemplate.execute(status -> {
+                // Create new user
+                User user = new User();
+                user.setEmail(request.getEmail());
+                user.setPassword(encodedPassword);
+                user.setFullName(request.getFullName());
 
-        // Create user DTO
-        UserDto userDto = new UserDto(
-                user.getId(),
-                user.getEmail(),
-                user.getFullName(),
-                user.getCreatedAt()
-        );
+                // Save user; flush so a duplicate email fails here rather than at commit
+                user = userRepository.saveAndFlush(user);
 
-        // Return authentication response
-        return new AuthResponse(
-                token,
-                jwtTokenProvider.getExpirationMs(),
-                userDto
-        );
+                return toAuthResponse(user, refreshTokenService.issue(user));
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (isUniqueViolation(e)) {
+                throw new IllegalArgumentException("Email already registered");
+            }
+            throw e;
+        }
     }
 
     /**
      * Authenticate user and generate JWT token.
+     * If the stored password hash was produced with weaker parameters than the current
+     * encoder settings, it is transparently re-hashed with the verified password.
+     * The password is verified and re-hashed before the transaction starts, like in
+     * {@link #register}, so no database connection is held during hashing.
      *
      * @param request the login request
      * @return authentication response with JWT token
      * @throws BadCredentialsException if credentials are invalid
      */
-    @Transactional(readOnly = true)
     public AuthResponse login(LoginRequest request) {
         try {
             // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
+            authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             request.getEmail(),
                             request.getPassword()
@@ -101,26 +120,90 @@ public class AuthService {
             User user = userRepository.findByEmail(request.getEmail())
                     .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
 
-            // Generate JWT token
-            String token = jwtTokenProvider.generateToken(user.getId());
-
-            // Create user DTO
-            UserDto userDto = new UserDto(
-                    user.getId(),
-                    user.getEmail(),
-                    user.getFullName(),
-                    user.getCreatedAt()
-            );
+            // Upgrade outdated password hashes while the raw password is available
+            String upgradedPassword = passwordEncoder.upgradeEncoding(user.getPassword())
+                    ? passwordEncoder.encode(request.getPassword())
+                    : null;
 
-            // Return authentication response
-            return new AuthResponse(
-                    token,
-                    jwtTokenProvider.getExpirationMs(),
-                    userDto
-            );
+            return transactionTemplate.execute(status -> {
+                if (upgradedPassword != null) {
+                    userRepository.updatePassword(user.getId(), upgradedPassword, LocalDateTime.now());
+                }
+                return toAuthResponse(user, refreshTokenService.issue(user));
+            });
         } catch (Exception e) {
             // Don't reveal specific failure reasons for security
             throw new BadCredentialsException("Invalid credentials");
         }
     }
+
+    /**
+     * Exchange a refresh token for a new access token and a rotated refresh token.
+     * Does not verify the password, so it avoids the BCrypt cost of a full login.
+     *
+     * @param request the refresh request
+     * @return authentication response with new tokens
+     * @throws UnauthorizedException if the refresh token is invalid, expired, or reused
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public AuthResponse refresh(RefreshTokenRequest request) {
+        RefreshTokenService.IssuedToken issued = refreshTokenService.rotate(request.getRefreshToken());
+        return toAuthResponse(issued.user(), issued.rawToken());
+    }
+
+    /**
+     * Revoke the refresh token family so the client can no longer obtain access tokens, and the
+     * access token the client presented, if valid, so it is not accepted until it expires.
+     *
+     * @param request     the logout request carrying the refresh token
+     * @param accessToken the access token presented with the request, or null
+     */
+    @Transactional
+    public void logout(RefreshTokenRequest request, String accessToken) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        Claims claims = accessToken != null ? jwtTokenProvider.parseToken(accessToken) : null;
+        if (claims != null && claims.getId() != null) {
+            tokenRevocationList.revoke(claims.getId(),
+                    LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+        }
+    }
+
+    /**
+     * Check whether a data integrity failure was caused by a unique constraint
+     * (SQLSTATE 23505 on both PostgreSQL and H2).
+     * The only unique constraint on {@code users} besides the primary key is the email.
+     */
+    private boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState());
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Build the authentication response for a user, generating a fresh access token.
+     */
+    private AuthResponse toAuthResponse(User user, String refreshToken) {
+        // Generate JWT token
+        String token = jwtTokenProvider.generateToken(user.getId());
+
+        // Create user DTO
+        UserDto userDto = new UserDto(
+                user.getId(),
+                user.getEmail(),
+                user.getFullName(),
+                user.getCreatedAt()
+        );
+
+        // Return authentication response
+        return new AuthResponse(
+                token,
+                jwtTokenProvider.getExpirationMs(),
+                refreshToken,
+                refreshTokenService.getExpirationMs(),
+                userDto
+        );
+    }
 }
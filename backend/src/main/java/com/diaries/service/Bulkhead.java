@@ -0,0 +1,90 @@
+package com.diaries.service;
+
+import com.diaries.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Limit on the number of calls of one class of work that run at once, so that slow work cannot
+ * take every pooled database connection from the requests that share the pool. A call waits up
+ * to the maximum wait for a permit, then fails fast with {@link BulkheadFullException} instead of
+ * queueing for a connection. Work that opens a transaction must run inside the call, so the
+ * permit is taken before the connection.
+ *
+ * <p>Publishes, tagged with the bulkhead's name, the {@code diaries.bulkhead.active} and
+ * {@code diaries.bulkhead.limit} gauges, the {@code diaries.bulkhead.wait} timer and the
+ * {@code diaries.bulkhead.rejected} counter.
+ */
+public class Bulkhead {
+
+    static final String METRIC_PREFIX = "diaries.bulkhead";
+
+    private final String name;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait")
+                .description("Time waited for a bulkhead permit")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Calls rejected by a full bulkhead")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", this, Bulkhead::active)
+                .description("Calls running in a bulkhead")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".limit", this, bulkhead -> bulkhead.maxConcurrent)
+                .description("Calls a bulkhead runs at once")
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run work once a permit is free.
+     *
+     * @param work the work
+     * @return the work's result
+     * @throws BulkheadFullException if no permit was freed within the maximum wait
+     */
+    public <T> T call(Supplier<T> work) {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            rejectedCounter.increment();
+            throw new BulkheadFullException("Too many " + name + " requests are running, try again shortly");
+        }
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+}
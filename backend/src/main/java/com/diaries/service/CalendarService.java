@@ -0,0 +1,70 @@
+package com.diaries.service;
+
+import com.diaries.dto.CalendarDayDto;
+import com.diaries.dto.CalendarDto;
+import com.diaries.entity.User;
+import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.EntryDayRollupRepository;
+import com.diaries.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service for the calendar heatmap.
+ * Reads the per-day rollup maintained by {@link DiaryEntryService}, so a year is at most 366 rows
+ * of one user's primary key range however many entries the user has written.
+ */
+@Service
+@Timed("diaries.service")
+public class CalendarService {
+
+    private static final int MIN_YEAR = 1;
+    private static final int MAX_YEAR = 9999;
+
+    private final EntryDayRollupRepository entryDayRollupRepository;
+    private final UserRepository userRepository;
+
+    public CalendarService(EntryDayRollupRepository entryDayRollupRepository, UserRepository userRepository) {
+        this.entryDayRollupRepository = entryDayRollupRepository;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Get the days of a year with entries, with their entry and word counts.
+     *
+     * @param userId the authenticated user's ID
+     * @param year   the calendar year
+     * @return the calendar of the year
+     * @throws IllegalArgumentException if the year is out of range
+     */
+    @Transactional(readOnly = true)
+    public CalendarDto getYear(Long userId, int year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            throw new IllegalArgumentException("Year must be between " + MIN_YEAR + " and " + MAX_YEAR);
+        }
+        List<CalendarDayDto> days = entryDayRollupRepository
+                .findDaysWithEntries(userId, LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31))
+                .stream()
+                .map(day -> new CalendarDayDto(day.getEntryDate(), day.getEntryCount(), day.getWordCount()))
+                .toList();
+        return new CalendarDto(year, days);
+    }
+
+    /**
+     * Get the calendar of a year for the authenticated user by email.
+     *
+     * @param email the authenticated user's email
+     * @param year  the calendar year
+     * @return the calendar of the year
+     */
+    @Transactional(readOnly = true)
+    public CalendarDto getYearByEmail(String email, int year) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return getYear(user.getId(), year);
+    }
+}
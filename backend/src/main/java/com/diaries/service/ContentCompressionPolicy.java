@@ -0,0 +1,42 @@
+package com.diaries.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides which entry content is stored compressed.
+ * Compression is opt-in and applies to content of at least the configured length; shorter content
+ * gains little and stays searchable by keyword.
+ */
+@Component
+public class ContentCompressionPolicy {
+
+    private final boolean enabled;
+    private final int minLength;
+
+    public ContentCompressionPolicy(
+            @Value("${storage.content-compression.enabled:false}") boolean enabled,
+            @Value("${storage.content-compression.min-length:4096}") int minLength) {
+        this.enabled = enabled;
+        this.minLength = minLength;
+    }
+
+    /**
+     * Check whether content should be stored compressed.
+     *
+     * @param content the entry content
+     * @return true if compression is enabled and the content is long enough
+     */
+    public boolean shouldCompress(String content) {
+        return enabled && content != null && content.length() >= minLength;
+    }
+
+    /**
+     * The shortest content that is stored compressed.
+     *
+     * @return the minimum length in characters
+     */
+    public int getMinLength() {
+        return minLength;
+    }
+}
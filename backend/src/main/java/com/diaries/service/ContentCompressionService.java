@@ -0,0 +1,84 @@
+package com.diaries.service;
+
+import com.diaries.entity.ContentTerms;
+import com.diaries.entity.DiaryEntry;
+import com.diaries.repository.DiaryEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Service that compresses the content of entries written before compression was enabled.
+ * Entries are walked in ID order and locked batch by batch, so a concurrent edit either waits for
+ * the batch or is applied before it is read.
+ */
+@Service
+@ConditionalOnProperty(name = "storage.content-compression.enabled", havingValue = "true")
+public class ContentCompressionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentCompressionService.class);
+
+    private final DiaryEntryRepository diaryEntryRepository;
+    private final ContentCompressionPolicy contentCompressionPolicy;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public ContentCompressionService(
+            DiaryEntryRepository diaryEntryRepository,
+            ContentCompressionPolicy contentCompressionPolicy,
+            TransactionTemplate transactionTemplate,
+            @Value("${storage.content-compression.batch-size:500}") int batchSize) {
+        this.diaryEntryRepository = diaryEntryRepository;
+        this.contentCompressionPolicy = contentCompressionPolicy;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Compress the content of every entry stored as text that is long enough to be compressed.
+     * A failure is logged and the remaining entries are compressed on the next run.
+     *
+     * @return the number of entries compressed
+     */
+    @Scheduled(initialDelayString = "${storage.content-compression.initial-delay-ms:180000}",
+            fixedDelayString = "${storage.content-compression.interval-ms:3600000}")
+    public long compressExistingEntries() {
+        long compressed = 0;
+        long afterId = 0;
+        try {
+            while (true) {
+                long from = afterId;
+                List<Long> ids = transactionTemplate.execute(status -> compressBatch(from));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                compressed += ids.size();
+                afterId = ids.get(ids.size() - 1);
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Compressing diary entry content failed, retrying on the next run", e);
+        }
+        if (compressed > 0) {
+            logger.info("Compressed the content of {} diary entries", compressed);
+        }
+        return compressed;
+    }
+
+    private List<Long> compressBatch(long afterId) {
+        List<DiaryEntry> entries = diaryEntryRepository.lockEntriesToCompress(
+                afterId, contentCompressionPolicy.getMinLength(), PageRequest.ofSize(batchSize));
+        for (DiaryEntry entry : entries) {
+            diaryEntryRepository.compressContent(entry.getId(), entry.getEntryDate(), entry.getUserId(),
+                    entry.getContent(), ContentTerms.of(entry.getContent()));
+        }
+        return entries.stream().map(DiaryEntry::getId).toList();
+    }
+}
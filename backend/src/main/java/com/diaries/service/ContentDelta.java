@@ -0,0 +1,222 @@
+package com.diaries.service;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes one text as a delta against another: a sequence of copies of ranges of the source and
+ * inserted text. Matches are found through a hash of the source's fixed-size blocks, then
+ * extended in both directions, so the delta grows with the size of the edit rather than of the
+ * text. Inserted characters are stored as modified UTF-8, which keeps unpaired surrogates intact.
+ *
+ * <p>Format: a version byte and the target length, then operations: {@code COPY offset length}
+ * or {@code INSERT charCount chars}, with every number as an unsigned varint.
+ */
+public final class ContentDelta {
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int COPY = 1;
+    private static final int INSERT = 2;
+
+    /** Shortest match worth a copy; also the spacing of the indexed source blocks. */
+    private static final int BLOCK = 16;
+    private static final long BASE = 1_000_003L;
+    private static final long BASE_POW_BLOCK = power(BASE, BLOCK);
+
+    private ContentDelta() {
+    }
+
+    /**
+     * Encode the delta that turns {@code source} into {@code target}.
+     *
+     * @param source the text the delta is applied to
+     * @param target the text the delta produces
+     * @return the encoded delta
+     */
+    public static byte[] encode(String source, String target) {
+        Writer out = new Writer();
+        out.writeByte(FORMAT_VERSION);
+        out.writeVarint(target.length());
+
+        Map<Long, Integer> blocks = new HashMap<>();
+        for (int pos = 0; pos + BLOCK <= source.length(); pos += BLOCK) {
+            blocks.putIfAbsent(hash(source, pos), pos);
+        }
+
+        int literalStart = 0;
+        int i = 0;
+        long hash = target.length() >= BLOCK ? hash(target, 0) : 0;
+        while (i + BLOCK <= target.length()) {
+            Integer pos = blocks.get(hash);
+            if (pos != null && source.regionMatches(pos, target, i, BLOCK)) {
+                int sourceStart = pos;
+                int targetStart = i;
+                while (sourceStart > 0 && targetStart > literalStart
+                        && source.charAt(sourceStart - 1) == target.charAt(targetStart - 1)) {
+                    sourceStart--;
+                    targetStart--;
+                }
+                int sourceEnd = pos + BLOCK;
+                int targetEnd = i + BLOCK;
+                while (sourceEnd < source.length() && targetEnd < target.length()
+                        && source.charAt(sourceEnd) == target.charAt(targetEnd)) {
+                    sourceEnd++;
+                    targetEnd++;
+                }
+                out.writeInsert(target, literalStart, targetStart);
+                out.writeByte(COPY);
+                out.writeVarint(sourceStart);
+                out.writeVarint(sourceEnd - sourceStart);
+
+                i = targetEnd;
+                literalStart = targetEnd;
+                if (i + BLOCK <= target.length()) {
+                    hash = hash(target, i);
+                }
+            } else {
+                if (i + BLOCK < target.length()) {
+                    hash = hash * BASE - target.charAt(i) * BASE_POW_BLOCK + target.charAt(i + BLOCK);
+                }
+                i++;
+            }
+        }
+        out.writeInsert(target, literalStart, target.length());
+        return out.toByteArray();
+    }
+
+    /**
+     * Apply a delta to the text it was encoded against.
+     *
+     * @param delta  the encoded delta
+     * @param source the text the delta was encoded against
+     * @return the target text
+     * @throws IllegalArgumentException if the delta is corrupt or does not fit the source
+     */
+    public static String apply(byte[] delta, String source) {
+        Reader in = new Reader(delta);
+        if (in.readByte() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown content delta format");
+        }
+        int length = in.readVarint();
+        StringBuilder target = new StringBuilder(length);
+        while (in.hasMore()) {
+            int op = in.readByte();
+            if (op == COPY) {
+                int offset = in.readVarint();
+                int count = in.readVarint();
+                if (offset + count > source.length() || offset + count < 0) {
+                    throw new IllegalArgumentException("Content delta copies past the end of its source");
+                }
+                target.append(source, offset, offset + count);
+            } else if (op == INSERT) {
+                int count = in.readVarint();
+                for (int c = 0; c < count; c++) {
+                    target.append(in.readChar());
+                }
+            } else {
+                throw new IllegalArgumentException("Corrupt content delta");
+            }
+        }
+        if (target.length() != length) {
+            throw new IllegalArgumentException("Content delta produced the wrong length");
+        }
+        return target.toString();
+    }
+
+    private static long hash(String text, int start) {
+        long hash = 0;
+        for (int i = start; i < start + BLOCK; i++) {
+            hash = hash * BASE + text.charAt(i);
+        }
+        return hash;
+    }
+
+    private static long power(long base, int exponent) {
+        long result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= base;
+        }
+        return result;
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        void writeByte(int value) {
+            write(value);
+        }
+
+        void writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        void writeInsert(String text, int start, int end) {
+            if (start == end) {
+                return;
+            }
+            writeByte(INSERT);
+            writeVarint(end - start);
+            for (int i = start; i < end; i++) {
+                char c = text.charAt(i);
+                if (c != 0 && c < 0x80) {
+                    write(c);
+                } else if (c < 0x800) {
+                    write(0xC0 | (c >> 6));
+                    write(0x80 | (c & 0x3F));
+                } else {
+                    write(0xE0 | (c >> 12));
+                    write(0x80 | ((c >> 6) & 0x3F));
+                    write(0x80 | (c & 0x3F));
+                }
+            }
+        }
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasMore() {
+            return position < data.length;
+        }
+
+        int readByte() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated content delta");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Corrupt content delta");
+        }
+
+        char readChar() {
+            int b = readByte();
+            if (b < 0x80) {
+                return (char) b;
+            }
+            if ((b & 0xE0) == 0xC0) {
+                return (char) (((b & 0x1F) << 6) | (readByte() & 0x3F));
+            }
+            return (char) (((b & 0x0F) << 12) | ((readByte() & 0x3F) << 6) | (readByte() & 0x3F));
+        }
+    }
+}
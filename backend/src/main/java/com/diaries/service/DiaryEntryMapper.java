@@ -0,0 +1,71 @@
+package com.diaries.service;
+
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.entity.ArchivedDiaryEntry;
+import com.diaries.entity.DiaryEntry;
+import com.diaries.entity.StoredDiaryEntry;
+
+/**
+ * Maps diary entry entities to their API representation.
+ * Shared by the services that return diary entries so the mapping stays in one place.
+ */
+public final class DiaryEntryMapper {
+
+    private DiaryEntryMapper() {
+    }
+
+    /**
+     * Convert DiaryEntry entity to DTO.
+     * Reads only the user ID from the association, which does not initialize a lazy user proxy.
+     *
+     * @param entry the diary entry entity
+     * @return the diary entry DTO
+     */
+    public static DiaryEntryDto toDto(DiaryEntry entry) {
+        return new DiaryEntryDto(
+                entry.getId(),
+                entry.getTitle(),
+                entry.getContent(),
+                entry.getEntryDate(),
+                entry.getUser().getId(),
+                entry.getCreatedAt(),
+                entry.getUpdatedAt()
+        );
+    }
+
+    /**
+     * Convert a diary entry read from either storage tier to DTO.
+     *
+     * @param entry the stored diary entry
+     * @return the diary entry DTO
+     */
+    public static DiaryEntryDto toDto(StoredDiaryEntry entry) {
+        return new DiaryEntryDto(
+                entry.getId(),
+                entry.getTitle(),
+                entry.getContent(),
+                entry.getEntryDate(),
+                entry.getUserId(),
+                entry.getCreatedAt(),
+                entry.getUpdatedAt()
+        );
+    }
+
+    /**
+     * Convert an archived diary entry to DTO.
+     *
+     * @param entry the archived diary entry
+     * @return the diary entry DTO
+     */
+    public static DiaryEntryDto toDto(ArchivedDiaryEntry entry) {
+        return new DiaryEntryDto(
+                entry.getId(),
+                entry.getTitle(),
+                entry.getContent(),
+                entry.getEntryDate(),
+                entry.getUserId(),
+                entry.getCreatedAt(),
+                entry.getUpdatedAt()
+        );
+    }
+}
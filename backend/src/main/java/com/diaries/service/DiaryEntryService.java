@@ -3,29 +3,76 @@ package com.diaries.service;
 import com.diaries.dto.CreateDiaryEntryRequest;
 import com.diaries.dto.DiaryEntryDto;
 import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.entity.ArchivedDiaryEntry;
 import com.diaries.entity.DiaryEntry;
 import com.diaries.entity.User;
+import com.diaries.entity.UserStats;
 import com.diaries.exception.ForbiddenException;
 import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.ArchivedDiaryEntryRepository;
 import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.EntryDayRollupRepository;
+import com.diaries.repository.StoredDiaryEntryRepository;
 import com.diaries.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 /**
  * Service for managing diary entries.
+ * Reads cover both storage tiers; an archived entry is updated or deleted in the archive.
+ * Updates and deletes lock a hot entry as they read it, so it is not archived under them.
+ * Every write also updates the per-day calendar rollup and the user's statistics in the same
+ * transaction, and an update records the version it replaces as a revision. Each write is also
+ * recorded in the user's change log for incremental sync. Writes lock the statistics first, so
+ * the writes of one user are applied one at a time.
+ * Autosaved drafts buffered by {@link DraftService} are shown to their owner by {@code getEntryById},
+ * merged into an update and discarded by a delete, once the update or delete commits.
+ * Listing entries is cancelled by the database after {@code queries.list.timeout-seconds}.
  */
 @Service
+@Timed("diaries.service")
 public class DiaryEntryService {
 
     private final DiaryEntryRepository diaryEntryRepository;
+    private final ArchivedDiaryEntryRepository archivedDiaryEntryRepository;
+    private final StoredDiaryEntryRepository storedDiaryEntryRepository;
     private final UserRepository userRepository;
+    private final ContentCompressionPolicy contentCompressionPolicy;
+    private final EntryDayRollupRepository entryDayRollupRepository;
+    private final UserStatsService userStatsService;
+    private final EntryRevisionService entryRevisionService;
+    private final EntryChangeService entryChangeService;
+    private final DraftBuffer draftBuffer;
 
-    public DiaryEntryService(DiaryEntryRepository diaryEntryRepository, UserRepository userRepository) {
+    public DiaryEntryService(
+            DiaryEntryRepository diaryEntryRepository,
+            ArchivedDiaryEntryRepository archivedDiaryEntryRepository,
+            StoredDiaryEntryRepository storedDiaryEntryRepository,
+            UserRepository userRepository,
+            ContentCompressionPolicy contentCompressionPolicy,
+            EntryDayRollupRepository entryDayRollupRepository,
+            UserStatsService userStatsService,
+            EntryRevisionService entryRevisionService,
+            EntryChangeService entryChangeService,
+            DraftBuffer draftBuffer) {
         this.diaryEntryRepository = diaryEntryRepository;
+        this.archivedDiaryEntryRepository = archivedDiaryEntryRepository;
+        this.storedDiaryEntryRepository = storedDiaryEntryRepository;
         this.userRepository = userRepository;
+        this.contentCompressionPolicy = contentCompressionPolicy;
+        this.entryDayRollupRepository = entryDayRollupRepository;
+        this.userStatsService = userStatsService;
+        this.entryRevisionService = entryRevisionService;
+        this.entryChangeService = entryChangeService;
+        this.draftBuffer = draftBuffer;
     }
 
     /**
@@ -41,19 +88,24 @@ public class DiaryEntryService {
         // Get user
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UserStats stats = userStatsService.lockStats(userId);
 
         // Create diary entry
         DiaryEntry entry = new DiaryEntry();
         entry.setTitle(request.getTitle());
-        entry.setContent(request.getContent());
+        entry.setContent(request.getContent(), contentCompressionPolicy.shouldCompress(request.getContent()));
         entry.setEntryDate(request.getEntryDate());
         entry.setUser(user);
 
         // Save entry
         entry = diaryEntryRepository.save(entry);
+        int words = WordCounter.count(request.getContent());
+        addToCalendar(userId, entry.getEntryDate(), 1, words);
+        userStatsService.recordCreate(stats, entry.getEntryDate(), words);
+        entryChangeService.recordCreate(stats, entry.getId());
 
         // Return DTO
-        return toDto(entry);
+        return DiaryEntryMapper.toDto(entry);
     }
 
     /**
@@ -80,10 +132,10 @@ public class DiaryEntryService {
      * @param pageable pagination information
      * @return page of diary entry DTOs
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, timeoutString = "${queries.list.timeout-seconds:5}")
     public Page<DiaryEntryDto> getEntriesByUser(Long userId, Pageable pageable) {
-        return diaryEntryRepository.findByUserIdOrderByEntryDateDesc(userId, pageable)
-                .map(this::toDto);
+        return storedDiaryEntryRepository.findByUserIdOrderByEntryDateDesc(userId, pageable)
+                .map(DiaryEntryMapper::toDto);
     }
 
     /**
@@ -93,7 +145,7 @@ public class DiaryEntryService {
      * @param pageable pagination information
      * @return page of diary entry DTOs
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, timeoutString = "${queries.list.timeout-seconds:5}")
     public Page<DiaryEntryDto> getEntriesByUserEmail(String email, Pageable pageable) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
@@ -101,7 +153,7 @@ public class DiaryEntryService {
     }
 
     /**
-     * Get a single diary entry by ID.
+     * Get a single diary entry by ID, with the user's pending draft of it applied.
      * Verifies that the entry belongs to the authenticated user.
      *
      * @param entryId the diary entry ID
@@ -112,15 +164,11 @@ public class DiaryEntryService {
      */
     @Transactional(readOnly = true)
     public DiaryEntryDto getEntryById(Long entryId, Long userId) {
-        DiaryEntry entry = diaryEntryRepository.findById(entryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Diary entry not found"));
-
-        // Verify ownership
-        if (!entry.getUser().getId().equals(userId)) {
-            throw new ForbiddenException("You don't have permission to access this diary entry");
-        }
-
-        return toDto(entry);
+        DiaryEntryDto entry = storedDiaryEntryRepository.findByIdAndUserId(entryId, userId)
+                .map(DiaryEntryMapper::toDto)
+                .orElseThrow(() -> notOwned(entryId, "access"));
+        DraftBuffer.Draft draft = draftBuffer.get(entryId, userId);
+        return draft != null ? draft.applyTo(entry) : entry;
     }
 
     /**
@@ -142,7 +190,8 @@ public class DiaryEntryService {
 
     /**
      * Update an existing diary entry.
-     * Verifies that the entry belongs to the authenticated user.
+     * Verifies that the entry belongs to the authenticated user. A pending draft of the entry is
+     * written with the update, for the fields the update does not set.
      *
      * @param entryId the diary entry ID
      * @param request the update request
@@ -153,20 +202,76 @@ public class DiaryEntryService {
      */
     @Transactional
     public DiaryEntryDto updateEntry(Long entryId, UpdateDiaryEntryRequest request, Long userId) {
-        DiaryEntry entry = diaryEntryRepository.findById(entryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Diary entry not found"));
+        UserStats stats = userStatsService.lockStats(userId);
+        DraftBuffer.Draft draft = claimDraft(entryId, userId);
+        return update(entryId, draft != null ? draft.toRequest(request) : request, userId, stats);
+    }
+
+    /**
+     * Write a draft buffered by {@link DraftService}, in the caller's transaction. The draft is
+     * skipped if, by the time the owner's statistics are locked, a later save replaced it or an
+     * update or delete claimed it.
+     *
+     * @param entryId the diary entry ID
+     * @param draft   the buffered draft
+     * @return true if the draft was written
+     */
+    boolean applyDraft(Long entryId, DraftBuffer.Draft draft) {
+        UserStats stats = userStatsService.lockStats(draft.getUserId());
+        if (!draftBuffer.isPending(entryId, draft)) {
+            return false;
+        }
+        update(entryId, draft.toRequest(null), draft.getUserId(), stats);
+        return true;
+    }
+
+    /**
+     * Claim the pending draft of an entry for the current transaction, which supersedes it.
+     * The draft is removed from the buffer once the transaction commits, and kept if it rolls back.
+     *
+     * @param entryId the diary entry ID
+     * @param userId  the authenticated user's ID
+     * @return the draft, or null if there is none
+     */
+    private DraftBuffer.Draft claimDraft(Long entryId, Long userId) {
+        DraftBuffer.Draft draft = draftBuffer.claim(entryId, userId);
+        if (draft != null) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    draftBuffer.release(entryId, draft, status == STATUS_COMMITTED);
+                }
+            });
+        }
+        return draft;
+    }
 
-        // Verify ownership
-        if (!entry.getUser().getId().equals(userId)) {
-            throw new ForbiddenException("You don't have permission to update this diary entry");
+    /**
+     * Update an entry in whichever tier holds it, with the owner's statistics locked.
+     *
+     * @param entryId the diary entry ID
+     * @param request the update request
+     * @param userId  the authenticated user's ID
+     * @param stats   the locked statistics
+     * @return the updated diary entry DTO
+     */
+    private DiaryEntryDto update(Long entryId, UpdateDiaryEntryRequest request, Long userId, UserStats stats) {
+        DiaryEntry entry = diaryEntryRepository.findByIdAndUserIdForUpdate(entryId, userId).orElse(null);
+        if (entry == null) {
+            return updateArchivedEntry(entryId, request, userId, stats);
         }
+        String previousTitle = entry.getTitle();
+        String previousContent = entry.getContent();
+        LocalDate previousDate = entry.getEntryDate();
+        LocalDateTime previousSavedAt = entry.getUpdatedAt();
+        int previousWords = changesCalendar(request) ? WordCounter.count(previousContent) : 0;
 
         // Update fields if provided
         if (request.getTitle() != null) {
             entry.setTitle(request.getTitle());
         }
         if (request.getContent() != null) {
-            entry.setContent(request.getContent());
+            entry.setContent(request.getContent(), contentCompressionPolicy.shouldCompress(request.getContent()));
         }
         if (request.getEntryDate() != null) {
             entry.setEntryDate(request.getEntryDate());
@@ -174,7 +279,13 @@ public class DiaryEntryService {
 
         // Save and return
         entry = diaryEntryRepository.save(entry);
-        return toDto(entry);
+        if (changesCalendar(request)) {
+            recordEdit(stats, userId, previousDate, previousWords,
+                    entry.getEntryDate(), WordCounter.count(entry.getContent()));
+        }
+        recordChange(stats, entryId, previousTitle, previousContent, previousDate, previousSavedAt,
+                entry.getTitle(), entry.getContent(), entry.getEntryDate());
+        return DiaryEntryMapper.toDto(entry);
     }
 
     /**
@@ -206,15 +317,22 @@ public class DiaryEntryService {
      */
     @Transactional
     public void deleteEntry(Long entryId, Long userId) {
-        DiaryEntry entry = diaryEntryRepository.findById(entryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Diary entry not found"));
-
-        // Verify ownership
-        if (!entry.getUser().getId().equals(userId)) {
-            throw new ForbiddenException("You don't have permission to delete this diary entry");
+        UserStats stats = userStatsService.lockStats(userId);
+        claimDraft(entryId, userId);
+        DiaryEntry entry = diaryEntryRepository.findByIdAndUserIdForUpdate(entryId, userId).orElse(null);
+        if (entry == null) {
+            ArchivedDiaryEntry archived = findOwnedArchivedEntry(entryId, userId, "delete");
+            archivedDiaryEntryRepository.delete(archived);
+            entryRevisionService.deleteRevisions(entryId);
+            entryChangeService.recordDelete(stats, entryId);
+            recordDelete(stats, userId, archived.getEntryDate(), WordCounter.count(archived.getContent()));
+            return;
         }
 
         diaryEntryRepository.delete(entry);
+        entryRevisionService.deleteRevisions(entryId);
+        entryChangeService.recordDelete(stats, entryId);
+        recordDelete(stats, userId, entry.getEntryDate(), WordCounter.count(entry.getContent()));
     }
 
     /**
@@ -234,17 +352,157 @@ public class DiaryEntryService {
     }
 
     /**
-     * Convert DiaryEntry entity to DTO.
+     * Update an entry that is not in the hot table, in the archive.
+     *
+     * @param entryId the diary entry ID
+     * @param request the update request
+     * @param userId  the authenticated user's ID
+     * @param stats   the locked statistics
+     * @return the updated diary entry DTO
+     */
+    private DiaryEntryDto updateArchivedEntry(Long entryId, UpdateDiaryEntryRequest request, Long userId,
+                                              UserStats stats) {
+        ArchivedDiaryEntry entry = findOwnedArchivedEntry(entryId, userId, "update");
+        String previousTitle = entry.getTitle();
+        String previousContent = entry.getContent();
+        LocalDate previousDate = entry.getEntryDate();
+        LocalDateTime previousSavedAt = entry.getUpdatedAt();
+        int previousWords = changesCalendar(request) ? WordCounter.count(previousContent) : 0;
+
+        if (request.getTitle() != null) {
+            entry.setTitle(request.getTitle());
+        }
+        if (request.getContent() != null) {
+            entry.setContent(request.getContent(), contentCompressionPolicy.shouldCompress(request.getContent()));
+        }
+        if (request.getEntryDate() != null) {
+            entry.setEntryDate(request.getEntryDate());
+        }
+
+        entry = archivedDiaryEntryRepository.save(entry);
+        if (changesCalendar(request)) {
+            recordEdit(stats, userId, previousDate, previousWords,
+                    entry.getEntryDate(), WordCounter.count(entry.getContent()));
+        }
+        recordChange(stats, entryId, previousTitle, previousContent, previousDate, previousSavedAt,
+                entry.getTitle(), entry.getContent(), entry.getEntryDate());
+        return DiaryEntryMapper.toDto(entry);
+    }
+
+    /**
+     * Check whether an update changes the entry's day or words; a title change does not.
+     *
+     * @param request the update request
+     * @return true if the calendar rollup and statistics must be updated
+     */
+    private static boolean changesCalendar(UpdateDiaryEntryRequest request) {
+        return request.getContent() != null || request.getEntryDate() != null;
+    }
+
+    /**
+     * Record the version an update replaced as a revision, and the update in the change log,
+     * unless the update changed nothing.
+     *
+     * @param stats           the locked statistics
+     * @param entryId         the diary entry ID
+     * @param previousTitle   the title before the update
+     * @param previousContent the content before the update
+     * @param previousDate    the entry date before the update
+     * @param previousSavedAt when the replaced version was saved
+     * @param title           the title after the update
+     * @param content         the content after the update
+     * @param date            the entry date after the update
+     */
+    private void recordChange(UserStats stats, Long entryId, String previousTitle, String previousContent,
+                              LocalDate previousDate, LocalDateTime previousSavedAt,
+                              String title, String content, LocalDate date) {
+        if (previousTitle.equals(title) && previousContent.equals(content) && previousDate.equals(date)) {
+            return;
+        }
+        entryRevisionService.recordRevision(entryId, previousTitle, previousContent, previousDate,
+                previousSavedAt, content);
+        entryChangeService.recordUpdate(stats, entryId);
+    }
+
+    /**
+     * Update the calendar rollup and statistics for an edited entry, moving it to its new day if it
+     * has one.
+     *
+     * @param stats         the locked statistics
+     * @param userId        the authenticated user's ID
+     * @param previousDate  the entry date before the update
+     * @param previousWords the word count before the update
+     * @param date          the entry date after the update
+     * @param words         the word count after the update
+     */
+    private void recordEdit(UserStats stats, Long userId, LocalDate previousDate, int previousWords,
+                            LocalDate date, int words) {
+        if (previousDate.equals(date)) {
+            addToCalendar(userId, date, 0, words - previousWords);
+        } else {
+            addToCalendar(userId, previousDate, -1, -previousWords);
+            addToCalendar(userId, date, 1, words);
+        }
+        userStatsService.recordUpdate(stats, previousDate, previousWords, date, words);
+    }
+
+    /**
+     * Update the calendar rollup and statistics for a deleted entry.
+     *
+     * @param stats  the locked statistics
+     * @param userId the authenticated user's ID
+     * @param date   the entry date
+     * @param words  the entry's word count
+     */
+    private void recordDelete(UserStats stats, Long userId, LocalDate date, int words) {
+        addToCalendar(userId, date, -1, -words);
+        userStatsService.recordDelete(stats, words);
+    }
+
+    /**
+     * Add to the entry and word counts of a user's day, creating the day if it has no rollup yet.
+     * A day is updated in place in the common case; only the first entry of a day inserts.
+     *
+     * @param userId  the authenticated user's ID
+     * @param date    the day
+     * @param entries the change in the number of entries
+     * @param words   the change in the number of words
+     */
+    private void addToCalendar(Long userId, LocalDate date, int entries, int words) {
+        if (entries == 0 && words == 0) {
+            return;
+        }
+        if (entryDayRollupRepository.addToDay(userId, date, entries, words) == 0) {
+            entryDayRollupRepository.insertDay(userId, date, entries, words);
+        }
+    }
+
+    /**
+     * Load an archived entry by ID and owner.
+     *
+     * @param entryId the diary entry ID
+     * @param userId  the authenticated user's ID
+     * @param action  the attempted action, for the error message
+     * @return the archived diary entry
+     * @throws ResourceNotFoundException if entry not found
+     * @throws ForbiddenException        if entry doesn't belong to user
+     */
+    private ArchivedDiaryEntry findOwnedArchivedEntry(Long entryId, Long userId, String action) {
+        return archivedDiaryEntryRepository.findByIdAndUserId(entryId, userId)
+                .orElseThrow(() -> notOwned(entryId, action));
+    }
+
+    /**
+     * Build the error for an entry the user does not own in any tier.
+     * Only a miss pays for the extra query that tells a missing entry from someone else's.
+     *
+     * @param entryId the diary entry ID
+     * @param action  the attempted action, for the error message
+     * @return ForbiddenException if the entry exists, otherwise ResourceNotFoundException
      */
-    private DiaryEntryDto toDto(DiaryEntry entry) {
-        return new DiaryEntryDto(
-                entry.getId(),
-                entry.getTitle(),
-                entry.getContent(),
-                entry.getEntryDate(),
-                entry.getUser().getId(),
-                entry.getCreatedAt(),
-                entry.getUpdatedAt()
-        );
+    private RuntimeException notOwned(Long entryId, String action) {
+        return storedDiaryEntryRepository.existsById(entryId)
+                ? new ForbiddenException("You don't have permission to " + action + " this diary entry")
+                : new ResourceNotFoundException("Diary entry not found");
     }
 }
@@ -0,0 +1,234 @@
+package com.diaries.service;
+
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory buffer of the autosaved drafts of diary entries, at most one per entry.
+ * A save merges into the entry's pending draft, so any number of saves between two flushes are
+ * written as one update. Each save replaces the draft object, and a flush removes only the
+ * object it wrote, so a save made during a flush is kept for the next one.
+ *
+ * <p>An update or delete of the entry claims its draft rather than removing it, and releases it
+ * when its transaction completes: a committed draft is removed, while a rolled back one stays
+ * pending, under any saves made in the meantime.
+ */
+@Component
+public class DraftBuffer {
+
+    private final Map<Long, Draft> drafts = new ConcurrentHashMap<>();
+
+    /**
+     * Merge a save into the pending draft of an entry; fields not set keep their pending value.
+     *
+     * @param entryId the diary entry ID
+     * @param userId  the ID of the user owning the entry
+     * @param request the saved fields
+     * @param now     the time of the save, in milliseconds
+     * @return the number of pending drafts
+     */
+    int save(Long entryId, Long userId, UpdateDiaryEntryRequest request, long now) {
+        drafts.compute(entryId, (id, pending) -> pending == null || !pending.userId.equals(userId) || pending.claimed
+                ? new Draft(userId, request.getTitle(), request.getContent(), request.getEntryDate(), now, now)
+                : pending.merge(request, now));
+        return drafts.size();
+    }
+
+    /**
+     * Get the pending draft of an entry owned by a user.
+     *
+     * @param entryId the diary entry ID
+     * @param userId  the ID of the user
+     * @return the draft, or null if there is none
+     */
+    Draft get(Long entryId, Long userId) {
+        Draft draft = drafts.get(entryId);
+        return draft != null && draft.userId.equals(userId) ? draft : null;
+    }
+
+    /**
+     * Claim the pending draft of an entry owned by a user, when an update or delete supersedes it.
+     * A claimed draft is still shown to its owner, but is not written by a flush, and a later save
+     * starts a new draft. It must be {@linkplain #release released} once the transaction ends.
+     *
+     * @param entryId the diary entry ID
+     * @param userId  the ID of the user
+     * @return the draft, or null if there is none or it is already claimed
+     */
+    Draft claim(Long entryId, Long userId) {
+        Draft[] claimed = new Draft[1];
+        drafts.computeIfPresent(entryId, (id, draft) -> {
+            if (draft.userId.equals(userId) && !draft.claimed) {
+                draft.claimed = true;
+                claimed[0] = draft;
+            }
+            return draft;
+        });
+        return claimed[0];
+    }
+
+    /**
+     * Release a claimed draft once the transaction that claimed it has ended. A committed draft is
+     * removed; a rolled back one is pending again, with the fields of any later save taking
+     * precedence.
+     *
+     * @param entryId   the diary entry ID
+     * @param draft     the claimed draft
+     * @param committed whether the transaction committed
+     */
+    void release(Long entryId, Draft draft, boolean committed) {
+        drafts.compute(entryId, (id, current) -> {
+            if (committed) {
+                return current == draft ? null : current;
+            }
+            draft.claimed = false;
+            if (current == null || current == draft) {
+                return draft;
+            }
+            return current.userId.equals(draft.userId) ? current.over(draft) : current;
+        });
+    }
+
+    /**
+     * Check whether a draft is still the pending draft of its entry.
+     *
+     * @param entryId the diary entry ID
+     * @param draft   the draft
+     * @return false if it was replaced by a later save or taken by an update or delete
+     */
+    boolean isPending(Long entryId, Draft draft) {
+        return drafts.get(entryId) == draft && !draft.claimed;
+    }
+
+    /**
+     * Remove a draft once written, unless a later save replaced it or an update or delete
+     * claimed it.
+     *
+     * @param entryId the diary entry ID
+     * @param draft   the written draft
+     */
+    void remove(Long entryId, Draft draft) {
+        drafts.computeIfPresent(entryId, (id, current) -> current == draft && !draft.claimed ? null : current);
+    }
+
+    /**
+     * Find the unclaimed drafts due to be written, oldest first: those not saved again for
+     * {@code idleMillis}, or first saved more than {@code maxDelayMillis} ago.
+     *
+     * @param now            the current time, in milliseconds
+     * @param idleMillis     the time without saves after which a draft is written
+     * @param maxDelayMillis the longest a draft stays buffered while it keeps being saved
+     * @return the due drafts by entry ID
+     */
+    List<Map.Entry<Long, Draft>> due(long now, long idleMillis, long maxDelayMillis) {
+        List<Map.Entry<Long, Draft>> due = new ArrayList<>();
+        drafts.forEach((entryId, draft) -> {
+            if (!draft.claimed && now - draft.lastSavedAt >= idleMillis || now - draft.firstSavedAt >= maxDelayMillis) {
+                due.add(Map.entry(entryId, draft));
+            }
+        });
+        due.sort(Comparator.comparingLong(entry -> entry.getValue().firstSavedAt));
+        return due;
+    }
+
+    /**
+     * Get the number of pending drafts.
+     *
+     * @return the number of pending drafts
+     */
+    int size() {
+        return drafts.size();
+    }
+
+    /**
+     * A pending draft: the latest value of each field saved since the last flush.
+     * Compared by identity, so a draft replaced by a later save is never mistaken for it.
+     */
+    public static final class Draft {
+
+        private final Long userId;
+        private final String title;
+        private final String content;
+        private final LocalDate entryDate;
+        private final long firstSavedAt;
+        private final long lastSavedAt;
+        private volatile boolean claimed;
+
+        private Draft(Long userId, String title, String content, LocalDate entryDate, long firstSavedAt,
+                      long lastSavedAt) {
+            this.userId = userId;
+            this.title = title;
+            this.content = content;
+            this.entryDate = entryDate;
+            this.firstSavedAt = firstSavedAt;
+            this.lastSavedAt = lastSavedAt;
+        }
+
+        private Draft merge(UpdateDiaryEntryRequest request, long now) {
+            return new Draft(userId,
+                    request.getTitle() != null ? request.getTitle() : title,
+                    request.getContent() != null ? request.getContent() : content,
+                    request.getEntryDate() != null ? request.getEntryDate() : entryDate,
+                    firstSavedAt, now);
+        }
+
+        /**
+         * Combine this draft with an earlier one whose fields it was saved over.
+         */
+        private Draft over(Draft earlier) {
+            return new Draft(userId,
+                    title != null ? title : earlier.title,
+                    content != null ? content : earlier.content,
+                    entryDate != null ? entryDate : earlier.entryDate,
+                    Math.min(firstSavedAt, earlier.firstSavedAt), lastSavedAt);
+        }
+
+        public Long getUserId() {
+            return userId;
+        }
+
+        /**
+         * Build the update that writes this draft, with the fields of {@code request} taking
+         * precedence.
+         *
+         * @param request the update superseding the draft, or null to write the draft alone
+         * @return the update request
+         */
+        public UpdateDiaryEntryRequest toRequest(UpdateDiaryEntryRequest request) {
+            if (request == null) {
+                return new UpdateDiaryEntryRequest(title, content, entryDate);
+            }
+            return new UpdateDiaryEntryRequest(
+                    request.getTitle() != null ? request.getTitle() : title,
+                    request.getContent() != null ? request.getContent() : content,
+                    request.getEntryDate() != null ? request.getEntryDate() : entryDate);
+        }
+
+        /**
+         * Show the draft's fields on a stored entry, so its owner reads their own saves.
+         *
+         * @param entry the stored entry
+         * @return the same DTO, with the draft applied
+         */
+        public DiaryEntryDto applyTo(DiaryEntryDto entry) {
+            if (title != null) {
+                entry.setTitle(title);
+            }
+            if (content != null) {
+                entry.setContent(content);
+            }
+            if (entryDate != null) {
+                entry.setEntryDate(entryDate);
+            }
+            return entry;
+        }
+    }
+}
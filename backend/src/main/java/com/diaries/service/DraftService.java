@@ -0,0 +1,239 @@
+package com.diaries.service;
+
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.entity.User;
+import com.diaries.exception.ForbiddenException;
+import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.StoredDiaryEntryRepository;
+import com.diaries.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service for autosaved drafts of diary entries, buffered in memory and written behind.
+ * A save only checks that the user owns the entry, the first time it is buffered, and merges it
+ * into the entry's pending draft. Drafts are written as regular updates, up to
+ * {@code drafts.batch-size} per transaction, once their entry has not been saved for
+ * {@code drafts.idle-ms}, once they have been buffered for {@code drafts.max-delay-ms}, and
+ * whenever {@code drafts.max-pending} drafts are pending. Every pending draft is written when the
+ * application stops, after the web server has stopped accepting saves.
+ *
+ * <p>Drafts live on the instance that accepted them: its {@code GET /api/diary-entries/{id}} shows
+ * them to their owner, other instances show the entry as last written. A draft is lost if the
+ * instance dies without stopping, so at most {@code drafts.max-delay-ms} of saves.
+ */
+@Service
+@Timed("diaries.service")
+public class DraftService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(DraftService.class);
+
+    private final DraftBuffer draftBuffer;
+    private final DiaryEntryService diaryEntryService;
+    private final StoredDiaryEntryRepository storedDiaryEntryRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final long idleMillis;
+    private final long maxDelayMillis;
+    private final int maxPending;
+    private final int batchSize;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private volatile boolean running;
+
+    public DraftService(
+            DraftBuffer draftBuffer,
+            DiaryEntryService diaryEntryService,
+            StoredDiaryEntryRepository storedDiaryEntryRepository,
+            UserRepository userRepository,
+            TransactionTemplate transactionTemplate,
+            TaskScheduler taskScheduler,
+            @Value("${drafts.idle-ms:5000}") long idleMillis,
+            @Value("${drafts.max-delay-ms:30000}") long maxDelayMillis,
+            @Value("${drafts.max-pending:1000}") int maxPending,
+            @Value("${drafts.batch-size:100}") int batchSize) {
+        this.draftBuffer = draftBuffer;
+        this.diaryEntryService = diaryEntryService;
+        this.storedDiaryEntryRepository = storedDiaryEntryRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.taskScheduler = taskScheduler;
+        this.idleMillis = idleMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Buffer an autosaved draft of an entry of the authenticated user.
+     *
+     * @param entryId the diary entry ID
+     * @param request the saved fields
+     * @param userId  the authenticated user's ID
+     * @throws ResourceNotFoundException if entry not found
+     * @throws ForbiddenException        if entry doesn't belong to user
+     */
+    public void saveDraft(Long entryId, UpdateDiaryEntryRequest request, Long userId) {
+        if (draftBuffer.get(entryId, userId) == null) {
+            storedDiaryEntryRepository.findByIdAndUserId(entryId, userId)
+                    .orElseThrow(() -> storedDiaryEntryRepository.existsById(entryId)
+                            ? new ForbiddenException("You don't have permission to update this diary entry")
+                            : new ResourceNotFoundException("Diary entry not found"));
+        }
+        int pending = draftBuffer.save(entryId, userId, request, System.currentTimeMillis());
+        if (pending >= maxPending && flushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(() -> {
+                flushScheduled.set(false);
+                flushAll();
+            }, Instant.now());
+        }
+    }
+
+    /**
+     * Buffer an autosaved draft of an entry of the authenticated user by email.
+     *
+     * @param entryId the diary entry ID
+     * @param request the saved fields
+     * @param email   the authenticated user's email
+     */
+    public void saveDraftByEmail(Long entryId, UpdateDiaryEntryRequest request, String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        saveDraft(entryId, request, user.getId());
+    }
+
+    /**
+     * Write the drafts that are idle or have been buffered for the maximum delay.
+     *
+     * @return the number of drafts written
+     */
+    @Scheduled(fixedDelayString = "${drafts.flush-check-interval-ms:1000}")
+    public int flushDue() {
+        return flush(draftBuffer.due(System.currentTimeMillis(), idleMillis, maxDelayMillis));
+    }
+
+    /**
+     * Write every pending draft.
+     *
+     * @return the number of drafts written
+     */
+    public int flushAll() {
+        return flush(draftBuffer.due(System.currentTimeMillis(), 0, 0));
+    }
+
+    /**
+     * Write drafts in batches, one transaction each. A draft whose entry was deleted is dropped.
+     * If a batch fails, its drafts are written one transaction each, and a draft that fails again
+     * stays buffered and is retried by the next flush.
+     */
+    private int flush(List<Map.Entry<Long, DraftBuffer.Draft>> drafts) {
+        if (drafts.isEmpty()) {
+            return 0;
+        }
+        int written = 0;
+        flushLock.lock();
+        try {
+            for (int from = 0; from < drafts.size(); from += batchSize) {
+                List<Map.Entry<Long, DraftBuffer.Draft>> batch =
+                        new ArrayList<>(drafts.subList(from, Math.min(from + batchSize, drafts.size())));
+                // Lock the owners' statistics in one order, so concurrent batches cannot deadlock
+                batch.sort(Comparator.comparing((Map.Entry<Long, DraftBuffer.Draft> pending) ->
+                        pending.getValue().getUserId()).thenComparing(Map.Entry::getKey));
+                try {
+                    written += transactionTemplate.execute(status -> writeBatch(batch));
+                    batch.forEach(pending -> draftBuffer.remove(pending.getKey(), pending.getValue()));
+                } catch (RuntimeException e) {
+                    logger.debug("Writing a batch of {} draft(s) failed, writing them one by one", batch.size(), e);
+                    for (Map.Entry<Long, DraftBuffer.Draft> pending : batch) {
+                        written += writeOne(pending.getKey(), pending.getValue());
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+        return written;
+    }
+
+    /**
+     * Write a batch of drafts in the current transaction. Only a missing entry is skipped: any
+     * other failure may leave the transaction unusable, so it fails the batch.
+     */
+    private int writeBatch(List<Map.Entry<Long, DraftBuffer.Draft>> batch) {
+        int written = 0;
+        for (Map.Entry<Long, DraftBuffer.Draft> pending : batch) {
+            try {
+                if (diaryEntryService.applyDraft(pending.getKey(), pending.getValue())) {
+                    written++;
+                }
+            } catch (ResourceNotFoundException e) {
+                // Deleted since it was saved; removed with the batch
+            }
+        }
+        return written;
+    }
+
+    private int writeOne(Long entryId, DraftBuffer.Draft draft) {
+        try {
+            boolean written = Boolean.TRUE.equals(transactionTemplate.execute(
+                    status -> diaryEntryService.applyDraft(entryId, draft)));
+            draftBuffer.remove(entryId, draft);
+            return written ? 1 : 0;
+        } catch (ResourceNotFoundException e) {
+            draftBuffer.remove(entryId, draft);
+        } catch (RuntimeException e) {
+            logger.warn("Writing the draft of diary entry {} failed, retrying on the next flush", entryId, e);
+        }
+        return 0;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Write every pending draft before the application context closes.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        int written = flushAll();
+        if (written > 0) {
+            logger.info("Wrote {} pending draft(s) on shutdown", written);
+        }
+        if (draftBuffer.size() > 0) {
+            logger.warn("{} draft(s) could not be written on shutdown", draftBuffer.size());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stop after the web server, so no draft is accepted after the final flush.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+}
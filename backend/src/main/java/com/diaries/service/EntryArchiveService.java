@@ -0,0 +1,80 @@
+package com.diaries.service;
+
+import com.diaries.repository.ArchivedDiaryEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service that moves old diary entries from the hot {@code diary_entries} table to
+ * {@code diary_entries_archive}, so the hot table and its indexes hold only the entries most
+ * reads touch. Each batch is copied and deleted in one transaction while its rows are locked,
+ * so an entry is never visible in both tiers or lost to a concurrent update.
+ * Instances running it concurrently skip each other's locked rows.
+ */
+@Service
+@ConditionalOnProperty(name = "archive.enabled", havingValue = "true")
+public class EntryArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryArchiveService.class);
+
+    private final ArchivedDiaryEntryRepository archivedDiaryEntryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int minAgeDays;
+    private final int batchSize;
+
+    public EntryArchiveService(
+            ArchivedDiaryEntryRepository archivedDiaryEntryRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${archive.min-age-days:365}") int minAgeDays,
+            @Value("${archive.batch-size:1000}") int batchSize) {
+        this.archivedDiaryEntryRepository = archivedDiaryEntryRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Archive every entry dated more than the configured number of days ago, in batches.
+     * A failure is logged and the remaining entries are archived on the next run.
+     *
+     * @return the number of entries archived
+     */
+    @Scheduled(initialDelayString = "${archive.initial-delay-ms:120000}",
+            fixedDelayString = "${archive.interval-ms:3600000}")
+    public long archiveOldEntries() {
+        LocalDate cutoff = LocalDate.now().minusDays(minAgeDays);
+        long archived = 0;
+        try {
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                archived += moved;
+            } while (moved == batchSize);
+        } catch (DataAccessException e) {
+            logger.warn("Archiving diary entries failed, retrying on the next run", e);
+        }
+        if (archived > 0) {
+            logger.info("Archived {} diary entries dated before {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private int archiveBatch(LocalDate cutoff) {
+        List<Long> ids = archivedDiaryEntryRepository.lockEntriesToArchive(cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedDiaryEntryRepository.copyFromHotTier(ids, cutoff);
+        archivedDiaryEntryRepository.deleteFromHotTier(ids, cutoff);
+        return ids.size();
+    }
+}
@@ -0,0 +1,328 @@
+package com.diaries.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service that relays the changes to users' entries between instances with PostgreSQL
+ * {@code NOTIFY} and {@code LISTEN}, so the {@link SearchResultCache} and the change streams of
+ * every instance see writes made through any of them.
+ *
+ * <p>Once a write has committed, the ID of its owner is queued. Every {@code invalidation.batch-ms}
+ * the queued IDs are sent as one notification on the {@value #CHANNEL} channel, tagged with this
+ * instance's ID. The other instances publish an {@link EntryChangedEvent} for each ID they receive
+ * and ignore their own notifications. Past {@code invalidation.max-pending} queued users, a single
+ * notification invalidates every user instead.
+ *
+ * <p>Notifications are sent and received on one dedicated connection, outside the pool. When it
+ * fails, IDs stay queued and it is opened again after a delay doubling up to
+ * {@code invalidation.reconnect-max-ms}. Notifications sent while it was closed are lost, so this
+ * instance then publishes an {@link EntryChangesMissedEvent}. Notifications are not sent for
+ * writes of an instance that stops before its next batch; the cache's TTL bounds how long others
+ * may serve those users' stale pages.
+ */
+@Service
+@ConditionalOnProperty(name = "invalidation.enabled", havingValue = "true")
+public class EntryChangeBus implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryChangeBus.class);
+
+    static final String CHANNEL = "diaries_entry_changes";
+
+    /** Payload of a notification for every user. */
+    static final String ALL_USERS = "*";
+
+    /** Longest payload sent; PostgreSQL rejects payloads of 8000 bytes or more. */
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+
+    /** Longest a statement or a reconnect waits on the server before the connection is dropped. */
+    private static final int NETWORK_TIMEOUT_MILLIS = 10_000;
+
+    /** Idle time after which the connection is checked, so a dead one is replaced. */
+    private static final long KEEPALIVE_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private static final long MIN_RECONNECT_MILLIS = 500;
+
+    private final DataSource dataSource;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long batchMillis;
+    private final int maxPending;
+    private final long maxReconnectMillis;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private volatile boolean allPending;
+
+    private final Counter sent;
+    private final Counter received;
+    private final Counter reconnects;
+
+    private volatile boolean running;
+    private Thread listener;
+
+    @Autowired
+    public EntryChangeBus(
+            DataSourceProperties dataSourceProperties,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${invalidation.batch-ms:50}") long batchMillis,
+            @Value("${invalidation.max-pending:10000}") int maxPending,
+            @Value("${invalidation.reconnect-max-ms:30000}") long maxReconnectMillis) {
+        this(dataSourceProperties.initializeDataSourceBuilder().type(SimpleDriverDataSource.class).build(),
+                eventPublisher, meterRegistry, batchMillis, maxPending, maxReconnectMillis);
+    }
+
+    EntryChangeBus(DataSource dataSource, ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry,
+                   long batchMillis, int maxPending, long maxReconnectMillis) {
+        this.dataSource = dataSource;
+        this.eventPublisher = eventPublisher;
+        this.batchMillis = batchMillis;
+        this.maxPending = maxPending;
+        this.maxReconnectMillis = maxReconnectMillis;
+        this.sent = notificationCounter(meterRegistry, "sent");
+        this.received = notificationCounter(meterRegistry, "received");
+        this.reconnects = Counter.builder("diaries.invalidation.reconnects")
+                .description("Connections for entry change notifications opened again after a failure")
+                .register(meterRegistry);
+        Gauge.builder("diaries.invalidation.pending", pending, Set::size)
+                .description("Users with committed changes not yet announced to other instances")
+                .register(meterRegistry);
+    }
+
+    private static Counter notificationCounter(MeterRegistry meterRegistry, String direction) {
+        return Counter.builder("diaries.invalidation.notifications")
+                .description("Entry change notifications exchanged with other instances")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue the owner of changed entries to be announced, once the change has committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEntryChanged(EntryChangedEvent event) {
+        if (event.remote() || allPending) {
+            return;
+        }
+        pending.add(event.userId());
+        if (pending.size() > maxPending) {
+            allPending = true;
+            pending.clear();
+        }
+    }
+
+    /**
+     * Send the queued users as notifications. Users whose notification failed stay queued.
+     *
+     * @param connection the connection to send on
+     * @return whether anything was sent
+     * @throws SQLException if sending failed
+     */
+    boolean flush(Connection connection) throws SQLException {
+        List<Long> userIds = new ArrayList<>();
+        for (Iterator<Long> queued = pending.iterator(); queued.hasNext(); ) {
+            userIds.add(queued.next());
+            queued.remove();
+        }
+        boolean all = allPending;
+        allPending = false;
+        if (userIds.isEmpty() && !all) {
+            return false;
+        }
+        List<String> payloads = all ? List.of(nodeId + ":" + ALL_USERS) : payloads(nodeId, userIds);
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (String payload : payloads) {
+                statement.setString(1, CHANNEL);
+                statement.setString(2, payload);
+                statement.execute();
+                sent.increment();
+            }
+        } catch (SQLException e) {
+            // Sent again after reconnecting; payloads already sent are repeated, which is harmless
+            if (all) {
+                allPending = true;
+            } else {
+                pending.addAll(userIds);
+            }
+            throw e;
+        }
+        return true;
+    }
+
+    /**
+     * Split user IDs into the payloads of as few notifications as fit them.
+     *
+     * @param nodeId  the ID of the sending instance
+     * @param userIds the IDs of the users
+     * @return the payloads, each {@code <nodeId>:<userId>,<userId>...}
+     */
+    static List<String> payloads(String nodeId, List<Long> userIds) {
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(nodeId).append(':');
+        int emptyLength = payload.length();
+        for (Long userId : userIds) {
+            String id = userId.toString();
+            if (payload.length() > emptyLength && payload.length() + 1 + id.length() > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.toString());
+                payload.setLength(emptyLength);
+            }
+            if (payload.length() > emptyLength) {
+                payload.append(',');
+            }
+            payload.append(id);
+        }
+        payloads.add(payload.toString());
+        return payloads;
+    }
+
+    /**
+     * Publish the changes announced by a notification, unless this instance sent it.
+     *
+     * @param payload the notification's payload
+     */
+    void receive(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        received.increment();
+        String users = payload.substring(separator + 1);
+        if (users.equals(ALL_USERS)) {
+            eventPublisher.publishEvent(new EntryChangesMissedEvent());
+            return;
+        }
+        for (String userId : users.split(",")) {
+            try {
+                eventPublisher.publishEvent(new EntryChangedEvent(Long.valueOf(userId), true));
+            } catch (NumberFormatException e) {
+                logger.warn("Ignoring invalid user ID '{}' in an entry change notification", userId);
+            }
+        }
+    }
+
+    /**
+     * Listen for notifications and send the queued ones until stopped, reconnecting after
+     * failures.
+     */
+    void listen() {
+        long reconnectMillis = MIN_RECONNECT_MILLIS;
+        boolean missed = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setNetworkTimeout(Runnable::run, NETWORK_TIMEOUT_MILLIS);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (missed) {
+                    logger.info("Listening for entry changes again");
+                    eventPublisher.publishEvent(new EntryChangesMissedEvent());
+                    missed = false;
+                }
+                reconnectMillis = MIN_RECONNECT_MILLIS;
+                relay(connection);
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                missed = true;
+                reconnects.increment();
+                logger.warn("Listening for entry changes failed, reconnecting in {} ms", reconnectMillis, e);
+                try {
+                    Thread.sleep(reconnectMillis);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                reconnectMillis = Math.min(reconnectMillis * 2, maxReconnectMillis);
+            }
+        }
+    }
+
+    private void relay(Connection connection) throws SQLException {
+        PGConnection notifications = connection.unwrap(PGConnection.class);
+        long lastStatement = System.nanoTime();
+        while (running) {
+            if (flush(connection)) {
+                lastStatement = System.nanoTime();
+            } else if (System.nanoTime() - lastStatement > KEEPALIVE_NANOS) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SELECT 1");
+                }
+                lastStatement = System.nanoTime();
+            }
+            PGNotification[] received = notifications.getNotifications((int) batchMillis);
+            if (received != null) {
+                for (PGNotification notification : received) {
+                    receive(notification.getParameter());
+                }
+            }
+        }
+        // Announce the writes of the last requests before closing
+        flush(connection);
+    }
+
+    /**
+     * Start listening before the web server starts.
+     */
+    @Override
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "entry-change-bus");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    /**
+     * Stop listening once the web server has stopped, after sending the notifications queued by
+     * its last requests.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            try {
+                listener.join(batchMillis + NETWORK_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listener.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        // The web server starts and stops at DEFAULT_PHASE - 2048
+        return DEFAULT_PHASE - 4096;
+    }
+}
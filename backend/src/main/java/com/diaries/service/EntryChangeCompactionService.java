@@ -0,0 +1,81 @@
+package com.diaries.service;
+
+import com.diaries.repository.EntryChangeRepository;
+import com.diaries.repository.UserStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service that purges the tombstones of deleted entries from the change log once they are older
+ * than {@code sync.tombstone-retention-days}. Changes of live entries need no compaction: an
+ * entry keeps one change, moved forward by each write. Each batch of users first raises their
+ * purged cursor, which locks their statistics, then deletes their tombstones in the same
+ * transaction, so clients holding an older cursor are told to sync again from the start.
+ */
+@Service
+@ConditionalOnProperty(name = "sync.compaction.enabled", havingValue = "true")
+public class EntryChangeCompactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryChangeCompactionService.class);
+
+    private final EntryChangeRepository entryChangeRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int tombstoneRetentionDays;
+    private final int batchSize;
+
+    public EntryChangeCompactionService(
+            EntryChangeRepository entryChangeRepository,
+            UserStatsRepository userStatsRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${sync.tombstone-retention-days:90}") int tombstoneRetentionDays,
+            @Value("${sync.compaction.batch-size:500}") int batchSize) {
+        this.entryChangeRepository = entryChangeRepository;
+        this.userStatsRepository = userStatsRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tombstoneRetentionDays = tombstoneRetentionDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Purge the tombstones past retention, a batch of users at a time.
+     * A failure is logged and the remaining tombstones are purged on the next run.
+     *
+     * @return the number of tombstones purged
+     */
+    @Scheduled(initialDelayString = "${sync.compaction.initial-delay-ms:300000}",
+            fixedDelayString = "${sync.compaction.interval-ms:3600000}")
+    public long purgeTombstones() {
+        LocalDateTime before = LocalDateTime.now().minusDays(tombstoneRetentionDays);
+        long purged = 0;
+        try {
+            while (true) {
+                List<Long> userIds = entryChangeRepository.findUserIdsWithTombstonesBefore(before,
+                        PageRequest.of(0, batchSize));
+                if (userIds.isEmpty()) {
+                    break;
+                }
+                purged += transactionTemplate.execute(status -> {
+                    userStatsRepository.advancePurgedSeq(userIds, before);
+                    return entryChangeRepository.deleteTombstonesBefore(userIds, before);
+                });
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Purging change log tombstones failed, retrying on the next run", e);
+        }
+        if (purged > 0) {
+            logger.info("Purged {} change log tombstones", purged);
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,298 @@
+package com.diaries.service;
+
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.EntryChangesDto;
+import com.diaries.entity.EntryChange;
+import com.diaries.entity.StoredDiaryEntry;
+import com.diaries.entity.User;
+import com.diaries.entity.UserStats;
+import com.diaries.exception.GoneException;
+import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.EntryChangeRepository;
+import com.diaries.repository.StoredDiaryEntryRepository;
+import com.diaries.repository.UserRepository;
+import com.diaries.repository.UserStatsRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service for the change log that clients sync diary entries from incrementally.
+ * {@link DiaryEntryService} records every write of an entry under the owner's statistics lock,
+ * at the next value of the user's change cursor, so the changes of one user are numbered in
+ * commit order. A client sends the cursor it last received and gets the entries created,
+ * updated and deleted since, in cursor order.
+ *
+ * <p>Without a cursor, the log is read from the start without its tombstones, which returns the
+ * user's current entries; the cursors of such a full sync carry a prefix until it catches up.
+ * They also carry the user's cursor when the full sync started: entries deleted after that may
+ * have been returned on an earlier page, so their tombstones are returned.
+ * Tombstones older than {@code sync.tombstone-retention-days} are purged by
+ * {@link EntryChangeCompactionService}; a cursor from before a purged tombstone could miss that
+ * deletion, so it is rejected with 410 Gone and the client syncs again from the start.
+ * Reads of the log are cancelled by the database after {@code queries.sync.timeout-seconds}.
+ *
+ * <p>Each recorded change also publishes an {@link EntryChangedEvent}, which
+ * {@link EntryChangeStreamService}, {@link SearchResultCache} and {@link EntryChangeBus} handle
+ * once the write has committed.
+ */
+@Service
+@Timed("diaries.service")
+public class EntryChangeService {
+
+    /** Prefix of the cursors of a full sync that has not caught up yet. */
+    private static final String FULL_SYNC = "f";
+
+    /** Separates the start of a full sync from its position in its cursors. */
+    private static final char FULL_SYNC_SEPARATOR = '.';
+
+    private final EntryChangeRepository entryChangeRepository;
+    private final StoredDiaryEntryRepository storedDiaryEntryRepository;
+    private final UserStatsRepository userStatsRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxChanges;
+
+    public EntryChangeService(
+            EntryChangeRepository entryChangeRepository,
+            StoredDiaryEntryRepository storedDiaryEntryRepository,
+            UserStatsRepository userStatsRepository,
+            UserRepository userRepository,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${sync.max-changes:500}") int maxChanges) {
+        this.entryChangeRepository = entryChangeRepository;
+        this.storedDiaryEntryRepository = storedDiaryEntryRepository;
+        this.userStatsRepository = userStatsRepository;
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.maxChanges = maxChanges;
+    }
+
+    /**
+     * Get the changes to the entries of the authenticated user after a cursor.
+     * An entry changed again or deleted while the changes are read is returned as it is now, or
+     * left out; either way its latest change follows the returned cursor.
+     *
+     * @param userId the authenticated user's ID
+     * @param since  the cursor returned by the previous request, or null to sync from the start
+     * @param limit  the maximum number of changes to return
+     * @return the changes, with the cursor to send next
+     * @throws IllegalArgumentException if the cursor or limit is not valid
+     * @throws GoneException            if the cursor has expired
+     */
+    @Transactional(readOnly = true, timeoutString = "${queries.sync.timeout-seconds:30}")
+    public EntryChangesDto getChanges(Long userId, String since, int limit) {
+        if (limit < 1 || limit > maxChanges) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxChanges);
+        }
+        boolean fullSync = since == null || since.isEmpty() || since.startsWith(FULL_SYNC);
+        long after = parseCursor(since);
+
+        UserStats stats = userStatsRepository.findById(userId).orElse(null);
+        long latest = stats != null ? stats.getChangeSeq() : 0;
+        long tombstonesAfter = fullSync ? parseFullSyncStart(since, latest) : after;
+        checkCursor(stats, after, tombstonesAfter);
+
+        List<EntryChange> changes = entryChangeRepository.findChangesAfter(userId, after, tombstonesAfter,
+                PageRequest.of(0, limit + 1));
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        List<Long> changedIds = new ArrayList<>();
+        for (EntryChange change : changes) {
+            if (!change.isDeleted()) {
+                changedIds.add(change.getEntryId());
+            }
+        }
+        Map<Long, StoredDiaryEntry> entries = new HashMap<>();
+        if (!changedIds.isEmpty()) {
+            for (StoredDiaryEntry entry : storedDiaryEntryRepository.findByUserIdAndIdIn(userId, changedIds)) {
+                entries.put(entry.getId(), entry);
+            }
+        }
+
+        List<DiaryEntryDto> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (EntryChange change : changes) {
+            if (change.isDeleted()) {
+                deleted.add(change.getEntryId());
+            } else if (entries.containsKey(change.getEntryId())) {
+                changed.add(DiaryEntryMapper.toDto(entries.get(change.getEntryId())));
+            }
+        }
+
+        long reached = changes.isEmpty() ? after : changes.get(changes.size() - 1).getSeq();
+        String cursor;
+        if (hasMore) {
+            cursor = fullSync ? FULL_SYNC + tombstonesAfter + FULL_SYNC_SEPARATOR + reached : Long.toString(reached);
+        } else {
+            // Nothing is left to return up to the user's cursor, including skipped tombstones
+            cursor = Long.toString(Math.max(reached, latest));
+        }
+        return new EntryChangesDto(changed, deleted, cursor, hasMore);
+    }
+
+    /**
+     * Get the changes to the entries of the authenticated user after a cursor, by email.
+     *
+     * @param email the authenticated user's email
+     * @param since the cursor returned by the previous request, or null to sync from the start
+     * @param limit the maximum number of changes to return
+     * @return the changes, with the cursor to send next
+     */
+    @Transactional(readOnly = true, timeoutString = "${queries.sync.timeout-seconds:30}")
+    public EntryChangesDto getChangesByEmail(String email, String since, int limit) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return getChanges(user.getId(), since, limit);
+    }
+
+    /**
+     * Get the changes recorded after a cursor, without the entries they refer to.
+     * Used to notify clients of changes; the entries are fetched with {@link #getChanges}.
+     *
+     * @param userId the user's ID
+     * @param after  the cursor of the last change already notified
+     * @param limit  the maximum number of changes to return
+     * @return the changes, in cursor order
+     * @throws GoneException if the cursor has expired
+     */
+    @Transactional(readOnly = true, timeoutString = "${queries.sync.timeout-seconds:30}")
+    public List<EntryChange> getChangeLog(Long userId, long after, int limit) {
+        checkCursor(userStatsRepository.findById(userId).orElse(null), after, after);
+        return entryChangeRepository.findChangesAfter(userId, after, after, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Get the cursor of a user's latest change.
+     *
+     * @param userId the user's ID
+     * @return the cursor, 0 if the user has no changes
+     */
+    @Transactional(readOnly = true)
+    public long getLatestSeq(Long userId) {
+        return userStatsRepository.findById(userId).map(UserStats::getChangeSeq).orElse(0L);
+    }
+
+    /**
+     * Parse a cursor returned by {@link #getChanges} that has caught up with the log.
+     *
+     * @param cursor the cursor
+     * @return the cursor's position in the log
+     * @throws IllegalArgumentException if the cursor is not valid or belongs to a full sync
+     */
+    public static long parseCaughtUpCursor(String cursor) {
+        if (cursor == null || cursor.startsWith(FULL_SYNC)) {
+            throw new IllegalArgumentException("Invalid sync cursor: " + cursor);
+        }
+        return parseCursor(cursor);
+    }
+
+    /**
+     * Record a new entry. Called by {@link DiaryEntryService} while it holds the owner's
+     * statistics lock, which also saves the advanced cursor.
+     *
+     * @param stats   the locked statistics
+     * @param entryId the diary entry ID
+     */
+    void recordCreate(UserStats stats, Long entryId) {
+        entryChangeRepository.insertChange(stats.getUserId(), entryId, nextSeq(stats), false, LocalDateTime.now());
+        eventPublisher.publishEvent(new EntryChangedEvent(stats.getUserId(), false));
+    }
+
+    /**
+     * Record an update of an entry, moving its change to the end of the log.
+     *
+     * @param stats   the locked statistics
+     * @param entryId the diary entry ID
+     */
+    void recordUpdate(UserStats stats, Long entryId) {
+        record(stats, entryId, false);
+    }
+
+    /**
+     * Record a deleted entry, replacing its change with a tombstone at the end of the log.
+     *
+     * @param stats   the locked statistics
+     * @param entryId the diary entry ID
+     */
+    void recordDelete(UserStats stats, Long entryId) {
+        record(stats, entryId, true);
+    }
+
+    private void record(UserStats stats, Long entryId, boolean deleted) {
+        long seq = nextSeq(stats);
+        LocalDateTime now = LocalDateTime.now();
+        // Entries written before the change log existed have no change yet
+        if (entryChangeRepository.moveChange(stats.getUserId(), entryId, seq, deleted, now) == 0) {
+            entryChangeRepository.insertChange(stats.getUserId(), entryId, seq, deleted, now);
+        }
+        eventPublisher.publishEvent(new EntryChangedEvent(stats.getUserId(), false));
+    }
+
+    private static void checkCursor(UserStats stats, long after, long tombstonesAfter) {
+        // Changes up to the user's cursor are committed; later ones are returned if already visible
+        long latest = stats != null ? stats.getChangeSeq() : 0;
+        long purged = stats != null ? stats.getPurgedSeq() : 0;
+        if (after > latest || tombstonesAfter > latest || tombstonesAfter < purged) {
+            throw new GoneException("The sync cursor has expired, sync again without one");
+        }
+    }
+
+    private static long nextSeq(UserStats stats) {
+        stats.setChangeSeq(stats.getChangeSeq() + 1);
+        return stats.getChangeSeq();
+    }
+
+    private static long parseCursor(String since) {
+        if (since == null || since.isEmpty()) {
+            return 0;
+        }
+        String seq = since.startsWith(FULL_SYNC)
+                ? since.substring(Math.max(FULL_SYNC.length(), since.indexOf(FULL_SYNC_SEPARATOR) + 1))
+                : since;
+        return parseSeq(seq, since);
+    }
+
+    /**
+     * Get the user's cursor when a full sync started, after which its tombstones are returned.
+     *
+     * @param since  the cursor of the full sync, or null for its first request
+     * @param latest the user's current cursor
+     * @return the cursor when the full sync started
+     */
+    private static long parseFullSyncStart(String since, long latest) {
+        if (since == null || since.isEmpty()) {
+            return latest;
+        }
+        int separator = since.indexOf(FULL_SYNC_SEPARATOR);
+        if (separator < 0) {
+            // Full syncs started before their start was kept; any deleted entry may have been returned
+            return 0;
+        }
+        return parseSeq(since.substring(FULL_SYNC.length(), separator), since);
+    }
+
+    private static long parseSeq(String seq, String since) {
+        try {
+            long cursor = Long.parseLong(seq);
+            if (cursor >= 0) {
+                return cursor;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid sync cursor: " + since);
+    }
+}
@@ -0,0 +1,289 @@
+package com.diaries.service;
+
+import com.diaries.entity.EntryChange;
+import com.diaries.entity.User;
+import com.diaries.exception.BulkheadFullException;
+import com.diaries.exception.GoneException;
+import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service that streams the changes to a user's diary entries to their open clients as
+ * server-sent events. A stream holds no thread while idle: it is an asynchronous response kept
+ * in a map of each user's streams, and is only written to when the user's change log moves.
+ *
+ * <p>Once a write has committed, each stream of its owner reads the change log after the last
+ * change it sent, on a virtual thread, and sends a {@code changed} or {@code deleted} event per
+ * change with the change's cursor as the event ID. Requests to read that arrive while a stream
+ * is reading are coalesced. A client reconnecting with {@code Last-Event-ID} is sent the changes
+ * it missed; if that cursor has expired, it is sent a {@code reset} event and should sync again
+ * without a cursor. Writes made through other instances are seen through {@link EntryChangeBus}.
+ * Streams get a comment every {@code sync.stream.heartbeat-ms} so proxies keep them open, and end
+ * after {@code sync.stream.timeout-ms}, when clients reconnect.
+ *
+ * <p>Reads run in the {@code stream} {@link Bulkhead}, so a burst of writes to users with open
+ * streams takes at most {@code bulkheads.stream.max-concurrent} database connections. A read
+ * that finds the bulkhead full is requested again.
+ */
+@Service
+public class EntryChangeStreamService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryChangeStreamService.class);
+
+    private final EntryChangeService entryChangeService;
+    private final UserRepository userRepository;
+    private final Executor executor;
+    private final Bulkhead bulkhead;
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+    private final int maxChanges;
+
+    private final Map<Long, Set<ChangeStream>> streams = new ConcurrentHashMap<>();
+    private volatile boolean running;
+
+    @Autowired
+    public EntryChangeStreamService(
+            EntryChangeService entryChangeService,
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${sync.stream.timeout-ms:1800000}") long timeoutMillis,
+            @Value("${sync.stream.reconnect-ms:5000}") long reconnectMillis,
+            @Value("${sync.max-changes:500}") int maxChanges,
+            @Value("${bulkheads.stream.max-concurrent:2}") int maxConcurrentReads,
+            @Value("${bulkheads.stream.max-wait-ms:10000}") long maxReadWaitMillis) {
+        this(entryChangeService, userRepository, meterRegistry, Executors.newVirtualThreadPerTaskExecutor(),
+                new Bulkhead("stream", maxConcurrentReads, Duration.ofMillis(maxReadWaitMillis), meterRegistry),
+                timeoutMillis, reconnectMillis, maxChanges);
+    }
+
+    EntryChangeStreamService(EntryChangeService entryChangeService, UserRepository userRepository,
+                             MeterRegistry meterRegistry, Executor executor, Bulkhead bulkhead,
+                             long timeoutMillis, long reconnectMillis, int maxChanges) {
+        this.entryChangeService = entryChangeService;
+        this.userRepository = userRepository;
+        this.executor = executor;
+        this.bulkhead = bulkhead;
+        this.timeoutMillis = timeoutMillis;
+        this.reconnectMillis = reconnectMillis;
+        this.maxChanges = maxChanges;
+        Gauge.builder("diaries.sync.streams", this, EntryChangeStreamService::countStreams)
+                .description("Open streams of entry changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Open a stream of the changes to the entries of the authenticated user.
+     *
+     * @param userId      the authenticated user's ID
+     * @param lastEventId the ID of the last event received, to resume after it, or null
+     * @return the stream
+     * @throws IllegalArgumentException if the event ID is not a valid cursor
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        return subscribe(userId, lastEventId, new SseEmitter(timeoutMillis));
+    }
+
+    /**
+     * Open a stream of the changes to the entries of the authenticated user, by email.
+     *
+     * @param email       the authenticated user's email
+     * @param lastEventId the ID of the last event received, to resume after it, or null
+     * @return the stream
+     */
+    public SseEmitter subscribeByEmail(String email, String lastEventId) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return subscribe(user.getId(), lastEventId);
+    }
+
+    SseEmitter subscribe(Long userId, String lastEventId, SseEmitter emitter) {
+        long after = lastEventId == null || lastEventId.isEmpty()
+                ? entryChangeService.getLatestSeq(userId)
+                : EntryChangeService.parseCaughtUpCursor(lastEventId);
+        ChangeStream stream = new ChangeStream(userId, emitter, after);
+        emitter.onCompletion(() -> remove(stream));
+        emitter.onError(e -> remove(stream));
+        emitter.onTimeout(emitter::complete);
+        try {
+            // Sent before the stream is registered, so it is the first event
+            emitter.send(SseEmitter.event().reconnectTime(reconnectMillis).comment("connected"));
+        } catch (IOException e) {
+            return emitter;
+        }
+        streams.compute(userId, (id, userStreams) -> {
+            Set<ChangeStream> added = userStreams != null ? userStreams : ConcurrentHashMap.newKeySet();
+            added.add(stream);
+            return added;
+        });
+        // Sends the changes made after the cursor, including those committed while subscribing
+        requestRead(stream);
+        return emitter;
+    }
+
+    /**
+     * Have the streams of the owner of changed entries read the change log, once the change has
+     * committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEntryChanged(EntryChangedEvent event) {
+        Set<ChangeStream> userStreams = streams.get(event.userId());
+        if (userStreams != null) {
+            userStreams.forEach(this::requestRead);
+        }
+    }
+
+    /**
+     * Have every stream read the change log when changes made through other instances may have
+     * been missed.
+     */
+    @EventListener
+    void onEntryChangesMissed(EntryChangesMissedEvent event) {
+        streams.values().forEach(userStreams -> userStreams.forEach(this::requestRead));
+    }
+
+    /**
+     * Send a comment on every stream that is not busy sending changes.
+     */
+    @Scheduled(fixedDelayString = "${sync.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        streams.values().forEach(userStreams -> userStreams.forEach(stream -> executor.execute(() -> {
+            if (stream.lock.tryLock()) {
+                try {
+                    stream.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } catch (IOException | IllegalStateException e) {
+                    remove(stream);
+                } finally {
+                    stream.lock.unlock();
+                }
+            }
+        })));
+    }
+
+    int countStreams() {
+        return streams.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void requestRead(ChangeStream stream) {
+        if (stream.readRequested.compareAndSet(false, true)) {
+            executor.execute(() -> read(stream));
+        }
+    }
+
+    /**
+     * Send the changes after the last one sent. A request to read made while this runs reads
+     * again once it is done, so no committed change is left unsent.
+     */
+    private void read(ChangeStream stream) {
+        boolean retry = false;
+        stream.lock.lock();
+        try {
+            stream.readRequested.set(false);
+            List<EntryChange> changes;
+            do {
+                long after = stream.lastSeq;
+                changes = bulkhead.call(() -> entryChangeService.getChangeLog(stream.userId, after, maxChanges));
+                for (EntryChange change : changes) {
+                    stream.emitter.send(SseEmitter.event()
+                            .id(Long.toString(change.getSeq()))
+                            .name(change.isDeleted() ? "deleted" : "changed")
+                            .data(Map.of("entryId", change.getEntryId())));
+                    stream.lastSeq = change.getSeq();
+                }
+            } while (changes.size() == maxChanges);
+        } catch (GoneException e) {
+            // Deletions after the cursor were purged; the client syncs again from the start
+            resetStream(stream);
+        } catch (IOException | IllegalStateException e) {
+            remove(stream);
+        } catch (BulkheadFullException e) {
+            retry = true;
+        } catch (DataAccessException e) {
+            logger.warn("Reading the changes of user {} failed, retrying on the next change", stream.userId, e);
+        } finally {
+            stream.lock.unlock();
+        }
+        if (retry) {
+            requestRead(stream);
+        }
+    }
+
+    private void resetStream(ChangeStream stream) {
+        try {
+            stream.lastSeq = entryChangeService.getLatestSeq(stream.userId);
+            stream.emitter.send(SseEmitter.event()
+                    .id(Long.toString(stream.lastSeq))
+                    .name("reset")
+                    .data(Map.of()));
+        } catch (IOException | IllegalStateException e) {
+            remove(stream);
+        }
+    }
+
+    private void remove(ChangeStream stream) {
+        streams.computeIfPresent(stream.userId, (id, userStreams) -> {
+            userStreams.remove(stream);
+            return userStreams.isEmpty() ? null : userStreams;
+        });
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * End every stream before the web server stops, so clients reconnect to another instance.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        streams.values().forEach(userStreams -> userStreams.forEach(stream -> stream.emitter.complete()));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * An open stream, with the cursor of the last change sent on it.
+     */
+    private static final class ChangeStream {
+
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicBoolean readRequested = new AtomicBoolean();
+        private long lastSeq;
+
+        private ChangeStream(Long userId, SseEmitter emitter, long lastSeq) {
+            this.userId = userId;
+            this.emitter = emitter;
+            this.lastSeq = lastSeq;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.diaries.service;
+
+/**
+ * Published by {@link EntryChangeService} for each change recorded to a user's entries, and by
+ * {@link EntryChangeBus} for each change another instance announced.
+ *
+ * @param userId the ID of the user owning the changed entry
+ * @param remote whether the change was made through another instance
+ */
+record EntryChangedEvent(Long userId, boolean remote) {
+}
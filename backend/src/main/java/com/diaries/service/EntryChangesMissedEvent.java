@@ -0,0 +1,8 @@
+package com.diaries.service;
+
+/**
+ * Published by {@link EntryChangeBus} once it listens again after losing its connection, as any
+ * user's entries may have been changed through another instance in the meantime.
+ */
+record EntryChangesMissedEvent() {
+}
@@ -0,0 +1,108 @@
+package com.diaries.service;
+
+import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.EntryRevisionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Service that applies the retention policy of entry revisions.
+ * Revisions saved more than {@code revisions.retention-days} ago are deleted; as the oldest
+ * revisions of their entries, no other revision depends on them. Revisions saved more than
+ * {@code revisions.compact-after-days} ago are thinned to the newest one of each day, which keeps
+ * a daily history of entries edited many times a day. Each entry is compacted in its own
+ * transaction under its owner's statistics lock, so instances running it concurrently wait for
+ * each other.
+ */
+@Service
+@ConditionalOnProperty(name = "revisions.compaction.enabled", havingValue = "true")
+public class EntryRevisionCompactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EntryRevisionCompactionService.class);
+
+    private final EntryRevisionRepository entryRevisionRepository;
+    private final EntryRevisionService entryRevisionService;
+    private final TransactionTemplate transactionTemplate;
+    private final int retentionDays;
+    private final int compactAfterDays;
+    private final int batchSize;
+
+    public EntryRevisionCompactionService(
+            EntryRevisionRepository entryRevisionRepository,
+            EntryRevisionService entryRevisionService,
+            TransactionTemplate transactionTemplate,
+            @Value("${revisions.retention-days:365}") int retentionDays,
+            @Value("${revisions.compact-after-days:7}") int compactAfterDays,
+            @Value("${revisions.compaction.batch-size:500}") int batchSize) {
+        this.entryRevisionRepository = entryRevisionRepository;
+        this.entryRevisionService = entryRevisionService;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionDays = retentionDays;
+        this.compactAfterDays = compactAfterDays;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Delete the expired revisions, then compact the entries with revisions old enough.
+     * A failure is logged and the remaining revisions are handled on the next run.
+     *
+     * @return the number of revisions removed
+     */
+    @Scheduled(initialDelayString = "${revisions.compaction.initial-delay-ms:240000}",
+            fixedDelayString = "${revisions.compaction.interval-ms:3600000}")
+    public long applyRetention() {
+        LocalDateTime now = LocalDateTime.now();
+        long removed = 0;
+        try {
+            removed += deleteExpired(now.minusDays(retentionDays));
+            removed += compact(now.minusDays(compactAfterDays));
+        } catch (DataAccessException e) {
+            logger.warn("Applying the revision retention policy failed, retrying on the next run", e);
+        }
+        if (removed > 0) {
+            logger.info("Removed {} entry revisions", removed);
+        }
+        return removed;
+    }
+
+    private long deleteExpired(LocalDateTime before) {
+        long deleted = 0;
+        while (true) {
+            List<Long> entryIds = entryRevisionRepository.findEntryIdsSavedBefore(before, PageRequest.of(0, batchSize));
+            if (entryIds.isEmpty()) {
+                return deleted;
+            }
+            deleted += transactionTemplate.execute(status -> entryRevisionRepository.deleteSavedBefore(entryIds, before));
+        }
+    }
+
+    private long compact(LocalDateTime before) {
+        long removed = 0;
+        while (true) {
+            List<Long> entryIds = entryRevisionRepository.findEntryIdsToCompact(before, PageRequest.of(0, batchSize));
+            int compacted = 0;
+            for (Long entryId : entryIds) {
+                try {
+                    removed += entryRevisionService.compactRevisions(entryId, before);
+                    compacted++;
+                } catch (IllegalArgumentException | ResourceNotFoundException e) {
+                    logger.warn("Revisions of diary entry {} could not be rebuilt, skipping them", entryId, e);
+                }
+            }
+            // Entries that failed stay selected; stop once a batch holds nothing else
+            if (compacted == 0) {
+                return removed;
+            }
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.diaries.service;
+
+import com.diaries.dto.EntryRevisionDto;
+import com.diaries.dto.EntryRevisionSummaryDto;
+import com.diaries.entity.EntryRevision;
+import com.diaries.entity.StoredDiaryEntry;
+import com.diaries.entity.User;
+import com.diaries.exception.ForbiddenException;
+import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.EntryRevisionRepository;
+import com.diaries.repository.StoredDiaryEntryRepository;
+import com.diaries.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for the revision history of diary entries.
+ * {@link DiaryEntryService} records the version an update replaces as a {@link ContentDelta}
+ * against the new content, so a revision costs about the size of the edit. Every
+ * {@code revisions.snapshot-interval}-th revision stores the full content instead, which bounds
+ * the number of deltas applied to rebuild any revision. Entries keep at most
+ * {@code revisions.max-per-entry} revisions; older ones are dropped or thinned by
+ * {@link EntryRevisionCompactionService}.
+ */
+@Service
+@Timed("diaries.service")
+public class EntryRevisionService {
+
+    private final EntryRevisionRepository entryRevisionRepository;
+    private final StoredDiaryEntryRepository storedDiaryEntryRepository;
+    private final UserRepository userRepository;
+    private final UserStatsService userStatsService;
+    private final int snapshotInterval;
+    private final int maxPerEntry;
+
+    public EntryRevisionService(
+            EntryRevisionRepository entryRevisionRepository,
+            StoredDiaryEntryRepository storedDiaryEntryRepository,
+            UserRepository userRepository,
+            UserStatsService userStatsService,
+            @Value("${revisions.snapshot-interval:20}") int snapshotInterval,
+            @Value("${revisions.max-per-entry:500}") int maxPerEntry) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("revisions.snapshot-interval must be at least 1");
+        }
+        this.entryRevisionRepository = entryRevisionRepository;
+        this.storedDiaryEntryRepository = storedDiaryEntryRepository;
+        this.userRepository = userRepository;
+        this.userStatsService = userStatsService;
+        this.snapshotInterval = snapshotInterval;
+        this.maxPerEntry = maxPerEntry;
+    }
+
+    /**
+     * List the revisions of an entry of the authenticated user, newest first.
+     *
+     * @param entryId the diary entry ID
+     * @param userId  the authenticated user's ID
+     * @return the revision summaries
+     * @throws ResourceNotFoundException if entry not found
+     * @throws ForbiddenException        if entry doesn't belong to user
+     */
+    @Transactional(readOnly = true)
+    public List<EntryRevisionSummaryDto> getRevisions(Long entryId, Long userId) {
+        findOwnedEntry(entryId, userId);
+        return entryRevisionRepository.findSummaries(entryId);
+    }
+
+    /**
+     * List the revisions of an entry of the authenticated user by email.
+     *
+     * @param entryId the diary entry ID
+     * @param email   the authenticated user's email
+     * @return the revision summaries
+     */
+    @Transactional(readOnly = true)
+    public List<EntryRevisionSummaryDto> getRevisionsByEmail(Long entryId, String email) {
+        return getRevisions(entryId, findUserByEmail(email).getId());
+    }
+
+    /**
+     * Get one revision of an entry of the authenticated user, rebuilt from the nearest newer
+     * snapshot or from the entry itself.
+     *
+     * @param entryId  the diary entry ID
+     * @param revision the revision number
+     * @param userId   the authenticated user's ID
+     * @return the revision DTO
+     * @throws ResourceNotFoundException if entry or revision not found
+     * @throws ForbiddenException        if entry doesn't belong to user
+     */
+    @Transactional(readOnly = true)
+    public EntryRevisionDto getRevision(Long entryId, int revision, Long userId) {
+        StoredDiaryEntry entry = findOwnedEntry(entryId, userId);
+        List<EntryRevision> chain = entryRevisionRepository.findChain(entryId, revision);
+        if (chain.isEmpty() || chain.get(0).getRevision() != revision) {
+            throw new ResourceNotFoundException("Revision not found");
+        }
+
+        int newest = chain.size() - 1;
+        String content = entry.getContent();
+        if (chain.get(newest).isSnapshot()) {
+            content = chain.get(newest).getSnapshot();
+            newest--;
+        }
+        for (int i = newest; i >= 0; i--) {
+            content = ContentDelta.apply(chain.get(i).getDelta(), content);
+        }
+
+        EntryRevision found = chain.get(0);
+        return new EntryRevisionDto(entryId, found.getRevision(), found.getTitle(), content,
+                found.getEntryDate(), found.getSavedAt());
+    }
+
+    /**
+     * Get one revision of an entry of the authenticated user by email.
+     *
+     * @param entryId  the diary entry ID
+     * @param revision the revision number
+     * @param email    the authenticated user's email
+     * @return the revision DTO
+     */
+    @Transactional(readOnly = true)
+    public EntryRevisionDto getRevisionByEmail(Long entryId, int revision, String email) {
+        return getRevision(entryId, revision, findUserByEmail(email).getId());
+    }
+
+    /**
+     * Record the version of an entry an update replaces, as the entry's newest revision.
+     * Called by {@link DiaryEntryService} while it holds the owner's statistics lock, so revision
+     * numbers of an entry are assigned one at a time.
+     *
+     * @param entryId    the diary entry ID
+     * @param title      the title before the update
+     * @param content    the content before the update
+     * @param entryDate  the entry date before the update
+     * @param savedAt    when the replaced version was saved
+     * @param newContent the content after the update
+     */
+    void recordRevision(Long entryId, String title, String content, LocalDate entryDate, LocalDateTime savedAt,
+                        String newContent) {
+        Integer latest = entryRevisionRepository.findLatestRevision(entryId);
+        int number = latest != null ? latest + 1 : 1;
+
+        EntryRevision revision = new EntryRevision(entryId, number, title, entryDate, savedAt);
+        if (number % snapshotInterval == 0) {
+            revision.setSnapshot(content);
+        } else {
+            revision.setDelta(ContentDelta.encode(newContent, content));
+        }
+        entryRevisionRepository.save(revision);
+
+        if (number > maxPerEntry) {
+            entryRevisionRepository.deleteUpTo(entryId, number - maxPerEntry);
+        }
+    }
+
+    /**
+     * Delete every revision of an entry, when the entry is deleted.
+     *
+     * @param entryId the diary entry ID
+     */
+    void deleteRevisions(Long entryId) {
+        entryRevisionRepository.deleteByEntryId(entryId);
+    }
+
+    /**
+     * Thin the revisions of an entry saved before a cutoff to the newest one of each day, and
+     * re-encode the remaining revisions against their new neighbours. Newer revisions are kept.
+     * Holds the owner's statistics lock, so no update of the entry runs meanwhile.
+     *
+     * @param entryId the diary entry ID
+     * @param before  the compaction cutoff
+     * @return the number of revisions removed
+     */
+    @Transactional
+    public int compactRevisions(Long entryId, LocalDateTime before) {
+        Long userId = storedDiaryEntryRepository.findUserIdById(entryId).orElse(null);
+        if (userId == null) {
+            // Left behind by an entry deleted before revisions were removed with it
+            return entryRevisionRepository.deleteByEntryId(entryId);
+        }
+        userStatsService.lockStats(userId);
+        StoredDiaryEntry entry = storedDiaryEntryRepository.findByIdAndUserId(entryId, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Diary entry not found"));
+        List<EntryRevision> revisions = entryRevisionRepository.findByEntryIdOrderByRevisionDesc(entryId);
+
+        // Rebuild every version, newest first
+        List<String> contents = new ArrayList<>(revisions.size());
+        String next = entry.getContent();
+        for (EntryRevision revision : revisions) {
+            next = revision.isSnapshot() ? revision.getSnapshot() : ContentDelta.apply(revision.getDelta(), next);
+            contents.add(next);
+        }
+
+        List<EntryRevision> removed = new ArrayList<>();
+        next = entry.getContent();
+        LocalDate keptDay = null;
+        int sinceSnapshot = 0;
+        for (int i = 0; i < revisions.size(); i++) {
+            EntryRevision revision = revisions.get(i);
+            boolean old = revision.getSavedAt().isBefore(before);
+            LocalDate day = revision.getSavedAt().toLocalDate();
+            if (old && day.equals(keptDay)) {
+                removed.add(revision);
+                continue;
+            }
+            keptDay = old ? day : null;
+
+            String content = contents.get(i);
+            if (++sinceSnapshot == snapshotInterval) {
+                revision.setSnapshot(content);
+                sinceSnapshot = 0;
+            } else {
+                revision.setDelta(ContentDelta.encode(next, content));
+            }
+            revision.setCompacted(old);
+            next = content;
+        }
+        entryRevisionRepository.deleteAll(removed);
+        return removed.size();
+    }
+
+    private StoredDiaryEntry findOwnedEntry(Long entryId, Long userId) {
+        return storedDiaryEntryRepository.findByIdAndUserId(entryId, userId)
+                .orElseThrow(() -> storedDiaryEntryRepository.existsById(entryId)
+                        ? new ForbiddenException("You don't have permission to access this diary entry")
+                        : new ResourceNotFoundException("Diary entry not found"));
+    }
+
+    private User findUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+}
@@ -0,0 +1,57 @@
+package com.diaries.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service that creates the yearly {@code diary_entries} partitions before entries are dated in them.
+ * Partitions are created by the {@code create_diary_entry_partitions} database function, which
+ * serializes concurrent callers and does nothing when the table is not range-partitioned.
+ * Running it on every instance is therefore safe.
+ */
+@Service
+@ConditionalOnProperty(name = "partitioning.maintenance.enabled", havingValue = "true")
+public class PartitionMaintenanceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceService.class);
+
+    private static final String CREATE_PARTITIONS_SQL = "SELECT create_diary_entry_partitions("
+            + "'diary_entries', current_date, (current_date + make_interval(years => ?))::date)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int yearsAhead;
+
+    public PartitionMaintenanceService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${partitioning.maintenance.years-ahead:2}") int yearsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.yearsAhead = yearsAhead;
+    }
+
+    /**
+     * Create any missing partitions up to the configured number of years ahead.
+     * A failure, such as a lock timeout, is logged and retried on the next run.
+     *
+     * @return the number of partitions created
+     */
+    @Scheduled(initialDelayString = "${partitioning.maintenance.initial-delay-ms:60000}",
+            fixedDelayString = "${partitioning.maintenance.interval-ms:86400000}")
+    public int createUpcomingPartitions() {
+        try {
+            Integer created = jdbcTemplate.queryForObject(CREATE_PARTITIONS_SQL, Integer.class, yearsAhead);
+            if (created != null && created > 0) {
+                logger.info("Created {} diary_entries partition(s)", created);
+            }
+            return created != null ? created : 0;
+        } catch (DataAccessException e) {
+            logger.warn("Creating diary_entries partitions failed, retrying on the next run", e);
+            return 0;
+        }
+    }
+}
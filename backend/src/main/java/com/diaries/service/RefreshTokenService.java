@@ -0,0 +1,154 @@
+package com.diaries.service;
+
+import com.diaries.entity.RefreshToken;
+import com.diaries.entity.User;
+import com.diaries.exception.UnauthorizedException;
+import com.diaries.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Service for issuing, rotating and revoking refresh tokens.
+ * Raw tokens are random and high-entropy, so they are stored as a fast SHA-256 hash
+ * rather than with BCrypt; refreshing an access token never pays the password hashing cost.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final long refreshExpirationMs;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    public RefreshTokenService(
+            RefreshTokenRepository refreshTokenRepository,
+            @Value("${jwt.refresh-expiration}") long refreshExpirationMs) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+
+    /**
+     * Issued refresh token together with the user it belongs to.
+     *
+     * @param user     the token owner
+     * @param rawToken the raw token to hand to the client
+     */
+    public record IssuedToken(User user, String rawToken) {
+    }
+
+    /**
+     * Issue a refresh token starting a new rotation family.
+     *
+     * @param user the user to issue the token for
+     * @return the raw refresh token
+     */
+    @Transactional
+    public String issue(User user) {
+        return issueInFamily(user, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for a new one in the same family.
+     * Presenting a token that was already rotated or revoked is treated as theft:
+     * the entire family is revoked so neither party can continue to refresh.
+     *
+     * @param rawToken the refresh token presented by the client
+     * @return the newly issued token and its owner
+     * @throws UnauthorizedException if the token is unknown, expired, or reused
+     */
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public IssuedToken rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .orElseThrow(() -> new UnauthorizedException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+        if (current.isRevoked()) {
+            int revoked = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            logger.warn("Refresh token reuse detected for family {}, revoked {} token(s)",
+                    current.getFamilyId(), revoked);
+            throw new UnauthorizedException("Invalid refresh token");
+        }
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedException("Refresh token expired");
+        }
+
+        current.setRevokedAt(now);
+        User user = current.getUser();
+        return new IssuedToken(user, issueInFamily(user, current.getFamilyId()));
+    }
+
+    /**
+     * Revoke the family of the given refresh token, e.g. on logout.
+     * Unknown tokens are ignored so logout is idempotent.
+     *
+     * @param rawToken the refresh token presented by the client
+     */
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHashForUpdate(hash(rawToken))
+                .ifPresent(token -> refreshTokenRepository.revokeFamily(token.getFamilyId(), LocalDateTime.now()));
+    }
+
+    /**
+     * Get the refresh token lifetime in milliseconds.
+     *
+     * @return the lifetime in milliseconds
+     */
+    public long getExpirationMs() {
+        return refreshExpirationMs;
+    }
+
+    /**
+     * Periodically delete expired tokens so the table only holds live families.
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-cleanup-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.debug("Purged {} expired refresh token(s)", deleted);
+        }
+    }
+
+    private String issueInFamily(User user, String familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        LocalDateTime expiresAt = LocalDateTime.now().plus(Duration.ofMillis(refreshExpirationMs));
+        refreshTokenRepository.save(new RefreshToken(user, hash(rawToken), familyId, expiresAt));
+        return rawToken;
+    }
+
+    /**
+     * Hash a raw token with SHA-256.
+     *
+     * @param rawToken the raw token
+     * @return the lowercase hex digest
+     */
+    static String hash(String rawToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(rawToken.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
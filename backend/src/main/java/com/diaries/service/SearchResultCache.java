@@ -0,0 +1,298 @@
+package com.diaries.service;
+
+import com.diaries.dto.DiaryEntryDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory cache of search result pages, least recently used first out once it holds
+ * {@code search.cache.max-entries} pages or an estimated {@code search.cache.max-size-mb}.
+ *
+ * <p>Each user has a write generation, advanced once a write of one of their entries has
+ * committed ({@link EntryChangedEvent}). A page is cached with the generation read before its
+ * search started and served only while that is still the user's generation, so one write
+ * invalidates all of the user's pages at once, and a search that raced with a write is not served
+ * after it. Generations are kept for the users who wrote since the last reset; past
+ * {@code search.cache.max-entries} users they are all reset to a new floor, which invalidates the
+ * whole cache. Writes made through other instances are seen through {@link EntryChangeBus}, and
+ * when it may have missed some ({@link EntryChangesMissedEvent}), every generation is reset.
+ * Pages are also served for at most {@code search.cache.ttl-seconds}, which bounds how long a
+ * page stays stale if an instance's notification is lost.
+ *
+ * <p>Publishes the {@code diaries.search.cache.requests} counter, tagged with the {@code result}
+ * ({@code hit}, {@code miss}, {@code stale} or {@code expired}), the {@code diaries.search.cache.evictions}
+ * counter, and the {@code diaries.search.cache.entries} and {@code diaries.search.cache.bytes}
+ * gauges.
+ */
+@Component
+public class SearchResultCache {
+
+    static final String METRIC_PREFIX = "diaries.search.cache";
+
+    /** Estimated bytes of a cached page and its key, besides the text of its entries. */
+    private static final long PAGE_OVERHEAD_BYTES = 256;
+
+    /** Estimated bytes of a cached entry, besides its text. */
+    private static final long ENTRY_OVERHEAD_BYTES = 160;
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<SearchKey, CachedPage> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+    private final AtomicLong lastGeneration = new AtomicLong();
+    private volatile long floorGeneration;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter staleHits;
+    private final Counter expiredHits;
+    private final Counter evictions;
+
+    @Autowired
+    public SearchResultCache(
+            MeterRegistry meterRegistry,
+            @Value("${search.cache.enabled:true}") boolean enabled,
+            @Value("${search.cache.max-entries:5000}") int maxEntries,
+            @Value("${search.cache.max-size-mb:32}") long maxSizeMegabytes,
+            @Value("${search.cache.ttl-seconds:300}") long ttlSeconds) {
+        this(meterRegistry, enabled, maxEntries, maxSizeMegabytes, ttlSeconds, System::nanoTime);
+    }
+
+    SearchResultCache(MeterRegistry meterRegistry, boolean enabled, int maxEntries, long maxSizeMegabytes,
+                      long ttlSeconds, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxSizeMegabytes * 1024 * 1024;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.nanoClock = nanoClock;
+        this.hits = requestCounter(meterRegistry, "hit");
+        this.misses = requestCounter(meterRegistry, "miss");
+        this.staleHits = requestCounter(meterRegistry, "stale");
+        this.expiredHits = requestCounter(meterRegistry, "expired");
+        this.evictions = Counter.builder(METRIC_PREFIX + ".evictions")
+                .description("Search result pages evicted to stay within the cache's bounds")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".entries", this, SearchResultCache::size)
+                .description("Search result pages cached")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".bytes", this, SearchResultCache::estimatedBytes)
+                .description("Estimated size of the cached search result pages")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    private static Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder(METRIC_PREFIX + ".requests")
+                .description("Search result cache lookups")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Get the current write generation of a user, to cache a page searched from now on.
+     *
+     * @param userId the user's ID
+     * @return the generation
+     */
+    public long generation(Long userId) {
+        return generations.getOrDefault(userId, floorGeneration);
+    }
+
+    /**
+     * Get a cached page, if it was searched since the user's last write and within the TTL.
+     *
+     * @param key the normalized search
+     * @return the page, or null if it is not cached
+     */
+    public Page<DiaryEntryDto> get(SearchKey key) {
+        if (!enabled) {
+            return null;
+        }
+        long generation = generation(key.userId());
+        synchronized (this) {
+            CachedPage cached = pages.get(key);
+            if (cached == null) {
+                misses.increment();
+                return null;
+            }
+            if (cached.generation != generation) {
+                remove(key, cached);
+                staleHits.increment();
+                return null;
+            }
+            if (nanoClock.getAsLong() - cached.cachedAtNanos > ttlNanos) {
+                remove(key, cached);
+                expiredHits.increment();
+                return null;
+            }
+            hits.increment();
+            return cached.page;
+        }
+    }
+
+    /**
+     * Cache a page, unless the user wrote since the generation its search started at.
+     *
+     * @param key        the normalized search
+     * @param generation the user's generation read before the search
+     * @param page       the page found
+     */
+    public void put(SearchKey key, long generation, Page<DiaryEntryDto> page) {
+        if (!enabled || generation(key.userId()) != generation) {
+            return;
+        }
+        CachedPage cached = new CachedPage(generation, page, estimateBytes(key, page), nanoClock.getAsLong());
+        if (cached.bytes > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            CachedPage replaced = pages.put(key, cached);
+            if (replaced != null) {
+                bytes -= replaced.bytes;
+            }
+            bytes += cached.bytes;
+            Iterator<Map.Entry<SearchKey, CachedPage>> eldest = pages.entrySet().iterator();
+            while (pages.size() > maxEntries || bytes > maxBytes) {
+                bytes -= eldest.next().getValue().bytes;
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Advance the write generation of a user once their write has committed, so none of the
+     * pages cached for them before is served again.
+     *
+     * @param event the change to the user's entries
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void onEntryChanged(EntryChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    /**
+     * Reset every user's write generation when changes made through other instances may have
+     * been missed.
+     */
+    @EventListener
+    void onEntryChangesMissed(EntryChangesMissedEvent event) {
+        invalidateAll();
+    }
+
+    /**
+     * Advance the write generation of a user.
+     *
+     * @param userId the user's ID
+     */
+    public void invalidate(Long userId) {
+        generations.put(userId, lastGeneration.incrementAndGet());
+        if (generations.size() > maxEntries) {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Reset the write generation of every user, so no page cached before is served again.
+     */
+    public void invalidateAll() {
+        // Users left out fall back to the new floor, which no cached page has. Generations
+        // advanced concurrently are above the floor and kept, so those writes stay invalidated.
+        long floor = lastGeneration.incrementAndGet();
+        floorGeneration = floor;
+        generations.values().removeIf(generation -> generation < floor);
+    }
+
+    private void remove(SearchKey key, CachedPage cached) {
+        pages.remove(key);
+        bytes -= cached.bytes;
+    }
+
+    synchronized int size() {
+        return pages.size();
+    }
+
+    synchronized long estimatedBytes() {
+        return bytes;
+    }
+
+    private static long estimateBytes(SearchKey key, Page<DiaryEntryDto> page) {
+        long estimate = PAGE_OVERHEAD_BYTES + (key.keyword() != null ? 2L * key.keyword().length() : 0);
+        for (DiaryEntryDto entry : page.getContent()) {
+            estimate += ENTRY_OVERHEAD_BYTES + 2L * length(entry.getTitle()) + 2L * length(entry.getContent());
+        }
+        return estimate;
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+
+    private record CachedPage(long generation, Page<DiaryEntryDto> page, long bytes, long cachedAtNanos) {
+    }
+
+    /**
+     * A search, normalized to the filters {@link SearchService} applies: filters that are ignored
+     * are left out, and the keyword is trimmed.
+     *
+     * @param userId    the searching user's ID
+     * @param keyword   the keyword, or null
+     * @param startDate the start of the date range, or null
+     * @param endDate   the end of the date range, or null
+     * @param date      the specific date, or null
+     * @param page      the page number
+     * @param size      the page size
+     * @param sort      the sort order
+     */
+    public record SearchKey(Long userId, String keyword, LocalDate startDate, LocalDate endDate,
+                            LocalDate date, int page, int size, Sort sort) {
+
+        /**
+         * Normalize a search.
+         *
+         * @param userId    the searching user's ID
+         * @param keyword   optional keyword
+         * @param startDate optional start date
+         * @param endDate   optional end date
+         * @param date      optional specific date
+         * @param pageable  pagination information
+         * @return the key of the search
+         */
+        public static SearchKey of(Long userId, String keyword, LocalDate startDate, LocalDate endDate,
+                                   LocalDate date, Pageable pageable) {
+            String normalized = keyword != null && !keyword.trim().isEmpty()
+                    ? keyword.trim()
+                    : null;
+            boolean dateRange = startDate != null && endDate != null;
+            if (date != null) {
+                normalized = null;
+                dateRange = false;
+            }
+            return new SearchKey(userId, normalized, dateRange ? startDate : null, dateRange ? endDate : null,
+                    date, pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort());
+        }
+    }
+}
@@ -1,34 +1,64 @@
 package com.diaries.service;
 
 import com.diaries.dto.DiaryEntryDto;
-import com.diaries.entity.DiaryEntry;
 import com.diaries.exception.ResourceNotFoundException;
-import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.StoredDiaryEntryRepository;
 import com.diaries.repository.UserRepository;
+import com.diaries.service.SearchResultCache.SearchKey;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.LocalDate;
 
 /**
  * Service for searching and filtering diary entries.
+ * Keyword searches scan every entry of the user, so searches run in the {@code search}
+ * {@link Bulkhead}: at most {@code bulkheads.search.max-concurrent} hold a database connection
+ * at once, leaving the rest of the pool to reads and writes of single entries. A search that
+ * runs longer than {@code queries.search.timeout-seconds} is cancelled by the database.
+ * Result pages are kept in the {@link SearchResultCache} until the user's next write, so a
+ * repeated search is served without the query and its count.
  */
 @Service
+@Timed("diaries.service")
 public class SearchService {
 
-    private final DiaryEntryRepository diaryEntryRepository;
+    private final StoredDiaryEntryRepository storedDiaryEntryRepository;
     private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Bulkhead bulkhead;
+    private final SearchResultCache searchResultCache;
 
-    public SearchService(DiaryEntryRepository diaryEntryRepository, UserRepository userRepository) {
-        this.diaryEntryRepository = diaryEntryRepository;
+    public SearchService(
+            StoredDiaryEntryRepository storedDiaryEntryRepository,
+            UserRepository userRepository,
+            SearchResultCache searchResultCache,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${bulkheads.search.max-concurrent:4}") int maxConcurrent,
+            @Value("${bulkheads.search.max-wait-ms:100}") long maxWaitMillis,
+            @Value("${queries.search.timeout-seconds:10}") int timeoutSeconds) {
+        this.storedDiaryEntryRepository = storedDiaryEntryRepository;
         this.userRepository = userRepository;
+        this.searchResultCache = searchResultCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setTimeout(timeoutSeconds);
+        this.bulkhead = new Bulkhead("search", maxConcurrent, Duration.ofMillis(maxWaitMillis), meterRegistry);
     }
 
     /**
      * Search diary entries with optional filters.
      * Supports keyword search, date range filtering, and specific date filtering.
+     * Archived entries are searched along with the hot ones.
      *
      * @param email     the authenticated user's email
      * @param keyword   optional keyword to search in title and content
@@ -37,8 +67,9 @@ public class SearchService {
      * @param date      optional specific date filter
      * @param pageable  pagination information
      * @return page of matching diary entry DTOs
+     * @throws com.diaries.exception.BulkheadFullException if too many searches are running
+     * @throws org.springframework.dao.QueryTimeoutException if the search timed out
      */
-    @Transactional(readOnly = true)
     public Page<DiaryEntryDto> search(
             String email,
             String keyword,
@@ -46,53 +77,55 @@ public class SearchService {
             LocalDate endDate,
             LocalDate date,
             Pageable pageable) {
-
-        // Get user ID from email
         Long userId = userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"))
                 .getId();
+        SearchKey key = SearchKey.of(userId, keyword, startDate, endDate, date, pageable);
+        Page<DiaryEntryDto> cached = searchResultCache.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Read before searching, so a write committed during the search keeps its page out
+        long generation = searchResultCache.generation(userId);
+        // The permit is taken before the transaction takes a connection
+        Page<DiaryEntryDto> entries = bulkhead.call(() -> readOnlyTransaction.execute(status -> searchEntries(key)));
+        searchResultCache.put(key, generation, entries);
+        return entries;
+    }
+
+    private Page<DiaryEntryDto> searchEntries(SearchKey key) {
+        Long userId = key.userId();
+        Pageable pageable = PageRequest.of(key.page(), key.size(), key.sort());
 
         // If specific date is provided, search for that date only
-        if (date != null) {
-            return diaryEntryRepository.findByUserIdAndEntryDate(userId, date, pageable)
-                    .map(this::toDto);
+        if (key.date() != null) {
+            return storedDiaryEntryRepository.findByUserIdAndEntryDate(userId, key.date(), pageable)
+                    .map(DiaryEntryMapper::toDto);
         }
 
         // If keyword and date range are provided
-        if (keyword != null && !keyword.trim().isEmpty() && startDate != null && endDate != null) {
-            return diaryEntryRepository.searchEntries(userId, keyword.trim(), startDate, endDate, pageable)
-                    .map(this::toDto);
+        if (key.keyword() != null && key.startDate() != null) {
+            return storedDiaryEntryRepository.searchEntries(userId, key.keyword(), key.startDate(), key.endDate(),
+                            pageable)
+                    .map(DiaryEntryMapper::toDto);
         }
 
         // If only keyword is provided
-        if (keyword != null && !keyword.trim().isEmpty()) {
-            return diaryEntryRepository.searchEntriesByKeyword(userId, keyword.trim(), pageable)
-                    .map(this::toDto);
+        if (key.keyword() != null) {
+            return storedDiaryEntryRepository.searchEntriesByKeyword(userId, key.keyword(), pageable)
+                    .map(DiaryEntryMapper::toDto);
         }
 
         // If only date range is provided
-        if (startDate != null && endDate != null) {
-            return diaryEntryRepository.findByUserIdAndEntryDateBetween(userId, startDate, endDate, pageable)
-                    .map(this::toDto);
+        if (key.startDate() != null) {
+            return storedDiaryEntryRepository.findByUserIdAndEntryDateBetween(userId, key.startDate(),
+                            key.endDate(), pageable)
+                    .map(DiaryEntryMapper::toDto);
         }
 
         // No filters provided, return all entries for user
-        return diaryEntryRepository.findByUserIdOrderByEntryDateDesc(userId, pageable)
-                .map(this::toDto);
-    }
-
-    /**
-     * Convert DiaryEntry entity to DTO.
-     */
-    private DiaryEntryDto toDto(DiaryEntry entry) {
-        return new DiaryEntryDto(
-                entry.getId(),
-                entry.getTitle(),
-                entry.getContent(),
-                entry.getEntryDate(),
-                entry.getUser().getId(),
-                entry.getCreatedAt(),
-                entry.getUpdatedAt()
-        );
+        return storedDiaryEntryRepository.findByUserIdOrderByEntryDateDesc(userId, pageable)
+                .map(DiaryEntryMapper::toDto);
     }
 }
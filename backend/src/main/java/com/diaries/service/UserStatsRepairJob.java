@@ -0,0 +1,68 @@
+package com.diaries.service;
+
+import com.diaries.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * On-demand job that recomputes every user's calendar rollup and statistics from their entries.
+ * Enabled with {@code stats.repair.on-startup}, it runs once at startup, before the instance
+ * reports ready; enable it on a single instance. Each user is repaired in its own transaction, and a user whose
+ * repair fails is logged and skipped.
+ */
+@Component
+@ConditionalOnProperty(name = "stats.repair.on-startup", havingValue = "true")
+public class UserStatsRepairJob implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserStatsRepairJob.class);
+
+    private static final int BATCH_SIZE = 100;
+
+    private final UserStatsService userStatsService;
+    private final UserRepository userRepository;
+
+    public UserStatsRepairJob(UserStatsService userStatsService, UserRepository userRepository) {
+        this.userStatsService = userStatsService;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        repairAll();
+    }
+
+    /**
+     * Recompute the statistics of every user.
+     *
+     * @return the number of users repaired
+     */
+    public long repairAll() {
+        long repaired = 0;
+        long failed = 0;
+        List<Long> userIds;
+        long afterId = 0;
+        do {
+            userIds = userRepository.findIdsAfter(afterId, PageRequest.of(0, BATCH_SIZE));
+            for (Long userId : userIds) {
+                try {
+                    userStatsService.recompute(userId);
+                    repaired++;
+                } catch (DataAccessException e) {
+                    logger.warn("Recomputing the statistics of user {} failed", userId, e);
+                    failed++;
+                }
+                afterId = userId;
+            }
+        } while (userIds.size() == BATCH_SIZE);
+        logger.info("Recomputed the statistics of {} user(s), {} failed", repaired, failed);
+        return repaired;
+    }
+}
@@ -0,0 +1,291 @@
+package com.diaries.service;
+
+import com.diaries.dto.UserStatsDto;
+import com.diaries.entity.EntryDayRollup;
+import com.diaries.entity.User;
+import com.diaries.entity.UserStats;
+import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.EntryChangeRepository;
+import com.diaries.repository.EntryDayRollupRepository;
+import com.diaries.repository.StoredDiaryEntryRepository;
+import com.diaries.repository.StoredEntryContent;
+import com.diaries.repository.UserRepository;
+import com.diaries.repository.UserStatsRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * Service for users' writing statistics.
+ * {@link DiaryEntryService} locks a user's statistics before each entry write and records the
+ * change after updating the calendar rollup. Totals are adjusted by the change. Streaks are
+ * extended in place when an entry is added on or after the latest streak; otherwise they are
+ * recomputed from the user's day rollups, which never requires reading the entries.
+ */
+@Service
+@Timed("diaries.service")
+public class UserStatsService {
+
+    private static final int REPAIR_BATCH_SIZE = 500;
+
+    private final UserStatsRepository userStatsRepository;
+    private final EntryDayRollupRepository entryDayRollupRepository;
+    private final StoredDiaryEntryRepository storedDiaryEntryRepository;
+    private final UserRepository userRepository;
+    private final EntryChangeRepository entryChangeRepository;
+
+    public UserStatsService(
+            UserStatsRepository userStatsRepository,
+            EntryDayRollupRepository entryDayRollupRepository,
+            StoredDiaryEntryRepository storedDiaryEntryRepository,
+            UserRepository userRepository,
+            EntryChangeRepository entryChangeRepository) {
+        this.userStatsRepository = userStatsRepository;
+        this.entryDayRollupRepository = entryDayRollupRepository;
+        this.storedDiaryEntryRepository = storedDiaryEntryRepository;
+        this.userRepository = userRepository;
+        this.entryChangeRepository = entryChangeRepository;
+    }
+
+    /**
+     * Get the statistics of the authenticated user: a single row read.
+     *
+     * @param userId the authenticated user's ID
+     * @return the statistics DTO
+     */
+    @Transactional(readOnly = true)
+    public UserStatsDto getStats(Long userId) {
+        UserStats stats = userStatsRepository.findById(userId)
+                .orElseGet(() -> computeFromRollups(userId));
+        return toDto(stats, LocalDate.now());
+    }
+
+    /**
+     * Get the statistics of the authenticated user by email.
+     *
+     * @param email the authenticated user's email
+     * @return the statistics DTO
+     */
+    @Transactional(readOnly = true)
+    public UserStatsDto getStatsByEmail(String email) {
+        return getStats(findUserByEmail(email).getId());
+    }
+
+    /**
+     * Rebuild a user's calendar rollup from their entries, then their statistics from the rollup.
+     * Repairs drift, for example from entries written by instances that did not maintain them.
+     * Reads every entry of the user, in batches.
+     *
+     * @param userId the ID of the user
+     * @return the recomputed statistics DTO
+     */
+    @Transactional
+    public UserStatsDto recompute(Long userId) {
+        UserStats stats = lockStats(userId);
+
+        // Entries and words per day, read without loading entities
+        Map<LocalDate, int[]> days = new TreeMap<>();
+        List<StoredEntryContent> batch;
+        long afterId = 0;
+        do {
+            batch = storedDiaryEntryRepository.findContentAfter(userId, afterId, PageRequest.of(0, REPAIR_BATCH_SIZE));
+            for (StoredEntryContent entry : batch) {
+                int[] day = days.computeIfAbsent(entry.entryDate(), date -> new int[2]);
+                day[0]++;
+                day[1] += WordCounter.count(entry.text());
+                afterId = entry.id();
+            }
+        } while (batch.size() == REPAIR_BATCH_SIZE);
+
+        entryDayRollupRepository.deleteByUserId(userId);
+        List<EntryDayRollup> rollups = new ArrayList<>(days.size());
+        days.forEach((date, counts) -> {
+            entryDayRollupRepository.insertDay(userId, date, counts[0], counts[1]);
+            rollups.add(new EntryDayRollup(userId, date, counts[0], counts[1]));
+        });
+
+        apply(stats, rollups);
+        return toDto(userStatsRepository.save(stats), LocalDate.now());
+    }
+
+    /**
+     * Recompute the statistics of the authenticated user by email.
+     *
+     * @param email the authenticated user's email
+     * @return the recomputed statistics DTO
+     */
+    @Transactional
+    public UserStatsDto recomputeByEmail(String email) {
+        return recompute(findUserByEmail(email).getId());
+    }
+
+    /**
+     * Lock a user's statistics for an entry write, creating them from the calendar rollup if the
+     * user has none yet. Call before changing the rollup.
+     *
+     * <p>Concurrent first writes of a user would each create the row, and all but one would fail
+     * on its primary key. They are serialized on the user's row instead, and the later ones lock
+     * the statistics the first one created.
+     *
+     * @param userId the ID of the user
+     * @return the locked statistics
+     */
+    UserStats lockStats(Long userId) {
+        Optional<UserStats> stats = userStatsRepository.findByIdForUpdate(userId);
+        if (stats.isPresent()) {
+            return stats.get();
+        }
+        userRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        return userStatsRepository.findByIdForUpdate(userId)
+                .orElseGet(() -> userStatsRepository.save(continueChangeLog(computeFromRollups(userId))));
+    }
+
+    /**
+     * Continue the change log of a user whose statistics are created while it may hold changes,
+     * for example ones backfilled for entries written without statistics. Which tombstones were
+     * purged is unknown, so cursors before the last change are expired.
+     *
+     * @param stats the new statistics
+     * @return the statistics
+     */
+    private UserStats continueChangeLog(UserStats stats) {
+        Long lastSeq = entryChangeRepository.findLastSeq(stats.getUserId());
+        if (lastSeq != null) {
+            stats.setChangeSeq(lastSeq);
+            stats.setPurgedSeq(lastSeq);
+        }
+        return stats;
+    }
+
+    /**
+     * Record a new entry, after it has been added to the calendar rollup.
+     *
+     * @param stats the locked statistics
+     * @param date  the entry date
+     * @param words the entry's word count
+     */
+    void recordCreate(UserStats stats, LocalDate date, int words) {
+        stats.setEntryCount(stats.getEntryCount() + 1);
+        stats.setWordCount(stats.getWordCount() + words);
+
+        LocalDate end = stats.getStreakEnd();
+        if (end == null || date.isAfter(end.plusDays(1))) {
+            // Days after the latest streak have no entries, so this day starts a new one
+            stats.setStreakStart(date);
+            stats.setStreakEnd(date);
+            stats.setLongestStreak(Math.max(stats.getLongestStreak(), 1));
+        } else if (date.equals(end.plusDays(1))) {
+            stats.setStreakEnd(date);
+            stats.setLongestStreak(Math.max(stats.getLongestStreak(), streakLength(stats)));
+        } else if (date.isBefore(stats.getStreakStart())) {
+            // A backdated entry may join earlier streaks
+            recomputeStreaks(stats);
+        }
+        // Otherwise the day is within the latest streak and already had entries
+    }
+
+    /**
+     * Record an edited entry, after the calendar rollup has been updated.
+     *
+     * @param stats         the locked statistics
+     * @param previousDate  the entry date before the edit
+     * @param previousWords the word count before the edit
+     * @param date          the entry date after the edit
+     * @param words         the word count after the edit
+     */
+    void recordUpdate(UserStats stats, LocalDate previousDate, int previousWords, LocalDate date, int words) {
+        stats.setWordCount(stats.getWordCount() + words - previousWords);
+        if (!previousDate.equals(date)) {
+            // The previous day may have lost its last entry
+            recomputeStreaks(stats);
+        }
+    }
+
+    /**
+     * Record a deleted entry, after it has been removed from the calendar rollup.
+     *
+     * @param stats the locked statistics
+     * @param words the entry's word count
+     */
+    void recordDelete(UserStats stats, int words) {
+        stats.setEntryCount(stats.getEntryCount() - 1);
+        stats.setWordCount(stats.getWordCount() - words);
+        recomputeStreaks(stats);
+    }
+
+    private void recomputeStreaks(UserStats stats) {
+        applyStreaks(stats, entryDayRollupRepository.findAllDaysWithEntries(stats.getUserId()));
+    }
+
+    private UserStats computeFromRollups(Long userId) {
+        UserStats stats = new UserStats(userId);
+        apply(stats, entryDayRollupRepository.findAllDaysWithEntries(userId));
+        return stats;
+    }
+
+    private static void apply(UserStats stats, List<EntryDayRollup> days) {
+        long entries = 0;
+        long words = 0;
+        for (EntryDayRollup day : days) {
+            entries += day.getEntryCount();
+            words += day.getWordCount();
+        }
+        stats.setEntryCount(entries);
+        stats.setWordCount(words);
+        applyStreaks(stats, days);
+    }
+
+    /**
+     * Set the longest and latest streaks from the days with entries, in date order.
+     */
+    private static void applyStreaks(UserStats stats, List<EntryDayRollup> days) {
+        LocalDate start = null;
+        LocalDate end = null;
+        int longest = 0;
+        for (EntryDayRollup day : days) {
+            LocalDate date = day.getEntryDate();
+            if (end == null || !date.equals(end.plusDays(1))) {
+                start = date;
+            }
+            end = date;
+            longest = Math.max(longest, (int) ChronoUnit.DAYS.between(start, end) + 1);
+        }
+        stats.setStreakStart(start);
+        stats.setStreakEnd(end);
+        stats.setLongestStreak(longest);
+    }
+
+    private static int streakLength(UserStats stats) {
+        return (int) ChronoUnit.DAYS.between(stats.getStreakStart(), stats.getStreakEnd()) + 1;
+    }
+
+    /**
+     * Map statistics to their DTO; the latest streak is current if it reaches today or yesterday.
+     *
+     * @param stats the statistics
+     * @param today the current date
+     * @return the statistics DTO
+     */
+    static UserStatsDto toDto(UserStats stats, LocalDate today) {
+        boolean current = stats.getStreakEnd() != null && !stats.getStreakEnd().isBefore(today.minusDays(1));
+        double average = stats.getEntryCount() == 0
+                ? 0 : Math.round(stats.getWordCount() * 10.0 / stats.getEntryCount()) / 10.0;
+        return new UserStatsDto(stats.getEntryCount(), stats.getWordCount(), average,
+                current ? streakLength(stats) : 0, stats.getLongestStreak(), stats.getStreakEnd());
+    }
+
+    private User findUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    }
+}
@@ -0,0 +1,33 @@
+package com.diaries.service;
+
+/**
+ * Counts the words of entry content: runs of characters separated by whitespace.
+ * {@code V12__backfill_entry_day_rollups} counts words the same way in SQL.
+ */
+public final class WordCounter {
+
+    private WordCounter() {
+    }
+
+    /**
+     * Count the words in a text.
+     *
+     * @param text the text, may be null
+     * @return the number of words, 0 for null or blank text
+     */
+    public static int count(String text) {
+        if (text == null) {
+            return 0;
+        }
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); i++) {
+            boolean whitespace = Character.isWhitespace(text.charAt(i));
+            if (!whitespace && !inWord) {
+                words++;
+            }
+            inWord = !whitespace;
+        }
+        return words;
+    }
+}
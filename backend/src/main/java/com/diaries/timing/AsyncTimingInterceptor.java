@@ -0,0 +1,41 @@
+package com.diaries.timing;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Interceptor that continues the timings of a sampled request on the thread that runs its
+ * asynchronous task, so the statements the task executes are included in {@code Server-Timing}.
+ */
+public class AsyncTimingInterceptor implements CallableProcessingInterceptor {
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        // Before the task is submitted, so its thread cannot resume the timings before they are kept
+        suspend(request);
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        RequestTimings suspended = (RequestTimings) request.getAttribute(
+                ServerTimingFilter.TIMINGS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (suspended != null) {
+            RequestTimings.resume(suspended);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        suspend(request);
+    }
+
+    private static void suspend(NativeWebRequest request) {
+        RequestTimings suspended = RequestTimings.suspend();
+        if (suspended != null) {
+            request.setAttribute(ServerTimingFilter.TIMINGS_ATTRIBUTE, suspended, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.diaries.timing;
+
+/**
+ * Per-request timing accumulator for the {@code Server-Timing} response header.
+ * One instance is kept per thread and reset for each sampled request, so collecting
+ * timings does not allocate beyond the header string itself. Components that contribute
+ * timings call {@link #current()}, which returns null when the request is not sampled.
+ */
+public final class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> HOLDER = ThreadLocal.withInitial(RequestTimings::new);
+
+    private boolean active;
+    private long startNanos;
+    private long authNanos;
+    private long dbNanos;
+    private long statementStartNanos;
+    private int statements;
+    private long serializationNanos;
+
+    private RequestTimings() {
+    }
+
+    /**
+     * Start collecting timings for the request on the current thread.
+     *
+     * @return the reset accumulator
+     */
+    static RequestTimings begin() {
+        RequestTimings timings = HOLDER.get();
+        timings.active = true;
+        timings.startNanos = System.nanoTime();
+        timings.authNanos = 0;
+        timings.dbNanos = 0;
+        timings.statementStartNanos = 0;
+        timings.statements = 0;
+        timings.serializationNanos = 0;
+        return timings;
+    }
+
+    /**
+     * Stop collecting timings on the current thread.
+     */
+    static void end() {
+        HOLDER.get().active = false;
+    }
+
+    /**
+     * Stop collecting timings on the current thread, keeping those collected so far so that an
+     * asynchronous request can continue them on the thread that handles its next part.
+     *
+     * @return a copy of the timings collected so far, or null if the request is not being timed
+     */
+    static RequestTimings suspend() {
+        RequestTimings timings = HOLDER.get();
+        if (!timings.active) {
+            return null;
+        }
+        RequestTimings suspended = new RequestTimings();
+        suspended.copyFrom(timings);
+        timings.active = false;
+        return suspended;
+    }
+
+    /**
+     * Continue collecting suspended timings on the current thread.
+     *
+     * @param suspended the timings returned by {@link #suspend()}
+     * @return the accumulator of the current thread
+     */
+    static RequestTimings resume(RequestTimings suspended) {
+        RequestTimings timings = HOLDER.get();
+        timings.copyFrom(suspended);
+        timings.active = true;
+        return timings;
+    }
+
+    private void copyFrom(RequestTimings other) {
+        startNanos = other.startNanos;
+        authNanos = other.authNanos;
+        dbNanos = other.dbNanos;
+        statementStartNanos = other.statementStartNanos;
+        statements = other.statements;
+        serializationNanos = other.serializationNanos;
+    }
+
+    /**
+     * Get the accumulator for the request on the current thread.
+     *
+     * @return the accumulator, or null if the request is not being timed
+     */
+    public static RequestTimings current() {
+        RequestTimings timings = HOLDER.get();
+        return timings.active ? timings : null;
+    }
+
+    /**
+     * Add time spent authenticating the request.
+     *
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void addAuth(long nanos) {
+        authNanos += nanos;
+    }
+
+    /**
+     * Add time spent serializing the response body.
+     *
+     * @param nanos the elapsed time in nanoseconds
+     */
+    public void addSerialization(long nanos) {
+        serializationNanos += nanos;
+    }
+
+    void statementStarted(long nanoTime) {
+        statementStartNanos = nanoTime;
+    }
+
+    void statementFinished(long nanoTime) {
+        dbNanos += nanoTime - statementStartNanos;
+        statements++;
+    }
+
+    /**
+     * Format the collected timings as a {@code Server-Timing} header value,
+     * e.g. {@code auth;dur=0.84, db;dur=3.21;desc="4 statements", ser;dur=0.42, total;dur=7.90}.
+     *
+     * @param nowNanos the current {@link System#nanoTime()}
+     * @return the header value
+     */
+    String toHeaderValue(long nowNanos) {
+        StringBuilder header = new StringBuilder(96);
+        appendMetric(header, "auth", authNanos).append(", ");
+        appendMetric(header, "db", dbNanos)
+                .append(";desc=\"").append(statements).append(statements == 1 ? " statement\"" : " statements\"")
+                .append(", ");
+        appendMetric(header, "ser", serializationNanos).append(", ");
+        appendMetric(header, "total", nowNanos - startNanos);
+        return header.toString();
+    }
+
+    private static StringBuilder appendMetric(StringBuilder header, String name, long nanos) {
+        // Milliseconds with two decimals, without the allocations of String.format
+        long hundredths = (nanos + 5_000) / 10_000;
+        header.append(name).append(";dur=").append(hundredths / 100).append('.');
+        long fraction = hundredths % 100;
+        if (fraction < 10) {
+            header.append('0');
+        }
+        return header.append(fraction);
+    }
+}
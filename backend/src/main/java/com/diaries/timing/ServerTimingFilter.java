@@ -0,0 +1,128 @@
+package com.diaries.timing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filter that adds a {@code Server-Timing} header to a sample of responses.
+ * Sampled responses are buffered so the header can be set after the body has been
+ * serialized; unsampled requests pass through untouched. Event streams are not buffered,
+ * and get no header once their first event has been sent.
+ *
+ * <p>An asynchronous request is timed across all of its dispatches: the timings collected so far
+ * are kept in a request attribute while it waits, and the body is written on its last dispatch.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String HEADER = "Server-Timing";
+
+    /** Request attribute holding the timings of an asynchronous request between its dispatches. */
+    static final String TIMINGS_ATTRIBUTE = ServerTimingFilter.class.getName() + ".TIMINGS";
+
+    private final double sampleRate;
+
+    public ServerTimingFilter(double sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings;
+        HttpServletResponse responseToUse;
+        if (isAsyncDispatch(request)) {
+            RequestTimings suspended = (RequestTimings) request.getAttribute(TIMINGS_ATTRIBUTE);
+            if (suspended == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            request.removeAttribute(TIMINGS_ATTRIBUTE);
+            timings = RequestTimings.resume(suspended);
+            responseToUse = response;
+        } else {
+            if (!isSampled()) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            timings = RequestTimings.begin();
+            responseToUse = new TimedResponseWrapper(response);
+        }
+
+        try {
+            filterChain.doFilter(request, responseToUse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Null if an interceptor already suspended the timings for an asynchronous task
+                RequestTimings suspended = RequestTimings.suspend();
+                if (suspended != null) {
+                    request.setAttribute(TIMINGS_ATTRIBUTE, suspended);
+                }
+            } else {
+                RequestTimings.end();
+                if (!response.isCommitted()) {
+                    response.setHeader(HEADER, timings.toHeaderValue(System.nanoTime()));
+                }
+                TimedResponseWrapper wrapper = WebUtils.getNativeResponse(responseToUse, TimedResponseWrapper.class);
+                if (wrapper != null) {
+                    wrapper.copyBodyToResponse();
+                }
+            }
+        }
+    }
+
+    private boolean isSampled() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    /**
+     * Response wrapper that buffers the body, except that of an event stream, which is written
+     * and flushed to the client as each event is sent.
+     */
+    private static final class TimedResponseWrapper extends ContentCachingResponseWrapper {
+
+        TimedResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            return isEventStream() ? getResponse().getOutputStream() : super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            return isEventStream() ? getResponse().getWriter() : super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (isEventStream()) {
+                getResponse().flushBuffer();
+            } else {
+                super.flushBuffer();
+            }
+        }
+
+        private boolean isEventStream() {
+            String contentType = getContentType();
+            return contentType != null && contentType.startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.diaries.timing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+
+/**
+ * JDBC listener that adds statement execution time and count to the current request's timings.
+ * A batch counts as one statement.
+ */
+public class ServerTimingQueryListener implements QueryExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.statementStarted(System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+            timings.statementFinished(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package db.migration;
+
+import com.diaries.entity.CompressedTextConverter;
+import com.diaries.entity.ContentCodec;
+import com.diaries.migration.BatchedBackfillMigration;
+import com.diaries.service.WordCounter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Count the existing entries of each user and day into {@code entry_day_rollups}, by ranges of
+ * user ids. Each batch replaces the rollups of its users with counts over both storage tiers,
+ * reading the entries {@code FOR SHARE} so a concurrent edit waits for the batch and is then
+ * applied on top of it. Words are counted in SQL; content stored compressed is decoded here and
+ * its words added in the same transaction.
+ */
+public class V12__backfill_entry_day_rollups extends BatchedBackfillMigration {
+
+    private static final String WORDS = "(select count(*) from regexp_split_to_table(content, '\\s+') w"
+            + " where w <> '')::integer";
+
+    private static final String ENTRIES = """
+            select * from (select user_id, entry_date, %1$s as words from diary_entries
+                           where user_id >= ? and user_id < ? for share) hot
+            union all
+            select * from (select user_id, entry_date, %1$s as words from diary_entries_archive
+                           where user_id >= ? and user_id < ? for share) archived
+            """.formatted(WORDS);
+
+    private static final String COMPRESSED_CONTENT = """
+            select user_id, entry_date, content_data from diary_entries
+            where user_id >= ? and user_id < ? and content_data is not null
+            union all
+            select user_id, entry_date, content_data from diary_entries_archive
+            where user_id >= ? and user_id < ? and content_data is not null
+            """;
+
+    private record Day(long userId, LocalDate entryDate) {
+    }
+
+    /** Reads any codec: the codec of each value is named in its header. */
+    private final CompressedTextConverter converter = new CompressedTextConverter(ContentCodec.DEFLATE);
+
+    public V12__backfill_entry_day_rollups() {
+        // Batches cover user ids; each user may have thousands of entries
+        super(100, Duration.ofMillis(100), 5);
+    }
+
+    @Override
+    protected String table() {
+        return "users";
+    }
+
+    @Override
+    protected String batchSql() {
+        return "insert into entry_day_rollups (user_id, entry_date, entry_count, word_count)"
+                + " select user_id, entry_date, count(*), sum(words) from (" + ENTRIES + ") entries"
+                + " group by user_id, entry_date"
+                + " on conflict (user_id, entry_date) do update"
+                + " set entry_count = excluded.entry_count, word_count = excluded.word_count";
+    }
+
+    @Override
+    protected int backfillBatch(Connection connection, long from, long to) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            int days;
+            try (PreparedStatement statement = connection.prepareStatement(batchSql())) {
+                bindRange(statement, from, to);
+                days = statement.executeUpdate();
+            }
+            addCompressedWords(connection, from, to);
+            connection.commit();
+            return days;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void addCompressedWords(Connection connection, long from, long to) throws SQLException {
+        Map<Day, Integer> words = new HashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement(COMPRESSED_CONTENT)) {
+            bindRange(statement, from, to);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    Day day = new Day(result.getLong(1), result.getObject(2, LocalDate.class));
+                    String content = converter.convertToEntityAttribute(result.getBytes(3));
+                    words.merge(day, WordCounter.count(content), Integer::sum);
+                }
+            }
+        }
+        if (words.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("update entry_day_rollups"
+                + " set word_count = word_count + ? where user_id = ? and entry_date = ?")) {
+            for (Map.Entry<Day, Integer> day : words.entrySet()) {
+                statement.setInt(1, day.getValue());
+                statement.setLong(2, day.getKey().userId());
+                statement.setObject(3, day.getKey().entryDate());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void bindRange(PreparedStatement statement, long from, long to) throws SQLException {
+        statement.setLong(1, from);
+        statement.setLong(2, to);
+        statement.setLong(3, from);
+        statement.setLong(4, to);
+    }
+}
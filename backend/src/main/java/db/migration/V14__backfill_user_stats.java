@@ -0,0 +1,40 @@
+package db.migration;
+
+import com.diaries.migration.BatchedBackfillMigration;
+
+/**
+ * Compute the statistics of existing users from {@code entry_day_rollups}, by ranges of user ids.
+ * Streaks are the runs of consecutive days: within a run, the date minus the day's rank is constant.
+ * A user whose row the application created first is skipped; it was computed from the same rollup.
+ */
+public class V14__backfill_user_stats extends BatchedBackfillMigration {
+
+    @Override
+    protected String table() {
+        return "users";
+    }
+
+    @Override
+    protected String batchSql() {
+        return """
+                insert into user_stats (user_id, entry_count, word_count, longest_streak,
+                                        streak_start, streak_end, updated_at)
+                select user_id, sum(entries), sum(words), max(days),
+                       max(run_start), max(run_end), localtimestamp
+                from (
+                    select user_id, min(entry_date) as run_start, max(entry_date) as run_end, count(*) as days,
+                           sum(entry_count) as entries, sum(word_count) as words
+                    from (
+                        select user_id, entry_date, entry_count, word_count,
+                               entry_date - (row_number() over (partition by user_id order by entry_date))::integer
+                                   as run
+                        from entry_day_rollups
+                        where user_id >= ? and user_id < ? and entry_count > 0
+                    ) days
+                    group by user_id, run
+                ) runs
+                group by user_id
+                on conflict (user_id) do nothing
+                """;
+    }
+}
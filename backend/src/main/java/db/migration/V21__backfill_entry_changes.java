@@ -0,0 +1,76 @@
+package db.migration;
+
+import com.diaries.migration.BatchedBackfillMigration;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Record the existing entries of each user in {@code entry_changes}, by ranges of user ids, and
+ * set the user's change cursor past them. Entries are numbered in the order they were last
+ * updated, so the first sync returns them oldest first. Both statements of a batch commit
+ * together, so a user whose changes exist was done completely and is skipped on a retry.
+ */
+public class V21__backfill_entry_changes extends BatchedBackfillMigration {
+
+    private static final String ADVANCE_CURSORS = """
+            update user_stats s set change_seq = c.seq
+            from (select user_id, max(seq) as seq from entry_changes
+                  where user_id >= ? and user_id < ? group by user_id) c
+            where s.user_id = c.user_id and s.change_seq < c.seq
+            """;
+
+    public V21__backfill_entry_changes() {
+        // Batches cover user ids; each user may have thousands of entries
+        super(100, Duration.ofMillis(100), 5);
+    }
+
+    @Override
+    protected String table() {
+        return "users";
+    }
+
+    @Override
+    protected String batchSql() {
+        return """
+                insert into entry_changes (user_id, entry_id, seq, deleted, changed_at)
+                select user_id, id, row_number() over (partition by user_id order by updated_at, id),
+                       false, updated_at
+                from (
+                    select user_id, id, updated_at from diary_entries where user_id >= ? and user_id < ?
+                    union all
+                    select user_id, id, updated_at from diary_entries_archive where user_id >= ? and user_id < ?
+                ) entries
+                where not exists (select 1 from entry_changes c where c.user_id = entries.user_id)
+                """;
+    }
+
+    @Override
+    protected int backfillBatch(Connection connection, long from, long to) throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            int changes;
+            try (PreparedStatement statement = connection.prepareStatement(batchSql())) {
+                statement.setLong(1, from);
+                statement.setLong(2, to);
+                statement.setLong(3, from);
+                statement.setLong(4, to);
+                changes = statement.executeUpdate();
+            }
+            try (PreparedStatement statement = connection.prepareStatement(ADVANCE_CURSORS)) {
+                statement.setLong(1, from);
+                statement.setLong(2, to);
+                statement.executeUpdate();
+            }
+            connection.commit();
+            return changes;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package db.migration;
+
+import com.diaries.migration.BatchedBackfillMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Move {@code diary_entries} to a partitioned table without blocking writes.
+ *
+ * <ol>
+ *   <li>Create {@code diary_entries_partitioned} with its partitions and indexes.</li>
+ *   <li>Mirror every write on {@code diary_entries} to it with a trigger.</li>
+ *   <li>Copy the existing rows in batches. Rows are read {@code FOR SHARE}, so a concurrent
+ *       update or delete either completes before the copy and is seen by it, or waits for it and
+ *       is then mirrored.</li>
+ *   <li>Swap the table names in one short transaction.</li>
+ * </ol>
+ *
+ * The layout is chosen with the {@code entry_partitioning} placeholder: {@code range} creates yearly
+ * partitions on {@code entry_date} plus a default partition, maintained by
+ * {@code create_diary_entry_partitions}; {@code hash} creates {@code entry_hash_partitions}
+ * partitions on {@code user_id}. The old table is kept as {@code diary_entries_unpartitioned}.
+ * Every step is idempotent, so a failed run is repaired and run again.
+ */
+public class V6__partition_diary_entries extends BatchedBackfillMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(V6__partition_diary_entries.class);
+
+    private static final String COLUMNS = "entry_date, created_at, id, updated_at, user_id, title, content";
+
+    /** SQLSTATE raised by PostgreSQL when {@code lock_timeout} expires. */
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+    private static final int SWAP_ATTEMPTS = 10;
+
+    private static final String CREATE_PARTITIONS_FUNCTION = """
+            create or replace function create_diary_entry_partitions(p_parent regclass, p_from date, p_to date)
+            returns integer language plpgsql as $$
+            declare
+                v_default regclass;
+                v_start date;
+                v_end date;
+                v_name text;
+                v_created integer := 0;
+            begin
+                if not exists (select 1 from pg_partitioned_table
+                               where partrelid = p_parent and partstrat = 'r') then
+                    return 0;
+                end if;
+                perform set_config('lock_timeout', '5s', true);
+                perform pg_advisory_xact_lock(p_parent::oid::bigint);
+                select i.inhrelid::regclass into v_default
+                from pg_inherits i join pg_class c on c.oid = i.inhrelid
+                where i.inhparent = p_parent and pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT';
+
+                for v_year in extract(year from p_from)::integer .. extract(year from p_to)::integer loop
+                    v_start := make_date(v_year, 1, 1);
+                    v_end := make_date(v_year + 1, 1, 1);
+                    v_name := 'diary_entries_y' || v_year;
+                    continue when to_regclass(v_name) is not null;
+
+                    execute format('create table %I (like %s including defaults including constraints)',
+                                   v_name, p_parent);
+                    if v_default is not null then
+                        -- Entries dated in a year without a partition are held by the default partition
+                        execute format('lock table %s in exclusive mode', v_default);
+                        execute format('with moved as (delete from %s where entry_date >= %L and entry_date < %L'
+                                       || ' returning *) insert into %I select * from moved',
+                                       v_default, v_start, v_end, v_name);
+                    end if;
+                    execute format('alter table %s attach partition %I for values from (%L) to (%L)',
+                                   p_parent, v_name, v_start, v_end);
+                    v_created := v_created + 1;
+                end loop;
+                return v_created;
+            end $$
+            """;
+
+    private static final String MIRROR_FUNCTION = """
+            create or replace function diary_entries_mirror() returns trigger language plpgsql as $$
+            begin
+                if tg_op in ('UPDATE', 'DELETE') then
+                    delete from diary_entries_partitioned
+                    where id = old.id and entry_date = old.entry_date and user_id = old.user_id;
+                end if;
+                if tg_op in ('INSERT', 'UPDATE') then
+                    insert into diary_entries_partitioned (%1$s)
+                    values (new.entry_date, new.created_at, new.id, new.updated_at, new.user_id,
+                            new.title, new.content)
+                    on conflict do nothing;
+                end if;
+                return null;
+            end $$
+            """.formatted(COLUMNS);
+
+    private static final int RANGE_YEARS_AHEAD = 2;
+
+    @Override
+    protected String table() {
+        return "diary_entries";
+    }
+
+    @Override
+    protected String batchSql() {
+        return "insert into diary_entries_partitioned (" + COLUMNS + ") select " + COLUMNS
+                + " from diary_entries where id >= ? and id < ? for share on conflict do nothing";
+    }
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        if (isPartitioned(connection)) {
+            logger.info("diary_entries is already partitioned");
+            return;
+        }
+
+        Map<String, String> placeholders = context.getConfiguration().getPlaceholders();
+        String strategy = placeholders.getOrDefault("entry_partitioning", "range").toLowerCase(Locale.ROOT);
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_PARTITIONS_FUNCTION);
+            switch (strategy) {
+                case "range" -> createRangeLayout(statement);
+                case "hash" -> createHashLayout(statement,
+                        Integer.parseInt(placeholders.getOrDefault("entry_hash_partitions", "16")));
+                default -> throw new IllegalArgumentException("Unknown entry_partitioning: " + strategy);
+            }
+            statement.execute("create index if not exists diary_entries_partitioned_user_date"
+                    + " on diary_entries_partitioned (user_id, entry_date)");
+            statement.execute("create index if not exists diary_entries_partitioned_entry_date"
+                    + " on diary_entries_partitioned (entry_date)");
+            statement.execute("create index if not exists diary_entries_partitioned_title_trgm"
+                    + " on diary_entries_partitioned using gin (lower(title) gin_trgm_ops)");
+            statement.execute("create index if not exists diary_entries_partitioned_content_trgm"
+                    + " on diary_entries_partitioned using gin (lower(content) gin_trgm_ops)");
+
+            statement.execute(MIRROR_FUNCTION);
+            statement.execute("create or replace trigger diary_entries_mirror"
+                    + " after insert or update or delete on diary_entries"
+                    + " for each row execute function diary_entries_mirror()");
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        super.migrate(context);
+        swap(connection);
+    }
+
+    private void createRangeLayout(Statement statement) throws SQLException {
+        statement.execute("""
+                create table if not exists diary_entries_partitioned (
+                    entry_date date not null,
+                    created_at timestamp(6) not null,
+                    id bigint generated by default as identity,
+                    updated_at timestamp(6) not null,
+                    user_id bigint not null,
+                    title varchar(500) not null,
+                    content TEXT not null,
+                    primary key (id, entry_date),
+                    constraint fk_diary_entry_user foreign key (user_id) references users
+                ) partition by range (entry_date)""");
+        statement.execute("create table if not exists diary_entries_default"
+                + " partition of diary_entries_partitioned default");
+        // One partition per year holding entries, and the coming years
+        statement.execute("select create_diary_entry_partitions('diary_entries_partitioned',"
+                + " coalesce((select min(entry_date) from diary_entries), current_date),"
+                + " (greatest(current_date, (select max(entry_date) from diary_entries))"
+                + " + interval '" + RANGE_YEARS_AHEAD + " years')::date)");
+    }
+
+    private void createHashLayout(Statement statement, int partitions) throws SQLException {
+        statement.execute("""
+                create table if not exists diary_entries_partitioned (
+                    entry_date date not null,
+                    created_at timestamp(6) not null,
+                    id bigint generated by default as identity,
+                    updated_at timestamp(6) not null,
+                    user_id bigint not null,
+                    title varchar(500) not null,
+                    content TEXT not null,
+                    primary key (id, user_id),
+                    constraint fk_diary_entry_user foreign key (user_id) references users
+                ) partition by hash (user_id)""");
+        for (int remainder = 0; remainder < partitions; remainder++) {
+            statement.execute(String.format("create table if not exists diary_entries_p%02d"
+                    + " partition of diary_entries_partitioned for values with (modulus %d, remainder %d)",
+                    remainder, partitions, remainder));
+        }
+    }
+
+    /**
+     * Rename the tables while holding the lock on the old one, so no write is lost between the
+     * last mirrored change and the rename. Lock timeouts are retried; the copy is already complete.
+     */
+    private void swap(Connection connection) throws SQLException, InterruptedException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    statement.execute("lock table diary_entries in access exclusive mode");
+                    String oldSequence;
+                    try (ResultSet result = statement.executeQuery(
+                            "select pg_get_serial_sequence('diary_entries', 'id')")) {
+                        result.next();
+                        oldSequence = result.getString(1);
+                    }
+                    statement.execute("drop trigger diary_entries_mirror on diary_entries");
+                    statement.execute("alter table diary_entries drop constraint fk_diary_entry_user");
+                    statement.execute("alter table diary_entries rename to diary_entries_unpartitioned");
+                    statement.execute("alter table diary_entries_unpartitioned"
+                            + " rename constraint diary_entries_pkey to diary_entries_unpartitioned_pkey");
+                    statement.execute("alter sequence " + oldSequence + " rename to diary_entries_unpartitioned_id_seq");
+                    for (String index : new String[] {"idx_user_date", "idx_entry_date",
+                            "idx_entry_title_trgm", "idx_entry_content_trgm"}) {
+                        statement.execute("alter index if exists " + index
+                                + " rename to " + index + "_unpartitioned");
+                    }
+
+                    statement.execute("alter table diary_entries_partitioned rename to diary_entries");
+                    statement.execute("alter table diary_entries"
+                            + " rename constraint diary_entries_partitioned_pkey to diary_entries_pkey");
+                    statement.execute("alter index diary_entries_partitioned_user_date rename to idx_user_date");
+                    statement.execute("alter index diary_entries_partitioned_entry_date rename to idx_entry_date");
+                    statement.execute("alter index diary_entries_partitioned_title_trgm"
+                            + " rename to idx_entry_title_trgm");
+                    statement.execute("alter index diary_entries_partitioned_content_trgm"
+                            + " rename to idx_entry_content_trgm");
+                    statement.execute("alter sequence diary_entries_partitioned_id_seq rename to diary_entries_id_seq");
+                    // Continue the ids handed out by the old table's identity
+                    statement.execute("select setval('diary_entries_id_seq',"
+                            + " greatest(coalesce((select max(id) from diary_entries), 0),"
+                            + " (select last_value from diary_entries_unpartitioned_id_seq)) + 1, false)");
+                    statement.execute("drop function diary_entries_mirror()");
+                    connection.commit();
+                    logger.info("diary_entries swapped for the partitioned table");
+                    return;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (!LOCK_NOT_AVAILABLE.equals(e.getSQLState()) || attempt >= SWAP_ATTEMPTS) {
+                        throw e;
+                    }
+                    logger.warn("Swapping diary_entries hit the lock timeout, retrying");
+                    Thread.sleep(1000L * attempt);
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static boolean isPartitioned(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select exists (select 1 from pg_partitioned_table"
+                     + " where partrelid = to_regclass('diary_entries'))")) {
+            result.next();
+            return result.getBoolean(1);
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Scans the tables under SHARE UPDATE EXCLUSIVE, which does not block reads or writes.
+alter table diary_entries validate constraint chk_entry_content;
+alter table diary_entries_archive validate constraint chk_archived_entry_content;
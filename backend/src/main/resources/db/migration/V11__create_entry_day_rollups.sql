@@ -0,0 +1,11 @@
+-- Entries and words per user and day, for the calendar heatmap (GET /api/diary-entries/calendar).
+-- Maintained by DiaryEntryService from this version on; existing entries are counted by V12.
+-- The primary key is the only index: a year of one user is a range scan of at most 366 rows.
+create table entry_day_rollups (
+    user_id bigint not null,
+    entry_date date not null,
+    entry_count integer not null,
+    word_count integer not null,
+    primary key (user_id, entry_date),
+    constraint fk_entry_day_rollup_user foreign key (user_id) references users
+);
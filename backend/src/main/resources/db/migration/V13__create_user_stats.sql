@@ -0,0 +1,13 @@
+-- Writing statistics per user (GET /api/stats), maintained by DiaryEntryService from this version on.
+-- The latest streak is stored as its first and last day; existing users are filled by V14.
+create table user_stats (
+    user_id bigint not null,
+    entry_count bigint not null,
+    word_count bigint not null,
+    longest_streak integer not null,
+    streak_start date,
+    streak_end date,
+    updated_at timestamp(6) not null,
+    primary key (user_id),
+    constraint fk_user_stats_user foreign key (user_id) references users
+);
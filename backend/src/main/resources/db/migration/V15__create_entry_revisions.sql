@@ -0,0 +1,19 @@
+-- Earlier versions of entries (GET /api/diary-entries/{id}/revisions), recorded by DiaryEntryService.
+-- Content is a delta against the next newer version or, every few revisions, a compressed snapshot.
+-- No foreign key: entry ids span diary_entries and diary_entries_archive, whose keys include entry_date.
+create table entry_revisions (
+    entry_id bigint not null,
+    revision integer not null,
+    title varchar(500) not null,
+    entry_date date not null,
+    saved_at timestamp(6) not null,
+    delta bytea,
+    snapshot bytea,
+    compacted boolean not null default false,
+    primary key (entry_id, revision),
+    constraint chk_entry_revision_content check ((delta is null) <> (snapshot is null))
+);
+
+-- Deltas are small and snapshots already compressed; skip PostgreSQL's own compression attempt
+alter table entry_revisions alter column delta set storage external;
+alter table entry_revisions alter column snapshot set storage external;
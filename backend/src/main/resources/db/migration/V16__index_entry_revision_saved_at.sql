@@ -0,0 +1,4 @@
+-- Finds the revisions past retention (EntryRevisionCompactionService).
+-- Drop first so a retry replaces an INVALID index left by a failed concurrent build.
+drop index concurrently if exists idx_entry_revision_saved_at;
+create index concurrently idx_entry_revision_saved_at on entry_revisions (saved_at);
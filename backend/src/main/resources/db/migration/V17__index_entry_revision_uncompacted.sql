@@ -0,0 +1,4 @@
+-- Finds the revisions still to be compacted; compacted revisions leave the index.
+-- Drop first so a retry replaces an INVALID index left by a failed concurrent build.
+drop index concurrently if exists idx_entry_revision_uncompacted;
+create index concurrently idx_entry_revision_uncompacted on entry_revisions (saved_at) where not compacted;
@@ -0,0 +1,18 @@
+-- Change log of diary entries (GET /api/diary-entries/changes), recorded by DiaryEntryService.
+-- One row per entry, moved to the user's next change_seq by each write; deleted entries leave a
+-- tombstone until EntryChangeCompactionService purges it. Existing entries are filled by V21.
+-- No foreign key to the entries: their ids span diary_entries and diary_entries_archive.
+create table entry_changes (
+    user_id bigint not null,
+    entry_id bigint not null,
+    seq bigint not null,
+    deleted boolean not null,
+    changed_at timestamp(6) not null,
+    primary key (user_id, entry_id),
+    constraint fk_entry_change_user foreign key (user_id) references users
+);
+
+-- Cursor of each user's latest change and of the latest tombstone purged; constant defaults
+-- are stored in the catalog, so adding the columns does not rewrite user_stats
+alter table user_stats add column change_seq bigint not null default 0;
+alter table user_stats add column purged_seq bigint not null default 0;
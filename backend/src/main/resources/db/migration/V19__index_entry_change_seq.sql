@@ -0,0 +1,4 @@
+-- Reads a user's change log from a cursor (EntryChangeService); a cursor names one change.
+-- Drop first so a retry replaces an INVALID index left by a failed concurrent build.
+drop index concurrently if exists idx_entry_change_seq;
+create unique index concurrently idx_entry_change_seq on entry_changes (user_id, seq);
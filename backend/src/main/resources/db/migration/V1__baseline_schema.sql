@@ -0,0 +1,47 @@
+-- Baseline: the schema previously created by Hibernate (ddl-auto=update).
+-- Existing databases are marked as baselined at this version instead of running it.
+
+create table users (
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    updated_at timestamp(6) not null,
+    email varchar(255) not null unique,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    primary key (id)
+);
+
+create table diary_entries (
+    entry_date date not null,
+    created_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    updated_at timestamp(6) not null,
+    user_id bigint not null,
+    title varchar(500) not null,
+    content TEXT not null,
+    primary key (id)
+);
+
+create table refresh_tokens (
+    created_at timestamp(6) not null,
+    expires_at timestamp(6) not null,
+    id bigint generated by default as identity,
+    revoked_at timestamp(6),
+    user_id bigint not null,
+    family_id varchar(36) not null,
+    token_hash varchar(64) not null,
+    primary key (id),
+    constraint idx_refresh_token_hash unique (token_hash)
+);
+
+create index idx_user_email on users (email);
+create index idx_user_date on diary_entries (user_id, entry_date);
+create index idx_entry_date on diary_entries (entry_date);
+create index idx_user_id on diary_entries (user_id);
+create index idx_refresh_token_family on refresh_tokens (family_id);
+create index idx_refresh_token_expires on refresh_tokens (expires_at);
+
+alter table if exists diary_entries
+    add constraint fk_diary_entry_user foreign key (user_id) references users;
+alter table if exists refresh_tokens
+    add constraint fk_refresh_token_user foreign key (user_id) references users;
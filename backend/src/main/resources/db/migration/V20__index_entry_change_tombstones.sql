@@ -0,0 +1,4 @@
+-- Finds the tombstones past retention (EntryChangeCompactionService); live entries stay out of it.
+-- Drop first so a retry replaces an INVALID index left by a failed concurrent build.
+drop index concurrently if exists idx_entry_change_tombstones;
+create index concurrently idx_entry_change_tombstones on entry_changes (changed_at) where deleted;
@@ -0,0 +1,8 @@
+-- Access tokens revoked before they expire (logout), by JWT ID; mirrored into an in-memory Bloom
+-- filter by TokenRevocationList. Rows are deleted once their token has expired.
+create table revoked_tokens (
+    token_id varchar(36) not null,
+    expires_at timestamp(6) not null,
+    revoked_at timestamp(6) not null,
+    primary key (token_id)
+);
@@ -0,0 +1,4 @@
+-- Reads the tokens revoked since the last refresh of the revocation filter (TokenRevocationList).
+-- Drop first so a retry replaces an INVALID index left by a failed concurrent build.
+drop index concurrently if exists idx_revoked_token_revoked_at;
+create index concurrently idx_revoked_token_revoked_at on revoked_tokens (revoked_at);
@@ -0,0 +1,4 @@
+-- Serves LOWER(content_terms) LIKE '%keyword%' in keyword search over compressed content.
+-- Drop first so a retry replaces an INVALID index left by a failed concurrent build.
+drop index concurrently if exists idx_entry_content_terms_trgm;
+create index concurrently idx_entry_content_terms_trgm on diary_entries using gin (lower(content_terms) gin_trgm_ops);
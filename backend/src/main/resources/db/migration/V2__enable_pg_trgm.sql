@@ -0,0 +1,2 @@
+-- Trigram operator classes for the keyword search indexes.
+create extension if not exists pg_trgm;
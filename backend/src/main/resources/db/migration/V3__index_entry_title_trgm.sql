@@ -0,0 +1,4 @@
+-- Serves LOWER(title) LIKE '%keyword%' in keyword search.
+-- Drop first so a retry replaces an INVALID index left by a failed concurrent build.
+drop index concurrently if exists idx_entry_title_trgm;
+create index concurrently idx_entry_title_trgm on diary_entries using gin (lower(title) gin_trgm_ops);
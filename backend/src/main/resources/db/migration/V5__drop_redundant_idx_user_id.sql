@@ -0,0 +1,3 @@
+-- idx_user_date (user_id, entry_date) already serves lookups by user_id alone;
+-- the single-column index only adds write cost.
+drop index concurrently if exists idx_user_id;
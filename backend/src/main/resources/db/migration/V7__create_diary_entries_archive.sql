@@ -0,0 +1,23 @@
+-- Cold tier for old entries, filled by EntryArchiveService.
+-- Rows keep their diary_entries id. There are no search indexes, pages are packed full,
+-- and a low toast_tuple_target compresses the content of all but the shortest entries.
+create table diary_entries_archive (
+    id bigint not null,
+    entry_date date not null,
+    user_id bigint not null,
+    title varchar(500) not null,
+    content text not null,
+    created_at timestamp(6) not null,
+    updated_at timestamp(6) not null,
+    archived_at timestamp(6) not null,
+    primary key (id),
+    constraint fk_archived_entry_user foreign key (user_id) references users
+) with (fillfactor = 100, toast_tuple_target = 128);
+
+-- lz4 compresses and decompresses faster than the default pglz; keep pglz on servers built without it
+do $$
+begin
+    alter table diary_entries_archive alter column content set compression lz4;
+exception when feature_not_supported then
+    raise notice 'lz4 is not available, archived content is compressed with pglz';
+end $$;
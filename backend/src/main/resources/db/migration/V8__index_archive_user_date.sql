@@ -0,0 +1,4 @@
+-- Serves listing and date filtering of a user's archived entries.
+-- Drop first so a retry replaces an INVALID index left by a failed concurrent build.
+drop index concurrently if exists idx_archive_user_date;
+create index concurrently idx_archive_user_date on diary_entries_archive (user_id, entry_date);
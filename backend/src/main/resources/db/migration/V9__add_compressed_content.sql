@@ -0,0 +1,21 @@
+-- Large entries may store their content compressed by the application in content_data,
+-- leaving content null (storage.content-compression). Both changes only update the catalog.
+alter table diary_entries add column content_data bytea;
+alter table diary_entries alter column content drop not null;
+alter table diary_entries_archive add column content_data bytea;
+alter table diary_entries_archive alter column content drop not null;
+
+-- Keyword search cannot read compressed content; it matches the distinct words of compressed
+-- content instead (ContentTerms), null while the content is stored as text.
+alter table diary_entries add column content_terms text;
+alter table diary_entries_archive add column content_terms text;
+
+-- The values are already compressed; skip PostgreSQL's own compression attempt
+alter table diary_entries alter column content_data set storage external;
+alter table diary_entries_archive alter column content_data set storage external;
+
+-- Exactly one of content and content_data holds the content. Validated in V10 without blocking writes
+alter table diary_entries add constraint chk_entry_content
+    check ((content is null) <> (content_data is null)) not valid;
+alter table diary_entries_archive add constraint chk_archived_entry_content
+    check ((content is null) <> (content_data is null)) not valid;
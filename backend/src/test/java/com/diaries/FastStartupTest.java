@@ -0,0 +1,90 @@
+package com.diaries;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Startup test for the fast-start profile.
+ * Boots the application on a random port with the default profile and with {@code fast-start},
+ * and checks that the profile leaves the beans no request needs, and the repositories, to be
+ * created on first use, while the first request still succeeds. Both runs share one JVM, so their
+ * startup times are only logged; see README "Fast Startup" for measuring the packaged application.
+ */
+class FastStartupTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastStartupTest.class);
+
+    @Test
+    void testFastStartProfile_CreatesFewerBeansAndServesFirstRequest() throws Exception {
+        Startup standard = start("default");
+        Startup fast = start("fast-start");
+
+        assertEquals(201, standard.firstResponseStatus());
+        assertEquals(201, fast.firstResponseStatus());
+        assertTrue(fast.singletons().size() < standard.singletons().size() * 4 / 5,
+                fast.singletons().size() + " beans created at startup, " + standard.singletons().size()
+                        + " without the profile");
+        assertTrue(standard.created("searchService") && standard.created("diaryEntryRepository"));
+        assertFalse(fast.created("searchService"), "Services no request has used are created lazily");
+        assertFalse(fast.created("diaryEntryRepository"), "Repositories are created lazily");
+        assertTrue(fast.created("partitionMaintenanceService"), "Scheduled maintenance stays eager");
+    }
+
+    /**
+     * Start the application with a profile, note the beans created by startup, then send it a
+     * first request.
+     */
+    private Startup start(String profile) throws Exception {
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(SimpleDiariesApplication.class)
+                .profiles(profile)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:startup-" + profile + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.flyway.enabled=false",
+                        "--security.password.bcrypt-cost=4",
+                        "--invalidation.enabled=false")) {
+            long started = System.nanoTime();
+            Set<String> singletons = Set.of(context.getBeanFactory().getSingletonNames());
+            int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+
+            HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder()
+                            .uri(URI.create("http://localhost:" + port + "/api/auth/register"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    "{\"email\":\"fast@example.com\",\"password\":\"password123\",\"fullName\":\"Fast Start\"}"))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            long firstRequest = System.nanoTime();
+
+            logger.info("{}: {} beans created, context started in {} ms, first request answered {} after {} ms",
+                    profile, singletons.size(), Duration.ofNanos(started - start).toMillis(), response.statusCode(),
+                    Duration.ofNanos(firstRequest - start).toMillis());
+            return new Startup(singletons, response.statusCode());
+        }
+    }
+
+    private record Startup(Set<String> singletons, int firstResponseStatus) {
+
+        boolean created(String beanName) {
+            return singletons.contains(beanName);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.diaries.config;
+
+import com.diaries.dto.RegisterRequest;
+import com.diaries.repository.RefreshTokenRepository;
+import com.diaries.repository.UserRepository;
+import com.diaries.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the Prometheus metrics endpoint on a separate management port.
+ * Uses an in-memory H2 database for testing.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "management.server.port=0")
+@AutoConfigureObservability
+@TestPropertySource(locations = "classpath:application-test.properties")
+class ManagementPortMetricsTest {
+
+    @LocalServerPort
+    private int serverPort;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testPrometheusEndpoint_ExposesApplicationMetricsWithoutToken() throws Exception {
+        authService.register(new RegisterRequest("metrics@example.com", "password123", "Metrics User"));
+        assertEquals(401, get(serverPort, "/api/diary-entries").statusCode());
+
+        HttpResponse<String> response = get(managementPort, "/actuator/prometheus");
+
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().contains(
+                "diaries_service_seconds_bucket{application=\"simple-diaries-backend\",class=\"com.diaries.service.AuthService\""));
+        assertTrue(response.body().contains("diaries_password_hash_seconds_count"));
+        assertTrue(response.body().contains("spring_data_repository_invocations_seconds_bucket"));
+        assertTrue(response.body().contains("hikaricp_connections_active"));
+        assertTrue(response.body().contains("http_server_requests_seconds_bucket"));
+        assertTrue(response.body().contains("le=\"0.25\""));
+    }
+
+    @Test
+    void testPrometheusEndpoint_IsNotOpenOnApplicationPort() throws Exception {
+        assertEquals(401, get(serverPort, "/actuator/prometheus").statusCode());
+    }
+
+    private HttpResponse<String> get(int port, String path) throws Exception {
+        return httpClient.send(HttpRequest.newBuilder()
+                        .uri(URI.create("http://localhost:" + port + path))
+                        .GET()
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,397 @@
+package com.diaries.controller;
+
+import com.diaries.entity.ArchivedDiaryEntry;
+import com.diaries.entity.DiaryEntry;
+import com.diaries.entity.EntryChange;
+import com.diaries.entity.EntryDayRollup;
+import com.diaries.entity.User;
+import com.diaries.entity.UserStats;
+import com.diaries.repository.ArchivedDiaryEntryRepository;
+import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.EntryChangeRepository;
+import com.diaries.repository.EntryDayRollupRepository;
+import com.diaries.repository.EntryRevisionRepository;
+import com.diaries.repository.RefreshTokenRepository;
+import com.diaries.repository.UserRepository;
+import com.diaries.repository.UserStatsRepository;
+import com.diaries.security.JwtTokenProvider;
+import com.diaries.service.DraftService;
+import net.ttddyy.dsproxy.QueryCount;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budget tests for the REST endpoints.
+ * Counts the SQL statements each request executes through a proxied datasource and pins
+ * the exact number, so an N+1 or an accidental lazy load fails the build.
+ * Uses an in-memory H2 database for testing.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties")
+class StatementBudgetTest {
+
+    private static final String PASSWORD = "password123";
+
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    // Counts statements whether or not the application's proxy already wraps the datasource
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource).name("counted").countQuery().build();
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        @Bean
+        WebMvcConfigurer requestThreadAsyncConfigurer() {
+            return new WebMvcConfigurer() {
+                @Override
+                public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                    // Asynchronous handlers run on the request thread, whose statements are counted
+                    configurer.setTaskExecutor(new TaskExecutorAdapter(Runnable::run));
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DiaryEntryRepository diaryEntryRepository;
+
+    @Autowired
+    private ArchivedDiaryEntryRepository archivedDiaryEntryRepository;
+
+    @Autowired
+    private EntryDayRollupRepository entryDayRollupRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private EntryRevisionRepository entryRevisionRepository;
+
+    @Autowired
+    private EntryChangeRepository entryChangeRepository;
+
+    @Autowired
+    private DraftService draftService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    private User user;
+    private String bearer;
+    private List<DiaryEntry> entries;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("budget@example.com", passwordEncoder.encode(PASSWORD), "Budget User"));
+        bearer = "Bearer " + jwtTokenProvider.generateToken(user.getId());
+
+        entries = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            entries.add(new DiaryEntry("Entry " + i, "Walked by the river " + i, LocalDate.now().minusDays(i), user));
+        }
+        entries = diaryEntryRepository.saveAll(entries);
+        entries.forEach(entry -> entryDayRollupRepository.save(
+                new EntryDayRollup(user.getId(), entry.getEntryDate(), 1, 5)));
+        List<EntryChange> changes = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            changes.add(new EntryChange(user.getId(), entries.get(i).getId(), i + 1, false, LocalDateTime.now()));
+        }
+        entryChangeRepository.saveAll(changes);
+        UserStats stats = new UserStats(user.getId());
+        stats.setEntryCount(entries.size());
+        stats.setWordCount(5L * entries.size());
+        stats.setStreakStart(entries.get(entries.size() - 1).getEntryDate());
+        stats.setStreakEnd(entries.get(0).getEntryDate());
+        stats.setLongestStreak(entries.size());
+        stats.setChangeSeq(entries.size());
+        userStatsRepository.save(stats);
+    }
+
+    @AfterEach
+    void tearDown() {
+        draftService.flushAll();
+        entryRevisionRepository.deleteAll();
+        entryChangeRepository.deleteAll();
+        diaryEntryRepository.deleteAll();
+        archivedDiaryEntryRepository.deleteAll();
+        entryDayRollupRepository.deleteAll();
+        userStatsRepository.deleteAll();
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testList_PageOfTen() throws Exception {
+        // JWT filter user lookup, user by email, page query, count query
+        assertStatements(new Budget(4, 0, 0, 0),
+                get("/api/diary-entries").param("size", "10").header("Authorization", bearer),
+                status().isOk(), jsonPath("$.content.length()").value(10));
+    }
+
+    @Test
+    void testList_PageOfFiftyDoesNotScaleWithRows() throws Exception {
+        // Same budget as a page of ten: mapping must not touch lazy associations per row
+        assertStatements(new Budget(4, 0, 0, 0),
+                get("/api/diary-entries").param("size", "50").header("Authorization", bearer),
+                status().isOk(), jsonPath("$.content.length()").value(50));
+    }
+
+    @Test
+    void testSearch() throws Exception {
+        assertStatements(new Budget(4, 0, 0, 0),
+                get("/api/diary-entries/search").param("keyword", "river").param("size", "50")
+                        .header("Authorization", bearer),
+                status().isOk(), jsonPath("$.content.length()").value(50));
+    }
+
+    @Test
+    void testSearch_RepeatedUntilAWriteIsCached() throws Exception {
+        MockHttpServletRequestBuilder search = get("/api/diary-entries/search").param("keyword", "river")
+                .header("Authorization", bearer);
+        assertStatements(new Budget(4, 0, 0, 0), search, status().isOk());
+
+        // Only the user is looked up, for the token and for the cache key
+        assertStatements(new Budget(2, 0, 0, 0), search, status().isOk(),
+                jsonPath("$.content[0].title").value("Entry 0"));
+
+        mockMvc.perform(put("/api/diary-entries/{id}", entries.get(0).getId()).header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Edited\"}"))
+                .andExpect(status().isOk());
+        assertStatements(new Budget(4, 0, 0, 0), search, status().isOk(),
+                jsonPath("$.content[0].title").value("Edited"));
+    }
+
+    @Test
+    void testGet() throws Exception {
+        assertStatements(new Budget(3, 0, 0, 0),
+                get("/api/diary-entries/{id}", entries.get(0).getId()).header("Authorization", bearer),
+                status().isOk());
+    }
+
+    @Test
+    void testCalendar() throws Exception {
+        // One range read of the rollup, however many entries the year holds
+        assertStatements(new Budget(3, 0, 0, 0),
+                get("/api/diary-entries/calendar").param("year", String.valueOf(LocalDate.now().getYear()))
+                        .header("Authorization", bearer),
+                status().isOk());
+    }
+
+    @Test
+    void testStats() throws Exception {
+        assertStatements(new Budget(3, 0, 0, 0),
+                get("/api/stats").header("Authorization", bearer),
+                status().isOk(), jsonPath("$.totalEntries").value(60), jsonPath("$.currentStreak").value(60));
+    }
+
+    @Test
+    void testCreate() throws Exception {
+        // The statistics are locked first; the first entry of a day finds no rollup to update and
+        // inserts it, and the next day of the streak extends it without reading the rollup; the
+        // change is inserted at the end of the change log
+        assertStatements(new Budget(3, 3, 2, 0),
+                post("/api/diary-entries").header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"New\",\"content\":\"Fresh entry\",\"entryDate\":\""
+                                + LocalDate.now().plusDays(1) + "\"}"),
+                status().isCreated());
+    }
+
+    @Test
+    void testUpdate() throws Exception {
+        // The replaced version is inserted as the next revision after reading the newest number,
+        // and the entry's change is moved to the end of the change log
+        assertStatements(new Budget(5, 1, 4, 0),
+                put("/api/diary-entries/{id}", entries.get(0).getId()).header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"Edited\"}"),
+                status().isOk());
+    }
+
+    @Test
+    void testSaveDraft() throws Exception {
+        Long id = entries.get(0).getId();
+        // The first save checks that the user owns the entry; later saves only replace the buffered
+        // draft, and none writes until the saves stop
+        for (Budget budget : new Budget[] {new Budget(3, 0, 0, 0), new Budget(2, 0, 0, 0)}) {
+            assertStatements(budget,
+                    put("/api/diary-entries/{id}/draft", id).header("Authorization", bearer)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"content\":\"Drafted\"}"),
+                    status().isAccepted());
+        }
+        assertStatements(new Budget(3, 0, 0, 0),
+                get("/api/diary-entries/{id}", id).header("Authorization", bearer),
+                status().isOk(), jsonPath("$.content").value("Drafted"));
+    }
+
+    @Test
+    void testDelete() throws Exception {
+        // Deleting may break a streak, so the streaks are recomputed from the rollup; the entry's
+        // revisions are deleted with it and its change becomes a tombstone
+        assertStatements(new Budget(5, 0, 3, 2),
+                delete("/api/diary-entries/{id}", entries.get(0).getId()).header("Authorization", bearer),
+                status().isNoContent());
+    }
+
+    @Test
+    void testGetChanges() throws Exception {
+        Long id = entries.get(0).getId();
+        mockMvc.perform(put("/api/diary-entries/{id}", id).header("Authorization", bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"content\":\"Edited\"}")).andExpect(status().isOk());
+
+        // The user's cursor, the changes after the client's cursor, then only the changed entries
+        assertStatements(new Budget(5, 0, 0, 0),
+                get("/api/diary-entries/changes").param("since", String.valueOf(entries.size()))
+                        .header("Authorization", bearer),
+                status().isOk(), jsonPath("$.changed[0].id").value(id), jsonPath("$.cursor").value("61"));
+    }
+
+    @Test
+    void testGetRevision() throws Exception {
+        Long id = entries.get(0).getId();
+        for (String content : new String[] {"First edit", "Second edit"}) {
+            mockMvc.perform(put("/api/diary-entries/{id}", id).header("Authorization", bearer)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"content\":\"" + content + "\"}")).andExpect(status().isOk());
+        }
+
+        // One query more than reading the entry: the revisions from the requested one up to the
+        // nearest snapshot, whatever the length of the history
+        assertStatements(new Budget(4, 0, 0, 0),
+                get("/api/diary-entries/{id}/revisions/{revision}", id, 1).header("Authorization", bearer),
+                status().isOk(), jsonPath("$.content").value(entries.get(0).getContent()));
+    }
+
+    @Test
+    void testGet_ArchivedEntry() throws Exception {
+        // Both tiers are read in the one entry query
+        assertStatements(new Budget(3, 0, 0, 0),
+                get("/api/diary-entries/{id}", archiveEntry().getId()).header("Authorization", bearer),
+                status().isOk());
+    }
+
+    @Test
+    void testUpdate_ArchivedEntry() throws Exception {
+        // The hot table is tried first, then the entry is updated in the archive
+        assertStatements(new Budget(6, 1, 4, 0),
+                put("/api/diary-entries/{id}", archiveEntry().getId()).header("Authorization", bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"Edited\"}"),
+                status().isOk());
+    }
+
+    @Test
+    void testLogin() throws Exception {
+        // Authentication and AuthService each look the user up, then the refresh token insert
+        assertStatements(new Budget(2, 1, 0, 0),
+                post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"budget@example.com\",\"password\":\"" + PASSWORD + "\"}"),
+                status().isOk());
+    }
+
+    @Test
+    void testRegister() throws Exception {
+        // Duplicate emails are caught by the unique constraint, so no existence check
+        assertStatements(new Budget(0, 2, 0, 0),
+                post("/api/auth/register").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"new@example.com\",\"password\":\"" + PASSWORD + "\",\"fullName\":\"New User\"}"),
+                status().isCreated());
+    }
+
+    private ArchivedDiaryEntry archiveEntry() {
+        ArchivedDiaryEntry entry = new ArchivedDiaryEntry();
+        entry.setId(1_000_000L);
+        entry.setTitle("Archived");
+        entry.setContent("An entry from long ago");
+        entry.setEntryDate(LocalDate.now().minusYears(3));
+        entry.setUserId(user.getId());
+        entry.setCreatedAt(LocalDateTime.now().minusYears(3));
+        entry.setArchivedAt(LocalDateTime.now());
+        entryDayRollupRepository.save(new EntryDayRollup(user.getId(), entry.getEntryDate(), 1, 5));
+        UserStats stats = userStatsRepository.findById(user.getId()).orElseThrow();
+        stats.setChangeSeq(stats.getChangeSeq() + 1);
+        userStatsRepository.save(stats);
+        entryChangeRepository.save(new EntryChange(user.getId(), entry.getId(), stats.getChangeSeq(), false,
+                LocalDateTime.now()));
+        return archivedDiaryEntryRepository.save(entry);
+    }
+
+    /**
+     * Expected statement counts by type.
+     */
+    private record Budget(long selects, long inserts, long updates, long deletes) {
+    }
+
+    private void assertStatements(Budget expected, RequestBuilder request, ResultMatcher... matchers)
+            throws Exception {
+        QueryCountHolder.clear();
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            mockMvc.perform(asyncDispatch(result)).andExpectAll(matchers);
+        } else {
+            ResultMatcher.matchAll(matchers).match(result);
+        }
+        QueryCount count = QueryCountHolder.getGrandTotal();
+
+        Budget actual = new Budget(count.getSelect(), count.getInsert(), count.getUpdate(), count.getDelete());
+        assertEquals(expected, actual, "SQL statements executed by the request");
+        assertEquals(expected.selects() + expected.inserts() + expected.updates() + expected.deletes(),
+                count.getTotal(), "Unexpected non-DML statements executed by the request");
+    }
+}
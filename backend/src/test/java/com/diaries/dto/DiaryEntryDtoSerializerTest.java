@@ -0,0 +1,86 @@
+package com.diaries.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DiaryEntryDtoSerializer.
+ * The serializer must produce exactly what Jackson's bean serializer would.
+ */
+class DiaryEntryDtoSerializerTest {
+
+    private ObjectMapper beanMapper;
+    private ObjectMapper fastMapper;
+
+    @BeforeEach
+    void setUp() {
+        beanMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        fastMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .registerModule(new SimpleModule().addSerializer(DiaryEntryDto.class, new DiaryEntryDtoSerializer()))
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Test
+    void testSerialize_MatchesBeanSerializer() throws Exception {
+        DiaryEntryDto dto = new DiaryEntryDto(1L, "A \"quoted\" title", "Line one\nLine two é中",
+                LocalDate.of(2024, 1, 15), 42L,
+                LocalDateTime.of(2024, 1, 15, 10, 30, 0, 123_456_000),
+                LocalDateTime.of(2024, 1, 15, 10, 30));
+
+        assertEquals(beanMapper.writeValueAsString(dto), fastMapper.writeValueAsString(dto));
+    }
+
+    @Test
+    void testSerialize_NullFieldsMatchBeanSerializer() throws Exception {
+        DiaryEntryDto dto = new DiaryEntryDto();
+
+        assertEquals(beanMapper.writeValueAsString(dto), fastMapper.writeValueAsString(dto));
+    }
+
+    @Test
+    void testSerialize_PagedResponseMatchesBeanSerializer() throws Exception {
+        PagedResponse<DiaryEntryDto> page = new PagedResponse<>(List.of(
+                new DiaryEntryDto(1L, "One", "First", LocalDate.of(2024, 1, 15), 42L,
+                        LocalDateTime.of(2024, 1, 15, 8, 0), LocalDateTime.of(2024, 1, 15, 8, 0, 1)),
+                new DiaryEntryDto(2L, "Two", "Second", LocalDate.of(2024, 1, 15), 42L,
+                        LocalDateTime.of(2024, 1, 16, 9, 0, 0, 1), LocalDateTime.of(2024, 1, 16, 9, 0, 0, 100))),
+                0, 10, 2, 1, true, true);
+
+        assertEquals(beanMapper.writeValueAsString(page), fastMapper.writeValueAsString(page));
+    }
+
+    @Test
+    void testFormatTimestamp_MatchesIsoLocalDateTime() {
+        Random random = new Random(42);
+        char[] buffer = new char[29];
+        for (int i = 0; i < 10_000; i++) {
+            int nanos = switch (i % 4) {
+                case 0 -> 0;
+                case 1 -> random.nextInt(1000) * 1_000_000;
+                case 2 -> random.nextInt(1_000_000) * 1_000;
+                default -> random.nextInt(1_000_000_000);
+            };
+            LocalDateTime timestamp = LocalDateTime.of(random.nextInt(10_000), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60), nanos);
+
+            int length = DiaryEntryDtoSerializer.formatTimestamp(timestamp, buffer);
+
+            assertEquals(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp), new String(buffer, 0, length));
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.diaries.dto;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PagedResponse.
+ */
+class PagedResponseTest {
+
+    @Test
+    void testOf_CopiesPageMetadata() {
+        Page<String> page = new PageImpl<>(List.of("c", "d"), PageRequest.of(1, 2), 5);
+
+        PagedResponse<String> response = PagedResponse.of(page);
+
+        assertEquals(List.of("c", "d"), response.getContent());
+        assertEquals(1, response.getNumber());
+        assertEquals(2, response.getSize());
+        assertEquals(5, response.getTotalElements());
+        assertEquals(3, response.getTotalPages());
+        assertFalse(response.isFirst());
+        assertFalse(response.isLast());
+    }
+
+    @Test
+    void testOf_EmptyPage() {
+        PagedResponse<String> response = PagedResponse.of(Page.empty(PageRequest.of(0, 10)));
+
+        assertTrue(response.getContent().isEmpty());
+        assertEquals(0, response.getTotalElements());
+        assertTrue(response.isFirst());
+        assertTrue(response.isLast());
+    }
+}
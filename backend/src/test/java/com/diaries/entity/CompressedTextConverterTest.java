@@ -0,0 +1,72 @@
+package com.diaries.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CompressedTextConverter.
+ */
+class CompressedTextConverterTest {
+
+    private static final String TEXT = "Walked along the river and watched the boats. ".repeat(200)
+            + "Café, naïve, 日記 ✓";
+
+    private final CompressedTextConverter lz4 = new CompressedTextConverter(ContentCodec.LZ4);
+    private final CompressedTextConverter deflate = new CompressedTextConverter(ContentCodec.DEFLATE);
+
+    @Test
+    void testRoundTrip_Lz4() {
+        byte[] stored = lz4.convertToDatabaseColumn(TEXT);
+
+        assertEquals(ContentCodec.LZ4.id(), stored[0]);
+        assertTrue(stored.length < TEXT.length() / 4);
+        assertEquals(TEXT, lz4.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void testRoundTrip_Deflate() {
+        byte[] stored = deflate.convertToDatabaseColumn(TEXT);
+
+        assertEquals(ContentCodec.DEFLATE.id(), stored[0]);
+        assertEquals(TEXT, deflate.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void testRead_UsesCodecFromHeader() {
+        byte[] stored = deflate.convertToDatabaseColumn(TEXT);
+
+        assertEquals(TEXT, lz4.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void testRoundTrip_EmptyText() {
+        assertEquals("", lz4.convertToEntityAttribute(lz4.convertToDatabaseColumn("")));
+    }
+
+    @Test
+    void testNull() {
+        assertNull(lz4.convertToDatabaseColumn(null));
+        assertNull(lz4.convertToEntityAttribute(null));
+    }
+
+    @Test
+    void testRead_UnknownCodec() {
+        byte[] stored = lz4.convertToDatabaseColumn(TEXT);
+        stored[0] = 99;
+
+        assertThrows(IllegalArgumentException.class, () -> lz4.convertToEntityAttribute(stored));
+    }
+
+    @Test
+    void testRead_Truncated() {
+        byte[] stored = deflate.convertToDatabaseColumn(TEXT);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> deflate.convertToEntityAttribute(Arrays.copyOf(stored, stored.length / 2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> deflate.convertToEntityAttribute(new byte[] {1, 0}));
+    }
+}
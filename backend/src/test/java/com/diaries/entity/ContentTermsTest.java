@@ -0,0 +1,28 @@
+package com.diaries.entity;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContentTerms.
+ */
+class ContentTermsTest {
+
+    @Test
+    void testOf_KeepsEachWordOnceInOrderOfFirstOccurrence() {
+        assertEquals("Walked along the river. river and back.", ContentTerms.of(
+                "Walked along the river.\n\nWalked  along the river and back. The river"));
+    }
+
+    @Test
+    void testOf_IgnoresCaseWhenComparingWords() {
+        assertEquals("Café naïve", ContentTerms.of("Café naïve CAFÉ NAÏVE café"));
+    }
+
+    @Test
+    void testOf_EmptyAndNullContent() {
+        assertEquals("", ContentTerms.of("  \n "));
+        assertNull(ContentTerms.of(null));
+    }
+}
@@ -0,0 +1,102 @@
+package com.diaries.jdbc;
+
+import com.diaries.exception.QueryCancelledException;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QueryCancellation and QueryCancellationListener.
+ * Uses an in-memory H2 database for testing.
+ */
+class QueryCancellationTest {
+
+    /** Query that runs until it is cancelled. */
+    private static final String ENDLESS_QUERY = "SELECT SUM(X) FROM SYSTEM_RANGE(1, 9000000000000000000)";
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTemplate monitor;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:cancellation;DB_CLOSE_DELAY=-1");
+        h2.setUser("sa");
+        DataSource dataSource = ProxyDataSourceBuilder.create(h2)
+                .listener(new QueryCancellationListener())
+                .build();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        monitor = new JdbcTemplate(h2);
+    }
+
+    @Test
+    void testCancel_CancelsTheRunningStatement() throws Exception {
+        QueryCancellation cancellation = new QueryCancellation();
+        CompletableFuture<Long> query = CompletableFuture.supplyAsync(
+                () -> cancellation.run(() -> jdbcTemplate.queryForObject(ENDLESS_QUERY, Long.class)));
+        awaitRunning();
+
+        cancellation.cancel();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> query.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(QueryCancelledException.class, failure.getCause());
+        assertTrue(cancellation.isCancelled());
+    }
+
+    @Test
+    void testCancel_FailsLaterStatementsBeforeTheyAreSent() {
+        QueryCancellation cancellation = new QueryCancellation();
+        cancellation.cancel();
+
+        assertThrows(QueryCancelledException.class,
+                () -> cancellation.run(() -> jdbcTemplate.queryForObject("SELECT 1", Integer.class)));
+    }
+
+    @Test
+    void testRun_ReturnsResultWhenNotCancelled() {
+        QueryCancellation cancellation = new QueryCancellation();
+
+        assertEquals(1, cancellation.run(() -> jdbcTemplate.queryForObject("SELECT 1", Integer.class)));
+        // Nothing is running, so there is nothing to cancel
+        cancellation.cancel();
+        assertTrue(cancellation.isCancelled());
+    }
+
+    @Test
+    void testRun_PassesOnFailuresOfWorkNotCancelled() {
+        QueryCancellation cancellation = new QueryCancellation();
+
+        assertThrows(DataAccessException.class,
+                () -> cancellation.run(() -> jdbcTemplate.queryForObject("SELECT * FROM missing", Integer.class)));
+    }
+
+    @Test
+    void testListener_IgnoresStatementsRunWithoutCancellation() {
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT 1", Integer.class));
+    }
+
+    private void awaitRunning() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            Integer running = monitor.queryForObject(
+                    "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS "
+                            + "WHERE SESSION_ID <> SESSION_ID() AND EXECUTING_STATEMENT LIKE '%SYSTEM_RANGE%'",
+                    Integer.class);
+            if (running != null && running > 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("The query did not start");
+    }
+}
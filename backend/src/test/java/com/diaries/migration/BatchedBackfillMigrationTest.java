@@ -0,0 +1,117 @@
+package com.diaries.migration;
+
+import org.flywaydb.core.api.migration.Context;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for BatchedBackfillMigration.
+ * Uses an in-memory H2 database for testing.
+ */
+class BatchedBackfillMigrationTest {
+
+    private Connection connection;
+
+    private final V99__BackfillNameLength migration = new V99__BackfillNameLength();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:backfill", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE items (id BIGINT PRIMARY KEY, name VARCHAR(50), name_length INT)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE items");
+        }
+        connection.close();
+    }
+
+    @Test
+    void testBackfill_UpdatesEveryRowAcrossBatches() throws Exception {
+        insertItems(3, 27);
+
+        assertEquals(25, migration.backfill(connection));
+        assertEquals(0, countWhere("name_length IS NULL"));
+        assertEquals(25, countWhere("name_length = LENGTH(name)"));
+    }
+
+    @Test
+    void testBackfill_RerunSkipsRowsAlreadyDone() throws Exception {
+        insertItems(1, 15);
+        migration.backfill(connection);
+
+        assertEquals(0, migration.backfill(connection));
+    }
+
+    @Test
+    void testBackfill_EmptyTable() throws Exception {
+        assertEquals(0, migration.backfill(connection));
+    }
+
+    @Test
+    void testMigrate_RestoresAutoCommit() throws Exception {
+        insertItems(1, 5);
+        connection.setAutoCommit(false);
+        Context context = mock(Context.class);
+        when(context.getConnection()).thenReturn(connection);
+
+        migration.migrate(context);
+
+        assertFalse(connection.getAutoCommit());
+        assertEquals(5, countWhere("name_length IS NOT NULL"));
+    }
+
+    @Test
+    void testCanExecuteInTransaction_False() {
+        assertFalse(migration.canExecuteInTransaction());
+    }
+
+    private void insertItems(int firstId, int lastId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int id = firstId; id <= lastId; id++) {
+                statement.execute("INSERT INTO items (id, name) VALUES (" + id + ", 'item-" + id + "')");
+            }
+        }
+    }
+
+    private long countWhere(String condition) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("SELECT COUNT(*) FROM items WHERE " + condition)) {
+            result.next();
+            return result.getLong(1);
+        }
+    }
+
+    private static class V99__BackfillNameLength extends BatchedBackfillMigration {
+
+        V99__BackfillNameLength() {
+            super(10, Duration.ZERO, 0);
+        }
+
+        @Override
+        protected String table() {
+            return "items";
+        }
+
+        @Override
+        protected String batchSql() {
+            return "UPDATE items SET name_length = LENGTH(name) WHERE id >= ? AND id < ? AND name_length IS NULL";
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.diaries.migration;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the conventions of the SQL migrations in {@code db/migration}.
+ * Only the baseline may build or drop indexes with blocking DDL; later scripts must stay online
+ * on a large {@code diary_entries} table.
+ */
+class MigrationScriptsTest {
+
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__[a-z0-9_]+\\.sql");
+    private static final Pattern INDEX_DDL = Pattern.compile(
+            "\\b(create\\s+(unique\\s+)?index|drop\\s+index|reindex)\\b(?!\\s+concurrently)");
+    private static final Pattern CREATE_CONCURRENTLY = Pattern.compile(
+            "create\\s+(unique\\s+)?index\\s+concurrently\\s+(if\\s+not\\s+exists\\s+)?(\\w+)");
+    private static final Pattern TABLE_REWRITE = Pattern.compile(
+            "alter\\s+table\\b[^;]*\\b(alter\\s+column\\s+\\w+\\s+(set\\s+data\\s+)?type|set\\s+not\\s+null)\\b");
+
+    private static final TreeMap<Integer, Script> scripts = new TreeMap<>();
+
+    private record Script(String name, String sql) {
+    }
+
+    @BeforeAll
+    static void loadScripts() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver()
+                .getResources("classpath:db/migration/*.sql");
+        for (Resource resource : resources) {
+            String name = resource.getFilename();
+            Matcher matcher = FILE_NAME.matcher(name);
+            assertTrue(matcher.matches(), "Migration name does not follow V<n>__<description>.sql: " + name);
+            String sql = stripComments(resource.getContentAsString(StandardCharsets.UTF_8));
+            Script previous = scripts.put(Integer.parseInt(matcher.group(1)), new Script(name, sql));
+            assertNull(previous, "Duplicate migration version: " + name);
+        }
+    }
+
+    @Test
+    void testVersions_StartAtBaseline() {
+        assertFalse(scripts.isEmpty());
+        assertEquals(1, scripts.firstKey());
+    }
+
+    @Test
+    void testIndexChanges_AfterBaselineAreConcurrent() {
+        List<String> blocking = new ArrayList<>();
+        scripts.tailMap(1, false).values().forEach(script -> {
+            if (INDEX_DDL.matcher(script.sql()).find()) {
+                blocking.add(script.name());
+            }
+        });
+        assertEquals(List.of(), blocking, "Use CREATE/DROP INDEX CONCURRENTLY after the baseline");
+    }
+
+    @Test
+    void testConcurrentBuilds_OnePerScriptAndRetryable() {
+        scripts.values().forEach(script -> {
+            Matcher matcher = CREATE_CONCURRENTLY.matcher(script.sql());
+            if (!matcher.find()) {
+                return;
+            }
+            String index = matcher.group(3);
+            assertNull(matcher.group(2),
+                    script.name() + " must not use IF NOT EXISTS, which keeps an INVALID index");
+            assertFalse(matcher.find(), script.name() + " builds more than one index concurrently");
+            assertTrue(script.sql().contains("drop index concurrently if exists " + index + ";"),
+                    script.name() + " must drop a leftover INVALID " + index + " before building it");
+        });
+    }
+
+    @Test
+    void testTableRewrites_OnlyInBaseline() {
+        scripts.tailMap(1, false).values().forEach(script ->
+                assertFalse(TABLE_REWRITE.matcher(script.sql()).find(),
+                        script.name() + " rewrites or scans a table under an exclusive lock"));
+    }
+
+    private static String stripComments(String sql) {
+        return sql.replaceAll("--[^\\n]*", "").toLowerCase(Locale.ROOT);
+    }
+}
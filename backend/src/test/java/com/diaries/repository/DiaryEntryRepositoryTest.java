@@ -11,6 +11,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
 
 import java.time.LocalDate;
 
@@ -21,6 +22,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Uses an in-memory H2 database for testing.
  */
 @DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
 class DiaryEntryRepositoryTest {
 
     @Autowired
@@ -257,4 +259,42 @@ class DiaryEntryRepositoryTest {
         
         assertFalse(diaryEntryRepository.findById(entryId).isPresent());
     }
+
+    @Test
+    void testFindByIdAndUserId() {
+        DiaryEntry entry = entityManager.persist(new DiaryEntry("Mine", "Content", LocalDate.now(), testUser));
+        entityManager.flush();
+
+        assertTrue(diaryEntryRepository.findByIdAndUserId(entry.getId(), testUser.getId()).isPresent());
+        assertFalse(diaryEntryRepository.findByIdAndUserId(entry.getId(), otherUser.getId()).isPresent());
+    }
+
+    @Test
+    void testUpdateEntryDate_MatchesRowByStoredPartitionKey() {
+        DiaryEntry entry = entityManager.persist(
+                new DiaryEntry("Moved", "Content", LocalDate.of(2023, 12, 31), testUser));
+        entityManager.flush();
+
+        entry.setEntryDate(LocalDate.of(2024, 1, 1));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(LocalDate.of(2024, 1, 1), diaryEntryRepository.findById(entry.getId()).orElseThrow().getEntryDate());
+    }
+
+    @Test
+    void testUserId_SetForEntryPersistedThroughUser() {
+        User newUser = new User("cascade@example.com", "password", "Cascade User");
+        DiaryEntry entry = new DiaryEntry("Entry", "Content", LocalDate.now(), null);
+        newUser.addDiaryEntry(entry);
+        entityManager.persist(newUser);
+        entityManager.flush();
+
+        assertEquals(newUser.getId(), entry.getUserId());
+
+        newUser.removeDiaryEntry(entry);
+        entityManager.flush();
+
+        assertFalse(diaryEntryRepository.findById(entry.getId()).isPresent());
+    }
 }
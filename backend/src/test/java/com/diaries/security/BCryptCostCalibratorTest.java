@@ -0,0 +1,62 @@
+package com.diaries.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BCryptCostCalibrator.
+ */
+class BCryptCostCalibratorTest {
+
+    @Test
+    void testCostForProbe_ExtrapolatesToTarget() {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(250, 4, 20);
+
+        // 10ms at cost 8 -> 20ms@9, 40ms@10, 80ms@11, 160ms@12, 320ms@13
+        assertEquals(12, calibrator.costForProbe(10_000_000));
+    }
+
+    @Test
+    void testCostForProbe_SlowHardwareLowersCost() {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(250, 4, 20);
+
+        // 100ms at cost 8 -> 200ms@9; 400ms at cost 8 -> 200ms@7
+        assertEquals(9, calibrator.costForProbe(100_000_000));
+        assertEquals(7, calibrator.costForProbe(400_000_000));
+    }
+
+    @Test
+    void testCostForProbe_ClampedToBounds() {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(250, 10, 14);
+
+        assertEquals(14, calibrator.costForProbe(1_000));
+        assertEquals(10, calibrator.costForProbe(1_000_000_000));
+    }
+
+    @Test
+    void testCalibrate_ReturnsCostWithinBounds() {
+        BCryptCostCalibrator calibrator = new BCryptCostCalibrator(50, 4, 12);
+
+        int cost = calibrator.calibrate();
+
+        assertTrue(cost >= 4 && cost <= 12);
+    }
+
+    @Test
+    void testInvalidBoundsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BCryptCostCalibrator(0, 10, 14));
+        assertThrows(IllegalArgumentException.class, () -> new BCryptCostCalibrator(250, 3, 14));
+        assertThrows(IllegalArgumentException.class, () -> new BCryptCostCalibrator(250, 14, 10));
+    }
+
+    @Test
+    void testUpgradeEncodingDetectsOutdatedCost() {
+        String oldHash = new BCryptPasswordEncoder(4).encode("password123");
+        BCryptPasswordEncoder current = new BCryptPasswordEncoder(6);
+
+        assertTrue(current.upgradeEncoding(oldHash));
+        assertFalse(current.upgradeEncoding(current.encode("password123")));
+    }
+}
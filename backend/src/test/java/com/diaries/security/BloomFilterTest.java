@@ -0,0 +1,59 @@
+package com.diaries.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for BloomFilter.
+ */
+class BloomFilterTest {
+
+    @Test
+    void testMightContain_FindsEveryValueAdded() {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        String[] values = new String[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = UUID.randomUUID().toString();
+            filter.add(values[i]);
+        }
+
+        for (String value : values) {
+            assertTrue(filter.mightContain(value));
+        }
+    }
+
+    @Test
+    void testMightContain_FalsePositivesStayNearTheSizedRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(UUID.randomUUID().toString());
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 1_500, falsePositives + " false positives in 100,000");
+    }
+
+    @Test
+    void testAdd_ReportsValuesThatMayHaveBeenAddedBefore() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertTrue(filter.add("f47ac10b-58cc-4372-a567-0e02b2c3d479"));
+        assertFalse(filter.add("f47ac10b-58cc-4372-a567-0e02b2c3d479"));
+    }
+
+    @Test
+    void testConstructor_SizesTheFilterForTheRate() {
+        // About 9.6 bits per value at 1%
+        assertEquals(958_528, new BloomFilter(100_000, 0.01).bitCount());
+        assertEquals(64, new BloomFilter(0, 0.01).bitCount());
+    }
+}
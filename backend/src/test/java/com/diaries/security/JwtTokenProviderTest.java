@@ -1,5 +1,6 @@
 package com.diaries.security;
 
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -53,6 +54,19 @@ class JwtTokenProviderTest {
         assertTrue(isValid);
     }
 
+    @Test
+    void testParseToken_GivesEachTokenItsOwnId() {
+        String first = jwtTokenProvider.generateToken(1L);
+        String second = jwtTokenProvider.generateToken(1L);
+
+        Claims claims = jwtTokenProvider.parseToken(first);
+
+        assertNotNull(claims.getId());
+        assertEquals("1", claims.getSubject());
+        assertNotEquals(claims.getId(), jwtTokenProvider.parseToken(second).getId());
+        assertNull(jwtTokenProvider.parseToken("invalid.token.here"));
+    }
+
     @Test
     void testValidateToken_InvalidToken() {
         String invalidToken = "invalid.token.here";
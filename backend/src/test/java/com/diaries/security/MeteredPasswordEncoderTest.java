@@ -0,0 +1,63 @@
+package com.diaries.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MeteredPasswordEncoder.
+ */
+class MeteredPasswordEncoderTest {
+
+    private MeterRegistry meterRegistry;
+    private MeteredPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordEncoder = new MeteredPasswordEncoder(new BCryptPasswordEncoder(4), 4, meterRegistry);
+    }
+
+    @Test
+    void testEncode_RecordsTimer() {
+        String hash = passwordEncoder.encode("password123");
+
+        assertTrue(hash.startsWith("$2a$04$"));
+        assertEquals(1, timer("encode", "success").count());
+    }
+
+    @Test
+    void testMatches_RecordsOutcome() {
+        String hash = passwordEncoder.encode("password123");
+
+        assertTrue(passwordEncoder.matches("password123", hash));
+        assertFalse(passwordEncoder.matches("wrong", hash));
+        assertFalse(passwordEncoder.matches("wrong-again", hash));
+
+        assertEquals(1, timer("matches", "match").count());
+        assertEquals(2, timer("matches", "mismatch").count());
+    }
+
+    @Test
+    void testUpgradeEncoding_DelegatesToBCrypt() {
+        String weakHash = new BCryptPasswordEncoder(4).encode("password123");
+        MeteredPasswordEncoder stronger =
+                new MeteredPasswordEncoder(new BCryptPasswordEncoder(5), 5, meterRegistry);
+
+        assertTrue(stronger.upgradeEncoding(weakHash));
+        assertFalse(passwordEncoder.upgradeEncoding(weakHash));
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return meterRegistry.get(MeteredPasswordEncoder.METRIC_NAME)
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag("cost", "4")
+                .timer();
+    }
+}
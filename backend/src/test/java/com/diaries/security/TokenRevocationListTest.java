@@ -0,0 +1,112 @@
+package com.diaries.security;
+
+import com.diaries.entity.RevokedToken;
+import com.diaries.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for TokenRevocationList.
+ * Uses an in-memory H2 database for testing.
+ */
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class TokenRevocationListTest {
+
+    private static final long JWT_EXPIRATION_MS = 900_000;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    private MeterRegistry meterRegistry;
+    private TokenRevocationList revocationList;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        revocationList = new TokenRevocationList(revokedTokenRepository, meterRegistry, JWT_EXPIRATION_MS, 1000, 0.01);
+        revocationList.start();
+    }
+
+    @Test
+    void testIsRevoked_FindsTokensRevokedThroughThisInstance() {
+        revocationList.revoke("token-1", LocalDateTime.now().plusMinutes(15));
+
+        assertTrue(revocationList.isRevoked("token-1"));
+        assertEquals(1, checks("revoked"));
+    }
+
+    @Test
+    void testIsRevoked_AnswersTokensNotRevokedFromTheFilter() {
+        revocationList.revoke("token-1", LocalDateTime.now().plusMinutes(15));
+
+        assertFalse(revocationList.isRevoked("token-2"));
+        assertFalse(revocationList.isRevoked(null));
+        assertEquals(1, checks("absent"));
+    }
+
+    @Test
+    void testRefresh_AddsTokensRevokedThroughOtherInstances() {
+        revokedTokenRepository.save(new RevokedToken("token-1", LocalDateTime.now().plusMinutes(15),
+                LocalDateTime.now()));
+        assertFalse(revocationList.isRevoked("token-1"), "Not in the filter before the refresh");
+
+        revocationList.refresh();
+
+        assertTrue(revocationList.isRevoked("token-1"));
+        assertEquals(1, filterTokens());
+    }
+
+    @Test
+    void testRefresh_RebuildsWithoutExpiredTokensOncePerTokenLifetime() {
+        MeterRegistry rebuildingRegistry = new SimpleMeterRegistry();
+        TokenRevocationList rebuilding = new TokenRevocationList(revokedTokenRepository, rebuildingRegistry, 0, 1000,
+                0.01);
+        rebuilding.start();
+        rebuilding.revoke("expired", LocalDateTime.now().minusMinutes(1));
+        rebuilding.revoke("live", LocalDateTime.now().plusMinutes(15));
+
+        rebuilding.refresh();
+
+        assertEquals(1, rebuildingRegistry.get("diaries.jwt.revocation.filter.tokens").gauge().value());
+        assertTrue(rebuilding.isRevoked("live"));
+    }
+
+    @Test
+    void testIsRevoked_ReadsTheDatabaseUntilTheFilterIsLoaded() {
+        TokenRevocationList unloaded = new TokenRevocationList(revokedTokenRepository, new SimpleMeterRegistry(),
+                JWT_EXPIRATION_MS, 1000, 0.01);
+        revokedTokenRepository.save(new RevokedToken("token-1", LocalDateTime.now().plusMinutes(15),
+                LocalDateTime.now()));
+
+        assertTrue(unloaded.isRevoked("token-1"));
+    }
+
+    @Test
+    void testPurgeExpired_DeletesRevocationsOfExpiredTokens() {
+        revocationList.revoke("expired", LocalDateTime.now().minusMinutes(1));
+        revocationList.revoke("live", LocalDateTime.now().plusMinutes(15));
+
+        revocationList.purgeExpired();
+
+        assertFalse(revokedTokenRepository.existsById("expired"));
+        assertTrue(revokedTokenRepository.existsById("live"));
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("diaries.jwt.revocation.checks").tag("result", result).counter().count();
+    }
+
+    private double filterTokens() {
+        return meterRegistry.get("diaries.jwt.revocation.filter.tokens").gauge().value();
+    }
+}
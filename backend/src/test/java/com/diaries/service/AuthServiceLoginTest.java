@@ -0,0 +1,83 @@
+package com.diaries.service;
+
+import com.diaries.dto.AuthResponse;
+import com.diaries.dto.LoginRequest;
+import com.diaries.entity.User;
+import com.diaries.repository.RefreshTokenRepository;
+import com.diaries.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for AuthService login and the re-hashing of outdated password hashes.
+ * Uses an in-memory H2 database for testing, with a BCrypt cost above that of the stored hashes.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "security.password.bcrypt-cost=5")
+class AuthServiceLoginTest {
+
+    private static final String PASSWORD = "password123";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testLogin_StoresRehashedPasswordForOutdatedHash() {
+        String outdatedHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        User user = userRepository.save(new User("old@example.com", outdatedHash, "Old Hash"));
+
+        AuthResponse response = authService.login(new LoginRequest("old@example.com", PASSWORD));
+
+        assertNotNull(response.getRefreshToken());
+        String storedHash = userRepository.findById(user.getId()).orElseThrow().getPassword();
+        assertNotEquals(outdatedHash, storedHash);
+        assertFalse(passwordEncoder.upgradeEncoding(storedHash));
+        assertTrue(passwordEncoder.matches(PASSWORD, storedHash));
+    }
+
+    @Test
+    void testLogin_KeepsCurrentHash() {
+        String currentHash = passwordEncoder.encode(PASSWORD);
+        User user = userRepository.save(new User("current@example.com", currentHash, "Current Hash"));
+
+        authService.login(new LoginRequest("current@example.com", PASSWORD));
+
+        assertEquals(currentHash, userRepository.findById(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void testLogin_WrongPasswordDoesNotRehash() {
+        String outdatedHash = new BCryptPasswordEncoder(4).encode(PASSWORD);
+        User user = userRepository.save(new User("wrong@example.com", outdatedHash, "Wrong Password"));
+
+        assertThrows(BadCredentialsException.class,
+                () -> authService.login(new LoginRequest("wrong@example.com", "not-the-password")));
+
+        assertEquals(outdatedHash, userRepository.findById(user.getId()).orElseThrow().getPassword());
+        assertEquals(0, refreshTokenRepository.count());
+    }
+}
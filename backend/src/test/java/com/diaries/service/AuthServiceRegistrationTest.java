@@ -0,0 +1,108 @@
+package com.diaries.service;
+
+import com.diaries.dto.AuthResponse;
+import com.diaries.dto.RegisterRequest;
+import com.diaries.repository.RefreshTokenRepository;
+import com.diaries.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for AuthService registration against the unique email constraint.
+ * Uses an in-memory H2 database for testing.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class AuthServiceRegistrationTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @AfterEach
+    void tearDown() {
+        refreshTokenRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testRegister_Success() {
+        AuthResponse response = authService.register(
+                new RegisterRequest("new@example.com", "password123", "New User"));
+
+        assertNotNull(response.getToken());
+        assertNotNull(response.getRefreshToken());
+        assertEquals("new@example.com", response.getUser().getEmail());
+        assertTrue(userRepository.existsByEmail("new@example.com"));
+    }
+
+    @Test
+    void testRegister_DuplicateEmailRejected() {
+        authService.register(new RegisterRequest("dup@example.com", "password123", "First User"));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () ->
+                authService.register(new RegisterRequest("dup@example.com", "password456", "Second User")));
+
+        assertEquals("Email already registered", ex.getMessage());
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void testRegister_ConcurrentDuplicatesOnlyOneSucceeds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AuthResponse>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                RegisterRequest request = new RegisterRequest("race@example.com", "password123", "Racer " + i);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return authService.register(request);
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            int rejected = 0;
+            for (Future<AuthResponse> future : futures) {
+                try {
+                    assertNotNull(future.get(30, TimeUnit.SECONDS));
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(IllegalArgumentException.class, e.getCause());
+                    assertEquals("Email already registered", e.getCause().getMessage());
+                    rejected++;
+                }
+            }
+
+            assertEquals(1, succeeded);
+            assertEquals(THREADS - 1, rejected);
+            assertEquals(1, userRepository.count());
+            assertEquals(1, refreshTokenRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.diaries.service;
+
+import com.diaries.exception.BulkheadFullException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for Bulkhead.
+ */
+class BulkheadTest {
+
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testCall_ReturnsResultAndReleasesPermit() {
+        Bulkhead bulkhead = new Bulkhead("search", 1, Duration.ZERO, meterRegistry);
+
+        assertEquals("first", bulkhead.call(() -> "first"));
+        assertEquals("second", bulkhead.call(() -> "second"));
+
+        assertEquals(0, bulkhead.active());
+        assertEquals(2, meterRegistry.get("diaries.bulkhead.wait").tag("bulkhead", "search").timer().count());
+    }
+
+    @Test
+    void testCall_ReleasesPermitWhenWorkFails() {
+        Bulkhead bulkhead = new Bulkhead("search", 1, Duration.ZERO, meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> bulkhead.call(() -> {
+            throw new IllegalStateException("Query failed");
+        }));
+
+        assertEquals(0, bulkhead.active());
+        assertEquals("next", bulkhead.call(() -> "next"));
+    }
+
+    @Test
+    void testCall_RejectsOnceMaxWaitPassesWhileFull() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("search", 1, Duration.ofMillis(50), meterRegistry);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> bulkhead.call(() -> {
+            running.countDown();
+            await(release);
+            return "slow";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        BulkheadFullException rejected = assertThrows(BulkheadFullException.class, () -> bulkhead.call(() -> "fast"));
+
+        assertEquals("Too many search requests are running, try again shortly", rejected.getMessage());
+        assertEquals(1, meterRegistry.get("diaries.bulkhead.rejected").tag("bulkhead", "search").counter().count());
+        assertEquals(1, meterRegistry.get("diaries.bulkhead.active").tag("bulkhead", "search").gauge().value());
+        release.countDown();
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testCall_WaitsForAPermitFreedWithinMaxWait() throws Exception {
+        Bulkhead bulkhead = new Bulkhead("stream", 1, Duration.ofSeconds(5), meterRegistry);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> bulkhead.call(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> bulkhead.call(() -> "second"));
+        release.countDown();
+
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("second", second.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("diaries.bulkhead.rejected").tag("bulkhead", "stream").counter().count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.diaries.service;
+
+import com.diaries.dto.CalendarDto;
+import com.diaries.dto.CreateDiaryEntryRequest;
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.entity.User;
+import com.diaries.repository.EntryDayRollupRepository;
+import com.diaries.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for CalendarService and the rollup maintained by DiaryEntryService.
+ * Uses an in-memory H2 database for testing.
+ */
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(EntryServicesTestConfig.class)
+class CalendarServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntryDayRollupRepository entryDayRollupRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DiaryEntryService diaryEntryService;
+
+    private CalendarService calendarService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        calendarService = new CalendarService(entryDayRollupRepository, userRepository);
+
+        testUser = new User("test@example.com", "password", "Test User");
+        entityManager.persist(testUser);
+        entityManager.flush();
+    }
+
+    @Test
+    void testCreate_CountsEntriesAndWordsPerDay() {
+        create("Walked by the river", DAY);
+        create("Rain all day", DAY);
+        create("New year", LocalDate.of(2026, 1, 1));
+
+        assertEquals(List.of(day(DAY, 2, 7)), year(2025));
+    }
+
+    @Test
+    void testUpdate_ContentChangesWordCount() {
+        DiaryEntryDto entry = create("Walked by the river", DAY);
+
+        diaryEntryService.updateEntry(entry.getId(),
+                new UpdateDiaryEntryRequest(null, "Walked", null), testUser.getId());
+
+        assertEquals(List.of(day(DAY, 1, 1)), year(2025));
+    }
+
+    @Test
+    void testUpdate_DateMoveMovesEntryBetweenDays() {
+        create("Walked by the river", DAY);
+        DiaryEntryDto moved = create("Rain all day", DAY);
+
+        diaryEntryService.updateEntry(moved.getId(),
+                new UpdateDiaryEntryRequest(null, "Rain", DAY.plusDays(1)), testUser.getId());
+
+        assertEquals(List.of(day(DAY, 1, 4), day(DAY.plusDays(1), 1, 1)), year(2025));
+    }
+
+    @Test
+    void testDelete_EmptiedDayIsNotListed() {
+        DiaryEntryDto entry = create("Walked by the river", DAY);
+
+        diaryEntryService.deleteEntry(entry.getId(), testUser.getId());
+
+        assertEquals(List.of(), year(2025));
+    }
+
+    @Test
+    void testGetYear_OutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> calendarService.getYear(testUser.getId(), 0));
+        assertThrows(IllegalArgumentException.class, () -> calendarService.getYear(testUser.getId(), 10000));
+    }
+
+    private record Day(LocalDate date, int entries, int words) {
+    }
+
+    private DiaryEntryDto create(String content, LocalDate entryDate) {
+        return diaryEntryService.createEntry(
+                new CreateDiaryEntryRequest("Entry", content, entryDate), testUser.getId());
+    }
+
+    private List<Day> year(int year) {
+        // The rollup is maintained with bulk statements that bypass the persistence context
+        entityManager.clear();
+        CalendarDto calendar = calendarService.getYear(testUser.getId(), year);
+        assertEquals(year, calendar.getYear());
+        return calendar.getDays().stream()
+                .map(day -> new Day(day.getDate(), day.getEntryCount(), day.getWordCount()))
+                .toList();
+    }
+
+    private static Day day(LocalDate date, int entries, int words) {
+        return new Day(date, entries, words);
+    }
+}
@@ -0,0 +1,157 @@
+package com.diaries.service;
+
+import com.diaries.entity.ArchivedDiaryEntry;
+import com.diaries.entity.DiaryEntry;
+import com.diaries.entity.StoredDiaryEntry;
+import com.diaries.entity.User;
+import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.StoredDiaryEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for ContentCompressionService and compressed content storage.
+ * Uses an in-memory H2 database for testing.
+ */
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class ContentCompressionServiceTest {
+
+    private static final String LONG_CONTENT = "A long day of walking and writing. ".repeat(10);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DiaryEntryRepository diaryEntryRepository;
+
+    @Autowired
+    private StoredDiaryEntryRepository storedDiaryEntryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ContentCompressionService contentCompressionService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        ContentCompressionPolicy policy = new ContentCompressionPolicy(true, 100);
+        contentCompressionService = new ContentCompressionService(
+                diaryEntryRepository, policy, new TransactionTemplate(transactionManager), 2);
+
+        testUser = new User("test@example.com", "password", "Test User");
+        entityManager.persist(testUser);
+        entityManager.flush();
+    }
+
+    @Test
+    void testSave_CompressedContentIsReadBack() {
+        DiaryEntry entry = new DiaryEntry("Title", null, LocalDate.now(), testUser);
+        entry.setContent(LONG_CONTENT, true);
+        Long id = entityManager.persistAndFlush(entry).getId();
+        entityManager.clear();
+
+        DiaryEntry found = diaryEntryRepository.findById(id).orElseThrow();
+        assertTrue(found.isContentCompressed());
+        assertEquals(LONG_CONTENT, found.getContent());
+    }
+
+    @Test
+    void testCompressExistingEntries_CompressesOnlyLongContent() {
+        DiaryEntry shortEntry = persistEntry("Short entry");
+        DiaryEntry longEntry = persistEntry(LONG_CONTENT);
+        LocalDateTime updatedAt = longEntry.getUpdatedAt();
+        entityManager.clear();
+
+        assertEquals(1, contentCompressionService.compressExistingEntries());
+        entityManager.clear();
+
+        DiaryEntry compressed = diaryEntryRepository.findById(longEntry.getId()).orElseThrow();
+        assertTrue(compressed.isContentCompressed());
+        assertEquals(LONG_CONTENT, compressed.getContent());
+        assertEquals(updatedAt, compressed.getUpdatedAt());
+        assertFalse(diaryEntryRepository.findById(shortEntry.getId()).orElseThrow().isContentCompressed());
+    }
+
+    @Test
+    void testCompressExistingEntries_ContinuesAcrossBatches() {
+        for (int i = 0; i < 5; i++) {
+            persistEntry(LONG_CONTENT + i);
+        }
+        entityManager.clear();
+
+        assertEquals(5, contentCompressionService.compressExistingEntries());
+        assertEquals(0, contentCompressionService.compressExistingEntries());
+    }
+
+    @Test
+    void testSearch_FindsKeywordsInCompressedContent() {
+        DiaryEntry entry = new DiaryEntry("Title", null, LocalDate.now(), testUser);
+        entry.setContent(LONG_CONTENT, true);
+        Long id = entityManager.persistAndFlush(entry).getId();
+        entityManager.clear();
+
+        assertEquals(List.of(id), search("WRITING"));
+        assertEquals(List.of(id), search("walk"));
+        assertEquals(List.of(id), search("day of"));
+        assertEquals(List.of(), search("sailing"));
+        assertEquals(List.of(id), searchBetween("writing", LocalDate.now(), LocalDate.now()));
+    }
+
+    @Test
+    void testSearch_FindsKeywordsInCompressedArchivedContent() {
+        ArchivedDiaryEntry entry = new ArchivedDiaryEntry();
+        entry.setId(1_000_000L);
+        entry.setTitle("Archived");
+        entry.setContent(LONG_CONTENT, true);
+        entry.setEntryDate(LocalDate.now().minusYears(3));
+        entry.setUserId(testUser.getId());
+        entry.setCreatedAt(LocalDateTime.now().minusYears(3));
+        entry.setArchivedAt(LocalDateTime.now());
+        entityManager.persistAndFlush(entry);
+        entityManager.clear();
+
+        assertEquals(List.of(1_000_000L), search("writing"));
+    }
+
+    @Test
+    void testCompressExistingEntries_KeepsContentSearchable() {
+        DiaryEntry longEntry = persistEntry(LONG_CONTENT);
+        entityManager.clear();
+
+        contentCompressionService.compressExistingEntries();
+        entityManager.clear();
+
+        assertTrue(diaryEntryRepository.findById(longEntry.getId()).orElseThrow().isContentCompressed());
+        assertEquals(List.of(longEntry.getId()), search("writing"));
+    }
+
+    private List<Long> search(String keyword) {
+        return storedDiaryEntryRepository.searchEntriesByKeyword(testUser.getId(), keyword, PageRequest.of(0, 10))
+                .map(StoredDiaryEntry::getId).getContent();
+    }
+
+    private List<Long> searchBetween(String keyword, LocalDate startDate, LocalDate endDate) {
+        return storedDiaryEntryRepository.searchEntries(testUser.getId(), keyword, startDate, endDate,
+                PageRequest.of(0, 10)).map(StoredDiaryEntry::getId).getContent();
+    }
+
+    private DiaryEntry persistEntry(String content) {
+        return entityManager.persistAndFlush(new DiaryEntry("Title", content, LocalDate.now(), testUser));
+    }
+}
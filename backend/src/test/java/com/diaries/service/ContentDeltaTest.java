@@ -0,0 +1,74 @@
+package com.diaries.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ContentDelta.
+ */
+class ContentDeltaTest {
+
+    private static final String ENTRY = "Walked by the river before breakfast. The water was high after the rain. "
+            .repeat(100);
+
+    @Test
+    void testApply_RebuildsTarget() {
+        String target = ENTRY.substring(0, 3000) + "A heron stood on the far bank. " + ENTRY.substring(3200);
+
+        assertEquals(target, ContentDelta.apply(ContentDelta.encode(ENTRY, target), ENTRY));
+    }
+
+    @Test
+    void testEncode_SizeFollowsTheEdit() {
+        String oneWord = ENTRY.substring(0, 4000) + "herons" + ENTRY.substring(4005);
+        String twoEdits = "Rain. " + ENTRY.substring(0, 5000) + ENTRY.substring(5040);
+
+        assertTrue(ContentDelta.encode(ENTRY, ENTRY).length < 10);
+        assertTrue(ContentDelta.encode(ENTRY, oneWord).length < 30);
+        assertTrue(ContentDelta.encode(ENTRY, twoEdits).length < 30);
+    }
+
+    @Test
+    void testApply_EmptyAndShortTexts() {
+        assertEquals("", ContentDelta.apply(ContentDelta.encode(ENTRY, ""), ENTRY));
+        assertEquals(ENTRY, ContentDelta.apply(ContentDelta.encode("", ENTRY), ""));
+        assertEquals("Rain", ContentDelta.apply(ContentDelta.encode("Sun", "Rain"), "Sun"));
+    }
+
+    @Test
+    void testApply_KeepsAnyCharacters() {
+        String source = "Café 🌧️ by the river\u0000, ".repeat(20);
+        // Splits a surrogate pair, so an insert may start or end with half of one
+        String target = source.substring(0, 101) + "雨 " + source.substring(101) + "\uD83C";
+
+        assertEquals(target, ContentDelta.apply(ContentDelta.encode(source, target), source));
+    }
+
+    @Test
+    void testApply_RandomEdits() {
+        Random random = new Random(42);
+        String version = ENTRY;
+        for (int i = 0; i < 200; i++) {
+            StringBuilder next = new StringBuilder(version);
+            int at = random.nextInt(next.length() + 1);
+            int removed = Math.min(random.nextInt(50), next.length() - at);
+            next.replace(at, at + removed, "edit " + i + " ".repeat(random.nextInt(3)));
+            String target = next.toString();
+
+            assertEquals(target, ContentDelta.apply(ContentDelta.encode(version, target), version));
+            assertEquals(version, ContentDelta.apply(ContentDelta.encode(target, version), target));
+            version = target;
+        }
+    }
+
+    @Test
+    void testApply_RejectsCorruptDelta() {
+        byte[] delta = ContentDelta.encode(ENTRY, ENTRY + " More rain.");
+
+        assertThrows(IllegalArgumentException.class, () -> ContentDelta.apply(delta, "Sun"));
+        assertThrows(IllegalArgumentException.class, () -> ContentDelta.apply(new byte[] {9}, ENTRY));
+    }
+}
@@ -0,0 +1,276 @@
+package com.diaries.service;
+
+import com.diaries.dto.CreateDiaryEntryRequest;
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.entity.DiaryEntry;
+import com.diaries.entity.User;
+import com.diaries.exception.ForbiddenException;
+import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.EntryRevisionRepository;
+import com.diaries.repository.StoredDiaryEntryRepository;
+import com.diaries.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.transaction.AfterTransaction;
+import org.springframework.test.context.transaction.TestTransaction;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Integration tests for DraftService and the drafts seen by DiaryEntryService.
+ * Uses an in-memory H2 database for testing.
+ */
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(EntryServicesTestConfig.class)
+class DraftServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DiaryEntryRepository diaryEntryRepository;
+
+    @Autowired
+    private StoredDiaryEntryRepository storedDiaryEntryRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryRevisionRepository entryRevisionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final TaskScheduler taskScheduler = mock(TaskScheduler.class);
+
+    @Autowired
+    private DraftBuffer draftBuffer;
+
+    @Autowired
+    private DiaryEntryService diaryEntryService;
+
+    private User testUser;
+    private Long entryId;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("test@example.com", "password", "Test User");
+        entityManager.persist(testUser);
+        entityManager.flush();
+        entryId = diaryEntryService.createEntry(
+                new CreateDiaryEntryRequest("Entry", "Walked by the river", TODAY), testUser.getId()).getId();
+    }
+
+    @AfterTransaction
+    void tearDown() {
+        // The buffer is shared with the other tests of the context
+        draftBuffer.due(Long.MAX_VALUE, 0, 0).forEach(draft -> draftBuffer.remove(draft.getKey(), draft.getValue()));
+    }
+
+    @Test
+    void testSaveDraft_SavesAreWrittenAsOneUpdate() {
+        DraftService draftService = draftService(60_000, 60_000, 100);
+
+        draftService.saveDraft(entryId, draft(null, "Walked"), testUser.getId());
+        draftService.saveDraft(entryId, draft(null, "Walked by the sea"), testUser.getId());
+        draftService.saveDraft(entryId, draft("Sea", null), testUser.getId());
+
+        assertEquals("Walked by the river", stored().getContent());
+        assertEquals(1, draftService.flushAll());
+        DiaryEntry entry = stored();
+        assertEquals("Sea", entry.getTitle());
+        assertEquals("Walked by the sea", entry.getContent());
+        assertEquals(1, entryRevisionRepository.findLatestRevision(entryId));
+        assertEquals(0, draftService.flushAll());
+    }
+
+    @Test
+    void testGetEntry_ShowsThePendingDraftToItsOwner() {
+        draftService(60_000, 60_000, 100).saveDraft(entryId, draft(null, "Walked by the sea"), testUser.getId());
+
+        DiaryEntryDto entry = diaryEntryService.getEntryById(entryId, testUser.getId());
+
+        assertEquals("Entry", entry.getTitle());
+        assertEquals("Walked by the sea", entry.getContent());
+    }
+
+    @Test
+    void testUpdate_WritesThePendingDraftFieldsItDoesNotSet() {
+        DraftService draftService = draftService(60_000, 60_000, 100);
+        draftService.saveDraft(entryId, draft("Sea", "Walked by the sea"), testUser.getId());
+
+        diaryEntryService.updateEntry(entryId, draft(null, "Swam in the sea"), testUser.getId());
+
+        DiaryEntry entry = stored();
+        assertEquals("Sea", entry.getTitle());
+        assertEquals("Swam in the sea", entry.getContent());
+        assertEquals(0, draftService.flushAll());
+    }
+
+    @Test
+    void testDelete_DiscardsThePendingDraft() {
+        DraftService draftService = draftService(60_000, 60_000, 100);
+        draftService.saveDraft(entryId, draft(null, "Walked by the sea"), testUser.getId());
+
+        diaryEntryService.deleteEntry(entryId, testUser.getId());
+
+        assertEquals(0, draftService.flushAll());
+        // Removed once the delete commits
+        assertEquals(1, draftBuffer.size());
+    }
+
+    @Test
+    void testUpdate_KeepsThePendingDraftIfTheUpdateRollsBack() {
+        draftService(60_000, 60_000, 100).saveDraft(entryId, draft(null, "Walked by the sea"), testUser.getId());
+
+        // A title longer than its column fails the update once it is flushed
+        assertThrows(RuntimeException.class, () -> {
+            diaryEntryService.updateEntry(entryId, draft("x".repeat(501), null), testUser.getId());
+            entityManager.flush();
+        });
+        TestTransaction.end();
+
+        DraftBuffer.Draft draft = draftBuffer.get(entryId, testUser.getId());
+        assertNotNull(draft);
+        assertTrue(draftBuffer.isPending(entryId, draft));
+        assertEquals("Walked by the sea", draft.toRequest(null).getContent());
+    }
+
+    @Test
+    void testRelease_RemovesACommittedDraftAndRestoresARolledBackOne() {
+        DraftService draftService = draftService(60_000, 60_000, 100);
+        draftService.saveDraft(entryId, draft("Sea", "Walked by the sea"), testUser.getId());
+        DraftBuffer.Draft claimed = draftBuffer.claim(entryId, testUser.getId());
+        assertFalse(draftBuffer.isPending(entryId, claimed));
+
+        // A save while the draft is claimed starts a new draft, which keeps its fields on a rollback
+        draftService.saveDraft(entryId, draft(null, "Swam in the sea"), testUser.getId());
+        draftBuffer.release(entryId, claimed, false);
+        UpdateDiaryEntryRequest restored = draftBuffer.get(entryId, testUser.getId()).toRequest(null);
+        assertEquals("Sea", restored.getTitle());
+        assertEquals("Swam in the sea", restored.getContent());
+
+        DraftBuffer.Draft committed = draftBuffer.claim(entryId, testUser.getId());
+        draftBuffer.release(entryId, committed, true);
+        assertEquals(0, draftBuffer.size());
+    }
+
+    @Test
+    void testFlushDue_WaitsUntilTheSavesStop() {
+        draftService(60_000, 60_000, 100).saveDraft(entryId, draft(null, "Walked"), testUser.getId());
+
+        assertEquals(0, draftService(60_000, 60_000, 100).flushDue());
+        assertEquals(1, draftService(0, 60_000, 100).flushDue());
+    }
+
+    @Test
+    void testSaveDraft_FullBufferSchedulesAFlush() {
+        Long otherEntryId = diaryEntryService.createEntry(
+                new CreateDiaryEntryRequest("Other", "Rain", TODAY), testUser.getId()).getId();
+        DraftService draftService = draftService(60_000, 60_000, 2);
+
+        draftService.saveDraft(entryId, draft(null, "Walked"), testUser.getId());
+        verifyNoInteractions(taskScheduler);
+        draftService.saveDraft(otherEntryId, draft(null, "Rain all day"), testUser.getId());
+
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void testStop_WritesEveryPendingDraft() {
+        DraftService draftService = draftService(60_000, 60_000, 100);
+        draftService.start();
+        draftService.saveDraft(entryId, draft(null, "Walked by the sea"), testUser.getId());
+
+        draftService.stop();
+
+        assertFalse(draftService.isRunning());
+        assertEquals("Walked by the sea", stored().getContent());
+    }
+
+    @Test
+    void testSaveDraft_OtherUsersEntryIsForbidden() {
+        User other = new User("other@example.com", "password", "Other User");
+        entityManager.persist(other);
+
+        assertThrows(ForbiddenException.class, () -> draftService(60_000, 60_000, 100)
+                .saveDraft(entryId, draft(null, "Mine now"), other.getId()));
+        assertEquals(0, draftBuffer.size());
+    }
+
+    @Test
+    void testFlushAll_WritesDraftsInBatches() {
+        PlatformTransactionManager countingTransactionManager = spy(transactionManager);
+        DraftService draftService = draftService(60_000, 60_000, 100, 2, countingTransactionManager);
+        draftService.saveDraft(entryId, draft(null, "Walked by the sea"), testUser.getId());
+        for (String content : List.of("Rain", "Snow")) {
+            Long otherEntryId = diaryEntryService.createEntry(
+                    new CreateDiaryEntryRequest("Other", "Clouds", TODAY), testUser.getId()).getId();
+            draftService.saveDraft(otherEntryId, draft(null, content), testUser.getId());
+        }
+
+        assertEquals(3, draftService.flushAll());
+
+        verify(countingTransactionManager, times(2)).getTransaction(any());
+        assertEquals("Walked by the sea", stored().getContent());
+        assertEquals(0, draftBuffer.size());
+    }
+
+    @Test
+    void testFlushAll_KeepsAFailingDraftAndWritesTheOthers() {
+        User other = new User("other@example.com", "password", "Other User");
+        entityManager.persistAndFlush(other);
+        // Saved past the ownership check, so writing it fails
+        draftBuffer.save(entryId, other.getId(), draft(null, "Mine now"), System.currentTimeMillis());
+        Long otherEntryId = diaryEntryService.createEntry(
+                new CreateDiaryEntryRequest("Other", "Clouds", TODAY), testUser.getId()).getId();
+        DraftService draftService = draftService(60_000, 60_000, 100);
+        draftService.saveDraft(otherEntryId, draft(null, "Rain"), testUser.getId());
+
+        assertEquals(1, draftService.flushAll());
+
+        assertEquals("Rain", diaryEntryRepository.findById(otherEntryId).orElseThrow().getContent());
+        assertNotNull(draftBuffer.get(entryId, other.getId()));
+        assertEquals(1, draftBuffer.size());
+    }
+
+    private DraftService draftService(long idleMillis, long maxDelayMillis, int maxPending) {
+        return draftService(idleMillis, maxDelayMillis, maxPending, 100, transactionManager);
+    }
+
+    private DraftService draftService(long idleMillis, long maxDelayMillis, int maxPending, int batchSize,
+                                      PlatformTransactionManager transactionManager) {
+        return new DraftService(draftBuffer, diaryEntryService, storedDiaryEntryRepository, userRepository,
+                new TransactionTemplate(transactionManager), taskScheduler, idleMillis, maxDelayMillis, maxPending,
+                batchSize);
+    }
+
+    private static UpdateDiaryEntryRequest draft(String title, String content) {
+        return new UpdateDiaryEntryRequest(title, content, null);
+    }
+
+    private DiaryEntry stored() {
+        entityManager.flush();
+        entityManager.clear();
+        return diaryEntryRepository.findById(entryId).orElseThrow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.diaries.service;
+
+import com.diaries.dto.CreateDiaryEntryRequest;
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.entity.User;
+import com.diaries.repository.ArchivedDiaryEntryRepository;
+import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.EntryChangeRepository;
+import com.diaries.repository.EntryDayRollupRepository;
+import com.diaries.repository.EntryRevisionRepository;
+import com.diaries.repository.UserRepository;
+import com.diaries.repository.UserStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for archiving entries while they are being written.
+ * Uses an in-memory H2 database for testing.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class EntryArchiveConcurrencyTest {
+
+    @Autowired
+    private DiaryEntryService diaryEntryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DiaryEntryRepository diaryEntryRepository;
+
+    @Autowired
+    private ArchivedDiaryEntryRepository archivedDiaryEntryRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private EntryDayRollupRepository entryDayRollupRepository;
+
+    @Autowired
+    private EntryRevisionRepository entryRevisionRepository;
+
+    @Autowired
+    private EntryChangeRepository entryChangeRepository;
+
+    @AfterEach
+    void tearDown() {
+        entryChangeRepository.deleteAll();
+        entryRevisionRepository.deleteAll();
+        entryDayRollupRepository.deleteAll();
+        userStatsRepository.deleteAll();
+        archivedDiaryEntryRepository.deleteAll();
+        diaryEntryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testArchiveOldEntries_SkipsAnEntryBeingUpdated() throws Exception {
+        User user = userRepository.save(new User("writer@example.com", "hashedPassword", "Writer"));
+        Long entryId = diaryEntryService.createEntry(
+                new CreateDiaryEntryRequest("Old", "Written long ago", LocalDate.now().minusYears(2)),
+                user.getId()).getId();
+        EntryArchiveService entryArchiveService =
+                new EntryArchiveService(archivedDiaryEntryRepository, transactionTemplate, 30, 10);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch updated = new CountDownLatch(1);
+        CountDownLatch archiverRan = new CountDownLatch(1);
+
+        try {
+            // Hold the update's transaction open while the archiver runs
+            Future<?> update = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                diaryEntryService.updateEntry(entryId, new UpdateDiaryEntryRequest(null, "Edited", null),
+                        user.getId());
+                updated.countDown();
+                try {
+                    archiverRan.await(30, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertTrue(updated.await(30, TimeUnit.SECONDS));
+
+            assertEquals(0, entryArchiveService.archiveOldEntries());
+            archiverRan.countDown();
+            update.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("Edited", diaryEntryRepository.findById(entryId).orElseThrow().getContent());
+        assertEquals(1, entryArchiveService.archiveOldEntries());
+        assertEquals("Edited", archivedDiaryEntryRepository.findById(entryId).orElseThrow().getContent());
+    }
+}
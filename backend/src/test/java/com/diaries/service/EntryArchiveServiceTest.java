@@ -0,0 +1,122 @@
+package com.diaries.service;
+
+import com.diaries.entity.ArchivedDiaryEntry;
+import com.diaries.entity.DiaryEntry;
+import com.diaries.entity.StoredDiaryEntry;
+import com.diaries.entity.User;
+import com.diaries.repository.ArchivedDiaryEntryRepository;
+import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.StoredDiaryEntryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for EntryArchiveService and reads across both storage tiers.
+ * Uses an in-memory H2 database for testing.
+ */
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class EntryArchiveServiceTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private DiaryEntryRepository diaryEntryRepository;
+
+    @Autowired
+    private ArchivedDiaryEntryRepository archivedDiaryEntryRepository;
+
+    @Autowired
+    private StoredDiaryEntryRepository storedDiaryEntryRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private EntryArchiveService entryArchiveService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        entryArchiveService = new EntryArchiveService(
+                archivedDiaryEntryRepository, new TransactionTemplate(transactionManager), 30, 2);
+
+        testUser = new User("test@example.com", "password", "Test User");
+        entityManager.persist(testUser);
+        entityManager.flush();
+    }
+
+    @Test
+    void testArchiveOldEntries_MovesOnlyOldEntries() {
+        DiaryEntry recent = persistEntry("Recent", LocalDate.now().minusDays(29));
+        DiaryEntry old = persistEntry("Old", LocalDate.now().minusDays(31));
+        entityManager.clear();
+
+        assertEquals(1, entryArchiveService.archiveOldEntries());
+
+        assertTrue(diaryEntryRepository.existsById(recent.getId()));
+        assertFalse(diaryEntryRepository.existsById(old.getId()));
+        ArchivedDiaryEntry archived = archivedDiaryEntryRepository.findById(old.getId()).orElseThrow();
+        assertEquals("Old", archived.getTitle());
+        assertEquals(testUser.getId(), archived.getUserId());
+        assertNotNull(archived.getCreatedAt());
+        assertNotNull(archived.getArchivedAt());
+    }
+
+    @Test
+    void testArchiveOldEntries_ContinuesAcrossBatches() {
+        for (int i = 0; i < 5; i++) {
+            persistEntry("Old " + i, LocalDate.now().minusYears(1).minusDays(i));
+        }
+        entityManager.clear();
+
+        assertEquals(5, entryArchiveService.archiveOldEntries());
+        assertEquals(0, diaryEntryRepository.count());
+        assertEquals(5, archivedDiaryEntryRepository.count());
+    }
+
+    @Test
+    void testArchiveOldEntries_NothingToArchive() {
+        persistEntry("Recent", LocalDate.now());
+        entityManager.clear();
+
+        assertEquals(0, entryArchiveService.archiveOldEntries());
+    }
+
+    @Test
+    void testStoredEntries_ListBothTiersByEntryDate() {
+        persistEntry("Recent", LocalDate.now());
+        DiaryEntry old = persistEntry("Old", LocalDate.now().minusYears(2));
+        entityManager.clear();
+        entryArchiveService.archiveOldEntries();
+
+        Page<StoredDiaryEntry> page = storedDiaryEntryRepository
+                .findByUserIdOrderByEntryDateDesc(testUser.getId(), PageRequest.of(0, 10));
+
+        assertEquals(2, page.getTotalElements());
+        assertEquals("Recent", page.getContent().get(0).getTitle());
+        assertEquals("Old", page.getContent().get(1).getTitle());
+        assertTrue(storedDiaryEntryRepository.findByIdAndUserId(old.getId(), testUser.getId()).isPresent());
+        assertEquals(1, storedDiaryEntryRepository
+                .searchEntriesByKeyword(testUser.getId(), "old", PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    private DiaryEntry persistEntry(String title, LocalDate entryDate) {
+        DiaryEntry entry = entityManager.persist(new DiaryEntry(title, title + " content", entryDate, testUser));
+        entityManager.flush();
+        return entry;
+    }
+}
@@ -0,0 +1,165 @@
+package com.diaries.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for EntryChangeBus.
+ * The PostgreSQL connection is mocked; notifications are exchanged through its mocked API.
+ */
+class EntryChangeBusTest {
+
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+
+    private DataSource dataSource;
+    private Connection connection;
+    private PreparedStatement notifyStatement;
+    private EntryChangeBus bus;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        notifyStatement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(notifyStatement);
+        when(connection.createStatement()).thenAnswer(invocation -> mock(Statement.class));
+        bus = new EntryChangeBus(dataSource, published::add, new SimpleMeterRegistry(), 10, 3, 1000);
+    }
+
+    @Test
+    void testFlush_SendsQueuedUsersInOneNotification() throws SQLException {
+        bus.onEntryChanged(new EntryChangedEvent(1L, false));
+        bus.onEntryChanged(new EntryChangedEvent(2L, false));
+        bus.onEntryChanged(new EntryChangedEvent(1L, false));
+
+        assertTrue(bus.flush(connection));
+
+        List<String> payloads = sentPayloads(1);
+        assertEquals(List.of("1", "2"), sortedUsers(payloads.get(0)));
+        assertFalse(bus.flush(connection), "Nothing is left queued");
+    }
+
+    @Test
+    void testOnEntryChanged_DoesNotAnnounceRemoteChanges() throws SQLException {
+        bus.onEntryChanged(new EntryChangedEvent(1L, true));
+
+        assertFalse(bus.flush(connection));
+        verify(notifyStatement, never()).execute();
+    }
+
+    @Test
+    void testFlush_KeepsUsersQueuedWhenSendingFails() throws SQLException {
+        bus.onEntryChanged(new EntryChangedEvent(1L, false));
+        when(notifyStatement.execute()).thenThrow(new SQLException("Connection reset"));
+
+        assertThrows(SQLException.class, () -> bus.flush(connection));
+
+        reset(notifyStatement);
+        assertTrue(bus.flush(connection));
+        assertEquals(List.of("1"), sortedUsers(sentPayloads(1).get(0)));
+    }
+
+    @Test
+    void testOnEntryChanged_AnnouncesEveryUserPastMaxPending() throws SQLException {
+        for (long userId = 1; userId <= 4; userId++) {
+            bus.onEntryChanged(new EntryChangedEvent(userId, false));
+        }
+
+        bus.flush(connection);
+
+        assertTrue(sentPayloads(1).get(0).endsWith(":" + EntryChangeBus.ALL_USERS));
+    }
+
+    @Test
+    void testPayloads_SplitsUsersThatDoNotFitOneNotification() {
+        List<Long> userIds = LongStream.rangeClosed(1_000_000_000L, 1_000_002_000L).boxed().toList();
+
+        List<String> payloads = EntryChangeBus.payloads("node", userIds);
+
+        assertTrue(payloads.size() > 1);
+        List<Long> sent = new ArrayList<>();
+        for (String payload : payloads) {
+            assertTrue(payload.length() <= EntryChangeBus.MAX_PAYLOAD_LENGTH);
+            assertTrue(payload.startsWith("node:"));
+            Arrays.stream(payload.substring(5).split(",")).map(Long::valueOf).forEach(sent::add);
+        }
+        assertEquals(userIds, sent);
+    }
+
+    @Test
+    void testReceive_PublishesChangesOfOtherInstancesOnly() throws SQLException {
+        bus.onEntryChanged(new EntryChangedEvent(1L, false));
+        bus.flush(connection);
+        String ownPayload = sentPayloads(1).get(0);
+
+        bus.receive(ownPayload);
+        bus.receive("other:5,7");
+        bus.receive("other:" + EntryChangeBus.ALL_USERS);
+
+        assertEquals(List.of(new EntryChangedEvent(5L, true), new EntryChangedEvent(7L, true),
+                new EntryChangesMissedEvent()), published);
+    }
+
+    @Test
+    void testListen_ReconnectsAndReportsMissedChanges() throws Exception {
+        PGConnection notifications = mock(PGConnection.class);
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn("other:9");
+        when(connection.unwrap(PGConnection.class)).thenReturn(notifications);
+        when(notifications.getNotifications(anyInt()))
+                .thenReturn(new PGNotification[] {notification})
+                .thenAnswer(invocation -> {
+                    Thread.sleep(10);
+                    return null;
+                });
+        when(dataSource.getConnection())
+                .thenThrow(new SQLException("Connection refused"))
+                .thenReturn(connection);
+
+        bus.start();
+        try {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (published.size() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            bus.stop();
+        }
+
+        assertEquals(List.of(new EntryChangesMissedEvent(), new EntryChangedEvent(9L, true)), published);
+        verify(connection).close();
+    }
+
+    private List<String> sentPayloads(int count) throws SQLException {
+        ArgumentCaptor<String> payloads = ArgumentCaptor.forClass(String.class);
+        verify(notifyStatement, times(count)).setString(eq(2), payloads.capture());
+        verify(notifyStatement, times(count)).setString(1, EntryChangeBus.CHANNEL);
+        return payloads.getAllValues();
+    }
+
+    private static List<String> sortedUsers(String payload) {
+        return Arrays.stream(payload.substring(payload.indexOf(':') + 1).split(",")).sorted().toList();
+    }
+}
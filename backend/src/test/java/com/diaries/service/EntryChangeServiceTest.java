@@ -0,0 +1,227 @@
+package com.diaries.service;
+
+import com.diaries.dto.CreateDiaryEntryRequest;
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.EntryChangesDto;
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.entity.User;
+import com.diaries.exception.GoneException;
+import com.diaries.repository.EntryChangeRepository;
+import com.diaries.repository.UserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for EntryChangeService and the changes recorded by DiaryEntryService.
+ * Uses an in-memory H2 database for testing.
+ */
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(EntryServicesTestConfig.class)
+class EntryChangeServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private EntryChangeRepository entryChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DiaryEntryService diaryEntryService;
+
+    @Autowired
+    private EntryChangeService entryChangeService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("test@example.com", "password", "Test User");
+        entityManager.persist(testUser);
+        entityManager.flush();
+    }
+
+    @Test
+    void testGetChanges_WithoutCursorReturnsCurrentEntriesInChangeOrder() {
+        DiaryEntryDto first = create("First");
+        DiaryEntryDto second = create("Second");
+        DiaryEntryDto third = create("Third");
+        diaryEntryService.deleteEntry(second.getId(), testUser.getId());
+        update(first.getId(), "First, edited");
+
+        EntryChangesDto changes = entryChangeService.getChanges(testUser.getId(), null, 100);
+
+        assertEquals(List.of(third.getId(), first.getId()), ids(changes));
+        assertEquals("First, edited", changes.getChanged().get(1).getTitle());
+        assertTrue(changes.getDeleted().isEmpty());
+        assertEquals("5", changes.getCursor());
+        assertFalse(changes.isHasMore());
+    }
+
+    @Test
+    void testGetChanges_AfterCursorReturnsOnlyLaterChangesAndTombstones() {
+        DiaryEntryDto first = create("First");
+        DiaryEntryDto second = create("Second");
+        create("Third");
+        String cursor = entryChangeService.getChanges(testUser.getId(), null, 100).getCursor();
+
+        update(first.getId(), "First, edited");
+        diaryEntryService.deleteEntry(second.getId(), testUser.getId());
+        DiaryEntryDto fourth = create("Fourth");
+        EntryChangesDto changes = entryChangeService.getChanges(testUser.getId(), cursor, 100);
+
+        assertEquals(List.of(first.getId(), fourth.getId()), ids(changes));
+        assertEquals(List.of(second.getId()), changes.getDeleted());
+        assertTrue(entryChangeService.getChanges(testUser.getId(), changes.getCursor(), 100)
+                .getChanged().isEmpty());
+    }
+
+    @Test
+    void testGetChanges_UnchangedUpdateIsNotAChange() {
+        DiaryEntryDto entry = create("Entry");
+        String cursor = entryChangeService.getChanges(testUser.getId(), null, 100).getCursor();
+
+        update(entry.getId(), "Entry");
+
+        EntryChangesDto changes = entryChangeService.getChanges(testUser.getId(), cursor, 100);
+        assertTrue(changes.getChanged().isEmpty());
+        assertEquals(cursor, changes.getCursor());
+    }
+
+    @Test
+    void testGetChanges_PagesFullSyncPastPurgedTombstones() {
+        DiaryEntryDto first = create("First");
+        DiaryEntryDto second = create("Second");
+        DiaryEntryDto third = create("Third");
+        diaryEntryService.deleteEntry(create("Deleted").getId(), testUser.getId());
+        DiaryEntryDto fifth = create("Fifth");
+        purgeTombstones();
+
+        EntryChangesDto page = entryChangeService.getChanges(testUser.getId(), null, 2);
+        assertEquals(List.of(first.getId(), second.getId()), ids(page));
+        assertTrue(page.isHasMore());
+        assertEquals("f6.2", page.getCursor());
+
+        page = entryChangeService.getChanges(testUser.getId(), page.getCursor(), 2);
+        assertEquals(List.of(third.getId(), fifth.getId()), ids(page));
+        assertFalse(page.isHasMore());
+        assertEquals("6", page.getCursor());
+    }
+
+    @Test
+    void testGetChanges_FullSyncReturnsEntriesDeletedAfterItStarted() {
+        DiaryEntryDto first = create("First");
+        DiaryEntryDto second = create("Second");
+        DiaryEntryDto third = create("Third");
+        diaryEntryService.deleteEntry(create("Deleted before").getId(), testUser.getId());
+
+        EntryChangesDto page = entryChangeService.getChanges(testUser.getId(), null, 2);
+        assertEquals(List.of(first.getId(), second.getId()), ids(page));
+        diaryEntryService.deleteEntry(first.getId(), testUser.getId());
+
+        page = entryChangeService.getChanges(testUser.getId(), page.getCursor(), 2);
+        assertEquals(List.of(third.getId()), ids(page));
+        assertEquals(List.of(first.getId()), page.getDeleted(), "The entry sent on the first page is deleted");
+        assertFalse(page.isHasMore());
+        assertEquals("6", page.getCursor());
+    }
+
+    @Test
+    void testGetChanges_FullSyncStartedBeforePurgedTombstoneIsGone() {
+        DiaryEntryDto first = create("First");
+        create("Second");
+        EntryChangesDto page = entryChangeService.getChanges(testUser.getId(), null, 1);
+        diaryEntryService.deleteEntry(first.getId(), testUser.getId());
+
+        assertEquals(1, purgeTombstones());
+
+        assertThrows(GoneException.class,
+                () -> entryChangeService.getChanges(testUser.getId(), page.getCursor(), 100));
+    }
+
+    @Test
+    void testGetChanges_CursorBeforePurgedTombstoneIsGone() {
+        DiaryEntryDto first = create("First");
+        create("Second");
+        String cursor = entryChangeService.getChanges(testUser.getId(), null, 100).getCursor();
+        diaryEntryService.deleteEntry(first.getId(), testUser.getId());
+        String afterDelete = entryChangeService.getChanges(testUser.getId(), cursor, 100).getCursor();
+
+        assertEquals(1, purgeTombstones());
+
+        assertThrows(GoneException.class, () -> entryChangeService.getChanges(testUser.getId(), cursor, 100));
+        assertTrue(entryChangeService.getChanges(testUser.getId(), afterDelete, 100).getDeleted().isEmpty());
+    }
+
+    @Test
+    void testGetChanges_RejectsInvalidCursors() {
+        create("Entry");
+
+        assertThrows(GoneException.class, () -> entryChangeService.getChanges(testUser.getId(), "2", 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> entryChangeService.getChanges(testUser.getId(), "tomorrow", 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> entryChangeService.getChanges(testUser.getId(), "-1", 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> entryChangeService.getChanges(testUser.getId(), "fx.0", 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> entryChangeService.getChanges(testUser.getId(), null, 501));
+    }
+
+    @Test
+    void testLockStats_RecreatedStatisticsContinueTheChangeLog() {
+        create("First");
+        create("Second");
+        userStatsRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+
+        DiaryEntryDto third = create("Third");
+
+        assertThrows(GoneException.class, () -> entryChangeService.getChanges(testUser.getId(), "1", 100));
+        EntryChangesDto changes = entryChangeService.getChanges(testUser.getId(), "2", 100);
+        assertEquals(List.of(third.getId()), ids(changes));
+        assertEquals("3", changes.getCursor());
+    }
+
+    private DiaryEntryDto create(String title) {
+        return diaryEntryService.createEntry(
+                new CreateDiaryEntryRequest(title, "Walked by the river.", TODAY), testUser.getId());
+    }
+
+    private void update(Long entryId, String title) {
+        diaryEntryService.updateEntry(entryId, new UpdateDiaryEntryRequest(title, null, null), testUser.getId());
+    }
+
+    private long purgeTombstones() {
+        // A negative retention purges every tombstone, however recent
+        long purged = new EntryChangeCompactionService(entryChangeRepository, userStatsRepository,
+                new TransactionTemplate(transactionManager), -1, 500).purgeTombstones();
+        entityManager.clear();
+        return purged;
+    }
+
+    private static List<Long> ids(EntryChangesDto changes) {
+        return changes.getChanged().stream().map(DiaryEntryDto::getId).toList();
+    }
+}
@@ -0,0 +1,208 @@
+package com.diaries.service;
+
+import com.diaries.dto.CreateDiaryEntryRequest;
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.entity.User;
+import com.diaries.repository.EntryChangeRepository;
+import com.diaries.repository.UserRepository;
+import com.diaries.repository.UserStatsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for EntryChangeStreamService and the changes it streams.
+ * Uses an in-memory H2 database for testing; streams are read synchronously.
+ */
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(EntryServicesTestConfig.class)
+class EntryChangeStreamServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntryChangeRepository entryChangeRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DiaryEntryService diaryEntryService;
+
+    @Autowired
+    private EntryChangeService entryChangeService;
+
+    @Autowired
+    private ConfigurableApplicationContext applicationContext;
+
+    private EntryChangeStreamService streamService;
+    private ApplicationListener<?> changeListener;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        streamService = new EntryChangeStreamService(entryChangeService, userRepository, meterRegistry,
+                Runnable::run, new Bulkhead("stream", 1, Duration.ZERO, meterRegistry), 60_000, 5_000, 2);
+        // Changes are streamed as they are recorded, as there is no commit to wait for
+        changeListener = ApplicationListener.forPayload(payload -> {
+            if (payload instanceof EntryChangedEvent event) {
+                streamService.onEntryChanged(event);
+            }
+        });
+        applicationContext.addApplicationListener(changeListener);
+
+        testUser = new User("test@example.com", "password", "Test User");
+        entityManager.persist(testUser);
+        entityManager.flush();
+    }
+
+    @AfterEach
+    void tearDown() {
+        applicationContext.removeApplicationListener(changeListener);
+    }
+
+    @Test
+    void testSubscribe_StreamsLaterChangesOfTheUser() {
+        Long earlier = create("Earlier", testUser);
+        RecordingEmitter stream = subscribe(null);
+
+        Long entryId = create("Entry", testUser);
+        diaryEntryService.updateEntry(entryId, new UpdateDiaryEntryRequest("Edited", null, null), testUser.getId());
+        diaryEntryService.deleteEntry(earlier, testUser.getId());
+
+        assertEquals(List.of(
+                "retry:5000\n:connected\n\n",
+                changed(2, entryId),
+                changed(3, entryId),
+                deleted(4, earlier)), stream.events);
+    }
+
+    @Test
+    void testSubscribe_DoesNotStreamChangesOfOtherUsers() {
+        User otherUser = new User("other@example.com", "password", "Other User");
+        entityManager.persist(otherUser);
+        RecordingEmitter stream = subscribe(null);
+
+        create("Other", otherUser);
+
+        assertEquals(1, stream.events.size());
+    }
+
+    @Test
+    void testSubscribe_ResumesAfterTheLastEventId() {
+        Long first = create("First", testUser);
+        Long second = create("Second", testUser);
+        Long third = create("Third", testUser);
+        diaryEntryService.deleteEntry(first, testUser.getId());
+
+        // Read two changes at a time, so the missed changes take two reads
+        RecordingEmitter stream = subscribe("1");
+
+        assertEquals(List.of(changed(2, second), changed(3, third), deleted(4, first)),
+                stream.events.subList(1, 4));
+    }
+
+    @Test
+    void testSubscribe_ExpiredLastEventIdResetsTheStream() {
+        Long first = create("First", testUser);
+        create("Second", testUser);
+        diaryEntryService.deleteEntry(first, testUser.getId());
+        new EntryChangeCompactionService(entryChangeRepository, userStatsRepository,
+                new TransactionTemplate(transactionManager), -1, 500).purgeTombstones();
+        entityManager.clear();
+
+        RecordingEmitter stream = subscribe("2");
+        Long fourth = create("Fourth", testUser);
+
+        assertEquals(List.of("id:3\nevent:reset\ndata:{}\n\n", changed(4, fourth)), stream.events.subList(1, 3));
+    }
+
+    @Test
+    void testSubscribe_RejectsInvalidLastEventIds() {
+        assertThrows(IllegalArgumentException.class, () -> subscribe("f2"));
+        assertThrows(IllegalArgumentException.class, () -> subscribe("yesterday"));
+        assertEquals(0, streamService.countStreams());
+    }
+
+    @Test
+    void testSendHeartbeats_DropsStreamsThatCannotBeWritten() {
+        RecordingEmitter open = subscribe(null);
+        RecordingEmitter closed = subscribe(null);
+        closed.failing = true;
+
+        streamService.sendHeartbeats();
+
+        assertEquals(":heartbeat\n\n", open.events.get(1));
+        assertEquals(1, streamService.countStreams());
+    }
+
+    private RecordingEmitter subscribe(String lastEventId) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        streamService.subscribe(testUser.getId(), lastEventId, emitter);
+        return emitter;
+    }
+
+    private Long create(String title, User user) {
+        return diaryEntryService.createEntry(
+                new CreateDiaryEntryRequest(title, "Walked by the river.", TODAY), user.getId()).getId();
+    }
+
+    private static String changed(long seq, Long entryId) {
+        return "id:" + seq + "\nevent:changed\ndata:{entryId=" + entryId + "}\n\n";
+    }
+
+    private static String deleted(long seq, Long entryId) {
+        return "id:" + seq + "\nevent:deleted\ndata:{entryId=" + entryId + "}\n\n";
+    }
+
+    /**
+     * Emitter that records the events sent on it as text, with data objects in string form.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        private final List<String> events = new ArrayList<>();
+        private boolean failing;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (failing) {
+                throw new IOException("Broken pipe");
+            }
+            events.add(builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining()));
+        }
+    }
+}
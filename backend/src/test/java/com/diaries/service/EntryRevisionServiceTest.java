@@ -0,0 +1,196 @@
+package com.diaries.service;
+
+import com.diaries.dto.CreateDiaryEntryRequest;
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.EntryRevisionDto;
+import com.diaries.dto.EntryRevisionSummaryDto;
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.entity.EntryRevision;
+import com.diaries.entity.User;
+import com.diaries.exception.ForbiddenException;
+import com.diaries.exception.ResourceNotFoundException;
+import com.diaries.repository.EntryRevisionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for EntryRevisionService and the revisions recorded by DiaryEntryService.
+ * Uses an in-memory H2 database for testing.
+ */
+@DataJpaTest
+// A snapshot every third revision and at most five revisions per entry
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = {"revisions.snapshot-interval=3", "revisions.max-per-entry=5"})
+@Import(EntryServicesTestConfig.class)
+class EntryRevisionServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final String TEXT = "Walked by the river before breakfast. The water was high after the rain. "
+            .repeat(40);
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntryRevisionRepository entryRevisionRepository;
+
+    @Autowired
+    private DiaryEntryService diaryEntryService;
+
+    @Autowired
+    private EntryRevisionService entryRevisionService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("test@example.com", "password", "Test User");
+        entityManager.persist(testUser);
+        entityManager.flush();
+    }
+
+    @Test
+    void testGetRevision_RebuildsEveryEarlierVersion() {
+        DiaryEntryDto entry = create(version(0));
+        for (int i = 1; i <= 4; i++) {
+            update(entry.getId(), version(i));
+        }
+
+        for (int i = 1; i <= 4; i++) {
+            EntryRevisionDto revision = entryRevisionService.getRevision(entry.getId(), i, testUser.getId());
+            assertEquals(version(i - 1), revision.getContent());
+            assertEquals("Entry", revision.getTitle());
+        }
+        assertTrue(entryRevisionRepository.findById(new EntryRevision.Key(entry.getId(), 3))
+                .orElseThrow().isSnapshot());
+    }
+
+    @Test
+    void testUpdate_DeltaIsSmallerThanTheEntry() {
+        DiaryEntryDto entry = create(TEXT);
+
+        update(entry.getId(), TEXT + "A heron stood on the far bank.");
+
+        byte[] delta = entryRevisionRepository.findChain(entry.getId(), 1).get(0).getDelta();
+        assertTrue(delta.length < 20, "delta of " + delta.length + " bytes");
+    }
+
+    @Test
+    void testUpdate_TitleChangeIsARevisionAndNoChangeIsNot() {
+        DiaryEntryDto entry = create(TEXT);
+
+        diaryEntryService.updateEntry(entry.getId(),
+                new UpdateDiaryEntryRequest("Renamed", null, null), testUser.getId());
+        diaryEntryService.updateEntry(entry.getId(),
+                new UpdateDiaryEntryRequest("Renamed", TEXT, TODAY), testUser.getId());
+
+        List<EntryRevisionSummaryDto> revisions = entryRevisionService.getRevisions(entry.getId(), testUser.getId());
+        assertEquals(1, revisions.size());
+        assertEquals("Entry", revisions.get(0).getTitle());
+        assertEquals(TEXT, entryRevisionService.getRevision(entry.getId(), 1, testUser.getId()).getContent());
+    }
+
+    @Test
+    void testUpdate_KeepsTheNewestRevisionsPerEntry() {
+        DiaryEntryDto entry = create(version(0));
+        for (int i = 1; i <= 8; i++) {
+            update(entry.getId(), version(i));
+        }
+
+        List<EntryRevisionSummaryDto> revisions = entryRevisionService.getRevisions(entry.getId(), testUser.getId());
+        assertEquals(List.of(8, 7, 6, 5, 4), revisions.stream().map(EntryRevisionSummaryDto::getRevision).toList());
+        assertEquals(version(3), entryRevisionService.getRevision(entry.getId(), 4, testUser.getId()).getContent());
+    }
+
+    @Test
+    void testDelete_RemovesRevisions() {
+        DiaryEntryDto entry = create(version(0));
+        update(entry.getId(), version(1));
+
+        diaryEntryService.deleteEntry(entry.getId(), testUser.getId());
+
+        assertNull(entryRevisionRepository.findLatestRevision(entry.getId()));
+    }
+
+    @Test
+    void testGetRevision_OtherUsersEntryOrMissingRevision() {
+        DiaryEntryDto entry = create(version(0));
+        update(entry.getId(), version(1));
+        User other = new User("other@example.com", "password", "Other User");
+        entityManager.persist(other);
+
+        assertThrows(ForbiddenException.class,
+                () -> entryRevisionService.getRevisions(entry.getId(), other.getId()));
+        assertThrows(ForbiddenException.class,
+                () -> entryRevisionService.getRevision(entry.getId(), 1, other.getId()));
+        assertThrows(ResourceNotFoundException.class,
+                () -> entryRevisionService.getRevision(entry.getId(), 2, testUser.getId()));
+    }
+
+    @Test
+    void testCompactRevisions_KeepsNewestOfEachOldDay() {
+        DiaryEntryDto entry = create(version(0));
+        for (int i = 1; i <= 5; i++) {
+            update(entry.getId(), version(i));
+        }
+        // Revisions 1-2 saved ten days ago, 3-4 nine days ago, 5 today
+        LocalDateTime now = LocalDateTime.now();
+        setSavedAt(entry.getId(), 1, 2, now.minusDays(10));
+        setSavedAt(entry.getId(), 3, 4, now.minusDays(9));
+        List<String> before = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            before.add(entryRevisionService.getRevision(entry.getId(), i, testUser.getId()).getContent());
+        }
+
+        int removed = entryRevisionService.compactRevisions(entry.getId(), now.minusDays(7));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(2, removed);
+        List<EntryRevisionSummaryDto> revisions = entryRevisionService.getRevisions(entry.getId(), testUser.getId());
+        assertEquals(List.of(5, 4, 2), revisions.stream().map(EntryRevisionSummaryDto::getRevision).toList());
+        for (int i : new int[] {2, 4, 5}) {
+            assertEquals(before.get(i - 1),
+                    entryRevisionService.getRevision(entry.getId(), i, testUser.getId()).getContent());
+        }
+        assertEquals(List.of(), entryRevisionRepository.findEntryIdsToCompact(now.minusDays(7),
+                PageRequest.of(0, 10)));
+    }
+
+    private static String version(int i) {
+        return TEXT.substring(0, 100 * i) + "Version " + i + ". " + TEXT.substring(100 * i);
+    }
+
+    private DiaryEntryDto create(String content) {
+        return diaryEntryService.createEntry(new CreateDiaryEntryRequest("Entry", content, TODAY), testUser.getId());
+    }
+
+    private void update(Long entryId, String content) {
+        diaryEntryService.updateEntry(entryId, new UpdateDiaryEntryRequest(null, content, null), testUser.getId());
+    }
+
+    private void setSavedAt(Long entryId, int from, int to, LocalDateTime savedAt) {
+        entityManager.flush();
+        entityManager.getEntityManager().createQuery("UPDATE EntryRevision r SET r.savedAt = :savedAt "
+                        + "WHERE r.entryId = :entryId AND r.revision BETWEEN :from AND :to")
+                .setParameter("savedAt", savedAt)
+                .setParameter("entryId", entryId)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .executeUpdate();
+        entityManager.clear();
+    }
+}
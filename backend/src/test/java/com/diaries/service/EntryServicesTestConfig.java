@@ -0,0 +1,22 @@
+package com.diaries.service;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * The services that write diary entries, wired as in the application, for {@code @DataJpaTest}
+ * classes to import. Their settings come from the test's properties. Recorded changes are
+ * published to the test's application context, where nothing listens unless the test adds a
+ * listener.
+ */
+@TestConfiguration
+@Import({
+        ContentCompressionPolicy.class,
+        DraftBuffer.class,
+        UserStatsService.class,
+        EntryRevisionService.class,
+        EntryChangeService.class,
+        DiaryEntryService.class
+})
+public class EntryServicesTestConfig {
+}
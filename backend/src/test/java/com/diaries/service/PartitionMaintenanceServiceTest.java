@@ -0,0 +1,48 @@
+package com.diaries.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PartitionMaintenanceService.
+ */
+@ExtendWith(MockitoExtension.class)
+class PartitionMaintenanceServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private PartitionMaintenanceService partitionMaintenanceService;
+
+    @BeforeEach
+    void setUp() {
+        partitionMaintenanceService = new PartitionMaintenanceService(jdbcTemplate, 3);
+    }
+
+    @Test
+    void testCreateUpcomingPartitions_PassesYearsAhead() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(3))).thenReturn(2);
+
+        assertEquals(2, partitionMaintenanceService.createUpcomingPartitions());
+        verify(jdbcTemplate).queryForObject(contains("create_diary_entry_partitions"), eq(Integer.class), eq(3));
+    }
+
+    @Test
+    void testCreateUpcomingPartitions_FailureIsRetriedLater() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), eq(3)))
+                .thenThrow(new CannotAcquireLockException("lock timeout"));
+
+        assertEquals(0, partitionMaintenanceService.createUpcomingPartitions());
+    }
+}
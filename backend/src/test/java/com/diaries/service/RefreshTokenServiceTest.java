@@ -0,0 +1,125 @@
+package com.diaries.service;
+
+import com.diaries.entity.RefreshToken;
+import com.diaries.entity.User;
+import com.diaries.exception.UnauthorizedException;
+import com.diaries.repository.RefreshTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for RefreshTokenService.
+ */
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, 60_000L);
+        testUser = new User("test@example.com", "hashedPassword123", "Test User");
+        testUser.setId(1L);
+    }
+
+    @Test
+    void testIssue_StoresHashNotRawToken() {
+        String rawToken = refreshTokenService.issue(testUser);
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        RefreshToken saved = captor.getValue();
+
+        assertNotNull(rawToken);
+        assertNotEquals(rawToken, saved.getTokenHash());
+        assertEquals(RefreshTokenService.hash(rawToken), saved.getTokenHash());
+        assertEquals(testUser, saved.getUser());
+        assertNotNull(saved.getFamilyId());
+        assertTrue(saved.getExpiresAt().isAfter(LocalDateTime.now()));
+    }
+
+    @Test
+    void testRotate_RevokesOldAndIssuesInSameFamily() {
+        RefreshToken current = new RefreshToken(testUser, RefreshTokenService.hash("old-token"), "family-1",
+                LocalDateTime.now().plusMinutes(5));
+        when(refreshTokenRepository.findByTokenHashForUpdate(RefreshTokenService.hash("old-token")))
+                .thenReturn(Optional.of(current));
+
+        RefreshTokenService.IssuedToken issued = refreshTokenService.rotate("old-token");
+
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+
+        assertTrue(current.isRevoked());
+        assertEquals(testUser, issued.user());
+        assertNotEquals("old-token", issued.rawToken());
+        assertEquals("family-1", captor.getValue().getFamilyId());
+    }
+
+    @Test
+    void testRotate_ReuseRevokesWholeFamily() {
+        RefreshToken rotated = new RefreshToken(testUser, RefreshTokenService.hash("stolen-token"), "family-1",
+                LocalDateTime.now().plusMinutes(5));
+        rotated.setRevokedAt(LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.of(rotated));
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("stolen-token"));
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any(LocalDateTime.class));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRotate_ExpiredTokenRejected() {
+        RefreshToken expired = new RefreshToken(testUser, RefreshTokenService.hash("expired-token"), "family-1",
+                LocalDateTime.now().minusMinutes(1));
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.of(expired));
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("expired-token"));
+
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    void testRotate_UnknownTokenRejected() {
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.empty());
+
+        assertThrows(UnauthorizedException.class, () -> refreshTokenService.rotate("unknown-token"));
+    }
+
+    @Test
+    void testRevoke_RevokesFamily() {
+        RefreshToken current = new RefreshToken(testUser, RefreshTokenService.hash("token"), "family-1",
+                LocalDateTime.now().plusMinutes(5));
+        when(refreshTokenRepository.findByTokenHashForUpdate(anyString())).thenReturn(Optional.of(current));
+
+        refreshTokenService.revoke("token");
+
+        verify(refreshTokenRepository).revokeFamily(eq("family-1"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void testHash_IsDeterministicSha256Hex() {
+        assertEquals(RefreshTokenService.hash("abc"), RefreshTokenService.hash("abc"));
+        assertEquals(64, RefreshTokenService.hash("abc").length());
+        assertNotEquals(RefreshTokenService.hash("abc"), RefreshTokenService.hash("abd"));
+    }
+}
@@ -0,0 +1,192 @@
+package com.diaries.service;
+
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.service.SearchResultCache.SearchKey;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SearchResultCache.
+ */
+class SearchResultCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private MeterRegistry meterRegistry;
+    private long nanoTime;
+    private SearchResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new SearchResultCache(meterRegistry, true, 3, 1, 60, () -> nanoTime);
+    }
+
+    @Test
+    void testGet_ReturnsPageCachedAtTheUsersGeneration() {
+        SearchKey key = key(1L, "river");
+        Page<DiaryEntryDto> page = page("River walk");
+
+        assertNull(cache.get(key));
+        cache.put(key, cache.generation(1L), page);
+
+        assertSame(page, cache.get(key));
+        assertEquals(1, requests("hit"));
+        assertEquals(1, requests("miss"));
+        assertEquals(1, meterRegistry.get("diaries.search.cache.entries").gauge().value());
+    }
+
+    @Test
+    void testInvalidate_MakesEveryPageOfTheUserStale() {
+        SearchKey river = key(1L, "river");
+        SearchKey lake = key(1L, "lake");
+        SearchKey otherUser = key(2L, "river");
+        cache.put(river, cache.generation(1L), page("River walk"));
+        cache.put(lake, cache.generation(1L), page("Lake swim"));
+        cache.put(otherUser, cache.generation(2L), page("River walk"));
+
+        cache.invalidate(1L);
+
+        assertNull(cache.get(river));
+        assertNull(cache.get(lake));
+        assertNotNull(cache.get(otherUser));
+        assertEquals(2, requests("stale"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testPut_SkipsPageSearchedBeforeAWrite() {
+        SearchKey key = key(1L, "river");
+        long generation = cache.generation(1L);
+
+        // The write commits while the search runs
+        cache.invalidate(1L);
+        cache.put(key, generation, page("River walk"));
+
+        assertNull(cache.get(key));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedPastMaxEntries() {
+        for (String keyword : List.of("river", "lake", "sea")) {
+            cache.put(key(1L, keyword), cache.generation(1L), page(keyword));
+        }
+        cache.get(key(1L, "river"));
+
+        cache.put(key(1L, "hill"), cache.generation(1L), page("hill"));
+
+        assertNull(cache.get(key(1L, "lake")));
+        assertNotNull(cache.get(key(1L, "river")));
+        assertEquals(3, cache.size());
+        assertEquals(1, meterRegistry.get("diaries.search.cache.evictions").counter().count());
+    }
+
+    @Test
+    void testPut_EvictsToStayWithinMaxSize() {
+        // Each page holds 400,000 characters, about 800 KB, of a 1 MB cache
+        String content = "w".repeat(400_000);
+        cache.put(key(1L, "first"), cache.generation(1L), page(content));
+        cache.put(key(1L, "second"), cache.generation(1L), page(content));
+
+        assertNull(cache.get(key(1L, "first")));
+        assertNotNull(cache.get(key(1L, "second")));
+        assertTrue(cache.estimatedBytes() <= 1024 * 1024);
+
+        cache.put(key(1L, "third"), cache.generation(1L), page("w".repeat(600_000)));
+        assertNull(cache.get(key(1L, "third")), "A page larger than the cache is not cached");
+    }
+
+    @Test
+    void testInvalidate_ResetsGenerationsPastMaxEntries() {
+        SearchKey key = key(9L, "river");
+        cache.put(key, cache.generation(9L), page("River walk"));
+
+        for (long userId = 1; userId <= 4; userId++) {
+            cache.invalidate(userId);
+        }
+
+        assertNull(cache.get(key), "Pages of users without a kept generation are stale after a reset");
+    }
+
+    @Test
+    void testGet_ExpiresPagesPastTheTtl() {
+        SearchKey key = key(1L, "river");
+        cache.put(key, cache.generation(1L), page("River walk"));
+
+        nanoTime += TimeUnit.SECONDS.toNanos(60);
+        assertNotNull(cache.get(key));
+
+        nanoTime += 1;
+        assertNull(cache.get(key));
+        assertEquals(1, requests("expired"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testOnEntryChangesMissed_MakesEveryPageStale() {
+        SearchKey first = key(1L, "river");
+        SearchKey second = key(2L, "river");
+        cache.put(first, cache.generation(1L), page("River walk"));
+        cache.invalidate(2L);
+        cache.put(second, cache.generation(2L), page("River walk"));
+
+        cache.onEntryChangesMissed(new EntryChangesMissedEvent());
+
+        assertNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertEquals(2, requests("stale"));
+    }
+
+    @Test
+    void testGet_DisabledCacheKeepsNothing() {
+        SearchResultCache disabled = new SearchResultCache(meterRegistry, false, 3, 1, 60, () -> nanoTime);
+        SearchKey key = key(1L, "river");
+
+        disabled.put(key, disabled.generation(1L), page("River walk"));
+
+        assertNull(disabled.get(key));
+    }
+
+    @Test
+    void testSearchKey_LeavesOutFiltersTheSearchIgnores() {
+        PageRequest pageable = PageRequest.of(0, 10);
+
+        assertEquals(SearchKey.of(1L, "river", null, null, null, pageable),
+                SearchKey.of(1L, "  river ", TODAY.minusDays(3), null, null, pageable));
+        assertEquals(SearchKey.of(1L, null, null, null, TODAY, pageable),
+                SearchKey.of(1L, "river", TODAY.minusDays(3), TODAY, TODAY, pageable));
+        assertEquals(SearchKey.of(1L, null, null, null, null, pageable),
+                SearchKey.of(1L, "  ", null, null, null, pageable));
+        assertNotEquals(SearchKey.of(1L, "river", null, null, null, pageable),
+                SearchKey.of(1L, "River", null, null, null, pageable));
+        assertNotEquals(SearchKey.of(1L, "river", null, null, null, pageable),
+                SearchKey.of(1L, "river", null, null, null, PageRequest.of(1, 10)));
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("diaries.search.cache.requests").tag("result", result).counter().count();
+    }
+
+    private static SearchKey key(Long userId, String keyword) {
+        return SearchKey.of(userId, keyword, null, null, null, PageRequest.of(0, 10));
+    }
+
+    private static Page<DiaryEntryDto> page(String content) {
+        DiaryEntryDto entry = new DiaryEntryDto(1L, "Title", content, TODAY, 1L, LocalDateTime.now(),
+                LocalDateTime.now());
+        return new PageImpl<>(List.of(entry), PageRequest.of(0, 10), 1);
+    }
+}
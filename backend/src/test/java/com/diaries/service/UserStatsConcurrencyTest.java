@@ -0,0 +1,96 @@
+package com.diaries.service;
+
+import com.diaries.dto.CreateDiaryEntryRequest;
+import com.diaries.entity.EntryDayRollup;
+import com.diaries.entity.User;
+import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.EntryChangeRepository;
+import com.diaries.repository.EntryDayRollupRepository;
+import com.diaries.repository.UserRepository;
+import com.diaries.repository.UserStatsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the statistics of a new user's first, concurrent entry writes.
+ * Uses an in-memory H2 database for testing.
+ */
+@SpringBootTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+class UserStatsConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private DiaryEntryService diaryEntryService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DiaryEntryRepository diaryEntryRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private EntryDayRollupRepository entryDayRollupRepository;
+
+    @Autowired
+    private EntryChangeRepository entryChangeRepository;
+
+    @AfterEach
+    void tearDown() {
+        entryChangeRepository.deleteAll();
+        entryDayRollupRepository.deleteAll();
+        userStatsRepository.deleteAll();
+        diaryEntryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testCreateEntry_ConcurrentFirstWritesCreateOneStatisticsRow() throws Exception {
+        User user = userRepository.save(new User("first@example.com", "hashedPassword", "First Writer"));
+        LocalDate today = LocalDate.now();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                CreateDiaryEntryRequest request = new CreateDiaryEntryRequest("Entry " + i, "two words", today);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return diaryEntryService.createEntry(request, user.getId());
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS, userStatsRepository.findById(user.getId()).orElseThrow().getEntryCount());
+        assertEquals(THREADS, userStatsRepository.findById(user.getId()).orElseThrow().getChangeSeq());
+        List<EntryDayRollup> days = entryDayRollupRepository.findAllDaysWithEntries(user.getId());
+        assertEquals(1, days.size());
+        assertEquals(THREADS, days.get(0).getEntryCount());
+        assertEquals(THREADS * 2, days.get(0).getWordCount());
+    }
+}
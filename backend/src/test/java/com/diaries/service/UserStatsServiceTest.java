@@ -0,0 +1,186 @@
+package com.diaries.service;
+
+import com.diaries.dto.CreateDiaryEntryRequest;
+import com.diaries.dto.DiaryEntryDto;
+import com.diaries.dto.UpdateDiaryEntryRequest;
+import com.diaries.dto.UserStatsDto;
+import com.diaries.entity.EntryDayRollup;
+import com.diaries.entity.User;
+import com.diaries.repository.EntryDayRollupRepository;
+import com.diaries.repository.UserStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for UserStatsService and the statistics maintained by DiaryEntryService.
+ * Uses an in-memory H2 database for testing.
+ */
+@DataJpaTest
+@TestPropertySource(locations = "classpath:application-test.properties")
+@Import(EntryServicesTestConfig.class)
+class UserStatsServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntryDayRollupRepository entryDayRollupRepository;
+
+    @Autowired
+    private UserStatsRepository userStatsRepository;
+
+    @Autowired
+    private DiaryEntryService diaryEntryService;
+
+    @Autowired
+    private UserStatsService userStatsService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("test@example.com", "password", "Test User");
+        entityManager.persist(testUser);
+        entityManager.flush();
+    }
+
+    @Test
+    void testCreate_ConsecutiveDaysExtendTheStreak() {
+        create("Walked by the river", TODAY.minusDays(2));
+        create("Rain", TODAY.minusDays(1));
+        create("Rain all day", TODAY.minusDays(1));
+        create("Sun", TODAY);
+
+        UserStatsDto stats = stats();
+        assertEquals(4, stats.getTotalEntries());
+        assertEquals(9, stats.getTotalWords());
+        assertEquals(2.3, stats.getAverageWordsPerEntry());
+        assertEquals(3, stats.getCurrentStreak());
+        assertEquals(3, stats.getLongestStreak());
+        assertEquals(TODAY, stats.getLastEntryDate());
+    }
+
+    @Test
+    void testCreate_GapStartsANewStreak() {
+        create("One", TODAY.minusDays(10));
+        create("Two", TODAY.minusDays(9));
+        create("Three", TODAY.minusDays(1));
+
+        UserStatsDto stats = stats();
+        assertEquals(1, stats.getCurrentStreak());
+        assertEquals(2, stats.getLongestStreak());
+    }
+
+    @Test
+    void testCreate_BackdatedEntryJoinsStreaks() {
+        create("One", TODAY.minusDays(4));
+        create("Two", TODAY.minusDays(2));
+        create("Three", TODAY.minusDays(1));
+        create("Four", TODAY.minusDays(3));
+
+        UserStatsDto stats = stats();
+        assertEquals(4, stats.getCurrentStreak());
+        assertEquals(4, stats.getLongestStreak());
+    }
+
+    @Test
+    void testCurrentStreak_EndsAfterAMissedDay() {
+        create("One", TODAY.minusDays(3));
+        create("Two", TODAY.minusDays(2));
+
+        UserStatsDto stats = stats();
+        assertEquals(0, stats.getCurrentStreak());
+        assertEquals(2, stats.getLongestStreak());
+    }
+
+    @Test
+    void testDelete_EmptiedDayBreaksTheStreak() {
+        create("One", TODAY.minusDays(2));
+        DiaryEntryDto middle = create("Two words", TODAY.minusDays(1));
+        create("Three", TODAY);
+
+        diaryEntryService.deleteEntry(middle.getId(), testUser.getId());
+
+        UserStatsDto stats = stats();
+        assertEquals(2, stats.getTotalEntries());
+        assertEquals(2, stats.getTotalWords());
+        assertEquals(1, stats.getCurrentStreak());
+        assertEquals(1, stats.getLongestStreak());
+    }
+
+    @Test
+    void testDelete_DayWithOtherEntriesKeepsTheStreak() {
+        create("One", TODAY.minusDays(1));
+        DiaryEntryDto second = create("Two", TODAY);
+        create("Three", TODAY);
+
+        diaryEntryService.deleteEntry(second.getId(), testUser.getId());
+
+        assertEquals(2, stats().getCurrentStreak());
+    }
+
+    @Test
+    void testUpdate_DateMoveRecomputesStreaks() {
+        DiaryEntryDto moved = create("One", TODAY.minusDays(5));
+        create("Two", TODAY.minusDays(1));
+
+        diaryEntryService.updateEntry(moved.getId(),
+                new UpdateDiaryEntryRequest(null, "One more", TODAY), testUser.getId());
+
+        UserStatsDto stats = stats();
+        assertEquals(3, stats.getTotalWords());
+        assertEquals(2, stats.getCurrentStreak());
+        assertEquals(2, stats.getLongestStreak());
+    }
+
+    @Test
+    void testGetStats_WithoutRowIsComputedFromRollup() {
+        entryDayRollupRepository.save(new EntryDayRollup(testUser.getId(), TODAY.minusDays(1), 2, 10));
+        entryDayRollupRepository.save(new EntryDayRollup(testUser.getId(), TODAY, 1, 5));
+
+        UserStatsDto stats = stats();
+        assertEquals(3, stats.getTotalEntries());
+        assertEquals(15, stats.getTotalWords());
+        assertEquals(2, stats.getCurrentStreak());
+        assertFalse(userStatsRepository.existsById(testUser.getId()));
+    }
+
+    @Test
+    void testRecompute_RepairsRollupAndStatsFromEntries() {
+        create("Walked by the river", TODAY.minusDays(1));
+        create("Rain", TODAY);
+        entityManager.flush();
+        entryDayRollupRepository.deleteByUserId(testUser.getId());
+        entryDayRollupRepository.insertDay(testUser.getId(), TODAY.minusDays(7), 3, 99);
+
+        UserStatsDto stats = userStatsService.recompute(testUser.getId());
+
+        assertEquals(2, stats.getTotalEntries());
+        assertEquals(5, stats.getTotalWords());
+        assertEquals(2, stats.getCurrentStreak());
+        entityManager.clear();
+        assertEquals(2, entryDayRollupRepository.findAllDaysWithEntries(testUser.getId()).size());
+    }
+
+    private DiaryEntryDto create(String content, LocalDate entryDate) {
+        return diaryEntryService.createEntry(
+                new CreateDiaryEntryRequest("Entry", content, entryDate), testUser.getId());
+    }
+
+    private UserStatsDto stats() {
+        entityManager.flush();
+        entityManager.clear();
+        return userStatsService.getStats(testUser.getId());
+    }
+}
@@ -0,0 +1,23 @@
+package com.diaries.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for WordCounter.
+ */
+class WordCounterTest {
+
+    @Test
+    void testCount_SplitsOnAnyWhitespace() {
+        assertEquals(4, WordCounter.count("  Walked by\tthe\n\nriver "));
+    }
+
+    @Test
+    void testCount_EmptyAndBlankHaveNoWords() {
+        assertEquals(0, WordCounter.count(null));
+        assertEquals(0, WordCounter.count(""));
+        assertEquals(0, WordCounter.count(" \n\t "));
+    }
+}
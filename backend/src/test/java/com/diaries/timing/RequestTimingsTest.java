@@ -0,0 +1,51 @@
+package com.diaries.timing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestTimings.
+ */
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.end();
+    }
+
+    @Test
+    void testCurrent_NullOutsideTimedRequest() {
+        assertNull(RequestTimings.current());
+    }
+
+    @Test
+    void testToHeaderValue_FormatsMillisecondsAndStatementCount() {
+        RequestTimings timings = RequestTimings.begin();
+        timings.addAuth(840_000);
+        timings.statementStarted(1_000_000);
+        timings.statementFinished(3_000_000);
+        timings.statementStarted(5_000_000);
+        timings.statementFinished(6_205_000);
+        timings.addSerialization(42_000);
+
+        String header = timings.toHeaderValue(System.nanoTime());
+
+        assertTrue(header.startsWith("auth;dur=0.84, db;dur=3.21;desc=\"2 statements\", ser;dur=0.04, total;dur="),
+                header);
+    }
+
+    @Test
+    void testBegin_ResetsPreviousRequest() {
+        RequestTimings first = RequestTimings.begin();
+        first.addAuth(5_000_000);
+        RequestTimings.end();
+
+        RequestTimings second = RequestTimings.begin();
+
+        assertSame(first, second);
+        assertTrue(second.toHeaderValue(System.nanoTime())
+                .startsWith("auth;dur=0.00, db;dur=0.00;desc=\"0 statements\", ser;dur=0.00"));
+    }
+}
@@ -0,0 +1,127 @@
+package com.diaries.timing;
+
+import com.diaries.entity.DiaryEntry;
+import com.diaries.entity.User;
+import com.diaries.repository.DiaryEntryRepository;
+import com.diaries.repository.UserRepository;
+import com.diaries.security.JwtTokenProvider;
+import com.diaries.service.EntryChangeStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for Server-Timing response headers.
+ * Uses an in-memory H2 database for testing.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = {"server-timing.enabled=true", "server-timing.sample-rate=1.0"})
+class ServerTimingFilterTest {
+
+    private static final String DURATION = "\\d+\\.\\d{2}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DiaryEntryRepository diaryEntryRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private EntryChangeStreamService entryChangeStreamService;
+
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("timing@example.com", "hashedPassword", "Timing User"));
+        diaryEntryRepository.save(new DiaryEntry("Title", "Content", LocalDate.now(), user));
+        bearer = "Bearer " + jwtTokenProvider.generateToken(user.getId());
+    }
+
+    @AfterEach
+    void tearDown() {
+        diaryEntryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void testListEntries_HasServerTimingHeader() throws Exception {
+        // JWT filter user lookup, user by email, page query (the count query is skipped for a short page)
+        mockMvc.perform(get("/api/diary-entries").header("Authorization", bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Title"))
+                .andExpect(header().string(ServerTimingFilter.HEADER, matchesPattern(
+                        "auth;dur=" + DURATION + ", db;dur=" + DURATION + ";desc=\"3 statements\", "
+                                + "ser;dur=" + DURATION + ", total;dur=" + DURATION)));
+    }
+
+    @Test
+    void testUnauthenticatedRequest_HasServerTimingHeader() throws Exception {
+        mockMvc.perform(get("/api/diary-entries"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(ServerTimingFilter.HEADER, matchesPattern(
+                        "auth;dur=" + DURATION + ", db;dur=0\\.00;desc=\"0 statements\", .*")));
+    }
+
+    @Test
+    void testAsyncSearch_WritesBodyAndTimingsOnTheLastDispatch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/diary-entries/search").param("keyword", "Content")
+                        .header("Authorization", bearer))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertFalse(result.getResponse().containsHeader(ServerTimingFilter.HEADER));
+
+        // JWT filter user lookup, then the search's user by email and page query on the task thread
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].title").value("Title"))
+                .andExpect(header().string(ServerTimingFilter.HEADER, matchesPattern(
+                        "auth;dur=" + DURATION + ", db;dur=" + DURATION + ";desc=\"3 statements\", "
+                                + "ser;dur=(?!0\\.00)" + DURATION + ", total;dur=" + DURATION)));
+    }
+
+    @Test
+    void testStream_SendsEventsWithoutBuffering() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/diary-entries/stream").header("Authorization", bearer)
+                        .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Heartbeats are sent off the calling thread, and skip streams busy sending changes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().contains(":heartbeat") && System.nanoTime() < deadline) {
+            entryChangeStreamService.sendHeartbeats();
+            Thread.sleep(50);
+        }
+        assertTrue(result.getResponse().getContentAsString().contains(":heartbeat"),
+                "Events sent after the first dispatch reach the client");
+    }
+}